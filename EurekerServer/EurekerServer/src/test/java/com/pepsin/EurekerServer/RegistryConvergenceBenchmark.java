@@ -0,0 +1,105 @@
+package com.pepsin.EurekerServer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 200 simulated instances against the real server with the settings from application.yaml,
+ * measuring how long it takes until the registry reflects scale-out, a crash and a graceful shutdown,
+ * and what the registry costs in CPU and bytes per fetch.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=RegistryConvergenceBenchmark -Dbenchmark.convergence=true
+ * </pre>
+ * Waiting for the crashed leases to run out takes about 40 s. Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.convergence", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class RegistryConvergenceBenchmark {
+
+	private static final int INSTANCES = 200;
+	private static final int RENEWAL_SECONDS = 5;
+	private static final int LEASE_SECONDS = 10;
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void registryConvergesWithinSeconds() throws Exception {
+		try (SimulatedFleet fleet = new SimulatedFleet("http://localhost:" + port + "/eureka",
+				INSTANCES, RENEWAL_SECONDS, LEASE_SECONDS)) {
+			long cpuStart = processCpuNanos();
+			long wallStart = System.nanoTime();
+
+			// 1. Scale-out: everyone registers
+			fleet.registerAll();
+			fleet.startHeartbeats();
+			Duration scaleOut = waitUntil(() -> fleet.fetchFull().instances().size() == INSTANCES, Duration.ofSeconds(10));
+
+			// 2. Crash: 20 instances stop renewing and the eviction timer has to find them
+			List<SimulatedFleet.Instance> crashed = fleet.instances().subList(0, 20);
+			crashed.forEach(fleet::crash);
+			Duration crash = waitUntil(() -> noneRegistered(fleet, crashed), Duration.ofSeconds(40));
+
+			// Registry size on the wire once the registrations have aged out of the delta queue and only the evictions remain
+			waitUntil(() -> fleet.fetchDelta().instances().size() <= crashed.size(), Duration.ofSeconds(40));
+			SimulatedFleet.Fetch full = fleet.fetchFull();
+			SimulatedFleet.Fetch delta = fleet.fetchDelta();
+
+			// 3. Graceful deploy: 20 instances deregister on shutdown
+			List<SimulatedFleet.Instance> leaving = fleet.instances().subList(20, 40);
+			for (SimulatedFleet.Instance instance : leaving) {
+				fleet.cancel(instance);
+			}
+			Duration graceful = waitUntil(() -> noneRegistered(fleet, leaving), Duration.ofSeconds(10));
+
+			double cpuPercent = 100.0 * (processCpuNanos() - cpuStart) / (System.nanoTime() - wallStart);
+			System.out.printf("%d instances, renew every %d s, lease %d s%n", INSTANCES, RENEWAL_SECONDS, LEASE_SECONDS);
+			System.out.printf("scale-out visible after   %6d ms%n", scaleOut.toMillis());
+			System.out.printf("crash evicted after       %6d ms%n", crash.toMillis());
+			System.out.printf("graceful leave visible    %6d ms%n", graceful.toMillis());
+			System.out.printf("full fetch %d bytes (%d instances), delta fetch %d bytes (%d changes)%n",
+					full.wireBytes(), full.instances().size(), delta.wireBytes(), delta.instances().size());
+			System.out.printf("process CPU (server + simulated clients) %.1f%% of one core%n", cpuPercent);
+
+			assertTrue(scaleOut.toSeconds() < 2);
+			// A lease runs out 2 x lease after the last heartbeat (Eureka counts the duration twice), plus one eviction sweep
+			assertTrue(crash.toSeconds() < 2 * LEASE_SECONDS + 5);
+			assertTrue(graceful.toSeconds() < 1);
+			assertTrue(delta.wireBytes() < full.wireBytes() / 4);
+		}
+	}
+
+	private static boolean noneRegistered(SimulatedFleet fleet, List<SimulatedFleet.Instance> instances) {
+		Map<String, String> registered = fleet.fetchFull().instances();
+		return instances.stream().noneMatch(instance -> registered.containsKey(instance.instanceId()));
+	}
+
+	private static Duration waitUntil(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+		long started = System.nanoTime();
+		long deadline = started + timeout.toNanos();
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Registry did not converge within " + timeout);
+			}
+			Thread.sleep(50);
+		}
+		return Duration.ofNanos(System.nanoTime() - started);
+	}
+
+	private static long processCpuNanos() {
+		return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+	}
+}
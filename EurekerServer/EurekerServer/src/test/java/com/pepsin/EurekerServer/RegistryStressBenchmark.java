@@ -0,0 +1,132 @@
+package com.pepsin.EurekerServer;
+
+import com.netflix.eureka.registry.AbstractInstanceRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How much one Eureka node can take before we need peer replication.
+ * N fake PATIENT-SERVICE / DOCTOR-SERVICE instances register, heartbeat and fetch the registry against
+ * a local server, and the benchmark prints registration throughput, renewal latency, the cost of one
+ * eviction sweep and the size of full and delta registry downloads.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=RegistryStressBenchmark -Dbenchmark.instances=1000 -Dbenchmark.seconds=60
+ * </pre>
+ * Run it a few times with a growing instance count; capacity is reached when renewal p99 or
+ * the eviction sweep starts climbing faster than the instance count. Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.instances", matches = "\\d+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class RegistryStressBenchmark {
+
+	private static final int RENEWAL_SECONDS = 5;
+	private static final int LEASE_SECONDS = 10;
+	private static final int FETCHES = 50;
+	private static final int EVICTION_SWEEPS = 1_000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private AbstractInstanceRegistry registry;
+
+	@Test
+	void stressRegistry() throws Exception {
+		int instances = Integer.getInteger("benchmark.instances");
+		int seconds = Integer.getInteger("benchmark.seconds", 60);
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		try (SimulatedFleet fleet = new SimulatedFleet("http://localhost:" + port + "/eureka",
+				instances, RENEWAL_SECONDS, LEASE_SECONDS)) {
+			System.gc();
+			long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+			// Registration burst: every instance starts at once, as after a full redeploy
+			long started = System.nanoTime();
+			List<Long> registrations = fleet.registerAll();
+			double registerSeconds = (System.nanoTime() - started) / 1e9;
+
+			// While the registrations are still in the delta queue, a delta is as big as the whole registry
+			SimulatedFleet.Fetch burstDelta = fleet.fetchDelta();
+
+			// Steady state: everyone heartbeats for 'seconds', long enough for the delta queue to drain
+			fleet.startHeartbeats();
+			long cpuStart = processCpuNanos();
+			long steadyStart = System.nanoTime();
+			TimeUnit.SECONDS.sleep(seconds);
+			double cpuPercent = 100.0 * (processCpuNanos() - cpuStart) / (System.nanoTime() - steadyStart);
+			List<Long> renewals = fleet.renewalLatencies();
+
+			List<Long> fullFetches = new ArrayList<>();
+			List<Long> deltaFetches = new ArrayList<>();
+			SimulatedFleet.Fetch full = null;
+			SimulatedFleet.Fetch delta = null;
+			for (int i = 0; i < FETCHES; i++) {
+				long fetchStarted = System.nanoTime();
+				full = fleet.fetchFull();
+				fullFetches.add(System.nanoTime() - fetchStarted);
+				fetchStarted = System.nanoTime();
+				delta = fleet.fetchDelta();
+				deltaFetches.add(System.nanoTime() - fetchStarted);
+			}
+
+			// The eviction timer walks every lease on each run; time that walk directly. Nothing has expired,
+			// so this is the pure bookkeeping cost paid every eviction-interval-timer-in-ms.
+			for (int i = 0; i < EVICTION_SWEEPS / 10; i++) {
+				registry.evict();
+			}
+			long sweepStarted = System.nanoTime();
+			for (int i = 0; i < EVICTION_SWEEPS; i++) {
+				registry.evict();
+			}
+			double sweepMicros = (System.nanoTime() - sweepStarted) / 1e3 / EVICTION_SWEEPS;
+
+			System.gc();
+			long heapPerInstance = Math.max(0, memory.getHeapMemoryUsage().getUsed() - heapBefore) / instances;
+
+			System.out.printf("%n%d instances (renew every %d s, lease %d s), %d s steady state%n",
+					instances, RENEWAL_SECONDS, LEASE_SECONDS, seconds);
+			System.out.printf("registration   %8.0f /s     p50 %7.2f ms  p99 %7.2f ms%n",
+					instances / registerSeconds, millis(registrations, 0.50), millis(registrations, 0.99));
+			System.out.printf("renewal        %8.0f /s     p50 %7.2f ms  p99 %7.2f ms  failures %d%n",
+					renewals.size() / (double) seconds, millis(renewals, 0.50), millis(renewals, 0.99),
+					fleet.renewalFailures());
+			System.out.printf("eviction sweep %8.1f us%n", sweepMicros);
+			System.out.printf("full fetch     %8d bytes  p50 %7.2f ms  (%d instances)%n",
+					full.wireBytes(), millis(fullFetches, 0.50), full.instances().size());
+			System.out.printf("delta fetch    %8d bytes  p50 %7.2f ms  (%d changes, steady state)%n",
+					delta.wireBytes(), millis(deltaFetches, 0.50), delta.instances().size());
+			System.out.printf("delta fetch    %8d bytes                 (%d changes, right after registration)%n",
+					burstDelta.wireBytes(), burstDelta.instances().size());
+			System.out.printf("heap           %8d bytes per instance%n", heapPerInstance);
+			System.out.printf("process CPU    %8.1f %% of one core while heartbeating (server + simulated clients)%n",
+					cpuPercent);
+		}
+	}
+
+	private static double millis(List<Long> nanos, double percentile) {
+		if (nanos.isEmpty()) {
+			return 0;
+		}
+		List<Long> sorted = new ArrayList<>(nanos);
+		Collections.sort(sorted);
+		return sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * percentile))) / 1e6;
+	}
+
+	private static long processCpuNanos() {
+		return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+	}
+}
@@ -0,0 +1,230 @@
+package com.pepsin.EurekerServer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A fleet of fake PATIENT-SERVICE / DOCTOR-SERVICE instances that talk to a Eureka server over its REST API,
+ * making the same calls a real Eureka client makes: register, renew (heartbeat), cancel and fetch the registry.
+ * Each instance is just a few strings, so hundreds of them fit in one test.
+ */
+class SimulatedFleet implements AutoCloseable {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final String[] APPS = {"PATIENT-SERVICE", "DOCTOR-SERVICE"};
+
+	private final String eurekaUrl;
+	private final int renewalSeconds;
+	private final int leaseSeconds;
+	private final List<Instance> instances = new ArrayList<>();
+	private final Set<String> silenced = ConcurrentHashMap.newKeySet();
+	private final Queue<Long> renewalLatencies = new ConcurrentLinkedQueue<>();
+	private final AtomicLong renewalFailures = new AtomicLong();
+	private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+	private final ScheduledExecutorService heartbeats = Executors.newScheduledThreadPool(4);
+
+	record Instance(String app, String instanceId, int port) {
+	}
+
+	/**
+	 * What one registry download looked like on the wire.
+	 * @param wireBytes Bytes received (gzipped when the server compresses).
+	 * @param instances Instance id -> status (full fetch) or action type (delta fetch).
+	 */
+	record Fetch(int wireBytes, Map<String, String> instances) {
+	}
+
+	SimulatedFleet(String eurekaUrl, int size, int renewalSeconds, int leaseSeconds) {
+		this.eurekaUrl = eurekaUrl;
+		this.renewalSeconds = renewalSeconds;
+		this.leaseSeconds = leaseSeconds;
+		for (int i = 0; i < size; i++) {
+			String app = APPS[i % APPS.length];
+			instances.add(new Instance(app, app.toLowerCase() + "-" + i, 20_000 + i));
+		}
+	}
+
+	List<Instance> instances() {
+		return instances;
+	}
+
+	/**
+	 * Registers every instance, many at a time, and returns each registration's latency in nanoseconds.
+	 */
+	List<Long> registerAll() throws Exception {
+		List<Future<Long>> results = new ArrayList<>();
+		for (Instance instance : instances) {
+			results.add(workers.submit(() -> register(instance)));
+		}
+		List<Long> latencies = new ArrayList<>();
+		for (Future<Long> result : results) {
+			latencies.add(result.get());
+		}
+		return latencies;
+	}
+
+	long register(Instance instance) throws IOException, InterruptedException {
+		String body = String.format("""
+				{"instance": {
+				  "instanceId": "%1$s", "hostName": "10.0.0.%3$d", "app": "%2$s", "ipAddr": "10.0.0.%3$d",
+				  "status": "UP", "port": {"$": %4$d, "@enabled": "true"}, "securePort": {"$": 443, "@enabled": "false"},
+				  "vipAddress": "%5$s", "secureVipAddress": "%5$s",
+				  "dataCenterInfo": {"@class": "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo", "name": "MyOwn"},
+				  "leaseInfo": {"renewalIntervalInSecs": %6$d, "durationInSecs": %7$d}
+				}}""", instance.instanceId(), instance.app(), instance.port() % 250, instance.port(),
+				instance.app().toLowerCase(), renewalSeconds, leaseSeconds);
+		long started = System.nanoTime();
+		HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(eurekaUrl + "/apps/" + instance.app()))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.discarding());
+		expect(response, 204);
+		return System.nanoTime() - started;
+	}
+
+	/**
+	 * Sends one heartbeat and returns its latency in nanoseconds.
+	 */
+	long renew(Instance instance) throws IOException, InterruptedException {
+		long started = System.nanoTime();
+		HttpResponse<Void> response = http.send(HttpRequest.newBuilder(
+						URI.create(eurekaUrl + "/apps/" + instance.app() + "/" + instance.instanceId()))
+				.PUT(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+		expect(response, 200);
+		return System.nanoTime() - started;
+	}
+
+	/**
+	 * A graceful shutdown: the instance tells Eureka it is leaving.
+	 */
+	void cancel(Instance instance) throws IOException, InterruptedException {
+		silenced.add(instance.instanceId());
+		HttpResponse<Void> response = http.send(HttpRequest.newBuilder(
+						URI.create(eurekaUrl + "/apps/" + instance.app() + "/" + instance.instanceId()))
+				.DELETE().build(), HttpResponse.BodyHandlers.discarding());
+		expect(response, 200);
+	}
+
+	/**
+	 * A crash: the instance just stops sending heartbeats, and Eureka has to notice by itself.
+	 */
+	void crash(Instance instance) {
+		silenced.add(instance.instanceId());
+	}
+
+	/**
+	 * Every instance that hasn't crashed or left renews its lease every renewalSeconds, spread out over the interval.
+	 */
+	void startHeartbeats() {
+		long spreadMillis = TimeUnit.SECONDS.toMillis(renewalSeconds);
+		for (int i = 0; i < instances.size(); i++) {
+			Instance instance = instances.get(i);
+			heartbeats.scheduleAtFixedRate(() -> {
+				if (!silenced.contains(instance.instanceId())) {
+					workers.submit(() -> {
+						try {
+							renewalLatencies.add(renew(instance));
+						} catch (Exception e) {
+							renewalFailures.incrementAndGet();
+						}
+					});
+				}
+			}, spreadMillis * i / instances.size(), spreadMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Latencies (nanoseconds) of every heartbeat sent so far.
+	 */
+	List<Long> renewalLatencies() {
+		return new ArrayList<>(renewalLatencies);
+	}
+
+	long renewalFailures() {
+		return renewalFailures.get();
+	}
+
+	Fetch fetchFull() {
+		return fetch("/apps/");
+	}
+
+	Fetch fetchDelta() {
+		return fetch("/apps/delta");
+	}
+
+	private Fetch fetch(String path) {
+		try {
+			HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create(eurekaUrl + path))
+					.header("Accept", "application/json")
+					.header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+			byte[] wire = response.body();
+			InputStream body = new ByteArrayInputStream(wire);
+			if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+				body = new GZIPInputStream(body);
+			}
+			Map<String, String> found = new HashMap<>();
+			for (JsonNode application : asList(MAPPER.readTree(body).path("applications").path("application"))) {
+				for (JsonNode instance : asList(application.path("instance"))) {
+					String state = instance.hasNonNull("actionType")
+							? instance.path("actionType").asText() : instance.path("status").asText();
+					found.put(instance.path("instanceId").asText(), state);
+				}
+			}
+			return new Fetch(wire.length, found);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Eureka's JSON writes a single element as an object instead of a one-element array
+	private static List<JsonNode> asList(JsonNode node) {
+		List<JsonNode> list = new ArrayList<>();
+		if (node.isArray()) {
+			node.forEach(list::add);
+		} else if (node.isObject()) {
+			list.add(node);
+		}
+		return list;
+	}
+
+	private static void expect(HttpResponse<?> response, int status) {
+		if (response.statusCode() != status) {
+			throw new IllegalStateException(response.request().method() + " " + response.uri()
+					+ " returned " + response.statusCode());
+		}
+	}
+
+	@Override
+	public void close() {
+		heartbeats.shutdownNow();
+		workers.shutdownNow();
+	}
+}
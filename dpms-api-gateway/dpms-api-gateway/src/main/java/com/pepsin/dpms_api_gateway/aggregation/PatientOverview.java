@@ -0,0 +1,17 @@
+package com.pepsin.dpms_api_gateway.aggregation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The "patient with their doctors" screen in one response.
+ *
+ * @param patient The patient's summary form from the Patient Service, or null if that leg failed.
+ * @param doctors The doctors the patient has appointments with, or null if that leg failed.
+ * @param partial True if any leg failed or timed out.
+ * @param failures Why each failed leg failed, keyed by leg name ("patient", "doctors").
+ */
+public record PatientOverview(JsonNode patient, List<JsonNode> doctors, boolean partial, Map<String, String> failures) {
+}
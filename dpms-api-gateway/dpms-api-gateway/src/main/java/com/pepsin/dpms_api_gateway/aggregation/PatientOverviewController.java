@@ -0,0 +1,29 @@
+package com.pepsin.dpms_api_gateway.aggregation;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Answered by the gateway itself rather than routed: it combines the Patient and Doctor services.
+ */
+@RestController
+@RequestMapping("/api/patient-overview")
+public class PatientOverviewController {
+    private final PatientOverviewService patientOverviewService;
+
+    public PatientOverviewController(PatientOverviewService patientOverviewService) {
+        this.patientOverviewService = patientOverviewService;
+    }
+
+    // e.g. /api/patient-overview/{patientId} -> the patient plus every doctor they have appointments with
+    @GetMapping("/{patientId}")
+    public Mono<ResponseEntity<PatientOverview>> getPatientOverview(@PathVariable UUID patientId) {
+        return patientOverviewService.getOverview(patientId).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,156 @@
+package com.pepsin.dpms_api_gateway.aggregation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the "patient with their doctors" screen in a single request.
+ *
+ * Instead of the browser calling the Patient Service and then the Doctor Service one after the other,
+ * the gateway starts both legs at the same time, so the screen takes as long as the slower leg
+ * rather than the sum of them:
+ * - patient leg: GET /api/patients/{id} on PATIENT-SERVICE
+ * - doctors leg: GET /api/appointments?patientId={id} on DOCTOR-SERVICE, then ONE batched
+ *   GET /api/doctors?ids=... for every doctor the patient has appointments with
+ *
+ * Each leg has its own timeout. A leg that fails or times out doesn't fail the whole screen:
+ * its part of the answer is null, it is named in 'failures', and 'partial' is true.
+ * Only a patient that doesn't exist turns into a 404.
+ */
+@Service
+public class PatientOverviewService {
+
+    static final String PATIENT_LEG = "patient";
+    static final String DOCTORS_LEG = "doctors";
+
+    private final WebClient webClient;
+    private final String patientServiceUrl;
+    private final String doctorServiceUrl;
+    private final Duration patientTimeout;
+    private final Duration doctorsTimeout;
+
+    @Autowired
+    public PatientOverviewService(WebClient.Builder webClientBuilder,
+                                  LoadBalancedExchangeFilterFunction loadBalancer,
+                                  @Value("${aggregation.patient-service-url:http://PATIENT-SERVICE}") String patientServiceUrl,
+                                  @Value("${aggregation.doctor-service-url:http://DOCTOR-SERVICE}") String doctorServiceUrl,
+                                  @Value("${aggregation.patient-timeout:800ms}") Duration patientTimeout,
+                                  @Value("${aggregation.doctors-timeout:1500ms}") Duration doctorsTimeout) {
+        // 'lb' filter: service names like PATIENT-SERVICE are looked up in Eureka, same as the 'lb://' routes
+        this(webClientBuilder.clone().filter(loadBalancer).build(),
+                patientServiceUrl, doctorServiceUrl, patientTimeout, doctorsTimeout);
+    }
+
+    PatientOverviewService(WebClient webClient, String patientServiceUrl, String doctorServiceUrl,
+                           Duration patientTimeout, Duration doctorsTimeout) {
+        this.webClient = webClient;
+        this.patientServiceUrl = patientServiceUrl;
+        this.doctorServiceUrl = doctorServiceUrl;
+        this.patientTimeout = patientTimeout;
+        this.doctorsTimeout = doctorsTimeout;
+    }
+
+    /**
+     * Fetches the patient and their doctors in parallel and merges them.
+     * @throws ResponseStatusException (404) if the Patient Service says the patient doesn't exist.
+     */
+    public Mono<PatientOverview> getOverview(UUID patientId) {
+        Mono<Leg<JsonNode>> patientLeg = fetchPatient(patientId)
+                .timeout(patientTimeout)
+                .map(Leg::ok)
+                .onErrorResume(error -> Mono.just(Leg.failed(error)));
+        Mono<Leg<List<JsonNode>>> doctorsLeg = fetchDoctors(patientId)
+                .timeout(doctorsTimeout)
+                .map(Leg::ok)
+                .onErrorResume(error -> Mono.just(Leg.failed(error)));
+
+        // zip subscribes to both legs straight away, so the HTTP calls overlap
+        return Mono.zip(patientLeg, doctorsLeg).map(legs -> {
+            Leg<JsonNode> patient = legs.getT1();
+            Leg<List<JsonNode>> doctors = legs.getT2();
+            if (patient.error() instanceof WebClientResponseException.NotFound) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found with id: " + patientId);
+            }
+            Map<String, String> failures = new LinkedHashMap<>();
+            if (patient.error() != null) {
+                failures.put(PATIENT_LEG, describe(patient.error()));
+            }
+            if (doctors.error() != null) {
+                failures.put(DOCTORS_LEG, describe(doctors.error()));
+            }
+            return new PatientOverview(patient.value(), doctors.value(), !failures.isEmpty(), failures);
+        });
+    }
+
+    private Mono<JsonNode> fetchPatient(UUID patientId) {
+        return webClient.get()
+                .uri(patientServiceUrl + "/api/patients/{id}", patientId)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    /**
+     * Collects the distinct doctor IDs from the patient's appointments,
+     * then resolves all of them with one batched call instead of one call per doctor.
+     */
+    private Mono<List<JsonNode>> fetchDoctors(UUID patientId) {
+        return webClient.get()
+                .uri(doctorServiceUrl + "/api/appointments?patientId={id}", patientId)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(JsonNode.class)
+                .map(appointment -> appointment.path("doctorId").asText())
+                .filter(doctorId -> !doctorId.isEmpty())
+                .distinct()
+                .collectList()
+                .flatMap(doctorIds -> doctorIds.isEmpty()
+                        ? Mono.just(List.<JsonNode>of())
+                        : webClient.get()
+                                .uri(doctorServiceUrl + "/api/doctors?ids={ids}", String.join(",", doctorIds))
+                                .accept(MediaType.APPLICATION_JSON)
+                                .retrieve()
+                                .bodyToFlux(JsonNode.class)
+                                .collectList());
+    }
+
+    private static String describe(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientResponseException response) {
+            return "status " + response.getStatusCode().value();
+        }
+        return "unavailable";
+    }
+
+    /**
+     * The outcome of one leg: either a value or the error that stopped it.
+     */
+    private record Leg<T>(T value, Throwable error) {
+
+        static <T> Leg<T> ok(T value) {
+            return new Leg<>(value, null);
+        }
+
+        static <T> Leg<T> failed(Throwable error) {
+            return new Leg<>(null, error);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.pepsin.dpms_api_gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips a route's responses on the way out to the client.
+ * Only compresses when the client accepts gzip (a "gzip;q=0" in Accept-Encoding counts as a no),
+ * the response isn't already encoded, its content type is one of the configured mime types,
+ * and it is at least minResponseSize bytes.
+ * Small responses are sent as they are, because gzip would cost more CPU than it saves on the wire.
+ *
+ * The body is compressed piece by piece as it streams through, on the bounded-elastic scheduler,
+ * so a large response neither sits in memory whole nor keeps a Netty event-loop thread busy.
+ * Every response of a compressible type carries "Vary: Accept-Encoding", compressed or not,
+ * so a shared cache never hands a gzipped copy to a client that can't read it.
+ *
+ * Used in application.yml as:
+ * <pre>
+ * filters:
+ *   - name: CompressResponse
+ *     args:
+ *       min-response-size: 2048
+ *       level: 5
+ *       mime-types: application/json
+ * </pre>
+ */
+@Component
+public class CompressResponseGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CompressResponseGatewayFilterFactory.Config> {
+
+    public CompressResponseGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        GatewayFilter filter = (exchange, chain) -> {
+            boolean acceptsGzip = acceptsGzip(exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING));
+            ServerHttpResponse response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    HttpHeaders headers = getHeaders();
+                    if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || !config.accepts(headers.getContentType())) {
+                        return super.writeWith(body);
+                    }
+                    // Whether this response gets compressed depends on Accept-Encoding, even when it doesn't
+                    if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    }
+                    long declaredLength = headers.getContentLength();
+                    if (!acceptsGzip || (declaredLength >= 0 && declaredLength < config.getMinResponseSize())) {
+                        return super.writeWith(body);
+                    }
+                    return super.writeWith(compress(Flux.from(body), headers, bufferFactory(), config));
+                }
+            };
+            return chain.filter(exchange.mutate().response(response).build());
+        };
+        // Must run before the filter that writes the proxied response back to the client
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    /**
+     * Gzips a streamed body once at least minResponseSize bytes have come through.
+     * The first pieces are held back only until that point; a body that ends before it is passed on unchanged.
+     * The headers are updated before the first compressed piece goes out, while they can still change.
+     */
+    static Flux<DataBuffer> compress(Flux<DataBuffer> body, HttpHeaders headers,
+                                     DataBufferFactory bufferFactory, Config config) {
+        long[] seen = {0};
+        // One list with the first minResponseSize bytes, then each further piece on its own.
+        // A first list that is smaller means the body ended before reaching the threshold.
+        Flux<List<DataBuffer>> pieces = body.bufferUntil(buffer -> {
+            seen[0] += buffer.readableByteCount();
+            return seen[0] >= config.getMinResponseSize();
+        });
+        return pieces.switchOnFirst((first, all) -> {
+            if (!first.hasValue() || size(first.get()) < config.getMinResponseSize()) {
+                return all.flatMapIterable(list -> list);
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            GzipStream gzip = new GzipStream(config.getLevel());
+            return all.publishOn(Schedulers.boundedElastic())
+                    .map(gzip::write)
+                    .concatWith(Mono.fromCallable(gzip::finish))
+                    .filter(bytes -> bytes.length > 0)
+                    .map(bufferFactory::wrap)
+                    .doFinally(signal -> gzip.close());
+        }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private static int size(List<DataBuffer> buffers) {
+        return buffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+    }
+
+    /**
+     * Reads Accept-Encoding the way RFC 9110 describes: an explicit gzip entry wins,
+     * otherwise "*" decides, and a q-value of 0 means "not acceptable".
+     */
+    static boolean acceptsGzip(List<String> acceptEncoding) {
+        Double gzip = null;
+        Double any = null;
+        for (String header : acceptEncoding) {
+            for (String entry : header.split(",")) {
+                String[] parts = entry.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                double quality = 1;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(parameter.substring(2).trim());
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = quality;
+                } else if (coding.equals("*")) {
+                    any = quality;
+                }
+            }
+        }
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+
+    /**
+     * A gzip stream fed one piece of the body at a time; each call returns whatever compressed bytes are ready.
+     * Not thread-safe, but publishOn hands the pieces over one after the other.
+     */
+    private static final class GzipStream implements AutoCloseable {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        private final GZIPOutputStream gzip;
+
+        GzipStream(int level) {
+            try {
+                gzip = new GZIPOutputStream(out, 8192) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] write(List<DataBuffer> buffers) {
+            try {
+                for (DataBuffer buffer : buffers) {
+                    byte[] plain = new byte[buffer.readableByteCount()];
+                    buffer.read(plain);
+                    DataBufferUtils.release(buffer);
+                    gzip.write(plain);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        byte[] write(byte[] plain) {
+            try {
+                gzip.write(plain);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        byte[] finish() {
+            try {
+                gzip.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        private byte[] drain() {
+            byte[] ready = out.toByteArray();
+            out.reset();
+            return ready;
+        }
+
+        // Frees the native deflater, also when the client goes away halfway through
+        @Override
+        public void close() {
+            try {
+                gzip.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static class Config {
+
+        // Responses smaller than this many bytes are sent uncompressed
+        private int minResponseSize = 2048;
+
+        // Deflater level: 1 is fastest, 9 is smallest
+        private int level = Deflater.DEFAULT_COMPRESSION;
+
+        private List<MediaType> mimeTypes = new ArrayList<>(List.of(MediaType.APPLICATION_JSON));
+
+        boolean accepts(MediaType contentType) {
+            return contentType != null && mimeTypes.stream().anyMatch(type -> type.includes(contentType));
+        }
+
+        public int getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(int minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public List<MediaType> getMimeTypes() {
+            return mimeTypes;
+        }
+
+        public void setMimeTypes(List<MediaType> mimeTypes) {
+            this.mimeTypes = mimeTypes;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.pepsin.dpms_api_gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live numbers for one service instance, updated by every request the gateway sends to it.
+ *
+ * latency is a "peak EWMA": a slower-than-average response raises it straight away,
+ * faster ones pull it down gradually, and while the instance gets no traffic it decays towards 0
+ * (halving roughly every 0.7 x decay window), so an instance that was slow gets tried again later.
+ *
+ * Everything is lock-free: counters are atomics/LongAdders, and the (latency, timestamp) pair is an
+ * immutable snapshot swapped in with compare-and-set, so picking an instance never waits on a lock.
+ */
+public final class InstanceStats {
+
+    // About 30 years in nanoseconds: more than any measured instance costs, yet small enough that x queued
+    // still tells two unmeasured instances apart (Double.MAX_VALUE / 2 + queued rounds back to the same value)
+    private static final double UNMEASURED_BUSY_COST = 1e18;
+
+    private final double decayWindowNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicReference<Snapshot> latency = new AtomicReference<>(Snapshot.EMPTY);
+
+    InstanceStats(long decayWindowNanos) {
+        this.decayWindowNanos = decayWindowNanos;
+    }
+
+    void requestStarted() {
+        outstanding.incrementAndGet();
+        requests.increment();
+    }
+
+    /**
+     * Records a finished request. A failed request counts as at least failurePenaltyNanos,
+     * so an instance that fails fast doesn't look like the quickest one.
+     */
+    void requestFinished(long latencyNanos, boolean failed, long failurePenaltyNanos, long nowNanos) {
+        outstanding.decrementAndGet();
+        if (failed) {
+            failures.increment();
+        }
+        double sample = failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos;
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = latency.get();
+            double updated;
+            if (current.isEmpty() || sample > current.nanos()) {
+                updated = sample;
+            } else {
+                double weight = Math.exp(-(nowNanos - current.stampNanos()) / decayWindowNanos);
+                updated = current.nanos() * weight + sample * (1 - weight);
+            }
+            next = new Snapshot(updated, nowNanos);
+        } while (!latency.compareAndSet(current, next));
+    }
+
+    /**
+     * How expensive it would be to send one more request here: expected latency x (requests already queued + 1).
+     * An instance with no measurements yet is free while idle and very expensive while its first request
+     * is in flight, so a new or restarted instance gets probed one request at a time.
+     * Between two such busy instances, the one with fewer requests queued is still the cheaper one.
+     */
+    double cost(long nowNanos) {
+        int queued = outstanding.get();
+        Snapshot current = latency.get();
+        if (current.isEmpty()) {
+            return queued == 0 ? 0 : UNMEASURED_BUSY_COST * queued;
+        }
+        return decayedLatencyNanos(current, nowNanos) * (queued + 1);
+    }
+
+    public double getLatencyMillis() {
+        Snapshot current = latency.get();
+        return current.isEmpty() ? 0 : decayedLatencyNanos(current, System.nanoTime()) / 1_000_000;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private double decayedLatencyNanos(Snapshot snapshot, long nowNanos) {
+        long idle = Math.max(0, nowNanos - snapshot.stampNanos());
+        return snapshot.nanos() * Math.exp(-idle / decayWindowNanos);
+    }
+
+    private record Snapshot(double nanos, long stampNanos) {
+
+        static final Snapshot EMPTY = new Snapshot(-1, 0);
+
+        boolean isEmpty() {
+            return nanos < 0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.pepsin.dpms_api_gateway.loadbalancer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an InstanceStats for every instance the gateway has sent traffic to, shared by all services.
+ * Each instance's numbers are also published as metrics (see /actuator/metrics):
+ * - gateway.loadbalancer.instance.latency      peak-EWMA latency in ms
+ * - gateway.loadbalancer.instance.outstanding  requests currently in flight
+ * - gateway.loadbalancer.instance.requests     requests sent so far
+ * - gateway.loadbalancer.instance.failures     requests that failed
+ * all tagged with service and instance (host:port).
+ *
+ * When an instance drops out of its service's instance list (scaled down, or gone from Eureka),
+ * its stats and its four meters are removed, so churn doesn't pile up entries.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private record Tracked(String serviceId, InstanceStats stats, List<Meter> meters) {
+    }
+
+    private final ConcurrentHashMap<String, Tracked> stats = new ConcurrentHashMap<>();
+    // The instances (by key) each service was last checked against
+    private final ConcurrentHashMap<String, Set<String>> lastSeen = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long decayWindowNanos;
+    private final long failurePenaltyNanos;
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry,
+                                 @Value("${gateway.loadbalancer.decay-window:10s}") Duration decayWindow,
+                                 @Value("${gateway.loadbalancer.failure-penalty:1s}") Duration failurePenalty) {
+        this.meterRegistry = meterRegistry;
+        this.decayWindowNanos = decayWindow.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    public InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> register(instance)).stats();
+    }
+
+    public void requestStarted(ServiceInstance instance) {
+        statsFor(instance).requestStarted();
+    }
+
+    /**
+     * Records a finished request. A request that was still in flight when its instance was forgotten is dropped,
+     * rather than bringing the instance back.
+     */
+    public void requestFinished(ServiceInstance instance, long latencyNanos, boolean failed) {
+        Tracked tracked = stats.get(key(instance));
+        if (tracked != null) {
+            tracked.stats().requestFinished(latencyNanos, failed, failurePenaltyNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * Forgets the instances of a service that are not in its current instance list, with their meters.
+     * The load balancer calls this with every list it picks from. The supplier hands out a fresh list each time
+     * (the load-balancer cache is off), so the instances are compared by key: only a list that really differs
+     * from the last one costs a scan of the stats.
+     */
+    public void retainOnly(String serviceId, List<ServiceInstance> current) {
+        Set<String> live = new HashSet<>();
+        current.forEach(instance -> live.add(key(instance)));
+        if (live.equals(lastSeen.put(serviceId, live))) {
+            return;
+        }
+        stats.forEach((key, tracked) -> {
+            if (tracked.serviceId().equalsIgnoreCase(serviceId) && !live.contains(key) && stats.remove(key, tracked)) {
+                tracked.meters().forEach(meterRegistry::remove);
+            }
+        });
+    }
+
+    int size() {
+        return stats.size();
+    }
+
+    private Tracked register(ServiceInstance instance) {
+        InstanceStats instanceStats = new InstanceStats(decayWindowNanos);
+        Tags tags = Tags.of("service", String.valueOf(instance.getServiceId()),
+                "instance", instance.getHost() + ":" + instance.getPort());
+        List<Meter> meters = List.of(
+                Gauge.builder("gateway.loadbalancer.instance.latency", instanceStats, InstanceStats::getLatencyMillis)
+                        .tags(tags).baseUnit("milliseconds").description("Peak-EWMA response time")
+                        .register(meterRegistry),
+                Gauge.builder("gateway.loadbalancer.instance.outstanding", instanceStats, InstanceStats::getOutstanding)
+                        .tags(tags).description("Requests in flight")
+                        .register(meterRegistry),
+                FunctionCounter.builder("gateway.loadbalancer.instance.requests", instanceStats, InstanceStats::getRequests)
+                        .tags(tags).register(meterRegistry),
+                FunctionCounter.builder("gateway.loadbalancer.instance.failures", instanceStats, InstanceStats::getFailures)
+                        .tags(tags).register(meterRegistry));
+        return new Tracked(String.valueOf(instance.getServiceId()), instanceStats, meters);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+}
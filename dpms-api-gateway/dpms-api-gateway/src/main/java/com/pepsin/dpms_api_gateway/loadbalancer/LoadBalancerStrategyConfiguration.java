@@ -0,0 +1,13 @@
+package com.pepsin.dpms_api_gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes every load-balanced service (PATIENT-SERVICE, DOCTOR-SERVICE, ...) use the strategy
+ * picked in ResponseTimeLoadBalancerConfiguration instead of plain round-robin.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = ResponseTimeLoadBalancerConfiguration.class)
+public class LoadBalancerStrategyConfiguration {
+}
@@ -0,0 +1,32 @@
+package com.pepsin.dpms_api_gateway.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load-balancer settings for each 'lb://' service, applied through LoadBalancerStrategyConfiguration.
+ *
+ * Deliberately NOT annotated with @Configuration: Spring Cloud creates one small context per service
+ * from this class, and it must not be picked up by component scanning as well.
+ *
+ * gateway.loadbalancer.strategy=response-time (default) uses ResponseTimeWeightedLoadBalancer;
+ * any other value (e.g. round-robin) leaves Spring Cloud's default RoundRobinLoadBalancer in place.
+ */
+public class ResponseTimeLoadBalancerConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.loadbalancer.strategy", havingValue = "response-time", matchIfMissing = true)
+    public ReactorLoadBalancer<ServiceInstance> responseTimeWeightedLoadBalancer(Environment environment,
+                                                                                LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                                InstanceStatsRegistry statsRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new ResponseTimeWeightedLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, statsRegistry);
+    }
+}
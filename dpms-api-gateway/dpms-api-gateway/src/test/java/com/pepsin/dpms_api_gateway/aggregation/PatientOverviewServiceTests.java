@@ -0,0 +1,116 @@
+package com.pepsin.dpms_api_gateway.aggregation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the aggregation against stubbed services (no network) with artificial latency on each call.
+ */
+class PatientOverviewServiceTests {
+
+	private static final UUID PATIENT_ID = UUID.randomUUID();
+	private static final UUID DOCTOR_A = UUID.randomUUID();
+	private static final UUID DOCTOR_B = UUID.randomUUID();
+
+	@Test
+	void runsLegsInParallelAndBatchesDoctorLookups() {
+		List<String> calls = new CopyOnWriteArrayList<>();
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger mostInFlight = new AtomicInteger();
+		ExchangeFunction services = stub(calls, Duration.ofMillis(300), Duration.ofMillis(150), false);
+		PatientOverviewService service = service(request -> {
+			mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			return services.exchange(request).doOnTerminate(inFlight::decrementAndGet);
+		}, Duration.ofSeconds(2), Duration.ofSeconds(2));
+
+		PatientOverview overview = service.getOverview(PATIENT_ID).block();
+
+		assertFalse(overview.partial());
+		assertEquals("Ada", overview.patient().get("firstName").asText());
+		assertEquals(2, overview.doctors().size());
+		// The patient call was still out while the appointments call was made: the legs overlap
+		assertEquals(2, mostInFlight.get());
+		// One patient call, one appointments call and one batched doctors call, never one call per doctor
+		assertEquals(3, calls.size());
+		assertEquals(1, calls.stream().filter(call -> call.startsWith("/api/doctors")).count());
+	}
+
+	@Test
+	void marksSlowLegAsPartialFailure() {
+		PatientOverviewService service = service(stub(new CopyOnWriteArrayList<>(), Duration.ofMillis(10),
+				Duration.ofMillis(500), false), Duration.ofSeconds(1), Duration.ofMillis(200));
+
+		PatientOverview overview = service.getOverview(PATIENT_ID).block();
+
+		assertTrue(overview.partial());
+		assertEquals("Ada", overview.patient().get("firstName").asText());
+		assertNull(overview.doctors());
+		assertEquals("timeout", overview.failures().get(PatientOverviewService.DOCTORS_LEG));
+	}
+
+	@Test
+	void unknownPatientIsNotFound() {
+		PatientOverviewService service = service(stub(new CopyOnWriteArrayList<>(), Duration.ZERO, Duration.ZERO, true),
+				Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+		ResponseStatusException error = assertThrows(ResponseStatusException.class,
+				() -> service.getOverview(PATIENT_ID).block());
+		assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+	}
+
+	private static PatientOverviewService service(ExchangeFunction exchange, Duration patientTimeout,
+												  Duration doctorsTimeout) {
+		WebClient webClient = WebClient.builder().exchangeFunction(exchange).build();
+		return new PatientOverviewService(webClient, "http://PATIENT-SERVICE", "http://DOCTOR-SERVICE",
+				patientTimeout, doctorsTimeout);
+	}
+
+	/**
+	 * Fake Patient and Doctor services: each call answers after its delay.
+	 */
+	private static ExchangeFunction stub(List<String> calls, Duration patientDelay, Duration doctorCallDelay,
+										 boolean patientMissing) {
+		return request -> {
+			String path = request.url().getPath();
+			calls.add(path);
+			if (path.startsWith("/api/patients/")) {
+				if (patientMissing) {
+					return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+				}
+				return json("{\"id\":\"" + PATIENT_ID + "\",\"firstName\":\"Ada\"}", patientDelay);
+			}
+			if (path.equals("/api/appointments")) {
+				return json("[{\"doctorId\":\"" + DOCTOR_A + "\"},{\"doctorId\":\"" + DOCTOR_B + "\"},"
+						+ "{\"doctorId\":\"" + DOCTOR_A + "\"}]", doctorCallDelay);
+			}
+			return json("[{\"id\":\"" + DOCTOR_A + "\"},{\"id\":\"" + DOCTOR_B + "\"}]", doctorCallDelay);
+		};
+	}
+
+	private static Mono<ClientResponse> json(String body, Duration delay) {
+		return Mono.just(ClientResponse.create(HttpStatus.OK)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.body(body)
+						.build())
+				.delayElement(delay);
+	}
+}
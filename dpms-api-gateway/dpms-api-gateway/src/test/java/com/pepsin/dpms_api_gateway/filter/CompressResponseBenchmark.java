@@ -0,0 +1,39 @@
+package com.pepsin.dpms_api_gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static com.pepsin.dpms_api_gateway.filter.CompressResponseGatewayFilterFactoryTests.gzip;
+import static com.pepsin.dpms_api_gateway.filter.CompressResponseGatewayFilterFactoryTests.samplePatientList;
+
+/**
+ * Size and CPU per gzip level for a large patient list sent through the filter's streaming path,
+ * to help pick the level configured on the routes.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=CompressResponseBenchmark -Dbenchmark.gzip=true
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.gzip", matches = "true")
+class CompressResponseBenchmark {
+
+	private static final int PATIENTS = Integer.getInteger("benchmark.patients", 5_000);
+	private static final int ROUNDS = 20;
+
+	@Test
+	void costPerLevel() {
+		byte[] payload = samplePatientList(PATIENTS);
+
+		for (int level : new int[] {1, 5, 9}) {
+			byte[] compressed = gzip(payload, level); // warm-up
+			long start = System.nanoTime();
+			for (int i = 0; i < ROUNDS; i++) {
+				gzip(payload, level);
+			}
+			long micros = (System.nanoTime() - start) / ROUNDS / 1_000;
+			System.out.printf("level %d: %d -> %d bytes (%.1f%%), %d us per response%n",
+					level, payload.length, compressed.length, 100.0 * compressed.length / payload.length, micros);
+		}
+	}
+}
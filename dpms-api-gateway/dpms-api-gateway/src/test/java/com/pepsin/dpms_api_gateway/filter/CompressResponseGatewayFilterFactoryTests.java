@@ -0,0 +1,123 @@
+package com.pepsin.dpms_api_gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the streaming gzip path at each level and Accept-Encoding parsing.
+ * Size and CPU per level are in {@link CompressResponseBenchmark}.
+ */
+class CompressResponseGatewayFilterFactoryTests {
+
+	private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+	@Test
+	void everyLevelRoundTripsAndShrinksAPatientList() throws Exception {
+		byte[] payload = samplePatientList(5_000);
+
+		for (int level : new int[] {1, 5, 9}) {
+			byte[] compressed = gzip(payload, level);
+			try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+				assertArrayEquals(payload, in.readAllBytes());
+			}
+			assertTrue(compressed.length < payload.length / 3);
+		}
+	}
+
+	@Test
+	void streamedBodyIsGzippedOnceItPassesTheMinimumSize() throws Exception {
+		byte[] payload = samplePatientList(500);
+		CompressResponseGatewayFilterFactory.Config config = new CompressResponseGatewayFilterFactory.Config();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentLength(payload.length);
+
+		byte[] compressed = join(CompressResponseGatewayFilterFactory.compress(
+				inPieces(payload, 1000), headers, BUFFERS, config));
+
+		assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(-1, headers.getContentLength());
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			assertArrayEquals(payload, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void bodyThatEndsBelowTheMinimumSizeIsSentAsItIs() {
+		byte[] payload = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+		HttpHeaders headers = new HttpHeaders();
+
+		byte[] sent = join(CompressResponseGatewayFilterFactory.compress(
+				inPieces(payload, 4), headers, BUFFERS, new CompressResponseGatewayFilterFactory.Config()));
+
+		assertArrayEquals(payload, sent);
+		assertFalse(headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	void acceptEncodingQualityValuesAreRespected() {
+		assertTrue(CompressResponseGatewayFilterFactory.acceptsGzip(List.of("gzip, deflate, br")));
+		assertTrue(CompressResponseGatewayFilterFactory.acceptsGzip(List.of("br;q=1.0, gzip;q=0.8")));
+		assertTrue(CompressResponseGatewayFilterFactory.acceptsGzip(List.of("*")));
+		assertFalse(CompressResponseGatewayFilterFactory.acceptsGzip(List.of("gzip;q=0")));
+		assertFalse(CompressResponseGatewayFilterFactory.acceptsGzip(List.of("gzip; q=0.000, *")));
+		assertFalse(CompressResponseGatewayFilterFactory.acceptsGzip(List.of("*;q=0, identity")));
+		assertFalse(CompressResponseGatewayFilterFactory.acceptsGzip(List.of()));
+	}
+
+	// Runs the whole body through the filter's streaming path at the given level
+	static byte[] gzip(byte[] payload, int level) {
+		CompressResponseGatewayFilterFactory.Config config = new CompressResponseGatewayFilterFactory.Config();
+		config.setLevel(level);
+		return join(CompressResponseGatewayFilterFactory.compress(
+				inPieces(payload, 8192), new HttpHeaders(), BUFFERS, config));
+	}
+
+	private static Flux<DataBuffer> inPieces(byte[] payload, int pieceSize) {
+		return Flux.range(0, (payload.length + pieceSize - 1) / pieceSize)
+				.map(i -> BUFFERS.wrap(Arrays.copyOfRange(payload, i * pieceSize, Math.min(payload.length, (i + 1) * pieceSize))));
+	}
+
+	private static byte[] join(Flux<DataBuffer> body) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.doOnNext(buffer -> {
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			out.writeBytes(bytes);
+		}).blockLast();
+		return out.toByteArray();
+	}
+
+	static byte[] samplePatientList(int patients) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < patients; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"id\":\"").append(UUID.randomUUID())
+					.append("\",\"firstName\":\"First").append(i)
+					.append("\",\"lastName\":\"Last").append(i % 500)
+					.append("\",\"dateOfBirth\":\"19").append(50 + i % 50).append("-01-01")
+					.append("\",\"gender\":\"").append(i % 2 == 0 ? "Female" : "Male")
+					.append("\",\"contactNumber\":\"0").append(100000000 + i)
+					.append("\",\"email\":\"patient").append(i).append("@example.com")
+					.append("\",\"address\":\"").append(i % 100).append(" Hospital Road\"}");
+		}
+		return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,141 @@
+package com.pepsin.dpms_api_gateway.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.pepsin.dpms_api_gateway.loadbalancer.ResponseTimeWeightedLoadBalancerTests.supplierProvider;
+
+/**
+ * Three local stub instances of one service, one of them much slower (like a replica stuck in GC).
+ * The same closed-loop load runs through round-robin and through the response-time balancer,
+ * and the throughput and the slow instance's share of the traffic are printed for both.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=ResponseTimeWeightedLoadBalancerBenchmark -Dbenchmark.loadbalancer=true
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.loadbalancer", matches = "true")
+class ResponseTimeWeightedLoadBalancerBenchmark {
+
+	private static final int WORKERS = 16;
+	private static final Duration RUN_TIME = Duration.ofSeconds(2);
+	private static final long[] DELAYS_MS = {5, 5, 60};
+
+	private final List<HttpServer> servers = new ArrayList<>();
+	private final List<ServiceInstance> instances = new ArrayList<>();
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void startStubInstances() throws Exception {
+		for (int i = 0; i < DELAYS_MS.length; i++) {
+			long delay = DELAYS_MS[i];
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+			server.createContext("/", exchange -> {
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				exchange.sendResponseHeaders(200, -1);
+				exchange.close();
+			});
+			server.start();
+			servers.add(server);
+			instances.add(new DefaultServiceInstance("stub-" + i, "STUB-SERVICE", "localhost",
+					server.getAddress().getPort(), false));
+		}
+	}
+
+	@AfterEach
+	void stopStubInstances() {
+		servers.forEach(server -> server.stop(0));
+	}
+
+	@Test
+	void compareRoundRobinAndResponseTime() throws Exception {
+		InstanceStatsRegistry roundRobinStats = new InstanceStatsRegistry(new SimpleMeterRegistry(),
+				Duration.ofSeconds(10), Duration.ofSeconds(1));
+		Result roundRobin = run(new RoundRobinLoadBalancer(supplierProvider(instances), "STUB-SERVICE"), roundRobinStats);
+
+		InstanceStatsRegistry stats = new InstanceStatsRegistry(new SimpleMeterRegistry(),
+				Duration.ofSeconds(10), Duration.ofSeconds(1));
+		Result weighted = run(new ResponseTimeWeightedLoadBalancer(supplierProvider(instances), "STUB-SERVICE", stats), stats);
+
+		System.out.printf("round-robin:   %6.0f req/s, slow instance share %4.1f%%%n",
+				roundRobin.throughput(), 100 * roundRobin.slowShare());
+		System.out.printf("response-time: %6.0f req/s, slow instance share %4.1f%%%n",
+				weighted.throughput(), 100 * weighted.slowShare());
+	}
+
+	/**
+	 * WORKERS clients in a loop: ask the balancer for an instance, call it, report back through the lifecycle
+	 * (the same calls the gateway's load-balancer filter makes).
+	 */
+	private Result run(ReactorServiceInstanceLoadBalancer balancer, InstanceStatsRegistry stats) throws Exception {
+		ResponseTimeLoadBalancerLifecycle lifecycle = new ResponseTimeLoadBalancerLifecycle(stats);
+		Map<Integer, AtomicLong> picks = new ConcurrentHashMap<>();
+		long deadline = System.nanoTime() + RUN_TIME.toNanos();
+
+		ExecutorService pool = Executors.newFixedThreadPool(WORKERS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int w = 0; w < WORKERS; w++) {
+			workers.add(pool.submit(() -> {
+				while (System.nanoTime() < deadline) {
+					Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+					Response<ServiceInstance> response = balancer.choose(request).block();
+					ServiceInstance instance = response.getServer();
+					lifecycle.onStartRequest(request, response);
+					HttpResponse<Void> answer = client.send(HttpRequest.newBuilder(URI.create("http://localhost:"
+							+ instance.getPort() + "/")).build(), HttpResponse.BodyHandlers.discarding());
+					lifecycle.onComplete(new CompletionContext<>(answer.statusCode() == 200
+							? CompletionContext.Status.SUCCESS : CompletionContext.Status.FAILED, request, response));
+					picks.computeIfAbsent(instance.getPort(), port -> new AtomicLong()).incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+		pool.awaitTermination(5, TimeUnit.SECONDS);
+
+		long total = picks.values().stream().mapToLong(AtomicLong::get).sum();
+		long slow = picks.getOrDefault(instances.get(2).getPort(), new AtomicLong()).get();
+		return new Result(total / (double) RUN_TIME.toSeconds(), slow / (double) total);
+	}
+
+	private record Result(double throughput, double slowShare) {
+	}
+}
@@ -0,0 +1,119 @@
+package com.pepsin.dpms_api_gateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Three instances of one service, one of them much slower (like a replica stuck in GC).
+ * The load under real traffic, compared with round-robin, is in {@link ResponseTimeWeightedLoadBalancerBenchmark}.
+ */
+class ResponseTimeWeightedLoadBalancerTests {
+
+	private static final long[] LATENCIES_MS = {5, 5, 60};
+
+	private final List<ServiceInstance> instances = List.of(instance(0), instance(1), instance(2));
+
+	@Test
+	void slowInstanceIsNeverPickedOverAFastOne() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		InstanceStatsRegistry stats = new InstanceStatsRegistry(meterRegistry, Duration.ofSeconds(10), Duration.ofSeconds(1));
+		ResponseTimeWeightedLoadBalancer balancer = new ResponseTimeWeightedLoadBalancer(supplierProvider(instances),
+				"STUB-SERVICE", stats);
+		for (int i = 0; i < instances.size(); i++) {
+			stats.requestStarted(instances.get(i));
+			stats.requestFinished(instances.get(i), Duration.ofMillis(LATENCIES_MS[i]).toNanos(), false);
+		}
+
+		// Two different instances are compared each time, so at least one of them is fast
+		ServiceInstance slow = instances.get(2);
+		for (int i = 0; i < 1_000; i++) {
+			assertNotEquals(slow, balancer.choose(instances).getServer());
+		}
+
+		// Stats are published as metrics and settle back to nothing in flight
+		assertEquals(0, stats.statsFor(slow).getOutstanding());
+		assertTrue(meterRegistry.get("gateway.loadbalancer.instance.latency")
+				.tag("instance", "localhost:" + slow.getPort()).gauge().value() > 30);
+	}
+
+	@Test
+	void instancesThatLeaveTheListAreForgottenWithTheirMeters() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		InstanceStatsRegistry stats = new InstanceStatsRegistry(meterRegistry, Duration.ofSeconds(10), Duration.ofSeconds(1));
+		ResponseTimeWeightedLoadBalancer balancer = new ResponseTimeWeightedLoadBalancer(supplierProvider(instances),
+				"STUB-SERVICE", stats);
+		instances.forEach(stats::statsFor);
+		assertEquals(3, stats.size());
+		assertEquals(12, meterRegistry.getMeters().size());
+
+		balancer.choose(List.of(instances.get(0), instances.get(1)));
+
+		assertEquals(2, stats.size());
+		assertEquals(8, meterRegistry.getMeters().size());
+		assertNull(meterRegistry.find("gateway.loadbalancer.instance.latency")
+				.tag("instance", "localhost:" + instances.get(2).getPort()).gauge());
+		// A request still in flight to the removed instance doesn't bring it back
+		stats.requestFinished(instances.get(2), 1_000_000, false);
+		assertEquals(2, stats.size());
+	}
+
+	@Test
+	void sameInstancesInANewListAreNotForgotten() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		InstanceStatsRegistry stats = new InstanceStatsRegistry(meterRegistry, Duration.ofSeconds(10), Duration.ofSeconds(1));
+		stats.retainOnly("STUB-SERVICE", instances);
+		instances.forEach(stats::statsFor);
+
+		// A fresh list from the registry, with new objects for the same instances
+		stats.retainOnly("STUB-SERVICE", List.of(instance(2), instance(0), instance(1)));
+
+		assertEquals(3, stats.size());
+		assertEquals(12, meterRegistry.getMeters().size());
+	}
+
+	@Test
+	void unmeasuredInstanceWithFewerRequestsQueuedIsCheaper() {
+		InstanceStats busier = new InstanceStats(Duration.ofSeconds(10).toNanos());
+		InstanceStats quieter = new InstanceStats(Duration.ofSeconds(10).toNanos());
+		busier.requestStarted();
+		busier.requestStarted();
+		quieter.requestStarted();
+
+		long now = System.nanoTime();
+		assertTrue(quieter.cost(now) < busier.cost(now));
+	}
+
+	private static ServiceInstance instance(int i) {
+		return new DefaultServiceInstance("stub-" + i, "STUB-SERVICE", "localhost", 8081 + i, false);
+	}
+
+	static ObjectProvider<ServiceInstanceListSupplier> supplierProvider(List<ServiceInstance> instances) {
+		ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+			@Override
+			public String getServiceId() {
+				return "STUB-SERVICE";
+			}
+
+			@Override
+			public Flux<List<ServiceInstance>> get() {
+				return Flux.just(instances);
+			}
+		};
+		return new StaticListableBeanFactory(Map.of("supplier", supplier)).getBeanProvider(ServiceInstanceListSupplier.class);
+	}
+}
@@ -0,0 +1,78 @@
+package com.pepsin.dpms_doctor_service_reactive.DTO;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * This is our "Update Doctor Information Form".
+ * Used when changing existing doctor details. Fields can be optional for updates.
+ */
+
+public class DoctorUpdateDTO {
+
+    @Size(min = 2, max = 50, message = "First name must be between 2 and 50 characters")
+    private String firstName;
+
+    @Size(min = 2, max = 50, message = "Last name must be between 2 and 50 characters")
+    private String lastName;
+
+    private String specialty;
+
+    @Pattern(regexp = "^[0-9]{10,15}$", message = "Contact number must be 10-15 digits")
+    private String contactNumber;
+
+    @Email(message = "Email should be valid")
+    private String email;
+
+    private String officeAddress;
+
+    public @Size(min = 2, max = 50, message = "First name must be between 2 and 50 characters") String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(@Size(min = 2, max = 50, message = "First name must be between 2 and 50 characters") String firstName) {
+        this.firstName = firstName;
+    }
+
+    public @Size(min = 2, max = 50, message = "Last name must be between 2 and 50 characters") String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(@Size(min = 2, max = 50, message = "Last name must be between 2 and 50 characters") String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public void setSpecialty(String specialty) {
+        this.specialty = specialty;
+    }
+
+    public @Pattern(regexp = "^[0-9]{10,15}$", message = "Contact number must be 10-15 digits") String getContactNumber() {
+        return contactNumber;
+    }
+
+    public void setContactNumber(@Pattern(regexp = "^[0-9]{10,15}$", message = "Contact number must be 10-15 digits") String contactNumber) {
+        this.contactNumber = contactNumber;
+    }
+
+    public @Email(message = "Email should be valid") String getEmail() {
+        return email;
+    }
+
+    public void setEmail(@Email(message = "Email should be valid") String email) {
+        this.email = email;
+    }
+
+    public String getOfficeAddress() {
+        return officeAddress;
+    }
+
+    public void setOfficeAddress(String officeAddress) {
+        this.officeAddress = officeAddress;
+    }
+}
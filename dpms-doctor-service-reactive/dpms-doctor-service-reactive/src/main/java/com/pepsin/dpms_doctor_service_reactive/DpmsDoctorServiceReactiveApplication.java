@@ -0,0 +1,15 @@
+package com.pepsin.dpms_doctor_service_reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+
+@SpringBootApplication
+@EnableDiscoveryClient
+public class DpmsDoctorServiceReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(DpmsDoctorServiceReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.pepsin.dpms_doctor_service_reactive.controller;
+
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorRequestDTO;
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorUpdateDTO;
+import com.pepsin.dpms_doctor_service_reactive.service.DoctorService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Same /api/doctors contract as the blocking service's DoctorController.
+ */
+@RestController
+@RequestMapping("api/doctors")
+public class DoctorController {
+    private final DoctorService doctorService;
+
+    public DoctorController(DoctorService doctorService) {
+        this.doctorService = doctorService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<DoctorResponseDTO>> createDoctor(@Valid @RequestBody DoctorRequestDTO doctorRequestDTO) {
+        return doctorService.createDoctor(doctorRequestDTO)
+                .map(createdDoctor -> new ResponseEntity<>(createdDoctor, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<DoctorResponseDTO>> getDoctorById(@PathVariable UUID id) {
+        return doctorService.getDoctorById(id).map(ResponseEntity::ok);
+    }
+
+    // "Accept: application/json" gets one JSON array, written out doctor by doctor;
+    // "Accept: application/x-ndjson" gets one doctor per line, each sent as soon as it is read
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<DoctorResponseDTO> getAllDoctors() {
+        return doctorService.getAllDoctors();
+    }
+
+    // Batch lookup: /api/doctors?ids=id1,id2,...
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<DoctorResponseDTO> getDoctorsByIds(@RequestParam List<UUID> ids) {
+        return doctorService.getDoctorsByIds(ids);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<DoctorResponseDTO>> updateDoctor(@PathVariable UUID id,
+                                                                @Valid @RequestBody DoctorUpdateDTO doctorUpdateDTO) {
+        return doctorService.updateDoctor(id, doctorUpdateDTO).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteDoctor(@PathVariable UUID id) {
+        return doctorService.deleteDoctor(id).thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+}
@@ -0,0 +1,71 @@
+package com.pepsin.dpms_doctor_service_reactive.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This is our "Hospital Problem Solver" for the reactive doctor service.
+ * It answers with the same error bodies as the blocking service, so clients can't tell them apart.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * This method catches our "Couldn't Find It!" problem (ResourceNotFoundException).
+     *
+     * @param ex The ResourceNotFoundException that was thrown.
+     * @return A nice response with an error message and a 404 Not Found status.
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorDetails> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "NOT_FOUND"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * This method catches problems when someone fills out a form incorrectly (validation errors).
+     * WebFlux reports them as WebExchangeBindException instead of MethodArgumentNotValidException.
+     *
+     * @param ex The WebExchangeBindException (thrown when validation fails).
+     * @return A nice response with all the validation errors and a 400 Bad Request status.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error ->
+                errors.put(error.getField(), error.getDefaultMessage()));
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method catches any OTHER problems that we didn't specifically plan for.
+     *
+     * @param ex The general Exception that was thrown.
+     * @return A general error response with a 500 Internal Server Error status.
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorDetails> handleGlobalException(Exception ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "INTERNAL_SERVER_ERROR"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * A simple class to structure our error messages nicely.
+     */
+    public record ErrorDetails(LocalDateTime timestamp, String message, String details) {}
+}
@@ -0,0 +1,148 @@
+package com.pepsin.dpms_doctor_service_reactive.implementation;
+
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorRequestDTO;
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorUpdateDTO;
+import com.pepsin.dpms_doctor_service_reactive.exception.ResourceNotFoundException;
+import com.pepsin.dpms_doctor_service_reactive.model.Doctor;
+import com.pepsin.dpms_doctor_service_reactive.repository.DoctorRepository;
+import com.pepsin.dpms_doctor_service_reactive.service.DoctorService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * This is the reactive "Hospital Manager" for doctors.
+ * It follows the same steps as the blocking DoctorServiceImpl, but describes them as a pipeline
+ * that runs when the database answers, instead of waiting on a thread for each step.
+ */
+@Service
+public class DoctorServiceImpl implements DoctorService {
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final DoctorRepository doctorRepository;
+
+    public DoctorServiceImpl(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    /**
+     * Converts a DoctorRequestDTO (form) into a new Doctor entity (record card).
+     * R2DBC doesn't generate IDs for us, so the new card gets its UUID here.
+     */
+    private Doctor mapToEntity(DoctorRequestDTO dto) {
+        Doctor doctor = new Doctor();
+        doctor.setId(UUID.randomUUID());
+        doctor.setFirstName(dto.getFirstName());
+        doctor.setLastName(dto.getLastName());
+        doctor.setSpecialty(dto.getSpecialty());
+        doctor.setContactNumber(dto.getContactNumber());
+        doctor.setEmail(dto.getEmail());
+        doctor.setOfficeAddress(dto.getOfficeAddress());
+        return doctor;
+    }
+
+    /**
+     * Converts a Doctor entity (record card) into a DoctorResponseDTO (summary form).
+     */
+    private DoctorResponseDTO mapToDTO(Doctor doctor) {
+        DoctorResponseDTO dto = new DoctorResponseDTO();
+        dto.setId(doctor.getId());
+        dto.setFirstName(doctor.getFirstName());
+        dto.setLastName(doctor.getLastName());
+        dto.setSpecialty(doctor.getSpecialty());
+        dto.setContactNumber(doctor.getContactNumber());
+        dto.setEmail(doctor.getEmail());
+        dto.setOfficeAddress(doctor.getOfficeAddress());
+        dto.setVersion(doctor.getVersion());
+        dto.setLastModified(doctor.getLastModified());
+        return dto;
+    }
+
+    /**
+     * Stamps the card right before it is saved (what @PrePersist/@PreUpdate do in the JPA service).
+     */
+    private Doctor touch(Doctor doctor) {
+        doctor.setLastModified(Instant.now().truncatedTo(ChronoUnit.MICROS));
+        return doctor;
+    }
+
+    /**
+     * Creates a new doctor record.
+     * 1. Asks the Librarian whether the email is already taken.
+     * 2. If not, converts the form into a record card and saves it.
+     * 3. Converts the saved card back into a summary form.
+     */
+    @Override
+    public Mono<DoctorResponseDTO> createDoctor(DoctorRequestDTO doctorRequestDTO) {
+        return doctorRepository.existsByEmail(doctorRequestDTO.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.error(new IllegalArgumentException("Doctor with this email already exists."))
+                        : doctorRepository.save(touch(mapToEntity(doctorRequestDTO))))
+                .map(this::mapToDTO);
+    }
+
+    @Override
+    public Mono<DoctorResponseDTO> getDoctorById(UUID id) {
+        return doctorRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Doctor not found with id: " + id)))
+                .map(this::mapToDTO);
+    }
+
+    /**
+     * Streams every doctor straight from the database to the client.
+     * Rows are fetched as the client consumes them (backpressure), so a slow client never makes
+     * the service hold the whole list in memory the way findAll().stream()...toList() does.
+     */
+    @Override
+    public Flux<DoctorResponseDTO> getAllDoctors() {
+        return doctorRepository.findAll().map(this::mapToDTO);
+    }
+
+    @Override
+    public Flux<DoctorResponseDTO> getDoctorsByIds(Collection<UUID> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return Flux.error(new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " doctor ids can be requested at once"));
+        }
+        return doctorRepository.findAllById(new LinkedHashSet<>(ids)).map(this::mapToDTO);
+    }
+
+    /**
+     * Updates an existing doctor's information.
+     * 1. Finds the existing record card by ID (or fails with ResourceNotFoundException).
+     * 2. Copies over only the fields the form filled in.
+     * 3. Saves the card and returns its summary form.
+     */
+    @Override
+    public Mono<DoctorResponseDTO> updateDoctor(UUID id, DoctorUpdateDTO doctorUpdateDTO) {
+        return doctorRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Doctor not found with id: " + id)))
+                .map(existingDoctor -> {
+                    // Update fields only if they are provided in the DTO
+                    Optional.ofNullable(doctorUpdateDTO.getFirstName()).ifPresent(existingDoctor::setFirstName);
+                    Optional.ofNullable(doctorUpdateDTO.getLastName()).ifPresent(existingDoctor::setLastName);
+                    Optional.ofNullable(doctorUpdateDTO.getSpecialty()).ifPresent(existingDoctor::setSpecialty);
+                    Optional.ofNullable(doctorUpdateDTO.getContactNumber()).ifPresent(existingDoctor::setContactNumber);
+                    Optional.ofNullable(doctorUpdateDTO.getEmail()).ifPresent(existingDoctor::setEmail);
+                    Optional.ofNullable(doctorUpdateDTO.getOfficeAddress()).ifPresent(existingDoctor::setOfficeAddress);
+                    return touch(existingDoctor);
+                })
+                .flatMap(doctorRepository::save)
+                .map(this::mapToDTO);
+    }
+
+    @Override
+    public Mono<Void> deleteDoctor(UUID id) {
+        return doctorRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? doctorRepository.deleteById(id)
+                        : Mono.error(new ResourceNotFoundException("Doctor not found with id: " + id)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.pepsin.dpms_doctor_service_reactive.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * This is our "Doctor Record Card" blueprint, for the reactive doctor service.
+ * Same card as the blocking service's Doctor, but read and written with R2DBC instead of JPA.
+ *
+ * R2DBC has no Hibernate behind it, so there are no lazy loads, no @PrePersist and no table generation:
+ * the table comes from schema.sql, and the service fills in id and lastModified itself.
+ *
+ * @Table("doctors"): Tells Spring Data R2DBC which table the card lives in.
+ */
+@Table("doctors")
+public class Doctor {
+
+    @Id
+    private UUID id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String specialty; // E.g., "Cardiology", "Pediatrics", "General Practice"
+
+    private String contactNumber;
+
+    private String email;
+
+    private String officeAddress;
+
+    /**
+     * @Version: Bumped on every save. While it is still 0 the card counts as new, so saving it inserts a row.
+     */
+    @Version
+    private long version;
+
+    // When this record was last written
+    private Instant lastModified;
+
+    public Doctor() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public void setSpecialty(String specialty) {
+        this.specialty = specialty;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public void setContactNumber(String contactNumber) {
+        this.contactNumber = contactNumber;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getOfficeAddress() {
+        return officeAddress;
+    }
+
+    public void setOfficeAddress(String officeAddress) {
+        this.officeAddress = officeAddress;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+}
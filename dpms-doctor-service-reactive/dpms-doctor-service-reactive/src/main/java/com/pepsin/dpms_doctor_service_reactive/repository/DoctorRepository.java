@@ -0,0 +1,22 @@
+package com.pepsin.dpms_doctor_service_reactive.repository;
+
+import com.pepsin.dpms_doctor_service_reactive.model.Doctor;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * The reactive Librarian for doctor record cards.
+ * Same job as the blocking DoctorRepository, but every answer is a Mono (zero or one card)
+ * or a Flux (a stream of cards), and no thread waits while the database works.
+ *
+ * ReactiveCrudRepository gives us save, findById, findAll, findAllById, existsById and deleteById.
+ */
+@Repository
+public interface DoctorRepository extends ReactiveCrudRepository<Doctor, UUID> {
+
+    // Spring works out the query from the name, same as findByEmail in the blocking service
+    Mono<Boolean> existsByEmail(String email);
+}
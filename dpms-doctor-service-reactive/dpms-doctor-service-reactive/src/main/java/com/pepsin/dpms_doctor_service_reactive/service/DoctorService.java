@@ -0,0 +1,59 @@
+package com.pepsin.dpms_doctor_service_reactive.service;
+
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorRequestDTO;
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service_reactive.DTO.DoctorUpdateDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * This is the "list of promises" for the reactive doctor service.
+ * The same promises as the blocking DoctorService, but each answer arrives later as a Mono or Flux.
+ */
+public interface DoctorService {
+
+    /**
+     * Creates a new doctor record.
+     * @param doctorRequestDTO The form with new doctor details.
+     * @return The created doctor's summary form.
+     */
+    Mono<DoctorResponseDTO> createDoctor(DoctorRequestDTO doctorRequestDTO);
+
+    /**
+     * Retrieves a doctor's summary form by their unique ID.
+     * @param id The unique ID of the doctor.
+     * @return The doctor's summary form, or a ResourceNotFoundException error.
+     */
+    Mono<DoctorResponseDTO> getDoctorById(UUID id);
+
+    /**
+     * Streams all doctor summary forms, as fast as the client reads them.
+     * @return A stream of all doctor summary forms.
+     */
+    Flux<DoctorResponseDTO> getAllDoctors();
+
+    /**
+     * Streams the summary forms of many doctors. IDs that don't match a doctor are skipped.
+     * @param ids The unique IDs of the doctors.
+     * @return A stream of the doctors that were found.
+     */
+    Flux<DoctorResponseDTO> getDoctorsByIds(Collection<UUID> ids);
+
+    /**
+     * Updates an existing doctor's information.
+     * @param id The unique ID of the doctor to update.
+     * @param doctorUpdateDTO The form with updated doctor details.
+     * @return The updated doctor's summary form.
+     */
+    Mono<DoctorResponseDTO> updateDoctor(UUID id, DoctorUpdateDTO doctorUpdateDTO);
+
+    /**
+     * Deletes a doctor record by their unique ID.
+     * @param id The unique ID of the doctor to delete.
+     * @return Completes when the doctor is gone.
+     */
+    Mono<Void> deleteDoctor(UUID id);
+}
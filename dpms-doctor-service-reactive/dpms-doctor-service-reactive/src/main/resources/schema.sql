@@ -0,0 +1,16 @@
+-- R2DBC has no Hibernate to create tables, so the doctors table is created here at startup.
+-- Same columns as the table the blocking (JPA) doctor service generates.
+CREATE TABLE IF NOT EXISTS doctors (
+    id UUID PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    specialty VARCHAR(255) NOT NULL,
+    contact_number VARCHAR(255),
+    email VARCHAR(255) NOT NULL UNIQUE,
+    office_address VARCHAR(255),
+    version BIGINT NOT NULL,
+    last_modified TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_doctors_last_modified ON doctors (last_modified, id);
+CREATE INDEX IF NOT EXISTS idx_doctors_specialty ON doctors (specialty);
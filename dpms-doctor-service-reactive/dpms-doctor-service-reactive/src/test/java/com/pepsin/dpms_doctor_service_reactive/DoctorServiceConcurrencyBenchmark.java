@@ -0,0 +1,145 @@
+package com.pepsin.dpms_doctor_service_reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puts the same load on the blocking doctor service and on this reactive one, then prints what each
+ * needed to serve it: live threads, heap per concurrent request and database connections in use.
+ *
+ * Both services must already be running (with Eureka or not), e.g. on 8082 and 8083:
+ * <pre>
+ * ./mvnw test -Dtest=DoctorServiceConcurrencyBenchmark \
+ *     -Dbenchmark.blocking-url=http://localhost:8082 -Dbenchmark.reactive-url=http://localhost:8083 \
+ *     -Dbenchmark.concurrency=1000
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.reactive-url", matches = ".+")
+class DoctorServiceConcurrencyBenchmark {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+
+	@Test
+	void compareBlockingAndReactive() throws Exception {
+		int concurrency = Integer.getInteger("benchmark.concurrency", 500);
+		int seconds = Integer.getInteger("benchmark.seconds", 30);
+		int doctors = Integer.getInteger("benchmark.doctors", 2_000);
+
+		List<String> report = new ArrayList<>();
+		String blockingUrl = System.getProperty("benchmark.blocking-url");
+		if (blockingUrl != null) {
+			report.add(run("blocking (web + JPA)", blockingUrl, "hikaricp.connections.active", concurrency, seconds, doctors));
+		}
+		report.add(run("reactive (webflux + R2DBC)", System.getProperty("benchmark.reactive-url"),
+				"r2dbc.pool.acquired", concurrency, seconds, doctors));
+
+		System.out.printf("%n%d concurrent GET /api/doctors over %d doctors, %d s each%n", concurrency, doctors, seconds);
+		report.forEach(System.out::println);
+	}
+
+	private String run(String name, String baseUrl, String connectionMetric, int concurrency, int seconds,
+					   int doctors) throws Exception {
+		seed(baseUrl, doctors);
+		double idleHeap = metric(baseUrl, "jvm.memory.used?tag=area:heap");
+
+		AtomicLong completed = new AtomicLong();
+		AtomicLong failed = new AtomicLong();
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+		// Peak server-side numbers, sampled while the load runs
+		double[] peak = new double[3];
+		ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+		sampler.scheduleAtFixedRate(() -> {
+			peak[0] = Math.max(peak[0], metric(baseUrl, "jvm.threads.live"));
+			peak[1] = Math.max(peak[1], metric(baseUrl, "jvm.memory.used?tag=area:heap"));
+			peak[2] = Math.max(peak[2], metric(baseUrl, connectionMetric));
+		}, 0, 250, TimeUnit.MILLISECONDS);
+
+		// 'concurrency' clients, each sending its next request as soon as the previous one is answered
+		List<CompletableFuture<Void>> clients = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			clients.add(CompletableFuture.runAsync(() -> {
+				while (System.nanoTime() < deadline) {
+					long started = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/doctors"))
+								.header("Accept", "application/json").build(), HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() == 200) {
+							completed.incrementAndGet();
+							latencies.add(System.nanoTime() - started);
+						} else {
+							failed.incrementAndGet();
+						}
+					} catch (Exception e) {
+						failed.incrementAndGet();
+					}
+				}
+			}, Executors.newVirtualThreadPerTaskExecutor()));
+		}
+		CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+		sampler.shutdownNow();
+
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		long p50 = sorted.isEmpty() ? 0 : sorted.get(sorted.size() / 2) / 1_000_000;
+		long p99 = sorted.isEmpty() ? 0 : sorted.get((int) (sorted.size() * 0.99)) / 1_000_000;
+		double heapPerRequestKb = Math.max(0, peak[1] - idleHeap) / concurrency / 1024;
+		return String.format("%-28s %8.0f req/s  p50 %5d ms  p99 %5d ms  errors %d  peak threads %4.0f  "
+						+ "heap/concurrent request %7.1f KB  peak DB connections %3.0f",
+				name, completed.get() / (double) seconds, p50, p99, failed.get(), peak[0], heapPerRequestKb, peak[2]);
+	}
+
+	// Makes sure the service has at least 'doctors' doctors, so both answer the same list
+	private void seed(String baseUrl, int doctors) throws Exception {
+		HttpResponse<String> list = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/doctors"))
+				.header("Accept", "application/json").build(), HttpResponse.BodyHandlers.ofString());
+		int existing = MAPPER.readTree(list.body()).size();
+		for (int i = existing; i < doctors; i++) {
+			String body = String.format("{\"firstName\":\"Doctor\",\"lastName\":\"Number%d\",\"specialty\":\"Cardiology\","
+					+ "\"contactNumber\":\"0123456789\",\"email\":\"doctor%d@bench.example\","
+					+ "\"officeAddress\":\"Wing %d\"}", i, i, i % 10);
+			client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/doctors"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.discarding());
+		}
+	}
+
+	// Reads one value from /actuator/metrics; 0 if the service doesn't expose it
+	private double metric(String baseUrl, String nameAndTags) {
+		try {
+			HttpResponse<String> response = client.send(
+					HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + nameAndTags)).build(),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				return 0;
+			}
+			JsonNode measurements = MAPPER.readTree(response.body()).path("measurements");
+			return measurements.isEmpty() ? 0 : measurements.get(0).path("value").asDouble();
+		} catch (Exception e) {
+			return 0;
+		}
+	}
+}
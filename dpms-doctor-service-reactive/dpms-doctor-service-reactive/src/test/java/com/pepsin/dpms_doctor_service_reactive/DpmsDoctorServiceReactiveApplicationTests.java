@@ -0,0 +1,13 @@
+package com.pepsin.dpms_doctor_service_reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class DpmsDoctorServiceReactiveApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * This is our "Book an Appointment Form".
+ * Asks for one doctor, one patient and the start of the slot they want.
+ */
+public class AppointmentRequestDTO {
+
+    @NotNull(message = "Doctor id cannot be empty")
+    private UUID doctorId;
+
+    @NotNull(message = "Patient id cannot be empty")
+    private UUID patientId;
+
+    @NotNull(message = "Start time cannot be empty")
+    @Future(message = "Start time must be in the future")
+    private LocalDateTime startTime;
+
+    public UUID getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(UUID doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+}
@@ -0,0 +1,57 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * This is our "Appointment Summary Form".
+ * Used when sending appointment information back to the client.
+ */
+public class AppointmentResponseDTO {
+
+    private UUID id;
+    private UUID doctorId;
+    private UUID patientId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(UUID doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,54 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One block of weekly working hours, e.g. { "dayOfWeek": "MONDAY", "startTime": "09:00", "endTime": "13:00" }.
+ */
+public class AvailabilityDTO {
+
+    @NotNull(message = "Day of week cannot be empty")
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Start time cannot be empty")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time cannot be empty")
+    private LocalTime endTime;
+
+    public AvailabilityDTO() {
+    }
+
+    public AvailabilityDTO(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,64 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This is our "What Changed Since Last Time" form.
+ * Sent to clients (like the mobile ward app) that keep their own copy of the doctor directory,
+ * so they only download the doctors that were added, updated or deleted since their last sync.
+ *
+ * To get the next page, send nextSince and nextAfterId back as since and afterId.
+ * When hasMore is false the client is fully caught up, and should keep the cursor for next time.
+ * Changes only appear once they are doctor.sync.safety-lag old (30 seconds by default), so none is ever skipped.
+ */
+public class DoctorChangesDTO {
+
+    private List<DoctorResponseDTO> changed = new ArrayList<>();
+    private List<UUID> deleted = new ArrayList<>();
+    private Instant nextSince;
+    private UUID nextAfterId;
+    private boolean hasMore;
+
+    public List<DoctorResponseDTO> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<DoctorResponseDTO> changed) {
+        this.changed = changed;
+    }
+
+    public List<UUID> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<UUID> deleted) {
+        this.deleted = deleted;
+    }
+
+    public Instant getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(Instant nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public UUID getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public void setNextAfterId(UUID nextAfterId) {
+        this.nextAfterId = nextAfterId;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
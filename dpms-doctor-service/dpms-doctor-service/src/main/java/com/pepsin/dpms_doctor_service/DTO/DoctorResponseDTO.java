@@ -1,6 +1,7 @@
 package com.pepsin.dpms_doctor_service.DTO;
 
 import lombok.Data;
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -18,6 +19,8 @@ public class DoctorResponseDTO {
     private String contactNumber;
     private String email;
     private String officeAddress;
+    private long version;
+    private Instant lastModified;
 
     public UUID getId() {
         return id;
@@ -75,6 +78,19 @@ public class DoctorResponseDTO {
         this.officeAddress = officeAddress;
     }
 
+    public long getVersion() {
+        return version;
+    }
 
+    public void setVersion(long version) {
+        this.version = version;
+    }
 
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
@@ -0,0 +1,41 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the "Head Count" form for dashboards: how many doctors there are per specialty.
+ * Doctors without a specialty are counted under UNKNOWN.
+ * lastRebuiltAt says when the counts were last checked against the whole database (null until the first check).
+ */
+public class DoctorStatsDTO {
+
+    private long total;
+    private Map<String, Long> bySpecialty = new LinkedHashMap<>();
+    private Instant lastRebuiltAt;
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getBySpecialty() {
+        return bySpecialty;
+    }
+
+    public void setBySpecialty(Map<String, Long> bySpecialty) {
+        this.bySpecialty = bySpecialty;
+    }
+
+    public Instant getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    public void setLastRebuiltAt(Instant lastRebuiltAt) {
+        this.lastRebuiltAt = lastRebuiltAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of "earliest free slots" search results, earliest first.
+ * To get the next page, send nextFrom and nextAfterDoctorId back as from and afterDoctorId.
+ */
+public class FreeSlotPageDTO {
+
+    private List<FreeSlotDTO> slots = new ArrayList<>();
+    private LocalDateTime nextFrom;
+    private UUID nextAfterDoctorId;
+
+    public List<FreeSlotDTO> getSlots() {
+        return slots;
+    }
+
+    public void setSlots(List<FreeSlotDTO> slots) {
+        this.slots = slots;
+    }
+
+    public LocalDateTime getNextFrom() {
+        return nextFrom;
+    }
+
+    public void setNextFrom(LocalDateTime nextFrom) {
+        this.nextFrom = nextFrom;
+    }
+
+    public UUID getNextAfterDoctorId() {
+        return nextAfterDoctorId;
+    }
+
+    public void setNextAfterDoctorId(UUID nextAfterDoctorId) {
+        this.nextAfterDoctorId = nextAfterDoctorId;
+    }
+
+    /**
+     * A free slot with one doctor.
+     */
+    public record FreeSlotDTO(UUID doctorId, LocalDateTime startTime, LocalDateTime endTime) {}
+}
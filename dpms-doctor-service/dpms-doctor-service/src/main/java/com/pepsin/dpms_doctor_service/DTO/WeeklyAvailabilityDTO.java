@@ -0,0 +1,25 @@
+package com.pepsin.dpms_doctor_service.DTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is our "Weekly Working Hours Form": every block a doctor works in a normal week.
+ * Sending it replaces the doctor's previous working hours.
+ */
+public class WeeklyAvailabilityDTO {
+
+    @NotNull(message = "Hours cannot be null")
+    private List<@Valid AvailabilityDTO> hours = new ArrayList<>();
+
+    public List<AvailabilityDTO> getHours() {
+        return hours;
+    }
+
+    public void setHours(List<AvailabilityDTO> hours) {
+        this.hours = hours;
+    }
+}
@@ -0,0 +1,294 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.model.Doctor;
+import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This is the "Doctor Directory Pinboard" at the front desk.
+ * The doctor list is small and read all the time, so instead of asking the Librarian (database)
+ * on every request we can keep a compact copy of every doctor in memory.
+ *
+ * The copy is kept column by column in plain arrays: the UUID as two longs, each text field
+ * as an int code into a StringDictionary, and a UuidSlotMap to find a doctor's row.
+ * It is loaded once at startup and updated on every create/update/delete by DoctorServiceImpl.
+ * Strings nobody points at any more are dropped from the dictionary, and reload() starts a fresh one.
+ *
+ * Turned on with doctor.directory.in-memory=true. When off, every method is a no-op
+ * and reads go to the database as before.
+ */
+@Component
+public class DoctorDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorDirectory.class);
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final DoctorRepository doctorRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private StringDictionary strings = new StringDictionary();
+    private final UuidSlotMap rowsById = new UuidSlotMap(64);
+
+    // One entry per doctor, rows 0..size-1 are in use
+    private int size;
+    private long[] idHigh = new long[0];
+    private long[] idLow = new long[0];
+    private int[] firstName = new int[0];
+    private int[] lastName = new int[0];
+    private int[] specialty = new int[0];
+    private int[] contactNumber = new int[0];
+    private int[] email = new int[0];
+    private int[] officeAddress = new int[0];
+    private long[] version = new long[0];
+    private long[] lastModifiedMicros = new long[0];
+
+    public DoctorDirectory(DoctorRepository doctorRepository,
+                           @Value("${doctor.directory.in-memory:false}") boolean enabled) {
+        this.doctorRepository = doctorRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fills the pinboard from the database when the service starts.
+     */
+    @PostConstruct
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        List<Doctor> doctors = doctorRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            strings = new StringDictionary();
+            rowsById.clear();
+            size = 0;
+            ensureCapacity(doctors.size());
+            doctors.forEach(this::write);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Doctor directory loaded {} doctors, ~{} bytes", doctors.size(), footprintBytes());
+    }
+
+    /**
+     * Looks a doctor up without touching the database.
+     */
+    public Optional<DoctorResponseDTO> find(UUID id) {
+        lock.readLock().lock();
+        try {
+            int row = rowsById.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return row == UuidSlotMap.MISSING ? Optional.empty() : Optional.of(toDTO(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists every doctor without touching the database.
+     */
+    public List<DoctorResponseDTO> findAll() {
+        lock.readLock().lock();
+        try {
+            List<DoctorResponseDTO> result = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                result.add(toDTO(row));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a newly saved doctor, or overwrites the row of an updated one.
+     * Two updates of one doctor can reach us in either order, so a copy older than the one pinned up
+     * (a lower version) is ignored instead of replacing the newer one.
+     */
+    public void put(Doctor doctor) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            write(doctor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a deleted doctor off the pinboard. The last row moves into the freed row so the arrays stay packed.
+     */
+    public void remove(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long high = id.getMostSignificantBits();
+            long low = id.getLeastSignificantBits();
+            int row = rowsById.get(high, low);
+            if (row == UuidSlotMap.MISSING) {
+                return;
+            }
+            rowsById.remove(high, low);
+            releaseStrings(row);
+            int last = --size;
+            if (row != last) {
+                copyRow(last, row);
+                rowsById.put(idHigh[row], idLow[row], row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct strings the directory's dictionary holds right now.
+     */
+    int distinctStrings() {
+        lock.readLock().lock();
+        try {
+            return strings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough heap size of the whole directory, in bytes. Used to compare against the JPA path.
+     */
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            long columns = (long) idHigh.length * (Long.BYTES * 4 + Integer.BYTES * 6);
+            return columns + rowsById.footprintBytes() + strings.footprintBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Must be called with the write lock held
+    private void write(Doctor doctor) {
+        long high = doctor.getId().getMostSignificantBits();
+        long low = doctor.getId().getLeastSignificantBits();
+        int row = rowsById.get(high, low);
+        boolean overwrite = row != UuidSlotMap.MISSING;
+        if (overwrite && doctor.getVersion() < version[row]) {
+            return;
+        }
+        if (!overwrite) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowsById.put(high, low, row);
+        }
+        // Encode the new values before letting go of the old ones, so an unchanged string keeps its code
+        int[] newCodes = {
+                strings.encode(doctor.getFirstName()),
+                strings.encode(doctor.getLastName()),
+                strings.encode(doctor.getSpecialty()),
+                strings.encode(doctor.getContactNumber()),
+                strings.encode(doctor.getEmail()),
+                strings.encode(doctor.getOfficeAddress())
+        };
+        if (overwrite) {
+            releaseStrings(row);
+        }
+        idHigh[row] = high;
+        idLow[row] = low;
+        firstName[row] = newCodes[0];
+        lastName[row] = newCodes[1];
+        specialty[row] = newCodes[2];
+        contactNumber[row] = newCodes[3];
+        email[row] = newCodes[4];
+        officeAddress[row] = newCodes[5];
+        version[row] = doctor.getVersion();
+        lastModifiedMicros[row] = doctor.getLastModified() == null
+                ? NO_TIMESTAMP
+                : ChronoUnit.MICROS.between(Instant.EPOCH, doctor.getLastModified());
+    }
+
+    // The row's text fields no longer point at their strings
+    private void releaseStrings(int row) {
+        strings.release(firstName[row]);
+        strings.release(lastName[row]);
+        strings.release(specialty[row]);
+        strings.release(contactNumber[row]);
+        strings.release(email[row]);
+        strings.release(officeAddress[row]);
+    }
+
+    private void copyRow(int from, int to) {
+        idHigh[to] = idHigh[from];
+        idLow[to] = idLow[from];
+        firstName[to] = firstName[from];
+        lastName[to] = lastName[from];
+        specialty[to] = specialty[from];
+        contactNumber[to] = contactNumber[from];
+        email[to] = email[from];
+        officeAddress[to] = officeAddress[from];
+        version[to] = version[from];
+        lastModifiedMicros[to] = lastModifiedMicros[from];
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= idHigh.length) {
+            return;
+        }
+        int capacity = Math.max(needed, Math.max(16, idHigh.length * 3 / 2));
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        firstName = Arrays.copyOf(firstName, capacity);
+        lastName = Arrays.copyOf(lastName, capacity);
+        specialty = Arrays.copyOf(specialty, capacity);
+        contactNumber = Arrays.copyOf(contactNumber, capacity);
+        email = Arrays.copyOf(email, capacity);
+        officeAddress = Arrays.copyOf(officeAddress, capacity);
+        version = Arrays.copyOf(version, capacity);
+        lastModifiedMicros = Arrays.copyOf(lastModifiedMicros, capacity);
+    }
+
+    private DoctorResponseDTO toDTO(int row) {
+        DoctorResponseDTO dto = new DoctorResponseDTO();
+        dto.setId(new UUID(idHigh[row], idLow[row]));
+        dto.setFirstName(strings.decode(firstName[row]));
+        dto.setLastName(strings.decode(lastName[row]));
+        dto.setSpecialty(strings.decode(specialty[row]));
+        dto.setContactNumber(strings.decode(contactNumber[row]));
+        dto.setEmail(strings.decode(email[row]));
+        dto.setOfficeAddress(strings.decode(officeAddress[row]));
+        dto.setVersion(version[row]);
+        dto.setLastModified(lastModifiedMicros[row] == NO_TIMESTAMP
+                ? null
+                : Instant.EPOCH.plus(lastModifiedMicros[row], ChronoUnit.MICROS));
+        return dto;
+    }
+}
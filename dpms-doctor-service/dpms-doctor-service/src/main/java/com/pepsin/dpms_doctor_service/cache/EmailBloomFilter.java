@@ -0,0 +1,170 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import com.pepsin.dpms_doctor_service.model.Doctor;
+import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * This is the "Have We Seen This Email?" checklist at the front desk.
+ * Before a new doctor is saved we must make sure nobody else already uses the email.
+ * Most emails are new, so instead of asking the Librarian every time we first look at this list:
+ * if it says "never seen", the email is certainly new and the lookup is skipped.
+ * If it says "maybe seen", we ask the Librarian as before.
+ *
+ * It is a Bloom filter: a bit array where every email sets a few bits picked by its hash.
+ * It never says "never seen" for an email it was given, but a few new emails (falsePositiveRate,
+ * 1% by default) get "maybe seen" and pay for the lookup they would have done anyway.
+ *
+ * Filled from the database in the background once the service is up, and told about every email written afterwards.
+ * Until that first fill is done it answers "maybe seen" for everything, so no create skips the lookup
+ * just because the list isn't complete yet.
+ * Removed emails can't be taken out again; they just become "maybe seen".
+ * The list belongs to this instance only, so an email added on another replica may be missed here:
+ * the unique constraint on the normalized-email column catches that at insert, and it becomes the same 409.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+    // 128 MB of bits at most; also keeps index + step below Integer.MAX_VALUE
+    private static final int MAX_BITS = 1 << 30;
+
+    private final Consumer<Consumer<String>> allEmails;
+    private final long expectedEmails;
+    private final int bitCount;
+    private final int hashCount;
+    private final AtomicLongArray words;
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicBoolean warnedFull = new AtomicBoolean();
+    // Set once every email already in the database has been added
+    private volatile boolean warm;
+
+    @Autowired
+    public EmailBloomFilter(DoctorRepository doctorRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${doctor.email-filter.expected-emails:100000}") long expectedEmails,
+                            @Value("${doctor.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(sink -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<String> emails = doctorRepository.streamAllEmails()) {
+                emails.forEach(sink);
+            }
+        }), expectedEmails, falsePositiveRate);
+    }
+
+    EmailBloomFilter(Consumer<Consumer<String>> allEmails, long expectedEmails, double falsePositiveRate) {
+        if (expectedEmails <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("email filter needs expected-emails > 0 and 0 < false-positive-rate < 1");
+        }
+        this.allEmails = allEmails;
+        this.expectedEmails = expectedEmails;
+        // Standard Bloom filter sizing: m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hashes
+        double bits = -expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.min(MAX_BITS, Math.max(64, Math.ceil(bits)));
+        this.hashCount = Math.max(1, (int) Math.round(bitCount / (double) expectedEmails * Math.log(2)));
+        this.words = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    /**
+     * Starts filling the list once the service is up, without holding up startup.
+     * Until it is done every email reads "maybe seen", so creates do the lookup as if there were no list.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        Thread.ofVirtual().name("email-filter-warm-up").start(this::warmUp);
+    }
+
+    /**
+     * Adds every email already in the database.
+     */
+    void warmUp() {
+        long started = System.nanoTime();
+        allEmails.accept(this::put);
+        warm = true;
+        log.info("Email filter loaded {} emails into {} KB ({} hashes per email) in {} ms",
+                added.get(), bitCount / 8 / 1024, hashCount, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * False means the email is certainly not in use. True means it might be, or that the list isn't filled yet.
+     */
+    public boolean mightContain(String email) {
+        if (email == null) {
+            // The unique constraint allows any number of missing emails
+            return false;
+        }
+        if (!warm) {
+            return true;
+        }
+        long hash = hash(email);
+        int step = step(hash);
+        int index = (int) Math.floorMod(hash, (long) bitCount);
+        for (int i = 0; i < hashCount; i++) {
+            if ((words.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+            index = next(index, step);
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        if (email == null) {
+            return;
+        }
+        long hash = hash(email);
+        int step = step(hash);
+        int index = (int) Math.floorMod(hash, (long) bitCount);
+        for (int i = 0; i < hashCount; i++) {
+            long mask = 1L << index;
+            words.accumulateAndGet(index >>> 6, mask, (word, bit) -> word | bit);
+            index = next(index, step);
+        }
+        if (added.incrementAndGet() > expectedEmails && warnedFull.compareAndSet(false, true)) {
+            log.warn("Email filter holds more than the {} emails it was sized for; more creates will need a lookup. "
+                    + "Raise doctor.email-filter.expected-emails.", expectedEmails);
+        }
+    }
+
+    // The k bit positions are index, index + step, index + 2*step, ... (mod bitCount), all from one 64-bit hash
+    private int step(long hash) {
+        return 1 + (int) Math.floorMod(hash >>> 32 ^ hash * 0x9E3779B97F4A7C15L, (long) (bitCount - 1));
+    }
+
+    private int next(int index, int step) {
+        int next = index + step;
+        return next >= bitCount ? next - bitCount : next;
+    }
+
+    /**
+     * 64-bit FNV-1a over the normalized email (trimmed, lower case: the form the duplicate check compares),
+     * followed by a bit mixer so nearby emails spread out.
+     */
+    private static long hash(String email) {
+        String normalized = Doctor.normalizeEmail(email);
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
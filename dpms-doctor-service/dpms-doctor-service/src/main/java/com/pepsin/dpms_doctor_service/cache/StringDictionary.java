@@ -0,0 +1,90 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps one copy of every distinct string and hands out a small int code for it.
+ * Specialties and office addresses repeat a lot, so the directory stores codes instead of strings.
+ *
+ * Every encode counts one more user of the code and every release one less. When nobody uses a string
+ * any more it is dropped and its code is handed out again, so edits and deletes don't make the dictionary grow.
+ * Not thread-safe: DoctorDirectory guards it with its lock.
+ */
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int[] users = new int[16];
+    // Codes whose string was dropped, ready to be handed out again
+    private int[] freeCodes = new int[0];
+    private int freeCount;
+    private long characters;
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            users[code]++;
+            return code;
+        }
+        int newCode;
+        if (freeCount > 0) {
+            newCode = freeCodes[--freeCount];
+            values.set(newCode, value);
+        } else {
+            newCode = values.size();
+            values.add(value);
+            if (newCode == users.length) {
+                users = Arrays.copyOf(users, users.length * 2);
+            }
+        }
+        users[newCode] = 1;
+        codes.put(value, newCode);
+        characters += value.length();
+        return newCode;
+    }
+
+    /**
+     * One user of the code is gone; drops the string once it was the last one.
+     */
+    void release(int code) {
+        if (code == NULL_CODE || --users[code] > 0) {
+            return;
+        }
+        String value = values.set(code, null);
+        codes.remove(value);
+        characters -= value.length();
+        if (freeCount == freeCodes.length) {
+            freeCodes = Arrays.copyOf(freeCodes, Math.max(16, freeCodes.length * 2));
+        }
+        freeCodes[freeCount++] = code;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    /**
+     * Number of distinct strings currently in use.
+     */
+    int size() {
+        return codes.size();
+    }
+
+    /**
+     * Rough heap size of the stored strings plus the lookup map, in bytes.
+     */
+    long footprintBytes() {
+        // ~40 bytes of String/array headers per value, ~48 bytes per HashMap entry incl. the boxed code,
+        // plus the user count and free-list slot of every code
+        return characters + codes.size() * 88L + values.size() * 8L;
+    }
+}
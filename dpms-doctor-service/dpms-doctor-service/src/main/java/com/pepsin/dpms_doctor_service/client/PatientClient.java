@@ -0,0 +1,46 @@
+package com.pepsin.dpms_doctor_service.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.util.UUID;
+
+/**
+ * Our "Phone Line to the Patient Service".
+ * Patients live in another service with its own database, so to check that a patient exists
+ * we ask PATIENT-SERVICE over HTTP, picking an instance through Eureka.
+ */
+@Component
+public class PatientClient {
+
+    private final RestClient restClient;
+
+    public PatientClient(RestClient.Builder restClientBuilder,
+                         LoadBalancerClient loadBalancerClient,
+                         @Value("${appointments.patient-service-url:http://PATIENT-SERVICE}") String patientServiceUrl) {
+        // The load-balancer interceptor is added only to this client, not to the shared builder
+        this.restClient = restClientBuilder.clone()
+                .baseUrl(patientServiceUrl)
+                .requestInterceptor(new LoadBalancerInterceptor(loadBalancerClient))
+                .build();
+    }
+
+    /**
+     * Returns true if the Patient Service knows a patient with this ID.
+     */
+    public boolean patientExists(UUID patientId) {
+        try {
+            restClient.get()
+                    .uri("/api/patients/{id}", patientId)
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (HttpClientErrorException.NotFound e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pepsin.dpms_doctor_service.controller;
+
+import com.pepsin.dpms_doctor_service.DTO.AppointmentRequestDTO;
+import com.pepsin.dpms_doctor_service.DTO.AppointmentResponseDTO;
+import com.pepsin.dpms_doctor_service.DTO.FreeSlotPageDTO;
+import com.pepsin.dpms_doctor_service.service.AppointmentService;
+import com.pepsin.dpms_doctor_service.service.AvailabilityService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("api/appointments")
+public class AppointmentController {
+    private final AppointmentService appointmentService;
+    private final AvailabilityService availabilityService;
+
+    public AppointmentController(AppointmentService appointmentService, AvailabilityService availabilityService) {
+        this.appointmentService = appointmentService;
+        this.availabilityService = availabilityService;
+    }
+
+    @PostMapping
+    public ResponseEntity<AppointmentResponseDTO> bookAppointment(@Valid @RequestBody AppointmentRequestDTO appointmentRequestDTO) {
+        AppointmentResponseDTO booked = appointmentService.bookAppointment(appointmentRequestDTO);
+        return new ResponseEntity<>(booked, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AppointmentResponseDTO> getAppointmentById(@PathVariable UUID id) {
+        return ResponseEntity.ok(appointmentService.getAppointmentById(id));
+    }
+
+    // e.g. /api/appointments?doctorId=...&date=2025-03-14
+    @GetMapping
+    public ResponseEntity<List<AppointmentResponseDTO>> getDoctorAppointments(
+            @RequestParam UUID doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(appointmentService.getDoctorAppointments(doctorId, date));
+    }
+
+    // e.g. /api/appointments?patientId=... -> everything this patient has booked
+    @GetMapping(params = "patientId")
+    public ResponseEntity<List<AppointmentResponseDTO>> getPatientAppointments(@RequestParam UUID patientId) {
+        return ResponseEntity.ok(appointmentService.getPatientAppointments(patientId));
+    }
+
+    // e.g. /api/appointments/free-slots?specialty=Cardiology&limit=10 -> the soonest free cardiologists
+    @GetMapping("/free-slots")
+    public ResponseEntity<FreeSlotPageDTO> findEarliestFreeSlots(
+            @RequestParam String specialty,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) UUID afterDoctorId,
+            @RequestParam(defaultValue = "90") int days,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(availabilityService.findEarliestFreeSlots(specialty, from, afterDoctorId, days, limit));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelAppointment(@PathVariable UUID id) {
+        appointmentService.cancelAppointment(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
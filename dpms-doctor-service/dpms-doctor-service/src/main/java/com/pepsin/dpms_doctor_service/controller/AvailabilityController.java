@@ -0,0 +1,31 @@
+package com.pepsin.dpms_doctor_service.controller;
+
+import com.pepsin.dpms_doctor_service.DTO.WeeklyAvailabilityDTO;
+import com.pepsin.dpms_doctor_service.service.AvailabilityService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("api/doctors/{doctorId}/availability")
+public class AvailabilityController {
+    private final AvailabilityService availabilityService;
+
+    public AvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @GetMapping
+    public ResponseEntity<WeeklyAvailabilityDTO> getAvailability(@PathVariable UUID doctorId) {
+        return ResponseEntity.ok(availabilityService.getAvailability(doctorId));
+    }
+
+    // Replaces the doctor's whole weekly rota
+    @PutMapping
+    public ResponseEntity<WeeklyAvailabilityDTO> setAvailability(@PathVariable UUID doctorId,
+                                                                 @Valid @RequestBody WeeklyAvailabilityDTO availability) {
+        return ResponseEntity.ok(availabilityService.setAvailability(doctorId, availability));
+    }
+}
@@ -1,16 +1,22 @@
 package com.pepsin.dpms_doctor_service.controller;
 
+import com.pepsin.dpms_doctor_service.DTO.DoctorChangesDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorListPageDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorRequestDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorStatsDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorUpdateDTO;
 import com.pepsin.dpms_doctor_service.model.Doctor;
 import com.pepsin.dpms_doctor_service.service.DoctorService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -28,6 +34,15 @@ public class DoctorController {
         return new ResponseEntity<>(createdDoctor, HttpStatus.CREATED);
     }
 
+    // JSON (the usual case) comes ready-made from the cache and skips Jackson entirely
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getDoctorJsonById(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(doctorService.getDoctorJsonById(id));
+    }
+
+    // Any other format the client asks for goes through the normal message converters
     @GetMapping("/{id}")
     public ResponseEntity<DoctorResponseDTO> getDoctorById(@PathVariable UUID id) {
         DoctorResponseDTO doctor = doctorService.getDoctorById(id);
@@ -35,12 +50,58 @@ public class DoctorController {
     }
 
 
+    // Only the named fields, e.g. ?fields=id,firstName,lastName; only those columns are read from the database
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getDoctorFieldsById(@PathVariable UUID id,
+                                                                   @RequestParam List<String> fields) {
+        return ResponseEntity.ok(doctorService.getDoctorById(id, fields));
+    }
+
+    // JSON by default; "Accept: application/x-jackson-smile" gets the compact binary Smile format
     @GetMapping
     public ResponseEntity<List<DoctorResponseDTO>> getAllDoctors() {
         List<DoctorResponseDTO> doctors = doctorService.getAllDoctors();
         return ResponseEntity.ok(doctors);
     }
 
+    // Only the named fields of every doctor, for list screens, e.g. ?fields=id,firstName,lastName,specialty
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllDoctorFields(@RequestParam List<String> fields) {
+        return ResponseEntity.ok(doctorService.getAllDoctors(fields));
+    }
+
+    // Filtered, sorted list one page at a time, e.g. ?filter=specialty==Cardiology;lastName==Men*&sort=lastName&page=0&size=20
+    // Filter on specialty, lastName, lastModified; sort by lastName, specialty, lastModified ('-' for descending)
+    @GetMapping("/query")
+    public ResponseEntity<DoctorListPageDTO> listDoctors(@RequestParam(required = false) String filter,
+                                                         @RequestParam(required = false) String sort,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(doctorService.listDoctors(filter, sort, page, size));
+    }
+
+    // Doctors per specialty for dashboards, from in-memory counters (no database query)
+    @GetMapping("/stats")
+    public ResponseEntity<DoctorStatsDTO> getDoctorStats() {
+        return ResponseEntity.ok(doctorService.getDoctorStats());
+    }
+
+
+    // Batch lookup: /api/doctors?ids=id1,id2,... returns every doctor found in one round trip
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<DoctorResponseDTO>> getDoctorsByIds(@RequestParam List<UUID> ids) {
+        return ResponseEntity.ok(doctorService.getDoctorsByIds(ids));
+    }
+
+
+    // Sync endpoint: doctors changed or deleted since the cursor from the previous call
+    @GetMapping("/changes")
+    public ResponseEntity<DoctorChangesDTO> getDoctorChanges(@RequestParam(required = false) Instant since,
+                                                             @RequestParam(required = false) UUID afterId,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(doctorService.getChangesSince(since, afterId, limit));
+    }
+
 
     @PutMapping("/{id}")
     public ResponseEntity<DoctorResponseDTO> updateDoctor(@PathVariable UUID id,
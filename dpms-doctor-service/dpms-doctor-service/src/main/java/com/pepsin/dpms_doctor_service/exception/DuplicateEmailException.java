@@ -0,0 +1,46 @@
+package com.pepsin.dpms_doctor_service.exception;
+
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.boot.model.naming.NamingHelper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This is our "That Email Is Already Used!" problem note.
+ * We use this when a new or updated doctor would share an email with another doctor (HTTP 409 error).
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateEmailException extends RuntimeException {
+
+    // The unique keys a taken email runs into: the one on normalizedEmail, and the one Hibernate made (and named
+    // with a hash of the table and column) for the email column's unique = true
+    private static final List<String> EMAIL_KEYS = List.of(
+            "uk_doctors_normalized_email",
+            NamingHelper.INSTANCE.generateHashedConstraintName("UK",
+                    Identifier.toIdentifier("doctors"), Identifier.toIdentifier("email")).toLowerCase(Locale.ROOT));
+
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+
+    /**
+     * Whether a failed save broke one of the email unique keys. Any other broken rule (a missing value,
+     * a field that is too long) is a different problem and must not be reported as "email already used".
+     * Databases name the key in their own way (H2 reports "PUBLIC.UK_..._INDEX_9", MySQL "doctors.uk_..."),
+     * so the name only has to contain one of ours.
+     */
+    public static boolean isCausedBy(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null && EMAIL_KEYS.stream().anyMatch(name.toLowerCase(Locale.ROOT)::contains);
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.pepsin.dpms_doctor_service.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -38,6 +39,72 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * This method catches our "That Time Is Taken!" problem (SlotUnavailableException).
+     *
+     * @param ex The SlotUnavailableException that was thrown.
+     * @return A nice response with an error message and a 409 Conflict status.
+     */
+    @ExceptionHandler(SlotUnavailableException.class)
+    public ResponseEntity<ErrorDetails> handleSlotUnavailableException(SlotUnavailableException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "CONFLICT"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method catches our "That Email Is Already Used!" problem (DuplicateEmailException).
+     *
+     * @param ex The DuplicateEmailException that was thrown.
+     * @return A nice response with an error message and a 409 Conflict status.
+     */
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ErrorDetails> handleDuplicateEmailException(DuplicateEmailException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "CONFLICT"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method catches our "That Doesn't Make Sense!" problem (InvalidRequestException).
+     *
+     * @param ex The InvalidRequestException that was thrown.
+     * @return A nice response with an error message and a 400 Bad Request status.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidRequestException(InvalidRequestException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "BAD_REQUEST"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method catches the "Someone Else Just Changed This Card!" problem (OptimisticLockingFailureException).
+     * Two requests edited the same doctor at once; the first one's change was saved, this one was based on
+     * the old version. The client should read the doctor again and repeat its change.
+     *
+     * @param ex The OptimisticLockingFailureException (ObjectOptimisticLockingFailureException from Hibernate).
+     * @return A nice response with an error message and a 409 Conflict status.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                "This doctor was changed by another request at the same time. Please reload it and try again.",
+                "CONFLICT"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     /**
      * This method catches problems when someone fills out a form incorrectly (validation errors).
      * For example, if they leave a required field empty or put a bad email address.
@@ -0,0 +1,16 @@
+package com.pepsin.dpms_doctor_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This is our "That Time Is Taken!" problem note.
+ * We use this when someone tries to book a slot that already has an appointment (HTTP 409 error).
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,124 @@
+package com.pepsin.dpms_doctor_service.implementation;
+
+import com.pepsin.dpms_doctor_service.DTO.AppointmentRequestDTO;
+import com.pepsin.dpms_doctor_service.DTO.AppointmentResponseDTO;
+import com.pepsin.dpms_doctor_service.client.PatientClient;
+import com.pepsin.dpms_doctor_service.exception.InvalidRequestException;
+import com.pepsin.dpms_doctor_service.exception.ResourceNotFoundException;
+import com.pepsin.dpms_doctor_service.exception.SlotUnavailableException;
+import com.pepsin.dpms_doctor_service.model.Appointment;
+import com.pepsin.dpms_doctor_service.repository.AppointmentRepository;
+import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import com.pepsin.dpms_doctor_service.scheduling.AppointmentSlotIndex;
+import com.pepsin.dpms_doctor_service.service.AppointmentService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This is the "Appointment Desk" that actually books, looks up and cancels appointments.
+ * It checks the doctor (in our own database) and the patient (through the Patient Service) exist,
+ * and lets the AppointmentSlotIndex decide whether the slot is still free.
+ */
+@Service
+public class AppointmentServiceImpl implements AppointmentService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientClient patientClient;
+    private final AppointmentSlotIndex slotIndex;
+
+    public AppointmentServiceImpl(AppointmentRepository appointmentRepository,
+                                  DoctorRepository doctorRepository,
+                                  PatientClient patientClient,
+                                  AppointmentSlotIndex slotIndex) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientClient = patientClient;
+        this.slotIndex = slotIndex;
+    }
+
+    private AppointmentResponseDTO mapToDTO(Appointment appointment) {
+        AppointmentResponseDTO dto = new AppointmentResponseDTO();
+        dto.setId(appointment.getId());
+        dto.setDoctorId(appointment.getDoctorId());
+        dto.setPatientId(appointment.getPatientId());
+        dto.setStartTime(appointment.getStartTime());
+        dto.setEndTime(appointment.getEndTime());
+        return dto;
+    }
+
+    /**
+     * Books an appointment.
+     * 1. Checks the start time is on a slot boundary.
+     * 2. Checks the doctor and the patient exist.
+     * 3. Asks the slot index to book the slot; it saves the appointment while holding the doctor's lock.
+     * 4. If the slot is already taken in the database anyway, the unique constraint fails and we report a conflict.
+     *    (Each instance has its own in-memory database, so this never sees another instance's bookings.)
+     */
+    @Override
+    public AppointmentResponseDTO bookAppointment(AppointmentRequestDTO request) {
+        if (!slotIndex.isSlotStart(request.getStartTime())) {
+            throw new InvalidRequestException("Start time must be on a " + slotIndex.getSlotMinutes() + "-minute slot boundary.");
+        }
+        if (!doctorRepository.existsById(request.getDoctorId())) {
+            throw new ResourceNotFoundException("Doctor not found with id: " + request.getDoctorId());
+        }
+        if (!patientClient.patientExists(request.getPatientId())) {
+            throw new ResourceNotFoundException("Patient not found with id: " + request.getPatientId());
+        }
+
+        Appointment appointment = new Appointment(request.getDoctorId(), request.getPatientId(), request.getStartTime(),
+                request.getStartTime().plusMinutes(slotIndex.getSlotMinutes()));
+        Appointment saved = slotIndex.book(request.getDoctorId(), request.getStartTime(), () -> {
+            try {
+                return appointmentRepository.saveAndFlush(appointment);
+            } catch (DataIntegrityViolationException e) {
+                throw new SlotUnavailableException("Doctor " + request.getDoctorId() + " is already booked at " + request.getStartTime());
+            }
+        });
+        return mapToDTO(saved);
+    }
+
+    @Override
+    public AppointmentResponseDTO getAppointmentById(UUID id) {
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
+        return mapToDTO(appointment);
+    }
+
+    @Override
+    public List<AppointmentResponseDTO> getDoctorAppointments(UUID doctorId, LocalDate day) {
+        return appointmentRepository.findByDoctorIdAndStartTimeBetweenOrderByStartTime(
+                        doctorId, day.atStartOfDay(), day.plusDays(1).atStartOfDay().minusNanos(1))
+                .stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    @Override
+    public List<AppointmentResponseDTO> getPatientAppointments(UUID patientId) {
+        return appointmentRepository.findByPatientIdOrderByStartTime(patientId).stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    /**
+     * Cancels an appointment: deletes it and frees the slot, under the doctor's lock.
+     * When two cancels of one appointment race, only the one that actually deleted the row frees the slot;
+     * the other gets a 404, as if it had arrived after the first.
+     */
+    @Override
+    public void cancelAppointment(UUID id) {
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
+        boolean removed = slotIndex.release(appointment.getDoctorId(), appointment.getStartTime(),
+                () -> appointmentRepository.deleteAppointment(id));
+        if (!removed) {
+            throw new ResourceNotFoundException("Appointment not found with id: " + id);
+        }
+    }
+}
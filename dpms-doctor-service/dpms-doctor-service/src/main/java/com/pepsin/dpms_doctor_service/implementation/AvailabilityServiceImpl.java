@@ -0,0 +1,151 @@
+package com.pepsin.dpms_doctor_service.implementation;
+
+import com.pepsin.dpms_doctor_service.DTO.AvailabilityDTO;
+import com.pepsin.dpms_doctor_service.DTO.FreeSlotPageDTO;
+import com.pepsin.dpms_doctor_service.DTO.WeeklyAvailabilityDTO;
+import com.pepsin.dpms_doctor_service.exception.InvalidRequestException;
+import com.pepsin.dpms_doctor_service.exception.ResourceNotFoundException;
+import com.pepsin.dpms_doctor_service.model.Appointment;
+import com.pepsin.dpms_doctor_service.model.DoctorAvailability;
+import com.pepsin.dpms_doctor_service.repository.AppointmentRepository;
+import com.pepsin.dpms_doctor_service.repository.DoctorAvailabilityRepository;
+import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import com.pepsin.dpms_doctor_service.scheduling.AppointmentSlotIndex;
+import com.pepsin.dpms_doctor_service.scheduling.FreeSlot;
+import com.pepsin.dpms_doctor_service.scheduling.WorkingHours;
+import com.pepsin.dpms_doctor_service.service.AvailabilityService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * This is the "Rota Manager": keeps doctors' weekly working hours and answers
+ * "who is free soonest?" questions using the in-memory AppointmentSlotIndex.
+ */
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private static final int MAX_DAYS = 365;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final AppointmentSlotIndex slotIndex;
+
+    public AvailabilityServiceImpl(DoctorAvailabilityRepository availabilityRepository,
+                                   AppointmentRepository appointmentRepository,
+                                   DoctorRepository doctorRepository,
+                                   AppointmentSlotIndex slotIndex) {
+        this.availabilityRepository = availabilityRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.slotIndex = slotIndex;
+    }
+
+    /**
+     * Fills the slot index for every doctor with two queries when the service starts,
+     * so the first search doesn't have to load thousands of doctors one by one.
+     */
+    @PostConstruct
+    public void loadSlotIndex() {
+        Map<UUID, List<WorkingHours>> hoursByDoctor = availabilityRepository.findAll().stream()
+                .collect(Collectors.groupingBy(DoctorAvailability::getDoctorId,
+                        Collectors.mapping(this::toWorkingHours, Collectors.toList())));
+        Map<UUID, List<LocalDateTime>> bookedByDoctor = appointmentRepository
+                .findByStartTimeGreaterThanEqual(LocalDate.now().atStartOfDay()).stream()
+                .collect(Collectors.groupingBy(Appointment::getDoctorId,
+                        Collectors.mapping(Appointment::getStartTime, Collectors.toList())));
+        slotIndex.preload(bookedByDoctor, hoursByDoctor);
+    }
+
+    /**
+     * Replaces a doctor's working hours.
+     * 1. Checks the doctor exists and every block ends after it starts.
+     * 2. Throws away the old "Working Hours" cards and saves the new ones.
+     * 3. Once the change is committed, updates the slot index.
+     */
+    @Override
+    @Transactional
+    public WeeklyAvailabilityDTO setAvailability(UUID doctorId, WeeklyAvailabilityDTO availability) {
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new ResourceNotFoundException("Doctor not found with id: " + doctorId);
+        }
+        for (AvailabilityDTO block : availability.getHours()) {
+            if (!block.getStartTime().isBefore(block.getEndTime())) {
+                throw new InvalidRequestException("Working hours must end after they start: " + block.getDayOfWeek()
+                        + " " + block.getStartTime() + "-" + block.getEndTime());
+            }
+        }
+
+        availabilityRepository.deleteByDoctorId(doctorId);
+        List<DoctorAvailability> saved = availabilityRepository.saveAll(availability.getHours().stream()
+                .map(block -> new DoctorAvailability(doctorId, block.getDayOfWeek(), block.getStartTime(), block.getEndTime()))
+                .toList());
+
+        List<WorkingHours> hours = saved.stream().map(this::toWorkingHours).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                slotIndex.setWorkingHours(doctorId, hours);
+            }
+        });
+        return toDTO(saved);
+    }
+
+    @Override
+    public WeeklyAvailabilityDTO getAvailability(UUID doctorId) {
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new ResourceNotFoundException("Doctor not found with id: " + doctorId);
+        }
+        return toDTO(availabilityRepository.findByDoctorId(doctorId));
+    }
+
+    /**
+     * Finds the earliest free slots for a specialty.
+     * 1. Asks the Librarian for the IDs of the doctors with that specialty (one indexed query).
+     * 2. Lets the slot index merge those doctors' free slots in time order.
+     */
+    @Override
+    public FreeSlotPageDTO findEarliestFreeSlots(String specialty, LocalDateTime from, UUID afterDoctorId,
+                                                 int days, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime searchFrom = from == null || from.isBefore(now) ? now : from;
+        int horizon = Math.max(1, Math.min(days, MAX_DAYS));
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<UUID> doctorIds = doctorRepository.findIdsBySpecialty(specialty);
+        List<FreeSlot> slots = slotIndex.findEarliestFree(doctorIds, searchFrom, afterDoctorId, horizon, pageSize);
+
+        FreeSlotPageDTO page = new FreeSlotPageDTO();
+        slots.forEach(slot -> page.getSlots().add(new FreeSlotPageDTO.FreeSlotDTO(slot.doctorId(), slot.startTime(),
+                slot.startTime().plusMinutes(slotIndex.getSlotMinutes()))));
+        if (!slots.isEmpty()) {
+            FreeSlot last = slots.get(slots.size() - 1);
+            page.setNextFrom(last.startTime());
+            page.setNextAfterDoctorId(last.doctorId());
+        }
+        return page;
+    }
+
+    private WorkingHours toWorkingHours(DoctorAvailability availability) {
+        return new WorkingHours(availability.getDayOfWeek(), availability.getStartTime(), availability.getEndTime());
+    }
+
+    private WeeklyAvailabilityDTO toDTO(List<DoctorAvailability> blocks) {
+        WeeklyAvailabilityDTO dto = new WeeklyAvailabilityDTO();
+        dto.setHours(blocks.stream()
+                .map(block -> new AvailabilityDTO(block.getDayOfWeek(), block.getStartTime(), block.getEndTime()))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+}
@@ -1,18 +1,47 @@
 package com.pepsin.dpms_doctor_service.implementation;
 
+import com.pepsin.dpms_doctor_service.DTO.DoctorChangesDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorListPageDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorRequestDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorStatsDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorUpdateDTO;
+import com.pepsin.dpms_doctor_service.cache.DoctorDirectory;
+import com.pepsin.dpms_doctor_service.cache.DoctorJsonCache;
+import com.pepsin.dpms_doctor_service.cache.EmailBloomFilter;
+import com.pepsin.dpms_doctor_service.exception.DuplicateEmailException;
+import com.pepsin.dpms_doctor_service.exception.InvalidRequestException;
 import com.pepsin.dpms_doctor_service.exception.ResourceNotFoundException;
 import com.pepsin.dpms_doctor_service.model.Doctor;
+import com.pepsin.dpms_doctor_service.model.DoctorTombstone;
+import com.pepsin.dpms_doctor_service.query.ListQueryParser;
+import com.pepsin.dpms_doctor_service.repository.DoctorProjectionRepository;
 import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import com.pepsin.dpms_doctor_service.repository.DoctorTombstoneRepository;
 import com.pepsin.dpms_doctor_service.service.DoctorService;
+import com.pepsin.dpms_doctor_service.stats.DoctorStatistics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,11 +56,41 @@ import java.util.stream.Collectors;
  */
 @Service
 public class DoctorServiceImpl implements DoctorService {
+    // The biggest sync page we hand out in one go, whatever the client asks for.
+    private static final int MAX_SYNC_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 500;
+    // The biggest filtered list page we hand out in one go.
+    private static final int MAX_LIST_PAGE_SIZE = 100;
+    // What the filtered list endpoint may filter and sort on: only columns with an index on Doctor
+    private static final ListQueryParser<Doctor> LIST_QUERY = new ListQueryParser<>(
+            listFilterFields(),
+            List.of("lastName", "specialty", "lastModified"));
+
     private final DoctorRepository doctorRepository;
+    private final DoctorTombstoneRepository tombstoneRepository;
+    // In-memory copy of the doctor list, only used when doctor.directory.in-memory=true
+    private final DoctorDirectory doctorDirectory;
+    // Ready-made JSON for doctors that are read often
+    private final DoctorJsonCache doctorJsonCache;
+    // Emails we know are in use, so most creates can skip the "is this email taken?" lookup
+    private final EmailBloomFilter emailFilter;
+    // Doctors per specialty for the dashboard stats, kept up to date with every write
+    private final DoctorStatistics statistics;
+    // How far behind "now" the sync endpoint stops, so writes still being committed aren't skipped
+    private final Duration syncSafetyLag;
 
     @Autowired
-    public DoctorServiceImpl(DoctorRepository doctorRepository) {
+    public DoctorServiceImpl(DoctorRepository doctorRepository, DoctorTombstoneRepository tombstoneRepository,
+                             DoctorDirectory doctorDirectory, DoctorJsonCache doctorJsonCache,
+                             EmailBloomFilter emailFilter, DoctorStatistics statistics,
+                             @Value("${doctor.sync.safety-lag:PT30S}") Duration syncSafetyLag) {
         this.doctorRepository = doctorRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.doctorDirectory = doctorDirectory;
+        this.doctorJsonCache = doctorJsonCache;
+        this.emailFilter = emailFilter;
+        this.statistics = statistics;
+        this.syncSafetyLag = syncSafetyLag;
     }
 
     /**
@@ -64,30 +123,52 @@ public class DoctorServiceImpl implements DoctorService {
         dto.setContactNumber(doctor.getContactNumber());
         dto.setEmail(doctor.getEmail());
         dto.setOfficeAddress(doctor.getOfficeAddress());
+        dto.setVersion(doctor.getVersion());
+        dto.setLastModified(doctor.getLastModified());
         return dto;
     }
 
     /**
      * Creates a new doctor record.
-     * 1. Takes the DoctorRequestDTO (form).
-     * 2. Converts it into a Doctor entity (record card).
-     * 3. Asks the Librarian (doctorRepository) to save the new record.
-     * 4. Converts the saved Doctor entity back into a DoctorResponseDTO (summary form).
-     * 5. Returns the summary form.
+     * 1. Makes sure the email isn't used yet, ignoring case and surrounding spaces.
+     *    The email filter answers "certainly new" for most emails; only the others are looked up by the Librarian.
+     * 2. Converts the DoctorRequestDTO (form) into a Doctor entity (record card).
+     * 3. Asks the Librarian (doctorRepository) to save the new record. If another request saved the same
+     *    email in the meantime, the database's unique constraint on the normalized email refuses it,
+     *    which is reported as the same 409.
+     * 4. Converts the saved Doctor entity back into a DoctorResponseDTO (summary form) and returns it.
      */
     @Override
     public DoctorResponseDTO createDoctor(DoctorRequestDTO doctorRequestDTO) {
-        // You might add a check here if a doctor with this email already exists
-        Optional<Doctor> existingDoctor = doctorRepository.findByEmail(doctorRequestDTO.getEmail());
-        if (existingDoctor.isPresent()) {
-            throw new IllegalArgumentException("Doctor with this email already exists.");
+        String email = doctorRequestDTO.getEmail();
+        if (emailFilter.mightContain(email)
+                && doctorRepository.findFirstByNormalizedEmail(Doctor.normalizeEmail(email)).isPresent()) {
+            throw new DuplicateEmailException("Doctor with email " + email + " already exists.");
         }
 
         Doctor doctor = mapToEntity(doctorRequestDTO);
-        Doctor savedDoctor = doctorRepository.save(doctor);
+        Doctor savedDoctor = saveCheckingEmail(doctor);
+        emailFilter.put(savedDoctor.getEmail());
+        doctorDirectory.put(savedDoctor);
+        statistics.added(savedDoctor.getSpecialty());
         return mapToDTO(savedDoctor);
     }
 
+    /**
+     * Saves a record card right away, turning a clash on the unique email columns into a DuplicateEmailException.
+     * The email and normalized email are the doctors table's only unique columns besides the ID.
+     */
+    private Doctor saveCheckingEmail(Doctor doctor) {
+        try {
+            return doctorRepository.saveAndFlush(doctor);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateEmailException.isCausedBy(e)) {
+                throw e;
+            }
+            throw new DuplicateEmailException("Doctor with email " + doctor.getEmail() + " already exists.");
+        }
+    }
+
     /**
      * Retrieves a doctor's summary form by their unique ID.
      * 1. Asks the Librarian (doctorRepository) to find the record card by ID.
@@ -96,11 +177,39 @@ public class DoctorServiceImpl implements DoctorService {
      */
     @Override
     public DoctorResponseDTO getDoctorById(UUID id) {
+        if (doctorDirectory.isEnabled()) {
+            return doctorDirectory.find(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+        }
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
         return mapToDTO(doctor);
     }
 
+    /**
+     * Retrieves only some fields of one doctor.
+     * 1. Checks the field names (see checkFields).
+     * 2. Picks them from the in-memory directory, or asks the Librarian for just those columns.
+     * 3. If NOT found, throws a "ResourceNotFoundException".
+     */
+    @Override
+    public Map<String, Object> getDoctorById(UUID id, List<String> fields) {
+        List<String> checked = checkFields(fields);
+        Optional<Map<String, Object>> doctor = doctorDirectory.isEnabled()
+                ? doctorDirectory.find(id).map(dto -> pickFields(dto, checked))
+                : doctorRepository.findProjectedById(id, checked);
+        return doctor.orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+    }
+
+    /**
+     * Retrieves a doctor's summary form as ready-made JSON bytes,
+     * building them once from getDoctorById if the cache doesn't have them yet.
+     */
+    @Override
+    public byte[] getDoctorJsonById(UUID id) {
+        return doctorJsonCache.get(id, this::getDoctorById);
+    }
+
     /**
      * Retrieves all doctor summary forms.
      * 1. Asks the Librarian (doctorRepository) for all record cards.
@@ -109,11 +218,148 @@ public class DoctorServiceImpl implements DoctorService {
      */
     @Override
     public List<DoctorResponseDTO> getAllDoctors() {
+        if (doctorDirectory.isEnabled()) {
+            return doctorDirectory.findAll();
+        }
         return doctorRepository.findAll().stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves only some fields of every doctor.
+     * The Librarian reads just those columns, so a list of names never loads office addresses.
+     */
+    @Override
+    public List<Map<String, Object>> getAllDoctors(List<String> fields) {
+        List<String> checked = checkFields(fields);
+        if (doctorDirectory.isEnabled()) {
+            return doctorDirectory.findAll().stream()
+                    .map(dto -> pickFields(dto, checked))
+                    .collect(Collectors.toList());
+        }
+        return doctorRepository.findAllProjected(checked);
+    }
+
+    /**
+     * Retrieves one page of doctors matching the client's filter, in the client's order.
+     * 1. Turns the filter and sort into a single query (ListQueryParser rejects anything without an index).
+     * 2. Asks the Librarian for one more doctor than the page holds, which tells us if there is a next page
+     *    without counting every match.
+     * 3. Converts each record card into a summary form.
+     * Always goes to the database, even with the in-memory directory on, so every page is sorted by the database's
+     * collation and pages never disagree about the order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DoctorListPageDTO listDoctors(String filter, String sort, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_LIST_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        Specification<Doctor> where = LIST_QUERY.parseFilter(filter);
+        Sort order = LIST_QUERY.parseSort(sort);
+
+        Slice<Doctor> slice = doctorRepository.findBy(where,
+                query -> query.sortBy(order).slice(PageRequest.of(pageNumber, pageSize)));
+
+        DoctorListPageDTO dto = new DoctorListPageDTO();
+        dto.setItems(slice.getContent().stream().map(this::mapToDTO).collect(Collectors.toList()));
+        dto.setPage(pageNumber);
+        dto.setSize(pageSize);
+        dto.setHasMore(slice.hasNext());
+        return dto;
+    }
+
+    // The fields the list endpoint filters on, in the order error messages list them
+    private static Map<String, Class<?>> listFilterFields() {
+        Map<String, Class<?>> fields = new LinkedHashMap<>();
+        fields.put("specialty", String.class);
+        fields.put("lastName", String.class);
+        fields.put("lastModified", Instant.class);
+        return fields;
+    }
+
+    /**
+     * Makes sure every requested field is one a doctor has, and drops repeats.
+     * Blank entries (from "fields=id,,firstName") are ignored.
+     */
+    private static List<String> checkFields(List<String> fields) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!DoctorProjectionRepository.FIELDS.contains(name)) {
+                throw new InvalidRequestException("Unknown field '" + name + "'; choose from "
+                        + String.join(", ", DoctorProjectionRepository.FIELDS));
+            }
+            distinct.add(name);
+        }
+        if (distinct.isEmpty()) {
+            throw new InvalidRequestException("Name at least one field; choose from "
+                    + String.join(", ", DoctorProjectionRepository.FIELDS));
+        }
+        return List.copyOf(distinct);
+    }
+
+    /**
+     * Copies the requested fields of a summary form from the in-memory directory.
+     */
+    private static Map<String, Object> pickFields(DoctorResponseDTO dto, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, switch (field) {
+                case "id" -> dto.getId();
+                case "firstName" -> dto.getFirstName();
+                case "lastName" -> dto.getLastName();
+                case "specialty" -> dto.getSpecialty();
+                case "contactNumber" -> dto.getContactNumber();
+                case "email" -> dto.getEmail();
+                case "officeAddress" -> dto.getOfficeAddress();
+                case "version" -> dto.getVersion();
+                case "lastModified" -> dto.getLastModified();
+                default -> throw new IllegalArgumentException("Unknown field " + field);
+            });
+        }
+        return values;
+    }
+
+    /**
+     * Reads the "Head Count" board; the database is not touched.
+     */
+    @Override
+    public DoctorStatsDTO getDoctorStats() {
+        DoctorStatistics.Snapshot snapshot = statistics.snapshot();
+        DoctorStatsDTO dto = new DoctorStatsDTO();
+        dto.setTotal(snapshot.total());
+        dto.setBySpecialty(snapshot.bySpecialty());
+        dto.setLastRebuiltAt(snapshot.lastRebuiltAt());
+        return dto;
+    }
+
+    /**
+     * Retrieves many doctors' summary forms with one lookup, so callers such as the gateway
+     * don't have to ask for doctors one at a time.
+     * 1. Refuses more than MAX_BATCH_SIZE IDs at once.
+     * 2. Asks the Librarian for all the record cards in a single query (or reads the in-memory directory).
+     */
+    @Override
+    public List<DoctorResponseDTO> getDoctorsByIds(Collection<UUID> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_SIZE + " doctor ids can be requested at once");
+        }
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        if (doctorDirectory.isEnabled()) {
+            return distinctIds.stream()
+                    .map(doctorDirectory::find)
+                    .flatMap(Optional::stream)
+                    .collect(Collectors.toList());
+        }
+        return doctorRepository.findAllById(distinctIds).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
 
 
     /**
@@ -128,6 +374,7 @@ public class DoctorServiceImpl implements DoctorService {
     public DoctorResponseDTO updateDoctor(UUID id, DoctorUpdateDTO doctorUpdateDTO) {
         Doctor existingDoctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+        String oldSpecialty = existingDoctor.getSpecialty();
 
         // Update fields only if they are provided in the DTO
         Optional.ofNullable(doctorUpdateDTO.getFirstName()).ifPresent(existingDoctor::setFirstName);
@@ -137,21 +384,99 @@ public class DoctorServiceImpl implements DoctorService {
         Optional.ofNullable(doctorUpdateDTO.getEmail()).ifPresent(existingDoctor::setEmail);
         Optional.ofNullable(doctorUpdateDTO.getOfficeAddress()).ifPresent(existingDoctor::setOfficeAddress);
 
-        Doctor updatedDoctor = doctorRepository.save(existingDoctor);
+        Doctor updatedDoctor = saveCheckingEmail(existingDoctor);
+        emailFilter.put(updatedDoctor.getEmail());
+        doctorDirectory.put(updatedDoctor);
+        statistics.changed(oldSpecialty, updatedDoctor.getSpecialty());
+        doctorJsonCache.evict(id);
         return mapToDTO(updatedDoctor);
     }
 
     /**
      * Deletes a doctor record by their unique ID.
-     * 1. Checks if the doctor record exists.
+     * 1. Finds the doctor record (its specialty is needed to update the head count).
      * 2. If it exists, asks the Librarian (doctorRepository) to delete it.
-     * 3. If NOT found, throws a "ResourceNotFoundException".
+     * 3. Once the deletion is committed, takes the doctor off the pinboard and the head count,
+     *    so a rolled-back delete leaves both untouched.
+     * 4. If NOT found, throws a "ResourceNotFoundException".
      */
     @Override
+    @Transactional
     public void deleteDoctor(UUID id) {
-        if (!doctorRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Doctor not found with id: " + id);
+        Doctor doctor = doctorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+        doctorRepository.delete(doctor);
+        // Leave a slip behind so syncing clients find out about the deletion
+        tombstoneRepository.save(new DoctorTombstone(id));
+        doctorJsonCache.evict(id);
+        String specialty = doctor.getSpecialty();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                doctorDirectory.remove(id);
+                statistics.removed(specialty);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the changes since a sync cursor.
+     * 1. Asks for the next page of changed doctors and of "Removed Doctor" slips, each ordered by (time, id).
+     *    We ask for one extra to know if more are waiting.
+     * 2. Merges the two ordered lists and keeps the first 'limit' entries.
+     * 3. The last entry kept becomes the cursor for the next page.
+     * Only changes stamped at least syncSafetyLag ago are handed out: the stamp is taken before the commit,
+     * so a slow transaction could otherwise commit behind a cursor a client already holds.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DoctorChangesDTO getChangesSince(Instant since, UUID afterId, int limit) {
+        Instant from = since != null ? since : Instant.EPOCH;
+        UUID after = afterId != null ? afterId : new UUID(0L, 0L);
+        int pageSize = Math.max(1, Math.min(limit, MAX_SYNC_PAGE_SIZE));
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        Instant until = Instant.now().minus(syncSafetyLag);
+
+        List<Doctor> changed = doctorRepository.findChangedSince(from, after, until, page);
+        List<DoctorTombstone> deleted = tombstoneRepository.findDeletedSince(from, after, until, page);
+
+        DoctorChangesDTO result = new DoctorChangesDTO();
+        Instant cursorTime = from;
+        UUID cursorId = after;
+        int i = 0;
+        int j = 0;
+        while (i + j < pageSize && (i < changed.size() || j < deleted.size())) {
+            boolean takeChanged = j >= deleted.size()
+                    || (i < changed.size() && compareKeys(changed.get(i).getLastModified(), changed.get(i).getId(),
+                    deleted.get(j).getDeletedAt(), deleted.get(j).getId()) <= 0);
+            if (takeChanged) {
+                Doctor doctor = changed.get(i++);
+                result.getChanged().add(mapToDTO(doctor));
+                cursorTime = doctor.getLastModified();
+                cursorId = doctor.getId();
+            } else {
+                DoctorTombstone tombstone = deleted.get(j++);
+                result.getDeleted().add(tombstone.getId());
+                cursorTime = tombstone.getDeletedAt();
+                cursorId = tombstone.getId();
+            }
+        }
+        result.setHasMore(i < changed.size() || j < deleted.size());
+        result.setNextSince(cursorTime);
+        result.setNextAfterId(cursorId);
+        return result;
+    }
+
+    /**
+     * Orders sync entries the same way the database orders the (time, id) index:
+     * UUIDs compared as unsigned bytes, not with UUID.compareTo (which is signed).
+     */
+    private static int compareKeys(Instant time1, UUID id1, Instant time2, UUID id2) {
+        int byTime = time1.compareTo(time2);
+        if (byTime != 0) {
+            return byTime;
         }
-        doctorRepository.deleteById(id);
+        int byHigh = Long.compareUnsigned(id1.getMostSignificantBits(), id2.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(id1.getLeastSignificantBits(), id2.getLeastSignificantBits());
     }
 }
\ No newline at end of file
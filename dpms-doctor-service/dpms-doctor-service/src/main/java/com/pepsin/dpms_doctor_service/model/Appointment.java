@@ -0,0 +1,86 @@
+package com.pepsin.dpms_doctor_service.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * This is our "Appointment Card" blueprint.
+ * It books one patient into one of a doctor's time slots.
+ *
+ * The patient lives in the Patient Service, so we only keep their ID here.
+ * The unique constraint on (doctorId, startTime) is the last line of defence against
+ * double-booking, even when several copies of this service are running.
+ */
+@Entity
+@Table(name = "appointments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_appointments_doctor_start", columnNames = {"doctorId", "startTime"}),
+        indexes = @Index(name = "idx_appointments_patient", columnList = "patientId"))
+public class Appointment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID doctorId;
+
+    @Column(nullable = false)
+    private UUID patientId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    public Appointment() {
+    }
+
+    public Appointment(UUID doctorId, UUID patientId, LocalDateTime startTime, LocalDateTime endTime) {
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(UUID doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -4,6 +4,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -15,9 +20,22 @@ import java.util.UUID;
  * @Data (from Lombok): Automatically writes getters, setters, and toString().
  * @NoArgsConstructor (from Lombok): Creates an empty constructor.
  * @AllArgsConstructor (from Lombok): Creates a constructor with all fields.
+ * @Cacheable / @Cache: Keeps a copy of each record card in the "doctors" region of the second-level cache
+ * (see ehcache.xml), so findById doesn't go to the database for doctors read recently.
+ * READ_WRITE: a card being changed is locked in the cache until the change is committed.
  */
 @Entity
-@Table(name = "doctors")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctors")
+@Table(name = "doctors", indexes = {
+        @Index(name = "idx_doctors_last_modified", columnList = "lastModified, id"),
+        @Index(name = "idx_doctors_specialty", columnList = "specialty"),
+        // For filtering and sorting the filtered list by last name; ListQueryParser always sorts by id last
+        @Index(name = "idx_doctors_last_name", columnList = "lastName, id")
+}, uniqueConstraints = {
+        // No two doctors may share an email however it is written, and a doctor is found by email in one step
+        @UniqueConstraint(name = "uk_doctors_normalized_email", columnNames = "normalizedEmail")
+})
 
 public class Doctor {
 
@@ -44,10 +62,25 @@ public class Doctor {
     @Column(unique = true, nullable = false)
     private String email;
 
+    // The email trimmed and in lower case, kept in step with 'email' by setEmail() and touch().
+    // Lookups by email go through this column, so "Jane.Doe@X.org " finds jane.doe@x.org.
+    private String normalizedEmail;
+
     // In a real system, you might add more complex availability (e.g., a separate Availability entity)
     // For simplicity, we'll keep it basic for now.
     private String officeAddress;
 
+    /**
+     * @Version: Bumped by Hibernate on every save, so clients can tell whether their copy is stale.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // When this record was last written. Filled in automatically by touch() below.
+    @Column(nullable = false)
+    private Instant lastModified;
+
     public Doctor() {
     }
 
@@ -107,6 +140,11 @@ public class Doctor {
 
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
     }
 
     public String getOfficeAddress() {
@@ -116,4 +154,39 @@ public class Doctor {
     public void setOfficeAddress(String officeAddress) {
         this.officeAddress = officeAddress;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Stamps the record right before every insert and update.
+     * Truncated to microseconds so it matches what the database stores.
+     * Also fills in normalizedEmail for cards written before that column existed.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.lastModified = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    /**
+     * The form every email is stored and looked up in: surrounding spaces removed, lower case.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,51 @@
+package com.pepsin.dpms_doctor_service.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * This is a "Removed Doctor" slip.
+ * When a doctor record card is thrown away we keep a small slip with its ID and the time,
+ * so clients syncing their local copy know to remove it too.
+ */
+@Entity
+@Table(name = "doctor_tombstones", indexes = {
+        @Index(name = "idx_doctor_tombstones_deleted_at", columnList = "deletedAt, id")
+})
+public class DoctorTombstone {
+
+    /**
+     * The ID of the doctor that was deleted (not a new generated ID).
+     */
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    public DoctorTombstone() {
+    }
+
+    public DoctorTombstone(UUID id) {
+        this.id = id;
+        this.deletedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pepsin.dpms_doctor_service.repository;
+
+import com.pepsin.dpms_doctor_service.model.Appointment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The Librarian for appointment cards.
+ */
+@Repository
+public interface AppointmentRepository extends JpaRepository<Appointment, UUID> {
+
+    // A doctor's appointments from a moment onwards, used to fill the in-memory slot index
+    List<Appointment> findByDoctorIdAndStartTimeGreaterThanEqual(UUID doctorId, LocalDateTime from);
+
+    // Everyone's appointments from a moment onwards, used to fill the slot index at startup
+    List<Appointment> findByStartTimeGreaterThanEqual(LocalDateTime from);
+
+    // A doctor's appointments in a time window, earliest first
+    List<Appointment> findByDoctorIdAndStartTimeBetweenOrderByStartTime(UUID doctorId, LocalDateTime from, LocalDateTime to);
+
+    // All of a patient's appointments, earliest first (uses the patientId index)
+    List<Appointment> findByPatientIdOrderByStartTime(UUID patientId);
+
+    // Deletes one appointment and returns how many rows went: 0 if it was already gone.
+    // Unlike deleteById, the caller can tell whether this call was the one that removed it.
+    @Modifying
+    @Transactional
+    @Query("delete from Appointment a where a.id = :id")
+    int deleteAppointment(@Param("id") UUID id);
+}
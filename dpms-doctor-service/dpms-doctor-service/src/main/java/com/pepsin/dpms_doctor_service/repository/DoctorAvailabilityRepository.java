@@ -0,0 +1,19 @@
+package com.pepsin.dpms_doctor_service.repository;
+
+import com.pepsin.dpms_doctor_service.model.DoctorAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The Librarian for doctors' "Working Hours" cards.
+ */
+@Repository
+public interface DoctorAvailabilityRepository extends JpaRepository<DoctorAvailability, UUID> {
+
+    List<DoctorAvailability> findByDoctorId(UUID doctorId);
+
+    void deleteByDoctorId(UUID doctorId);
+}
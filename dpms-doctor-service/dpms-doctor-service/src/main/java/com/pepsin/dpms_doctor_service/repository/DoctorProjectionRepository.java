@@ -0,0 +1,26 @@
+package com.pepsin.dpms_doctor_service.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The Librarian's "Just These Fields, Please" service, for list screens that only show a few columns.
+ * The database is asked for the requested columns only, and each doctor comes back as a map
+ * of field name to value, in the order the fields were asked for.
+ *
+ * Part of DoctorRepository; Spring Data finds the implementation (DoctorProjectionRepositoryImpl) by its name.
+ */
+public interface DoctorProjectionRepository {
+
+    // The fields that can be asked for: those of DoctorResponseDTO
+    List<String> FIELDS = List.of("id", "firstName", "lastName", "specialty", "contactNumber", "email",
+            "officeAddress", "version", "lastModified");
+
+    // Every doctor, with only 'fields' (names from FIELDS)
+    List<Map<String, Object>> findAllProjected(List<String> fields);
+
+    // One doctor, with only 'fields' (names from FIELDS)
+    Optional<Map<String, Object>> findProjectedById(UUID id, List<String> fields);
+}
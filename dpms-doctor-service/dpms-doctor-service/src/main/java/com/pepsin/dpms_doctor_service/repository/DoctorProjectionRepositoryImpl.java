@@ -0,0 +1,61 @@
+package com.pepsin.dpms_doctor_service.repository;
+
+import com.pepsin.dpms_doctor_service.model.Doctor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds "select only these columns" queries with the Criteria API. Interface projections need their
+ * columns fixed in code; here the client picks them, so the select list is built per request.
+ */
+class DoctorProjectionRepositoryImpl implements DoctorProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(List<String> fields) {
+        return query(fields, null);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(UUID id, List<String> fields) {
+        return query(fields, id).stream().findFirst();
+    }
+
+    private List<Map<String, Object>> query(List<String> fields, UUID id) {
+        if (fields.isEmpty() || !FIELDS.containsAll(fields)) {
+            throw new IllegalArgumentException("Fields must be some of " + FIELDS + ", got " + fields);
+        }
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Doctor> doctor = query.from(Doctor.class);
+        List<Selection<?>> columns = fields.stream()
+                .<Selection<?>>map(field -> doctor.get(field).alias(field))
+                .toList();
+        query.multiselect(columns);
+        if (id != null) {
+            query.where(builder.equal(doctor.get("id"), id));
+        }
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (String field : fields) {
+                        values.put(field, row.get(field));
+                    }
+                    return values;
+                })
+                .toList();
+    }
+}
@@ -1,10 +1,21 @@
 package com.pepsin.dpms_doctor_service.repository;
 
 import com.pepsin.dpms_doctor_service.model.Doctor;
+import com.pepsin.dpms_doctor_service.stats.SpecialtyCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * This is our "Filing Cabinet Librarian" for doctor records.
@@ -13,10 +24,45 @@ import java.util.UUID;
  *
  * @Repository: Tells Spring this interface is for database interaction.
  * JpaRepository<Doctor, UUID>: Manages 'Doctor' record cards, identified by 'UUID'.
+ * JpaSpecificationExecutor<Doctor>: Runs queries built from a client's filter (see ListQueryParser).
  */
 @Repository
-public interface DoctorRepository extends JpaRepository<Doctor, UUID> {
+public interface DoctorRepository extends JpaRepository<Doctor, UUID>, JpaSpecificationExecutor<Doctor>,
+        DoctorProjectionRepository {
 
     // We can add custom methods here. Spring will figure out how to find a doctor by email.
     Optional<Doctor> findByEmail(String email);
+
+    // Finds a doctor by email however it was typed, through the normalized-email index.
+    // Pass Doctor.normalizeEmail(email).
+    // The answer (which doctor, or none) is kept in the "doctor-by-email" query cache until the doctors table changes.
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "doctor-by-email")
+    })
+    Optional<Doctor> findFirstByNormalizedEmail(String normalizedEmail);
+
+    // Every doctor's email, read one by one, for warming EmailBloomFilter (needs an open transaction)
+    @Query("select d.email from Doctor d")
+    Stream<String> streamAllEmails();
+
+    // Just the IDs of the doctors with a specialty, for the free-slot search
+    @Query("select d.id from Doctor d where d.specialty = :specialty")
+    List<UUID> findIdsBySpecialty(@Param("specialty") String specialty);
+
+    // How many doctors there are per specialty, for rebuilding DoctorStatistics in one query
+    @Query("select new com.pepsin.dpms_doctor_service.stats.SpecialtyCount(d.specialty, count(d)) " +
+            "from Doctor d group by d.specialty")
+    List<SpecialtyCount> countBySpecialty();
+
+    // Keyset page for the sync endpoint: doctors written after (since, afterId) and at or before 'until', oldest first.
+    // 'until' stays a little in the past, because lastModified is stamped before the commit (see getChangesSince).
+    @Query("select d from Doctor d " +
+            "where (d.lastModified > :since or (d.lastModified = :since and d.id > :afterId)) " +
+            "and d.lastModified <= :until " +
+            "order by d.lastModified, d.id")
+    List<Doctor> findChangedSince(@Param("since") Instant since,
+                                  @Param("afterId") UUID afterId,
+                                  @Param("until") Instant until,
+                                  Pageable pageable);
 }
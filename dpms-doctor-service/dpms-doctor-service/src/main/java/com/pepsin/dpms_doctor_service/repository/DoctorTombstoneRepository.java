@@ -0,0 +1,29 @@
+package com.pepsin.dpms_doctor_service.repository;
+
+import com.pepsin.dpms_doctor_service.model.DoctorTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The Librarian for "Removed Doctor" slips.
+ */
+@Repository
+public interface DoctorTombstoneRepository extends JpaRepository<DoctorTombstone, UUID> {
+
+    // Keyset page: slips written after (since, afterId) and at or before 'until', oldest first.
+    @Query("select t from DoctorTombstone t " +
+            "where (t.deletedAt > :since or (t.deletedAt = :since and t.id > :afterId)) " +
+            "and t.deletedAt <= :until " +
+            "order by t.deletedAt, t.id")
+    List<DoctorTombstone> findDeletedSince(@Param("since") Instant since,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("until") Instant until,
+                                            Pageable pageable);
+}
@@ -0,0 +1,304 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import com.pepsin.dpms_doctor_service.exception.InvalidRequestException;
+import com.pepsin.dpms_doctor_service.exception.SlotUnavailableException;
+import com.pepsin.dpms_doctor_service.model.Appointment;
+import com.pepsin.dpms_doctor_service.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * This is the "Appointment Book" kept at the front desk.
+ * For every doctor it remembers which slots are already taken, so "is this slot free?"
+ * never needs the database, and it makes sure two people can't grab the same slot.
+ *
+ * A day is cut into slots of slotMinutes (30 by default); an appointment takes exactly one slot.
+ * A doctor's book is filled from the database the first time that doctor is asked about.
+ *
+ * Booking holds the doctor's own lock while checking the slot, saving the appointment and marking
+ * the slot, so double-booking is impossible inside one service instance. The unique (doctorId, startTime)
+ * constraint on Appointment is a last line of defence inside the database.
+ * Nothing here protects across instances: the doctor service keeps its data in its own in-memory H2 database
+ * (jdbc:h2:mem), so each instance has separate appointments and the constraint never sees another instance's.
+ * Booking from several instances needs a shared database first.
+ *
+ * It also knows each doctor's weekly working hours, which lets it answer
+ * "what are the earliest free slots among these doctors?" without the database.
+ */
+@Component
+public class AppointmentSlotIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final Function<UUID, List<LocalDateTime>> bookedStartsLoader;
+    private final int slotMinutes;
+    private final ConcurrentHashMap<UUID, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AppointmentSlotIndex(AppointmentRepository appointmentRepository,
+                                @Value("${appointments.slot-minutes:30}") int slotMinutes) {
+        this(doctorId -> appointmentRepository
+                        .findByDoctorIdAndStartTimeGreaterThanEqual(doctorId, LocalDate.now().atStartOfDay())
+                        .stream()
+                        .map(Appointment::getStartTime)
+                        .toList(),
+                slotMinutes);
+    }
+
+    AppointmentSlotIndex(Function<UUID, List<LocalDateTime>> bookedStartsLoader, int slotMinutes) {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("appointments.slot-minutes must divide a day evenly, got " + slotMinutes);
+        }
+        this.bookedStartsLoader = bookedStartsLoader;
+        this.slotMinutes = slotMinutes;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    /**
+     * True if the time falls exactly on the start of a slot (e.g. 09:00 or 09:30 with 30-minute slots).
+     */
+    public boolean isSlotStart(LocalDateTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && minuteOfDay(time) % slotMinutes == 0;
+    }
+
+    /**
+     * Fills the book for many doctors at once (used at startup), instead of one database query per doctor.
+     */
+    public void preload(Map<UUID, List<LocalDateTime>> bookedStartsByDoctor,
+                        Map<UUID, List<WorkingHours>> workingHoursByDoctor) {
+        bookedStartsByDoctor.forEach((doctorId, starts) -> {
+            DoctorCalendar calendar = calendars.computeIfAbsent(doctorId, id -> new DoctorCalendar());
+            calendar.lock.lock();
+            try {
+                starts.forEach(start -> calendar.markBooked(start.toLocalDate(), slotOf(start)));
+            } finally {
+                calendar.lock.unlock();
+            }
+        });
+        workingHoursByDoctor.forEach((doctorId, hours) -> {
+            DoctorCalendar calendar = calendars.computeIfAbsent(doctorId, id -> new DoctorCalendar());
+            calendar.lock.lock();
+            try {
+                calendar.setWorkingHours(hours, slotMinutes);
+            } finally {
+                calendar.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Replaces a doctor's weekly working hours.
+     */
+    public void setWorkingHours(UUID doctorId, List<WorkingHours> hours) {
+        DoctorCalendar calendar = calendarFor(doctorId);
+        calendar.lock.lock();
+        try {
+            calendar.setWorkingHours(hours, slotMinutes);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    public boolean isFree(UUID doctorId, LocalDateTime start) {
+        DoctorCalendar calendar = calendarFor(doctorId);
+        calendar.lock.lock();
+        try {
+            return !calendar.isBooked(start.toLocalDate(), slotOf(start));
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Books a slot: checks it is free, runs 'persist' to save the appointment, then marks the slot taken.
+     * If 'persist' throws, the slot stays free.
+     *
+     * @throws SlotUnavailableException if the slot is already taken.
+     * @throws InvalidRequestException if the doctor has working hours and the slot is outside them.
+     */
+    public <T> T book(UUID doctorId, LocalDateTime start, Supplier<T> persist) {
+        LocalDate day = start.toLocalDate();
+        int slot = slotOf(start);
+        DoctorCalendar calendar = calendarFor(doctorId);
+        calendar.lock.lock();
+        try {
+            if (calendar.isBooked(day, slot)) {
+                throw new SlotUnavailableException("Doctor " + doctorId + " is already booked at " + start);
+            }
+            if (calendar.hasWorkingHours() && !calendar.isWorking(day, slot)) {
+                throw new InvalidRequestException("Doctor " + doctorId + " is not working at " + start);
+            }
+            T saved = persist.get();
+            calendar.markBooked(day, slot);
+            return saved;
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Frees a slot: runs 'delete' to remove the appointment, then marks the slot free again.
+     * If 'delete' removed nothing (another cancel got there first, and the slot may already be booked again),
+     * the slot is left as it is.
+     *
+     * @param delete Deletes the appointment and returns how many rows it removed.
+     * @return Whether an appointment was removed.
+     */
+    public boolean release(UUID doctorId, LocalDateTime start, IntSupplier delete) {
+        DoctorCalendar calendar = calendarFor(doctorId);
+        calendar.lock.lock();
+        try {
+            if (delete.getAsInt() == 0) {
+                return false;
+            }
+            calendar.markFree(start.toLocalDate(), slotOf(start));
+            return true;
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Finds the earliest free slots across a group of doctors, ordered by (start time, doctor id).
+     *
+     * Every doctor gets a cursor pointing at their next free slot, and a priority queue always
+     * hands back the earliest one. After taking a slot we move that doctor's cursor on and put it back.
+     * Cost is O((doctors + limit) * log(doctors)), and days where a doctor doesn't work are skipped without work.
+     *
+     * Paging: pass the last slot's start time as 'from' and its doctor as 'afterDoctorId' to continue.
+     *
+     * @param doctorIds The doctors to search (e.g. all cardiologists).
+     * @param from Only slots starting at or after this time.
+     * @param afterDoctorId For slots starting exactly at 'from', only doctors after this one (may be null).
+     * @param horizonDays How many days ahead of 'from' to look.
+     * @param limit The maximum number of slots to return.
+     */
+    public List<FreeSlot> findEarliestFree(Collection<UUID> doctorIds, LocalDateTime from, UUID afterDoctorId,
+                                           int horizonDays, int limit) {
+        LocalDate lastDay = from.toLocalDate().plusDays(horizonDays - 1L);
+        boolean onWholeMinute = from.getSecond() == 0 && from.getNano() == 0;
+        // First slot that doesn't start before 'from'
+        int firstSlot = onWholeMinute
+                ? (minuteOfDay(from) + slotMinutes - 1) / slotMinutes
+                : minuteOfDay(from) / slotMinutes + 1;
+        boolean fromIsSlotStart = isSlotStart(from);
+
+        PriorityQueue<FreeSlotCursor> queue = new PriorityQueue<>(Math.max(1, doctorIds.size()), FreeSlotCursor.ORDER);
+        for (UUID doctorId : doctorIds) {
+            DoctorCalendar calendar = calendars.get(doctorId);
+            if (calendar == null) {
+                // Never given working hours, so never free
+                continue;
+            }
+            FreeSlotCursor cursor = new FreeSlotCursor(doctorId, calendar, lastDay);
+            int startSlot = firstSlot;
+            if (fromIsSlotStart && afterDoctorId != null && doctorId.compareTo(afterDoctorId) <= 0) {
+                // This doctor's slot at exactly 'from' was on the previous page
+                startSlot++;
+            }
+            if (cursor.seek(from.toLocalDate(), startSlot)) {
+                queue.add(cursor);
+            }
+        }
+
+        List<FreeSlot> result = new ArrayList<>(limit);
+        while (result.size() < limit && !queue.isEmpty()) {
+            FreeSlotCursor cursor = queue.poll();
+            result.add(new FreeSlot(cursor.doctorId,
+                    cursor.day.atStartOfDay().plusMinutes((long) cursor.slot * slotMinutes)));
+            if (cursor.seek(cursor.day, cursor.slot + 1)) {
+                queue.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks one doctor's free slots in time order, up to the last day of the search.
+     */
+    private final class FreeSlotCursor {
+
+        static final Comparator<FreeSlotCursor> ORDER = Comparator
+                .comparing((FreeSlotCursor c) -> c.day)
+                .thenComparingInt(c -> c.slot)
+                .thenComparing(c -> c.doctorId);
+
+        final UUID doctorId;
+        final DoctorCalendar calendar;
+        final LocalDate lastDay;
+        LocalDate day;
+        int slot;
+
+        FreeSlotCursor(UUID doctorId, DoctorCalendar calendar, LocalDate lastDay) {
+            this.doctorId = doctorId;
+            this.calendar = calendar;
+            this.lastDay = lastDay;
+        }
+
+        /**
+         * Moves to the first free slot at or after (startDay, startSlot). Returns false if there is none.
+         */
+        boolean seek(LocalDate startDay, int startSlot) {
+            int slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+            calendar.lock.lock();
+            try {
+                LocalDate candidateDay = startDay;
+                int fromSlot = startSlot;
+                while (!candidateDay.isAfter(lastDay)) {
+                    int free = fromSlot < slotsPerDay ? calendar.nextFreeSlot(candidateDay, fromSlot) : -1;
+                    if (free >= 0 && free < slotsPerDay) {
+                        day = candidateDay;
+                        slot = free;
+                        return true;
+                    }
+                    candidateDay = candidateDay.plusDays(1);
+                    fromSlot = 0;
+                }
+                return false;
+            } finally {
+                calendar.lock.unlock();
+            }
+        }
+    }
+
+    private DoctorCalendar calendarFor(UUID doctorId) {
+        DoctorCalendar calendar = calendars.get(doctorId);
+        if (calendar != null) {
+            return calendar;
+        }
+        // Query outside the map: inside computeIfAbsent it would block every doctor sharing the map bin.
+        // If another thread got there first we drop our copy; all bookings go through the one in the map.
+        DoctorCalendar loaded = new DoctorCalendar();
+        for (LocalDateTime start : bookedStartsLoader.apply(doctorId)) {
+            loaded.markBooked(start.toLocalDate(), slotOf(start));
+        }
+        DoctorCalendar existing = calendars.putIfAbsent(doctorId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private int slotOf(LocalDateTime time) {
+        return minuteOfDay(time) / slotMinutes;
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
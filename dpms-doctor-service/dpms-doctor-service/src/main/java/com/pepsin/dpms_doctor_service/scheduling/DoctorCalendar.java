@@ -0,0 +1,93 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One doctor's booked slots, kept as one BitSet per day (bit n = the n-th slot of the day).
+ * Checking or marking a slot is a single bit operation.
+ *
+ * It also holds the doctor's weekly working hours as one BitSet per day of the week.
+ * A slot is free when its working bit is set and its booked bit is not.
+ *
+ * Every doctor has their own lock, so bookings for different doctors never wait on each other.
+ * The maps and bit sets are only touched while holding that lock.
+ */
+final class DoctorCalendar {
+
+    final ReentrantLock lock = new ReentrantLock();
+    private final Map<LocalDate, BitSet> bookedByDay = new HashMap<>();
+    // Indexed by DayOfWeek.ordinal(); null means not working that day
+    private final BitSet[] workingByDayOfWeek = new BitSet[7];
+    private boolean hasWorkingHours;
+
+    boolean isBooked(LocalDate day, int slot) {
+        BitSet booked = bookedByDay.get(day);
+        return booked != null && booked.get(slot);
+    }
+
+    void markBooked(LocalDate day, int slot) {
+        bookedByDay.computeIfAbsent(day, d -> new BitSet()).set(slot);
+    }
+
+    void markFree(LocalDate day, int slot) {
+        BitSet booked = bookedByDay.get(day);
+        if (booked != null) {
+            booked.clear(slot);
+            if (booked.isEmpty()) {
+                bookedByDay.remove(day);
+            }
+        }
+    }
+
+    /**
+     * Replaces the weekly working hours. Only slots that fit completely inside a block count.
+     */
+    void setWorkingHours(List<WorkingHours> hours, int slotMinutes) {
+        Arrays.fill(workingByDayOfWeek, null);
+        for (WorkingHours block : hours) {
+            int startMinute = block.startTime().getHour() * 60 + block.startTime().getMinute();
+            int endMinute = block.endTime().getHour() * 60 + block.endTime().getMinute();
+            int firstSlot = (startMinute + slotMinutes - 1) / slotMinutes;
+            int endSlot = endMinute / slotMinutes;
+            if (firstSlot < endSlot) {
+                int dayIndex = block.dayOfWeek().ordinal();
+                if (workingByDayOfWeek[dayIndex] == null) {
+                    workingByDayOfWeek[dayIndex] = new BitSet();
+                }
+                workingByDayOfWeek[dayIndex].set(firstSlot, endSlot);
+            }
+        }
+        hasWorkingHours = !hours.isEmpty();
+    }
+
+    boolean hasWorkingHours() {
+        return hasWorkingHours;
+    }
+
+    boolean isWorking(LocalDate day, int slot) {
+        BitSet working = workingByDayOfWeek[day.getDayOfWeek().ordinal()];
+        return working != null && working.get(slot);
+    }
+
+    /**
+     * The first free slot on a day at or after fromSlot, or -1 if there is none.
+     */
+    int nextFreeSlot(LocalDate day, int fromSlot) {
+        BitSet working = workingByDayOfWeek[day.getDayOfWeek().ordinal()];
+        if (working == null) {
+            return -1;
+        }
+        BitSet booked = bookedByDay.get(day);
+        int slot = working.nextSetBit(fromSlot);
+        while (slot >= 0 && booked != null && booked.get(slot)) {
+            slot = working.nextSetBit(slot + 1);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,10 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A slot where a doctor is working and nobody is booked yet.
+ */
+public record FreeSlot(UUID doctorId, LocalDateTime startTime) {
+}
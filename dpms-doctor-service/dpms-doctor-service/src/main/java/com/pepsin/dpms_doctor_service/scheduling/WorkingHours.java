@@ -0,0 +1,10 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One block of a doctor's weekly working hours, e.g. MONDAY 09:00-13:00.
+ */
+public record WorkingHours(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+}
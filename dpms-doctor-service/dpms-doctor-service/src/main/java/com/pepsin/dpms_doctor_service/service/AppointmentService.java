@@ -0,0 +1,50 @@
+package com.pepsin.dpms_doctor_service.service;
+
+import com.pepsin.dpms_doctor_service.DTO.AppointmentRequestDTO;
+import com.pepsin.dpms_doctor_service.DTO.AppointmentResponseDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This is the "list of promises" our Appointment Desk makes.
+ * It defines what can be done with appointments between patients and doctors.
+ */
+public interface AppointmentService {
+
+    /**
+     * Books a patient into one of a doctor's slots.
+     * @param appointmentRequestDTO The booking form.
+     * @return The summary form of the new appointment.
+     */
+    AppointmentResponseDTO bookAppointment(AppointmentRequestDTO appointmentRequestDTO);
+
+    /**
+     * Retrieves an appointment by its unique ID.
+     * @param id The unique ID of the appointment.
+     * @return The appointment's summary form.
+     */
+    AppointmentResponseDTO getAppointmentById(UUID id);
+
+    /**
+     * Retrieves a doctor's appointments on one day, earliest first.
+     * @param doctorId The unique ID of the doctor.
+     * @param day The day to look at.
+     * @return The appointments of that day.
+     */
+    List<AppointmentResponseDTO> getDoctorAppointments(UUID doctorId, LocalDate day);
+
+    /**
+     * Retrieves every appointment a patient has, earliest first.
+     * @param patientId The unique ID of the patient.
+     * @return The patient's appointments.
+     */
+    List<AppointmentResponseDTO> getPatientAppointments(UUID patientId);
+
+    /**
+     * Cancels an appointment and frees its slot.
+     * @param id The unique ID of the appointment to cancel.
+     */
+    void cancelAppointment(UUID id);
+}
@@ -0,0 +1,39 @@
+package com.pepsin.dpms_doctor_service.service;
+
+import com.pepsin.dpms_doctor_service.DTO.FreeSlotPageDTO;
+import com.pepsin.dpms_doctor_service.DTO.WeeklyAvailabilityDTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * This is the "list of promises" about doctors' working hours and free slots.
+ */
+public interface AvailabilityService {
+
+    /**
+     * Replaces a doctor's weekly working hours.
+     * @param doctorId The unique ID of the doctor.
+     * @param availability Every block the doctor works in a normal week.
+     * @return The saved working hours.
+     */
+    WeeklyAvailabilityDTO setAvailability(UUID doctorId, WeeklyAvailabilityDTO availability);
+
+    /**
+     * Retrieves a doctor's weekly working hours.
+     * @param doctorId The unique ID of the doctor.
+     * @return The doctor's working hours.
+     */
+    WeeklyAvailabilityDTO getAvailability(UUID doctorId);
+
+    /**
+     * Finds the earliest free slots among all doctors with a specialty.
+     * @param specialty The specialty, e.g. "Cardiology".
+     * @param from Only slots starting at or after this time (null means now).
+     * @param afterDoctorId Paging cursor from the previous page (may be null).
+     * @param days How many days ahead to look.
+     * @param limit The maximum number of slots to return.
+     * @return One page of free slots, earliest first.
+     */
+    FreeSlotPageDTO findEarliestFreeSlots(String specialty, LocalDateTime from, UUID afterDoctorId, int days, int limit);
+}
@@ -1,11 +1,17 @@
 package com.pepsin.dpms_doctor_service.service;
 
 
+import com.pepsin.dpms_doctor_service.DTO.DoctorChangesDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorListPageDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorRequestDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorStatsDTO;
 import com.pepsin.dpms_doctor_service.DTO.DoctorUpdateDTO;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -28,12 +34,58 @@ public interface DoctorService {
      */
     DoctorResponseDTO getDoctorById(UUID id);
 
+    /**
+     * Retrieves one doctor with only some of their fields.
+     * @param id The ID of the doctor.
+     * @param fields The field names of DoctorResponseDTO to include, in the order wanted.
+     * @return A map of field name to value.
+     */
+    Map<String, Object> getDoctorById(UUID id, List<String> fields);
+
+    /**
+     * Retrieves a doctor's summary form already written out as UTF-8 JSON.
+     * @param id The unique ID of the doctor.
+     * @return The JSON bytes of the doctor's summary form.
+     */
+    byte[] getDoctorJsonById(UUID id);
+
     /**
      * Retrieves all doctor summary forms.
      * @return A list of all doctor summary forms.
      */
     List<DoctorResponseDTO> getAllDoctors();
 
+    /**
+     * Retrieves all doctors with only some of their fields, for list screens.
+     * @param fields The field names of DoctorResponseDTO to include, in the order wanted.
+     * @return One map of field name to value per doctor.
+     */
+    List<Map<String, Object>> getAllDoctors(List<String> fields);
+
+    /**
+     * Retrieves one page of doctors matching a filter, in the order asked for.
+     * @param filter Conditions such as "specialty==Cardiology;lastName==Men*" (may be null).
+     * @param sort Fields to sort by such as "lastName" or "-lastModified" (may be null).
+     * @param page The page to return, starting at 0.
+     * @param size The number of doctors per page.
+     * @return The "Filtered List" form.
+     */
+    DoctorListPageDTO listDoctors(String filter, String sort, int page, int size);
+
+    /**
+     * Counts doctors per specialty, from counters kept in memory.
+     * @return The "Head Count" form for dashboards.
+     */
+    DoctorStatsDTO getDoctorStats();
+
+    /**
+     * Retrieves the summary forms of many doctors in one go.
+     * IDs that don't match a doctor are skipped.
+     * @param ids The unique IDs of the doctors.
+     * @return The summary forms of the doctors that were found.
+     */
+    List<DoctorResponseDTO> getDoctorsByIds(Collection<UUID> ids);
+
     /**
      * Updates an existing doctor's information.
      * @param id The unique ID of the doctor to update.
@@ -47,4 +99,13 @@ public interface DoctorService {
      * @param id The unique ID of the doctor to delete.
      */
     void deleteDoctor(UUID id);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the doctors added, updated or deleted since a sync cursor, oldest first.
+     * @param since Only changes after this moment (null means "from the beginning").
+     * @param afterId Tie-breaker for changes at exactly 'since' (the nextAfterId of the previous page).
+     * @param limit The maximum number of changes to return.
+     * @return The page of changes and the cursor for the next page.
+     */
+    DoctorChangesDTO getChangesSince(Instant since, UUID afterId, int limit);
+}
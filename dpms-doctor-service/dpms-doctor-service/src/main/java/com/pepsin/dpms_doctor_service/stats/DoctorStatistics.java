@@ -0,0 +1,167 @@
+package com.pepsin.dpms_doctor_service.stats;
+
+import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * This is the "Head Count" board in the doctors' office: how many doctors there are per specialty,
+ * so dashboards don't have to download every doctor and count themselves.
+ *
+ * One LongAdder per specialty, bumped by DoctorServiceImpl on every create, update and delete,
+ * so reading the board costs the same however many doctors there are.
+ *
+ * The counters are filled from one group-by query when the service starts and rebuilt every
+ * doctor.stats.rebuild-interval, because they only see the writes of this instance.
+ * A write that lands just as a rebuild reads the table may be counted twice until the rebuild after.
+ */
+@Component
+public class DoctorStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorStatistics.class);
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final Supplier<List<SpecialtyCount>> countAll;
+    private final Clock clock;
+    // Writers share the read lock; only swapping in a rebuilt set of counters takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Counters live = new Counters();
+    // Writes made while a rebuild is reading the table, added to the rebuilt counters. Guarded by lock.
+    private Counters duringRebuild;
+    private volatile Instant lastRebuiltAt;
+
+    /**
+     * What the board shows at one moment.
+     *
+     * @param lastRebuiltAt When the counters were last filled from the database; null until the first time.
+     */
+    public record Snapshot(long total, Map<String, Long> bySpecialty, Instant lastRebuiltAt) {
+    }
+
+    @Autowired
+    public DoctorStatistics(DoctorRepository doctorRepository) {
+        this(doctorRepository::countBySpecialty, Clock.systemDefaultZone());
+    }
+
+    DoctorStatistics(Supplier<List<SpecialtyCount>> countAll, Clock clock) {
+        this.countAll = countAll;
+        this.clock = clock;
+    }
+
+    public void added(String specialty) {
+        record(specialty, 1);
+    }
+
+    public void changed(String oldSpecialty, String newSpecialty) {
+        if (!Objects.equals(specialtyKey(oldSpecialty), specialtyKey(newSpecialty))) {
+            record(oldSpecialty, -1);
+            record(newSpecialty, 1);
+        }
+    }
+
+    public void removed(String specialty) {
+        record(specialty, -1);
+    }
+
+    private void record(String specialty, long delta) {
+        lock.readLock().lock();
+        try {
+            live.add(specialtyKey(specialty), delta);
+            Counters pending = duringRebuild;
+            if (pending != null) {
+                pending.add(specialtyKey(specialty), delta);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the board. Nothing here touches the database.
+     */
+    public Snapshot snapshot() {
+        Counters counters = live;
+        Map<String, Long> bySpecialty = new TreeMap<>();
+        counters.bySpecialty.forEach((specialty, count) -> {
+            long sum = count.sum();
+            if (sum != 0) {
+                bySpecialty.put(specialty, sum);
+            }
+        });
+        return new Snapshot(counters.total.sum(), bySpecialty, lastRebuiltAt);
+    }
+
+    /**
+     * Refills the counters from the database: right after startup, then every doctor.stats.rebuild-interval.
+     * Writes made while the query runs are counted again on top of its result, so none are lost.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${doctor.stats.rebuild-interval:PT15M}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            duringRebuild = new Counters();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Counters rebuilt = new Counters();
+        try {
+            for (SpecialtyCount count : countAll.get()) {
+                rebuilt.add(specialtyKey(count.specialty()), count.doctors());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            rebuilt.addAll(duringRebuild);
+            live = rebuilt;
+            duringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuiltAt = Instant.now(clock);
+        log.info("Doctor statistics rebuilt: {} doctors in {} specialties", rebuilt.total.sum(), rebuilt.bySpecialty.size());
+    }
+
+    // Specialties are counted as written, apart from surrounding spaces, so they match the free-slot search
+    static String specialtyKey(String specialty) {
+        return specialty == null || specialty.isBlank() ? UNKNOWN : specialty.trim();
+    }
+
+    private static final class Counters {
+
+        final ConcurrentHashMap<String, LongAdder> bySpecialty = new ConcurrentHashMap<>();
+        final LongAdder total = new LongAdder();
+
+        void add(String specialtyKey, long delta) {
+            bySpecialty.computeIfAbsent(specialtyKey, key -> new LongAdder()).add(delta);
+            total.add(delta);
+        }
+
+        void addAll(Counters other) {
+            other.bySpecialty.forEach((specialty, count) ->
+                    bySpecialty.computeIfAbsent(specialty, key -> new LongAdder()).add(count.sum()));
+            total.add(other.total.sum());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.pepsin.dpms_doctor_service.stats;
+
+/**
+ * How many doctors share one specialty; a row of the query that rebuilds DoctorStatistics.
+ */
+public record SpecialtyCount(String specialty, long doctors) {
+}
@@ -0,0 +1,185 @@
+package com.pepsin.dpms_doctor_service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What one replica costs, for each way of shipping the doctor service:
+ * time from launch until it answers its first request, memory (RSS) once started and under load,
+ * and steady-state throughput.
+ *
+ * Builds compared (each is skipped if it isn't in the target directory):
+ * <ul>
+ *     <li>normal.jar - the plain JVM build</li>
+ *     <li>fast-start/ - JVM with AOT and a class-data-sharing archive (-Pfast-start)</li>
+ *     <li>dpms-doctor-service - the GraalVM native executable (-Pnative native:compile)</li>
+ * </ul>
+ * <pre>
+ * ./mvnw package -DskipTests && cp target/dpms-doctor-service-0.0.1-SNAPSHOT.jar target/normal.jar
+ * ./mvnw -Pfast-start package -DskipTests
+ * ./mvnw -Pnative native:compile -DskipTests
+ * ./mvnw test -Dtest=ReplicaFootprintBenchmark -Dbenchmark.target=target -Dbenchmark.runs=5
+ * </pre>
+ * RSS is read from /proc, so this runs on Linux only. Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.target", matches = ".+")
+class ReplicaFootprintBenchmark {
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofMillis(200))
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+
+	@Test
+	void compareJvmFastStartAndNative() throws Exception {
+		Path target = Path.of(System.getProperty("benchmark.target"));
+		int runs = Integer.getInteger("benchmark.runs", 5);
+		int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+		int seconds = Integer.getInteger("benchmark.seconds", 30);
+		String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+		List<String> report = new ArrayList<>();
+		Path normalJar = target.resolve("normal.jar");
+		if (Files.exists(normalJar)) {
+			report.add(measure("JVM", List.of(java, "-jar", normalJar.toString()), runs, concurrency, seconds));
+		}
+		Path fastStart = target.resolve("fast-start");
+		if (Files.exists(fastStart.resolve("application.jsa"))) {
+			Path fastStartJar;
+			try (var jars = Files.list(fastStart)) {
+				fastStartJar = jars.filter(path -> path.toString().endsWith(".jar")).findFirst().orElseThrow();
+			}
+			report.add(measure("JVM fast-start (AOT + CDS)", List.of(java,
+					"-XX:SharedArchiveFile=" + fastStart.resolve("application.jsa"),
+					"-Dspring.aot.enabled=true",
+					"-Dspring.profiles.active=fast-start",
+					"-jar", fastStartJar.toString()), runs, concurrency, seconds));
+		}
+		Path executable = target.resolve("dpms-doctor-service");
+		if (Files.isExecutable(executable)) {
+			report.add(measure("native", List.of(executable.toString()), runs, concurrency, seconds));
+		}
+
+		System.out.printf("%nFirst request = launch until GET /api/doctors answers (median of %d runs); "
+				+ "load = %d concurrent clients for %d s%n", runs, concurrency, seconds);
+		report.forEach(System.out::println);
+	}
+
+	private String measure(String name, List<String> launch, int runs, int concurrency, int seconds) throws Exception {
+		List<Long> firstRequestMillis = new ArrayList<>();
+		long idleRssKb = 0;
+		for (int run = 0; run < runs; run++) {
+			int port = freePort();
+			long started = System.nanoTime();
+			Process process = start(launch, port);
+			try {
+				waitForFirstRequest(port, process);
+				firstRequestMillis.add((System.nanoTime() - started) / 1_000_000);
+				idleRssKb = rssKb(process);
+			} finally {
+				stop(process);
+			}
+		}
+		Collections.sort(firstRequestMillis);
+
+		// One more replica, this time under load for 'seconds'
+		int port = freePort();
+		Process process = start(launch, port);
+		try {
+			waitForFirstRequest(port, process);
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/doctors")).build();
+			AtomicLong completed = new AtomicLong();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+			List<CompletableFuture<Void>> clients = new ArrayList<>();
+			for (int i = 0; i < concurrency; i++) {
+				clients.add(CompletableFuture.runAsync(() -> {
+					while (System.nanoTime() < deadline) {
+						try {
+							if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+								completed.incrementAndGet();
+							}
+						} catch (Exception e) {
+							// Counted as not completed
+						}
+					}
+				}, Executors.newVirtualThreadPerTaskExecutor()));
+			}
+			CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+			long loadedRssKb = rssKb(process);
+
+			return String.format("%-28s first request %6d ms   RSS idle %6d MB   RSS under load %6d MB   %8.0f req/s",
+					name, firstRequestMillis.get(firstRequestMillis.size() / 2), idleRssKb / 1024, loadedRssKb / 1024,
+					completed.get() / (double) seconds);
+		} finally {
+			stop(process);
+		}
+	}
+
+	private static Process start(List<String> launch, int port) throws IOException {
+		List<String> command = new ArrayList<>(launch);
+		command.add("--server.port=" + port);
+		// Measure the service itself, not the phone book
+		command.add("--eureka.client.enabled=false");
+		return new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.start();
+	}
+
+	private static void stop(Process process) throws InterruptedException {
+		process.destroy();
+		process.waitFor();
+	}
+
+	private void waitForFirstRequest(int port, Process process) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/doctors")).build();
+		long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException("Service exited with code " + process.exitValue());
+			}
+			try {
+				if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return;
+				}
+			} catch (IOException e) {
+				// Not listening yet
+			}
+			Thread.sleep(5);
+		}
+		throw new IllegalStateException("Service did not answer within 60 seconds");
+	}
+
+	// Resident set size: the memory the replica really occupies on the node
+	private static long rssKb(Process process) throws IOException {
+		for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+			if (line.startsWith("VmRSS:")) {
+				return Long.parseLong(line.replaceAll("\\D", ""));
+			}
+		}
+		return 0;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import com.pepsin.dpms_doctor_service.DTO.DoctorRequestDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.DpmsDoctorServiceApplication;
+import com.pepsin.dpms_doctor_service.service.DoctorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * getDoctorById and getAllDoctors through the JPA path and through the in-memory doctor directory:
+ * throughput, bytes allocated per call, and how much heap the directory keeps.
+ * Each run starts its own copy of the service with its own in-memory database.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=DoctorDirectoryBenchmark -Dbenchmark.directory=true
+ * </pre>
+ * H2 runs inside the same JVM, so the JPA numbers here are a best case; pass -Dspring.datasource.url=...
+ * (and username/password) to measure against a real database server. Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.directory", matches = "true")
+class DoctorDirectoryBenchmark {
+
+	private static final int DOCTORS = Integer.getInteger("benchmark.doctors", 2_000);
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+	private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+
+	private static final com.sun.management.ThreadMXBean THREADS_BEAN =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	@Test
+	void compareJpaAndInMemoryDirectory() throws Exception {
+		List<String> report = new ArrayList<>();
+		report.addAll(run("JPA", false));
+		report.addAll(run("in-memory directory", true));
+
+		System.out.printf("%n%d doctors, %d threads, %d s per operation%n", DOCTORS, THREADS, SECONDS);
+		report.forEach(System.out::println);
+	}
+
+	private List<String> run(String name, boolean directoryEnabled) throws Exception {
+		// Passed as command-line arguments: default properties would lose against application.yml
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DpmsDoctorServiceApplication.class)
+				.run(
+						"--server.port=0",
+						"--eureka.client.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--spring.datasource.url=jdbc:h2:mem:directory-benchmark-" + directoryEnabled,
+						"--doctor.directory.in-memory=" + directoryEnabled)) {
+			DoctorService doctorService = context.getBean(DoctorService.class);
+			DoctorDirectory directory = context.getBean(DoctorDirectory.class);
+
+			List<UUID> ids = new ArrayList<>();
+			for (int i = 0; i < DOCTORS; i++) {
+				DoctorResponseDTO doctor = doctorService.createDoctor(request(i));
+				ids.add(doctor.getId());
+			}
+
+			List<String> lines = new ArrayList<>();
+			if (directoryEnabled) {
+				lines.add(String.format("%-20s directory footprint %8d KB", name, directory.footprintBytes() / 1024));
+			}
+			lines.add(measure(name, "getDoctorById",
+					random -> doctorService.getDoctorById(ids.get(random.nextInt(ids.size())))));
+			lines.add(measure(name, "getAllDoctors", random -> doctorService.getAllDoctors()));
+			return lines;
+		}
+	}
+
+	private static String measure(String name, String operation, Consumer<ThreadLocalRandom> call) throws Exception {
+		// Warm up, then count
+		runFor(1, call);
+		long[] totals = runFor(SECONDS, call);
+		return String.format("%-20s %-16s %12.0f ops/s   %10d bytes allocated per call",
+				name, operation, totals[0] / (double) SECONDS, totals[1] / Math.max(1, totals[0]));
+	}
+
+	// Returns {calls, bytes allocated by the calling threads}
+	private static long[] runFor(int seconds, Consumer<ThreadLocalRandom> call) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<long[]>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(pool.submit(() -> {
+					long count = 0;
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					long allocatedBefore = THREADS_BEAN.getCurrentThreadAllocatedBytes();
+					while (System.nanoTime() < deadline) {
+						call.accept(random);
+						count++;
+					}
+					return new long[]{count, THREADS_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore};
+				}));
+			}
+			long[] total = new long[2];
+			for (Future<long[]> result : results) {
+				long[] counted = result.get();
+				total[0] += counted[0];
+				total[1] += counted[1];
+			}
+			return total;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static DoctorRequestDTO request(int i) {
+		DoctorRequestDTO dto = new DoctorRequestDTO();
+		dto.setFirstName("Doctor");
+		dto.setLastName("Number" + i);
+		dto.setSpecialty(i % 2 == 0 ? "Cardiology" : "Pediatrics");
+		dto.setContactNumber("0123456789");
+		dto.setEmail("doctor" + i + "@bench.example");
+		dto.setOfficeAddress("Wing " + (i % 10));
+		return dto;
+	}
+}
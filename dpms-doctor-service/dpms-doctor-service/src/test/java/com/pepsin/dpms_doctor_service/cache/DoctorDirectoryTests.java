@@ -0,0 +1,96 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.model.Doctor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DoctorDirectoryTests {
+
+	@Test
+	void slotMapSurvivesInterleavedPutsAndRemoves() {
+		UuidSlotMap map = new UuidSlotMap(8);
+		List<UUID> ids = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			UUID id = new UUID(random.nextLong(), random.nextLong());
+			ids.add(id);
+			map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), i);
+		}
+		for (int i = 0; i < ids.size(); i += 2) {
+			map.remove(ids.get(i).getMostSignificantBits(), ids.get(i).getLeastSignificantBits());
+		}
+		assertEquals(5_000, map.size());
+		for (int i = 0; i < ids.size(); i++) {
+			int expected = i % 2 == 0 ? UuidSlotMap.MISSING : i;
+			assertEquals(expected, map.get(ids.get(i).getMostSignificantBits(), ids.get(i).getLeastSignificantBits()));
+		}
+	}
+
+	@Test
+	void directoryTracksWritesWithoutTheDatabase() {
+		DoctorDirectory directory = new DoctorDirectory(null, true);
+		Doctor first = doctor("Cardiology");
+		Doctor second = doctor("Cardiology");
+		directory.put(first);
+		directory.put(second);
+
+		first.setSpecialty("Pediatrics");
+		directory.put(first);
+		directory.remove(second.getId());
+
+		assertEquals(1, directory.size());
+		DoctorResponseDTO found = directory.find(first.getId()).orElseThrow();
+		assertEquals("Pediatrics", found.getSpecialty());
+		assertEquals(first.getEmail(), found.getEmail());
+		assertTrue(directory.find(second.getId()).isEmpty());
+	}
+
+	@Test
+	void editsAndDeletesDoNotGrowTheDictionary() {
+		DoctorDirectory directory = new DoctorDirectory(null, true);
+		Doctor doctor = doctor("Cardiology");
+		directory.put(doctor);
+		int distinct = directory.distinctStrings();
+
+		for (int i = 0; i < 1_000; i++) {
+			doctor.setOfficeAddress("Ward " + i);
+			directory.put(doctor);
+			Doctor visitor = doctor("Visiting " + i);
+			directory.put(visitor);
+			directory.remove(visitor.getId());
+		}
+
+		assertEquals(distinct, directory.distinctStrings());
+		assertEquals("Ward 999", directory.find(doctor.getId()).orElseThrow().getOfficeAddress());
+		assertEquals("Cardiology", directory.find(doctor.getId()).orElseThrow().getSpecialty());
+	}
+
+	@Test
+	void lateArrivingOlderUpdateIsIgnored() {
+		DoctorDirectory directory = new DoctorDirectory(null, true);
+		Doctor doctor = doctor("Cardiology");
+		doctor.setVersion(2);
+		directory.put(doctor);
+
+		// The update that saved version 1 finishes after the one that saved version 2
+		Doctor older = new Doctor(doctor.getId(), "Ada", "Lovelace", "Oncology", "0123456789",
+				doctor.getEmail(), "Ward 1");
+		older.setVersion(1);
+		directory.put(older);
+
+		assertEquals("Cardiology", directory.find(doctor.getId()).orElseThrow().getSpecialty());
+	}
+
+	private static Doctor doctor(String specialty) {
+		UUID id = UUID.randomUUID();
+		return new Doctor(id, "Ada", "Lovelace", specialty, "0123456789", id + "@example.com", "Ward 1");
+	}
+}
@@ -0,0 +1,69 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoctorJsonCacheTests {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final DoctorJsonCache cache = new DoctorJsonCache(new ObjectMapper().findAndRegisterModules(),
+			2, Duration.ofSeconds(30), clock::get);
+
+	private final Function<UUID, DoctorResponseDTO> loader = id -> {
+		loads.incrementAndGet();
+		DoctorResponseDTO dto = new DoctorResponseDTO();
+		dto.setId(id);
+		return dto;
+	};
+
+	@Test
+	void fullDrawerDropsTheLeastRecentlyReadCopy() {
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		cache.get(first, loader);
+		cache.get(second, loader);
+		cache.get(first, loader);
+		cache.get(UUID.randomUUID(), loader);
+
+		assertEquals(2, cache.size());
+		cache.get(first, loader);
+		assertEquals(3, loads.get());
+		cache.get(second, loader);
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void copiesOlderThanTheTimeToLiveAreMadeAgain() {
+		UUID id = UUID.randomUUID();
+		cache.get(id, loader);
+		clock.addAndGet(Duration.ofSeconds(29).toNanos());
+		cache.get(id, loader);
+		assertEquals(1, loads.get());
+
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		cache.get(id, loader);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void copyLoadedDuringAnEvictionIsNotKept() {
+		UUID id = UUID.randomUUID();
+		cache.get(id, key -> {
+			// An update commits while this (now stale) read is still being turned into JSON
+			cache.evict(key);
+			return loader.apply(key);
+		});
+
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,59 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailBloomFilterTests {
+
+	private static final int EMAILS = 100_000;
+
+	@Test
+	void neverReportsAKnownEmailAsNew() {
+		List<String> known = IntStream.range(0, EMAILS).mapToObj(i -> "doctor" + i + "@hospital.example").toList();
+		EmailBloomFilter filter = new EmailBloomFilter(sink -> known.forEach(sink), EMAILS, 0.01);
+		filter.warmUp();
+
+		for (String email : known) {
+			assertTrue(filter.mightContain(email), email);
+		}
+		// The database may compare emails without case, so the filter does too
+		assertTrue(filter.mightContain("Doctor42@Hospital.Example"));
+	}
+
+	@Test
+	void saysMaybeSeenUntilItHasBeenFilled() {
+		EmailBloomFilter filter = new EmailBloomFilter(sink -> sink.accept("taken@hospital.example"), EMAILS, 0.01);
+		// Written through another replica, or not loaded yet: the lookup must not be skipped
+		assertTrue(filter.mightContain("Taken@Hospital.Example"));
+		assertTrue(filter.mightContain("nobody@hospital.example"));
+
+		filter.warmUp();
+		assertTrue(filter.mightContain("Taken@Hospital.Example"));
+		assertFalse(filter.mightContain("nobody@hospital.example"));
+	}
+
+	@Test
+	void letsMostNewEmailsSkipTheLookup() {
+		EmailBloomFilter filter = new EmailBloomFilter(sink -> {
+		}, EMAILS, 0.01);
+		filter.warmUp();
+		assertFalse(filter.mightContain("nobody@hospital.example"));
+		for (int i = 0; i < EMAILS; i++) {
+			filter.put("doctor" + i + "@hospital.example");
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < EMAILS; i++) {
+			if (filter.mightContain("new" + i + "@hospital.example")) {
+				falsePositives++;
+			}
+		}
+		double rate = falsePositives / (double) EMAILS;
+		assertTrue(rate < 0.015, "false-positive rate " + rate);
+	}
+}
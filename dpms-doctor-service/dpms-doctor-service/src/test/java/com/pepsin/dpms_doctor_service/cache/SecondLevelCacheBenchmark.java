@@ -0,0 +1,143 @@
+package com.pepsin.dpms_doctor_service.cache;
+
+import com.pepsin.dpms_doctor_service.DTO.DoctorRequestDTO;
+import com.pepsin.dpms_doctor_service.DTO.DoctorResponseDTO;
+import com.pepsin.dpms_doctor_service.DpmsDoctorServiceApplication;
+import com.pepsin.dpms_doctor_service.model.Doctor;
+import com.pepsin.dpms_doctor_service.repository.DoctorRepository;
+import com.pepsin.dpms_doctor_service.service.DoctorService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * getDoctorById and createDoctor's "is this email taken?" check, with and without the second-level cache.
+ * Each run starts its own copy of the service with its own in-memory database.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=SecondLevelCacheBenchmark -Dbenchmark.l2cache=true
+ * </pre>
+ * H2 runs inside the same JVM, so a cache miss here is far cheaper than a round trip to a real database server;
+ * pass -Dspring.datasource.url=... (and username/password) to measure against one. Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.l2cache", matches = "true")
+class SecondLevelCacheBenchmark {
+
+	private static final int DOCTORS = Integer.getInteger("benchmark.doctors", 2_000);
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+	private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+
+	@Test
+	void compareWithAndWithoutSecondLevelCache() throws Exception {
+		List<String> report = new ArrayList<>();
+		report.addAll(run("no cache", false));
+		report.addAll(run("second-level cache", true));
+
+		System.out.printf("%n%d doctors, %d threads, %d s per operation%n", DOCTORS, THREADS, SECONDS);
+		report.forEach(System.out::println);
+	}
+
+	private List<String> run(String name, boolean cacheEnabled) throws Exception {
+		// Passed as command-line arguments: default properties would lose against application.yml
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DpmsDoctorServiceApplication.class)
+				.run(
+						"--server.port=0",
+						"--eureka.client.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--spring.datasource.url=jdbc:h2:mem:l2-benchmark-" + cacheEnabled,
+						"--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cacheEnabled,
+						"--spring.jpa.properties.hibernate.cache.use_query_cache=" + cacheEnabled)) {
+			DoctorService doctorService = context.getBean(DoctorService.class);
+			DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+			Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+			List<UUID> ids = new ArrayList<>();
+			List<String> emails = new ArrayList<>();
+			for (int i = 0; i < DOCTORS; i++) {
+				DoctorResponseDTO doctor = doctorService.createDoctor(request(i));
+				ids.add(doctor.getId());
+				emails.add(doctor.getEmail());
+			}
+			statistics.clear();
+
+			List<String> lines = new ArrayList<>();
+			lines.add(measure(name, "getDoctorById", statistics,
+					random -> doctorService.getDoctorById(ids.get(random.nextInt(ids.size())))));
+			// What createDoctor asks before inserting: half the emails are taken, half are new
+			lines.add(measure(name, "email-uniqueness check", statistics, random -> {
+				String email = random.nextBoolean()
+						? emails.get(random.nextInt(emails.size()))
+						: "new" + random.nextInt(DOCTORS) + "@bench.example";
+				doctorRepository.findFirstByNormalizedEmail(Doctor.normalizeEmail(email));
+			}));
+			return lines;
+		}
+	}
+
+	private static String measure(String name, String operation, Statistics statistics,
+								  Consumer<ThreadLocalRandom> call) throws Exception {
+		// Warm up, then count
+		runFor(1, call);
+		statistics.clear();
+		long operations = runFor(SECONDS, call);
+		return String.format("%-20s %-24s %10.0f ops/s   entity cache hits %3.0f%%   query cache hits %3.0f%%",
+				name, operation, operations / (double) SECONDS,
+				percent(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()),
+				percent(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+	}
+
+	private static long runFor(int seconds, Consumer<ThreadLocalRandom> call) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Long>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(pool.submit(() -> {
+					long count = 0;
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					while (System.nanoTime() < deadline) {
+						call.accept(random);
+						count++;
+					}
+					return count;
+				}));
+			}
+			long total = 0;
+			for (Future<Long> result : results) {
+				total += result.get();
+			}
+			return total;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static double percent(long hits, long misses) {
+		return hits + misses == 0 ? 0 : 100.0 * hits / (hits + misses);
+	}
+
+	private static DoctorRequestDTO request(int i) {
+		DoctorRequestDTO dto = new DoctorRequestDTO();
+		dto.setFirstName("Doctor");
+		dto.setLastName("Number" + i);
+		dto.setSpecialty(i % 2 == 0 ? "Cardiology" : "Pediatrics");
+		dto.setContactNumber("0123456789");
+		dto.setEmail("doctor" + i + "@bench.example");
+		dto.setOfficeAddress("Wing " + (i % 10));
+		return dto;
+	}
+}
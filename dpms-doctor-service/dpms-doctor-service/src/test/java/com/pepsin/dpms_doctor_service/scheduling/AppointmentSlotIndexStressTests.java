@@ -0,0 +1,128 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import com.pepsin.dpms_doctor_service.exception.SlotUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentSlotIndexStressTests {
+
+	private static final int THREADS = 32;
+	private static final int ATTEMPTS_PER_THREAD = 5_000;
+	private static final int DOCTORS = 20;
+	private static final int SLOTS_PER_DAY = 48;
+
+	@Test
+	void neverDoubleBooksUnderConcurrentLoad() throws Exception {
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(), 30);
+		List<UUID> doctors = new ArrayList<>();
+		for (int i = 0; i < DOCTORS; i++) {
+			doctors.add(UUID.randomUUID());
+		}
+		LocalDateTime dayStart = LocalDate.now().plusDays(1).atStartOfDay();
+
+		// Stands in for the database: counts how many times each (doctor, start) was saved
+		Map<String, AtomicInteger> saves = new ConcurrentHashMap<>();
+		AtomicInteger booked = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					UUID doctorId = doctors.get(random.nextInt(DOCTORS));
+					LocalDateTime slot = dayStart.plusMinutes(30L * random.nextInt(SLOTS_PER_DAY));
+					try {
+						index.book(doctorId, slot, () ->
+								saves.computeIfAbsent(doctorId + "@" + slot, k -> new AtomicInteger()).incrementAndGet());
+						booked.incrementAndGet();
+						if (random.nextInt(4) == 0) {
+							index.release(doctorId, slot, () -> saves.get(doctorId + "@" + slot).getAndDecrement());
+							booked.decrementAndGet();
+						}
+					} catch (SlotUnavailableException e) {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		saves.values().forEach(count -> assertTrue(count.get() <= 1, "slot saved more than once"));
+		int stillBooked = saves.values().stream().mapToInt(AtomicInteger::get).sum();
+		assertEquals(booked.get(), stillBooked);
+		assertTrue(rejected.get() > 0);
+		for (UUID doctorId : doctors) {
+			for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+				LocalDateTime time = dayStart.plusMinutes(30L * slot);
+				AtomicInteger count = saves.get(doctorId + "@" + time);
+				assertEquals(count == null || count.get() == 0, index.isFree(doctorId, time));
+			}
+		}
+	}
+
+	@Test
+	void lateDuplicateCancelDoesNotFreeARebookedSlot() {
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(), 30);
+		UUID doctorId = UUID.randomUUID();
+		LocalDateTime slot = LocalDate.now().plusDays(1).atTime(9, 0);
+		index.book(doctorId, slot, () -> "first");
+
+		assertTrue(index.release(doctorId, slot, () -> 1));
+		index.book(doctorId, slot, () -> "second");
+		// The second cancel of the first appointment finds no row left to delete
+		assertFalse(index.release(doctorId, slot, () -> 0));
+
+		assertFalse(index.isFree(doctorId, slot));
+	}
+
+	@Test
+	void failedSaveLeavesSlotFree() {
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(), 30);
+		UUID doctorId = UUID.randomUUID();
+		LocalDateTime slot = LocalDate.now().plusDays(1).atTime(9, 0);
+
+		assertThrows(IllegalStateException.class, () -> index.book(doctorId, slot, () -> {
+			throw new IllegalStateException("database down");
+		}));
+		assertTrue(index.isFree(doctorId, slot));
+	}
+
+	@Test
+	void loadsExistingBookingsFromTheDatabase() {
+		LocalDateTime taken = LocalDate.now().plusDays(1).atTime(10, 30);
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(taken), 30);
+		UUID doctorId = UUID.randomUUID();
+
+		assertThrows(SlotUnavailableException.class, () -> index.book(doctorId, taken, () -> "saved"));
+		assertTrue(index.isFree(doctorId, taken.plusMinutes(30)));
+	}
+}
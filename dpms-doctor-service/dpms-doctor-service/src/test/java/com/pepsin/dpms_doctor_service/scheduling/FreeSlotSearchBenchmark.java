@@ -0,0 +1,55 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Earliest-free-slot search over thousands of doctors and a 90-day horizon, using the same random
+ * working hours and bookings as {@link FreeSlotSearchTests}.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=FreeSlotSearchBenchmark -Dbenchmark.slots=true
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.slots", matches = "true")
+class FreeSlotSearchBenchmark {
+
+	private static final int DOCTORS = Integer.getInteger("benchmark.doctors", 5_000);
+	private static final int DAYS = 90;
+	private static final int RUNS = 100;
+
+	@Test
+	void searchThousandsOfDoctors() {
+		Random random = new Random(1);
+		LocalDateTime from = LocalDate.of(2030, 1, 7).atTime(8, 0);
+		Map<UUID, List<WorkingHours>> hours = new HashMap<>();
+		Map<UUID, List<LocalDateTime>> booked = new HashMap<>();
+		List<UUID> doctors = FreeSlotSearchTests.randomDoctors(random, DOCTORS, from, DAYS, hours, booked);
+
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(), FreeSlotSearchTests.SLOT_MINUTES);
+		index.preload(booked, hours);
+
+		// Warm up, then measure
+		for (int i = 0; i < 20; i++) {
+			index.findEarliestFree(doctors, from, null, DAYS, 20);
+		}
+		long started = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals(20, index.findEarliestFree(doctors, from.plusHours(i % 48), null, DAYS, 20).size());
+		}
+		double averageMillis = (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+		System.out.printf("%d doctors x %d days, top 20 free slots: %.2f ms per search%n",
+				DOCTORS, DAYS, averageMillis);
+	}
+}
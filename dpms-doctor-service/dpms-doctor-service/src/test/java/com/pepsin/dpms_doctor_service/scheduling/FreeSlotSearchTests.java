@@ -0,0 +1,127 @@
+package com.pepsin.dpms_doctor_service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FreeSlotSearchTests {
+
+	static final int SLOT_MINUTES = 30;
+
+	@Test
+	void matchesBruteForceSearch() {
+		Random random = new Random(42);
+		LocalDateTime from = LocalDate.of(2030, 1, 7).atTime(10, 15);
+		Map<UUID, List<WorkingHours>> hours = new HashMap<>();
+		Map<UUID, List<LocalDateTime>> booked = new HashMap<>();
+		List<UUID> doctors = randomDoctors(random, 25, from, 14, hours, booked);
+
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(), SLOT_MINUTES);
+		index.preload(booked, hours);
+
+		List<FreeSlot> expected = bruteForce(doctors, hours, booked, from, 14);
+		List<FreeSlot> actual = index.findEarliestFree(doctors, from, null, 14, 200);
+		assertEquals(expected.subList(0, Math.min(200, expected.size())), actual);
+	}
+
+	@Test
+	void pagesWithoutGapsOrRepeats() {
+		Random random = new Random(7);
+		LocalDateTime from = LocalDate.of(2030, 1, 7).atStartOfDay();
+		Map<UUID, List<WorkingHours>> hours = new HashMap<>();
+		Map<UUID, List<LocalDateTime>> booked = new HashMap<>();
+		List<UUID> doctors = randomDoctors(random, 40, from, 7, hours, booked);
+
+		AppointmentSlotIndex index = new AppointmentSlotIndex(doctorId -> List.of(), SLOT_MINUTES);
+		index.preload(booked, hours);
+
+		List<FreeSlot> paged = new ArrayList<>();
+		LocalDateTime cursorFrom = from;
+		UUID cursorDoctor = null;
+		while (true) {
+			List<FreeSlot> page = index.findEarliestFree(doctors, cursorFrom, cursorDoctor, 7, 13);
+			if (page.isEmpty()) {
+				break;
+			}
+			paged.addAll(page);
+			FreeSlot last = page.get(page.size() - 1);
+			cursorFrom = last.startTime();
+			cursorDoctor = last.doctorId();
+			// The horizon is counted from 'from', so keep the original last day
+			if (!cursorFrom.toLocalDate().isBefore(from.toLocalDate().plusDays(7))) {
+				break;
+			}
+		}
+		List<FreeSlot> expected = bruteForce(doctors, hours, booked, from, 7);
+		assertEquals(expected, paged.stream()
+				.filter(slot -> slot.startTime().toLocalDate().isBefore(from.toLocalDate().plusDays(7)))
+				.toList());
+	}
+
+	// Every doctor works 2-4 random weekday blocks and has ~30% of working slots already booked
+	static List<UUID> randomDoctors(Random random, int count, LocalDateTime from, int days,
+											Map<UUID, List<WorkingHours>> hours, Map<UUID, List<LocalDateTime>> booked) {
+		List<UUID> doctors = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			UUID doctorId = new UUID(random.nextLong(), random.nextLong());
+			doctors.add(doctorId);
+			List<WorkingHours> blocks = new ArrayList<>();
+			for (int b = 0, n = 2 + random.nextInt(3); b < n; b++) {
+				int startHour = 7 + random.nextInt(8);
+				blocks.add(new WorkingHours(DayOfWeek.of(1 + random.nextInt(7)),
+						LocalTime.of(startHour, 0), LocalTime.of(startHour + 1 + random.nextInt(4), 30)));
+			}
+			hours.put(doctorId, blocks);
+			List<LocalDateTime> starts = new ArrayList<>();
+			for (int d = 0; d < days; d++) {
+				LocalDate day = from.toLocalDate().plusDays(d);
+				for (int slot = 0; slot < 48; slot++) {
+					LocalDateTime start = day.atStartOfDay().plusMinutes(slot * 30L);
+					if (works(blocks, start) && random.nextInt(10) < 3) {
+						starts.add(start);
+					}
+				}
+			}
+			booked.put(doctorId, starts);
+		}
+		return doctors;
+	}
+
+	private static boolean works(List<WorkingHours> blocks, LocalDateTime start) {
+		int minute = start.getHour() * 60 + start.getMinute();
+		return blocks.stream().anyMatch(block -> block.dayOfWeek() == start.getDayOfWeek()
+				&& minute >= block.startTime().toSecondOfDay() / 60
+				&& minute + SLOT_MINUTES <= block.endTime().toSecondOfDay() / 60);
+	}
+
+	private static List<FreeSlot> bruteForce(List<UUID> doctors, Map<UUID, List<WorkingHours>> hours,
+											 Map<UUID, List<LocalDateTime>> booked, LocalDateTime from, int days) {
+		List<FreeSlot> slots = new ArrayList<>();
+		for (UUID doctorId : doctors) {
+			for (int d = 0; d < days; d++) {
+				LocalDate day = from.toLocalDate().plusDays(d);
+				for (int slot = 0; slot < 48; slot++) {
+					LocalDateTime start = day.atStartOfDay().plusMinutes(slot * 30L);
+					if (!start.isBefore(from) && works(hours.get(doctorId), start)
+							&& !booked.get(doctorId).contains(start)) {
+						slots.add(new FreeSlot(doctorId, start));
+					}
+				}
+			}
+		}
+		slots.sort(Comparator.comparing(FreeSlot::startTime).thenComparing(FreeSlot::doctorId));
+		return slots;
+	}
+}
@@ -0,0 +1,83 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.util.UUID;
+
+/**
+ * This is one line of the "Same Person, Two Cards?" report: two record cards that probably describe
+ * the same person, with a score from 0 to 1 and why they were compared.
+ */
+public class DuplicateCandidateDTO {
+
+    private UUID firstId;
+    private String firstFirstName;
+    private String firstLastName;
+    private UUID secondId;
+    private String secondFirstName;
+    private String secondLastName;
+    private double score;
+    private String matchedOn;
+
+    public UUID getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(UUID firstId) {
+        this.firstId = firstId;
+    }
+
+    public String getFirstFirstName() {
+        return firstFirstName;
+    }
+
+    public void setFirstFirstName(String firstFirstName) {
+        this.firstFirstName = firstFirstName;
+    }
+
+    public String getFirstLastName() {
+        return firstLastName;
+    }
+
+    public void setFirstLastName(String firstLastName) {
+        this.firstLastName = firstLastName;
+    }
+
+    public UUID getSecondId() {
+        return secondId;
+    }
+
+    public void setSecondId(UUID secondId) {
+        this.secondId = secondId;
+    }
+
+    public String getSecondFirstName() {
+        return secondFirstName;
+    }
+
+    public void setSecondFirstName(String secondFirstName) {
+        this.secondFirstName = secondFirstName;
+    }
+
+    public String getSecondLastName() {
+        return secondLastName;
+    }
+
+    public void setSecondLastName(String secondLastName) {
+        this.secondLastName = secondLastName;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public String getMatchedOn() {
+        return matchedOn;
+    }
+
+    public void setMatchedOn(String matchedOn) {
+        this.matchedOn = matchedOn;
+    }
+}
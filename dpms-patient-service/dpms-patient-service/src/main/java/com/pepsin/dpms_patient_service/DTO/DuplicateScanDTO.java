@@ -0,0 +1,86 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the "Same Person, Two Cards?" status form: where the latest duplicate scan stands and what it found.
+ * status is NOT_STARTED, RUNNING, FINISHED or FAILED. The full ranked list is in reportFile on the server;
+ * topCandidates holds the best few for a quick look.
+ */
+public class DuplicateScanDTO {
+
+    private String status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long patientsScanned;
+    private long pairsScored;
+    private long candidatesFound;
+    private String reportFile;
+    private List<DuplicateCandidateDTO> topCandidates = new ArrayList<>();
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getPatientsScanned() {
+        return patientsScanned;
+    }
+
+    public void setPatientsScanned(long patientsScanned) {
+        this.patientsScanned = patientsScanned;
+    }
+
+    public long getPairsScored() {
+        return pairsScored;
+    }
+
+    public void setPairsScored(long pairsScored) {
+        this.pairsScored = pairsScored;
+    }
+
+    public long getCandidatesFound() {
+        return candidatesFound;
+    }
+
+    public void setCandidatesFound(long candidatesFound) {
+        this.candidatesFound = candidatesFound;
+    }
+
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    public void setReportFile(String reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    public List<DuplicateCandidateDTO> getTopCandidates() {
+        return topCandidates;
+    }
+
+    public void setTopCandidates(List<DuplicateCandidateDTO> topCandidates) {
+        this.topCandidates = topCandidates;
+    }
+}
@@ -0,0 +1,102 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.time.Instant;
+
+/**
+ * This is the "Copy for the Analysts" progress form: how far the columnar export of the patient list has got.
+ * status is NOT_STARTED, RUNNING, FINISHED or FAILED. The finished copy is in file on the server; an incremental
+ * copy also lists the patients deleted since the previous one in deletedFile.
+ */
+public class PatientExportDTO {
+
+    private String status;
+    private boolean incremental;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long patientsExported;
+    private long deletionsExported;
+    private long bytesWritten;
+    private String file;
+    private String deletedFile;
+    private String error;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getPatientsExported() {
+        return patientsExported;
+    }
+
+    public void setPatientsExported(long patientsExported) {
+        this.patientsExported = patientsExported;
+    }
+
+    public long getDeletionsExported() {
+        return deletionsExported;
+    }
+
+    public void setDeletionsExported(long deletionsExported) {
+        this.deletionsExported = deletionsExported;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getDeletedFile() {
+        return deletedFile;
+    }
+
+    public void setDeletedFile(String deletedFile) {
+        this.deletedFile = deletedFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,102 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.time.Instant;
+
+/**
+ * This is the "Moving Day" progress form: how far the import of a CSV file from an older hospital system has got.
+ * status is NOT_STARTED, RUNNING, FINISHED or FAILED; bytesDone out of totalBytes shows progress.
+ * Rows that could not be imported are listed, with the reason, in rejectFile on the server.
+ */
+public class PatientImportDTO {
+
+    private String status;
+    private String fileName;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long bytesDone;
+    private long totalBytes;
+    private long imported;
+    private long rejected;
+    private String rejectFile;
+    private String error;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getBytesDone() {
+        return bytesDone;
+    }
+
+    public void setBytesDone(long bytesDone) {
+        this.bytesDone = bytesDone;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    public void setRejectFile(String rejectFile) {
+        this.rejectFile = rejectFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
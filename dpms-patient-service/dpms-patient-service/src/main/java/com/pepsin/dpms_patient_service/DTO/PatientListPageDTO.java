@@ -0,0 +1,49 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the "Filtered List" form: one page of the patients matching a filter, in the order asked for.
+ * There is no total count, because counting every match would cost as much as reading them all;
+ * hasMore says whether asking for the next page is worthwhile.
+ */
+public class PatientListPageDTO {
+
+    private List<PatientResponseDTO> items = new ArrayList<>();
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    public List<PatientResponseDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PatientResponseDTO> items) {
+        this.items = items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -2,6 +2,7 @@ package com.pepsin.dpms_patient_service.DTO;
 
 import lombok.Data;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -24,6 +25,8 @@ public class PatientResponseDTO {
     private String contactNumber;
     private String email;
     private String address;
+    private long version;
+    private Instant lastModified;
     // We could add more fields here if needed, or remove some if they are sensitive
     // For example, we might not return the full address or contact in some cases.
 
@@ -105,4 +108,20 @@ public class PatientResponseDTO {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
@@ -0,0 +1,48 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.util.UUID;
+
+/**
+ * This is one line on the "Search Results" form: who the patient is and how well they matched.
+ * The score goes from 0 (nothing in common) to 1 (every part of the search found in the patient's names).
+ * Use the ID with GET /api/patients/{id} to fetch the full summary form.
+ */
+public class PatientSearchHitDTO {
+
+    private UUID id;
+    private String firstName;
+    private String lastName;
+    private double score;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
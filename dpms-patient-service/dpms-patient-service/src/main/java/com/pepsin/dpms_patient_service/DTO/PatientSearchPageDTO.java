@@ -0,0 +1,49 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the "Search Results" form: one page of the patients best matching a search, best first.
+ * totalMatches counts every patient that matched, but only the best 1000 can be paged through;
+ * past that the search should be made more specific.
+ */
+public class PatientSearchPageDTO {
+
+    private List<PatientSearchHitDTO> hits = new ArrayList<>();
+    private int page;
+    private int size;
+    private int totalMatches;
+
+    public List<PatientSearchHitDTO> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<PatientSearchHitDTO> hits) {
+        this.hits = hits;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    public void setTotalMatches(int totalMatches) {
+        this.totalMatches = totalMatches;
+    }
+}
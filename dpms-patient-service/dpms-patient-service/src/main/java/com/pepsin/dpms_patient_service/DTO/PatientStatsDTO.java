@@ -0,0 +1,50 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the "Head Count" form for dashboards: how many patients there are, by gender and by age band.
+ * Genders are shown in upper case; patients without a gender or date of birth are counted under UNKNOWN.
+ * lastRebuiltAt says when the counts were last checked against the whole database (null until the first check).
+ */
+public class PatientStatsDTO {
+
+    private long total;
+    private Map<String, Long> byGender = new LinkedHashMap<>();
+    private Map<String, Long> byAgeBand = new LinkedHashMap<>();
+    private Instant lastRebuiltAt;
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByGender() {
+        return byGender;
+    }
+
+    public void setByGender(Map<String, Long> byGender) {
+        this.byGender = byGender;
+    }
+
+    public Map<String, Long> getByAgeBand() {
+        return byAgeBand;
+    }
+
+    public void setByAgeBand(Map<String, Long> byAgeBand) {
+        this.byAgeBand = byAgeBand;
+    }
+
+    public Instant getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    public void setLastRebuiltAt(Instant lastRebuiltAt) {
+        this.lastRebuiltAt = lastRebuiltAt;
+    }
+}
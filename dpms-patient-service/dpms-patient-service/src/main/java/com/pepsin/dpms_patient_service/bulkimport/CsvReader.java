@@ -0,0 +1,125 @@
+package com.pepsin.dpms_patient_service.bulkimport;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV straight from bytes: commas between fields, double quotes around fields that contain
+ * commas, quotes or line breaks, and "" for a quote inside quotes. Lines end with \n or \r\n.
+ *
+ * Works on the raw bytes, because all the special characters are ASCII and can never appear inside a multi-byte
+ * UTF-8 character; only finished fields are decoded into Strings.
+ */
+final class CsvReader {
+
+    /**
+     * Receives one record: where it starts in the file, its fields, and its raw text for the reject file.
+     * The fields list is reused for the next record, so copy what you keep.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void record(long offset, List<String> fields, String raw);
+    }
+
+    private CsvReader() {
+    }
+
+    /**
+     * Finds where the record that ends at or after 'from' stops: the position just after its line break,
+     * or -1 if the buffer ends first. 'from' must be at the start of a record (outside quotes).
+     * Quotes are tracked from the buffer's start, so a line break inside a quoted field is skipped.
+     */
+    static int endOfRecordAtOrAfter(ByteBuffer bytes, int from) {
+        boolean quoted = false;
+        int limit = bytes.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted && i >= from) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calls the handler for every record in the buffer; 'baseOffset' is the file position of the buffer's first byte.
+     * Blank lines are skipped. A final record without a line break is read too.
+     */
+    static void forEachRecord(ByteBuffer bytes, long baseOffset, RecordHandler handler) {
+        int limit = bytes.limit();
+        int position = 0;
+        List<String> fields = new ArrayList<>(8);
+        while (position < limit) {
+            int recordStart = position;
+            fields.clear();
+            boolean endOfRecord = false;
+            while (!endOfRecord) {
+                int fieldStart = position;
+                String field;
+                if (position < limit && bytes.get(position) == '"') {
+                    // Quoted: runs to the closing quote; "" is a quote
+                    StringBuilder quoted = null;
+                    int segmentStart = position + 1;
+                    position++;
+                    while (true) {
+                        if (position >= limit) {
+                            throw new IllegalArgumentException("Unclosed quote in the record at byte " + (baseOffset + recordStart));
+                        }
+                        if (bytes.get(position) == '"') {
+                            if (position + 1 < limit && bytes.get(position + 1) == '"') {
+                                if (quoted == null) {
+                                    quoted = new StringBuilder();
+                                }
+                                quoted.append(decode(bytes, segmentStart, position + 1));
+                                position += 2;
+                                segmentStart = position;
+                                continue;
+                            }
+                            break;
+                        }
+                        position++;
+                    }
+                    String tail = decode(bytes, segmentStart, position);
+                    field = quoted == null ? tail : quoted.append(tail).toString();
+                    position++;
+                    // Anything between the closing quote and the next comma is ignored
+                    while (position < limit && bytes.get(position) != ',' && bytes.get(position) != '\n') {
+                        position++;
+                    }
+                } else {
+                    while (position < limit && bytes.get(position) != ',' && bytes.get(position) != '\n') {
+                        position++;
+                    }
+                    int end = position;
+                    if (end > fieldStart && bytes.get(end - 1) == '\r' && (end == limit || bytes.get(end) == '\n')) {
+                        end--;
+                    }
+                    field = decode(bytes, fieldStart, end);
+                }
+                fields.add(field);
+                if (position >= limit || bytes.get(position) == '\n') {
+                    endOfRecord = true;
+                }
+                position++;
+            }
+            int rawEnd = Math.min(position, limit);
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            handler.record(baseOffset + recordStart, fields, decode(bytes, recordStart, rawEnd).stripTrailing());
+        }
+    }
+
+    private static String decode(ByteBuffer bytes, int from, int to) {
+        if (to <= from) {
+            return "";
+        }
+        byte[] copy = new byte[to - from];
+        bytes.get(from, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package com.pepsin.dpms_patient_service.bulkimport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * The "How Far Did We Get?" slip kept next to an import file (name.csv.checkpoint).
+ *
+ * Chunks are committed out of order, so the slip keeps the offset below which every chunk is committed,
+ * plus the start and end of each committed chunk beyond it. A resumed import starts at that offset and skips
+ * the listed chunks. The slip also remembers the file's size and modification time: if the file changed,
+ * the old slip doesn't apply and the import starts over.
+ *
+ * Not thread-safe: PatientCsvImporter calls it under its own lock.
+ */
+final class ImportCheckpoint {
+
+    private final Path path;
+    private final long fileSize;
+    private final long fileModified;
+    private long committedUpTo;
+    // Committed chunks past committedUpTo: start -> end
+    private final TreeMap<Long, Long> committedAhead = new TreeMap<>();
+    private long imported;
+    private long rejected;
+
+    private ImportCheckpoint(Path path, long fileSize, long fileModified, long committedUpTo) {
+        this.path = path;
+        this.fileSize = fileSize;
+        this.fileModified = fileModified;
+        this.committedUpTo = committedUpTo;
+    }
+
+    /**
+     * Reads the slip for an import file, or starts a fresh one at 'firstRecord' (just after the header line).
+     */
+    static ImportCheckpoint load(Path csv, long firstRecord) {
+        Path path = csv.resolveSibling(csv.getFileName() + ".checkpoint");
+        try {
+            long size = Files.size(csv);
+            long modified = Files.getLastModifiedTime(csv).toMillis();
+            if (Files.exists(path)) {
+                Properties saved = new Properties();
+                try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    saved.load(in);
+                }
+                if (Long.parseLong(saved.getProperty("fileSize")) == size
+                        && Long.parseLong(saved.getProperty("fileModified")) == modified) {
+                    ImportCheckpoint checkpoint = new ImportCheckpoint(path, size, modified,
+                            Long.parseLong(saved.getProperty("committedUpTo")));
+                    String ahead = saved.getProperty("committedAhead", "");
+                    if (!ahead.isBlank()) {
+                        Arrays.stream(ahead.split(",")).map(range -> range.split("-")).forEach(range ->
+                                checkpoint.committedAhead.put(Long.parseLong(range[0]), Long.parseLong(range[1])));
+                    }
+                    checkpoint.imported = Long.parseLong(saved.getProperty("imported", "0"));
+                    checkpoint.rejected = Long.parseLong(saved.getProperty("rejected", "0"));
+                    return checkpoint;
+                }
+            }
+            return new ImportCheckpoint(path, size, modified, firstRecord);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the import checkpoint " + path, e);
+        }
+    }
+
+    long committedUpTo() {
+        return committedUpTo;
+    }
+
+    /**
+     * The end of the chunk starting at 'start' if it was committed before, otherwise -1.
+     */
+    long committedEnd(long start) {
+        return committedAhead.getOrDefault(start, -1L);
+    }
+
+    long imported() {
+        return imported;
+    }
+
+    long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Bytes of the file that are done, for progress reporting.
+     */
+    long committedBytes() {
+        long bytes = committedUpTo;
+        for (Map.Entry<Long, Long> chunk : committedAhead.entrySet()) {
+            bytes += chunk.getValue() - chunk.getKey();
+        }
+        return bytes;
+    }
+
+    /**
+     * Records a committed chunk and writes the slip (to a temporary file first, then renamed over the old one,
+     * so a crash never leaves half a slip).
+     */
+    void commit(long start, long end, long importedRows, long rejectedRows) {
+        committedAhead.put(start, end);
+        Long next;
+        while ((next = committedAhead.remove(committedUpTo)) != null) {
+            committedUpTo = next;
+        }
+        imported += importedRows;
+        rejected += rejectedRows;
+
+        Properties slip = new Properties();
+        slip.setProperty("fileSize", Long.toString(fileSize));
+        slip.setProperty("fileModified", Long.toString(fileModified));
+        slip.setProperty("committedUpTo", Long.toString(committedUpTo));
+        slip.setProperty("committedAhead", committedAhead.entrySet().stream()
+                .map(chunk -> chunk.getKey() + "-" + chunk.getValue())
+                .collect(Collectors.joining(",")));
+        slip.setProperty("imported", Long.toString(imported));
+        slip.setProperty("rejected", Long.toString(rejected));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                slip.store(out, "Patient import progress; delete this file to import from the start again");
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the import checkpoint " + path, e);
+        }
+    }
+
+    boolean isComplete() {
+        return committedUpTo >= fileSize;
+    }
+}
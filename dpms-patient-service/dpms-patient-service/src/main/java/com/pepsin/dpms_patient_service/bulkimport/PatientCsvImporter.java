@@ -0,0 +1,428 @@
+package com.pepsin.dpms_patient_service.bulkimport;
+
+import com.pepsin.dpms_patient_service.DTO.PatientRequestDTO;
+import com.pepsin.dpms_patient_service.cache.EmailBloomFilter;
+import com.pepsin.dpms_patient_service.exception.DuplicateEmailException;
+import com.pepsin.dpms_patient_service.exception.ResourceNotFoundException;
+import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import com.pepsin.dpms_patient_service.search.PatientSearchIndex;
+import com.pepsin.dpms_patient_service.stats.PatientStatistics;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * This is the "Moving Day" desk: it takes the patient list exported from an old hospital system
+ * (a CSV file, often several GB) and files every valid patient into our cabinet, without one HTTP call per patient.
+ *
+ * The file must be in patient.import.dir and start with a header line naming the columns of PatientRequestDTO
+ * (firstName, lastName, dateOfBirth (yyyy-MM-dd), gender, contactNumber, email, address; case and underscores
+ * don't matter). It moves through three stages, each on its own threads:
+ * 1. Cutting: the file is memory-mapped a chunk (chunk-bytes) at a time and cut at the first line break
+ *    after the chunk size that is not inside quotes.
+ * 2. Checking: chunks are parsed and every row is checked against the same rules as PatientRequestDTO,
+ *    several chunks at once (parsers threads). Rows that break a rule go to the reject file with the reason.
+ * 3. Saving: each chunk is saved in one transaction, written to MySQL in JDBC batches (writers threads).
+ *    If the database refuses a row (usually because its email is already used), the chunk is split in halves
+ *    until the offending rows are found and rejected with the database's reason.
+ * At most max-in-flight-chunks chunks are between stage 1 and the end of stage 3, which bounds memory
+ * and keeps the database from being flooded.
+ *
+ * After every saved chunk a checkpoint is written next to the file. Starting an import of the same file again
+ * (after a crash or a FAILED run) continues from there. A chunk saved just before a crash, but not yet in
+ * the checkpoint, is imported again; its rows already exist with the same email, so they are only rejected as duplicates.
+ */
+@Component
+public class PatientCsvImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientCsvImporter.class);
+    // The longest single record we accept; a longer one almost always means an unclosed quote
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+    private static final Map<String, String> COLUMNS = Map.of(
+            "firstname", "firstName",
+            "lastname", "lastName",
+            "dateofbirth", "dateOfBirth",
+            "gender", "gender",
+            "contactnumber", "contactNumber",
+            "email", "email",
+            "address", "address");
+
+    /**
+     * The knobs of the import, from the patient.import.* properties.
+     */
+    record Settings(Path importDir, int chunkBytes, int parsers, int writers, int maxInFlightChunks) {
+    }
+
+    private final Validator validator;
+    private final Consumer<List<Patient>> saveAllInOneTransaction;
+    private final Consumer<Patient> afterSave;
+    private final Settings settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile PatientImport lastImport = PatientImport.notStarted();
+
+    @Autowired
+    public PatientCsvImporter(Validator validator,
+                              PatientRepository patientRepository,
+                              EmailBloomFilter emailFilter,
+                              PatientSearchIndex searchIndex,
+                              PatientStatistics statistics,
+                              @Value("${patient.import.dir:imports}") Path importDir,
+                              @Value("${patient.import.chunk-bytes:4MB}") DataSize chunkBytes,
+                              @Value("${patient.import.parsers:0}") int parsers,
+                              @Value("${patient.import.writers:4}") int writers,
+                              @Value("${patient.import.max-in-flight-chunks:16}") int maxInFlightChunks) {
+        // saveAll runs in one transaction of its own
+        this(validator, patientRepository::saveAll, patient -> {
+            emailFilter.put(patient.getEmail());
+            searchIndex.upsert(patient);
+            statistics.added(patient.getGender(), patient.getDateOfBirth());
+        }, new Settings(importDir, (int) chunkBytes.toBytes(),
+                parsers > 0 ? parsers : Runtime.getRuntime().availableProcessors(), writers, maxInFlightChunks));
+    }
+
+    PatientCsvImporter(Validator validator, Consumer<List<Patient>> saveAllInOneTransaction,
+                       Consumer<Patient> afterSave, Settings settings) {
+        if (settings.chunkBytes() < 1024 || settings.parsers() < 1 || settings.writers() < 1
+                || settings.maxInFlightChunks() < 1) {
+            throw new IllegalArgumentException("patient.import needs chunk-bytes >= 1KB and at least one parser, "
+                    + "writer and in-flight chunk");
+        }
+        this.validator = validator;
+        this.saveAllInOneTransaction = saveAllInOneTransaction;
+        this.afterSave = afterSave;
+        this.settings = settings;
+    }
+
+    public PatientImport getLastImport() {
+        return lastImport;
+    }
+
+    /**
+     * Starts (or resumes) importing a file from the import directory in the background,
+     * unless an import is already running. Either way, returns where the current import stands.
+     *
+     * @throws ResourceNotFoundException if there is no such file in the import directory.
+     */
+    public PatientImport start(String fileName) {
+        Path directory = settings.importDir().toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("No import file named " + fileName + " in " + directory);
+        }
+        if (running.compareAndSet(false, true)) {
+            lastImport = new PatientImport("RUNNING", fileName, Instant.now(), null, 0, 0, 0, 0, null, null);
+            Thread.ofVirtual().name("patient-import").start(() -> {
+                try {
+                    run(file);
+                } catch (RuntimeException e) {
+                    log.error("Patient import of {} failed", file, e);
+                    PatientImport failed = lastImport;
+                    lastImport = new PatientImport("FAILED", failed.fileName(), failed.startedAt(), Instant.now(),
+                            failed.bytesDone(), failed.totalBytes(), failed.imported(), failed.rejected(),
+                            failed.rejectFile(), e.getMessage());
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+        return lastImport;
+    }
+
+    /**
+     * Imports a whole file on the calling thread, resuming from its checkpoint.
+     */
+    PatientImport run(Path file) {
+        Instant startedAt = Instant.now();
+        String fileName = file.getFileName().toString();
+        Path rejectPath = file.resolveSibling(fileName + ".rejects.csv");
+        Object commitLock = new Object();
+        Semaphore inFlight = new Semaphore(settings.maxInFlightChunks());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             RejectFile rejects = new RejectFile(rejectPath);
+             // Closed in reverse order: parsers finish (and hand their last chunks on) before the writers shut down
+             ExecutorService writers = Executors.newFixedThreadPool(settings.writers());
+             ExecutorService parsers = Executors.newFixedThreadPool(settings.parsers())) {
+            long size = channel.size();
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_RECORD_BYTES));
+            int headerEnd = CsvReader.endOfRecordAtOrAfter(head, 0);
+            if (headerEnd < 0) {
+                headerEnd = head.limit();
+            }
+            String[] columnOf = readHeader(head.slice(0, headerEnd));
+            ImportCheckpoint checkpoint = ImportCheckpoint.load(file, headerEnd);
+            lastImport = progress(fileName, startedAt, checkpoint, size, rejectPath);
+
+            long position = checkpoint.committedUpTo();
+            while (position < size && failure.get() == null) {
+                long committedEnd;
+                synchronized (commitLock) {
+                    committedEnd = checkpoint.committedEnd(position);
+                }
+                if (committedEnd >= 0) {
+                    // Saved in an earlier run
+                    position = committedEnd;
+                    continue;
+                }
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(size - position, (long) settings.chunkBytes() + MAX_RECORD_BYTES));
+                int cut = window.limit();
+                if (window.limit() > settings.chunkBytes()) {
+                    cut = CsvReader.endOfRecordAtOrAfter(window, settings.chunkBytes() - 1);
+                    if (cut < 0) {
+                        if (position + window.limit() < size) {
+                            throw new IllegalArgumentException("A record near byte " + (position + settings.chunkBytes())
+                                    + " is longer than " + MAX_RECORD_BYTES + " bytes; is a quote left open?");
+                        }
+                        cut = window.limit();
+                    }
+                }
+                ByteBuffer bytes = window.slice(0, cut);
+                long start = position;
+                long end = position + cut;
+                inFlight.acquireUninterruptibly();
+                parsers.execute(() -> {
+                    try {
+                        CheckedChunk chunk = check(bytes, start, end, columnOf);
+                        writers.execute(() -> {
+                            try {
+                                long imported = save(chunk);
+                                synchronized (commitLock) {
+                                    rejects.write(chunk.rejects);
+                                    checkpoint.commit(start, end, imported, chunk.rejects.size());
+                                    lastImport = progress(fileName, startedAt, checkpoint, size, rejectPath);
+                                }
+                            } catch (Throwable e) {
+                                failure.compareAndSet(null, e);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                        inFlight.release();
+                    }
+                });
+                position = end;
+            }
+            // Wait for every chunk in flight
+            inFlight.acquireUninterruptibly(settings.maxInFlightChunks());
+
+            Throwable failed = failure.get();
+            if (failed != null) {
+                throw failed instanceof RuntimeException runtime ? runtime
+                        : new IllegalStateException("Patient import stopped: " + failed.getMessage(), failed);
+            }
+            PatientImport done = progress(fileName, startedAt, checkpoint, size, rejectPath);
+            PatientImport finished = new PatientImport("FINISHED", fileName, startedAt, Instant.now(), done.bytesDone(),
+                    size, done.imported(), done.rejected(), done.rejectFile(), null);
+            lastImport = finished;
+            log.info("Imported {} patients from {} ({} rejected, see {})",
+                    finished.imported(), file, finished.rejected(), rejectPath);
+            return finished;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the import file " + file, e);
+        }
+    }
+
+    private static PatientImport progress(String fileName, Instant startedAt, ImportCheckpoint checkpoint,
+                                          long size, Path rejectPath) {
+        return new PatientImport("RUNNING", fileName, startedAt, null, checkpoint.committedBytes(), size,
+                checkpoint.imported(), checkpoint.rejected(), rejectPath.toString(), null);
+    }
+
+    /**
+     * Works out which column holds which field of PatientRequestDTO.
+     */
+    private static String[] readHeader(ByteBuffer header) {
+        List<String> names = new ArrayList<>();
+        CsvReader.forEachRecord(header, 0, (offset, fields, raw) -> names.addAll(fields));
+        String[] columnOf = new String[names.size()];
+        TreeSet<String> missing = new TreeSet<>(COLUMNS.values());
+        for (int i = 0; i < names.size(); i++) {
+            String key = names.get(i).replace("_", "").replace(" ", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+            columnOf[i] = COLUMNS.get(key);
+            missing.remove(columnOf[i]);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("The header line has no column for " + String.join(", ", missing));
+        }
+        return columnOf;
+    }
+
+    /**
+     * One row that passed the checks, with where it came from in case it is rejected while saving.
+     */
+    private record Row(long offset, String raw, PatientRequestDTO patient) {
+    }
+
+    /**
+     * A chunk after stage 2: the rows to save and the reject-file lines for the rows that failed.
+     */
+    private record CheckedChunk(List<Row> rows, List<String> rejects) {
+    }
+
+    private CheckedChunk check(ByteBuffer bytes, long start, long end, String[] columnOf) {
+        List<Row> rows = new ArrayList<>();
+        List<String> rejects = new ArrayList<>();
+        CsvReader.forEachRecord(bytes, start, (offset, fields, raw) -> {
+            PatientRequestDTO dto = new PatientRequestDTO();
+            TreeSet<String> problems = new TreeSet<>();
+            for (int i = 0; i < fields.size() && i < columnOf.length; i++) {
+                String value = fields.get(i).strip();
+                if (columnOf[i] == null || value.isEmpty()) {
+                    continue;
+                }
+                switch (columnOf[i]) {
+                    case "firstName" -> dto.setFirstName(value);
+                    case "lastName" -> dto.setLastName(value);
+                    case "dateOfBirth" -> {
+                        try {
+                            dto.setDateOfBirth(LocalDate.parse(value));
+                        } catch (DateTimeParseException e) {
+                            problems.add("dateOfBirth: must be a date like 1990-12-31");
+                        }
+                    }
+                    case "gender" -> dto.setGender(value);
+                    case "contactNumber" -> dto.setContactNumber(value);
+                    case "email" -> dto.setEmail(value);
+                    case "address" -> dto.setAddress(value);
+                    default -> {
+                    }
+                }
+            }
+            for (ConstraintViolation<PatientRequestDTO> violation : validator.validate(dto)) {
+                problems.add(violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            if (problems.isEmpty()) {
+                rows.add(new Row(offset, raw, dto));
+            } else {
+                rejects.add(RejectFile.line(offset, String.join("; ", problems), raw));
+            }
+        });
+        return new CheckedChunk(rows, rejects);
+    }
+
+    /**
+     * Saves a chunk's rows and returns how many were saved; rows the database refuses (an email already used,
+     * or any other broken rule) are added to its rejects.
+     */
+    private long save(CheckedChunk chunk) {
+        List<Patient> saved = new ArrayList<>(chunk.rows.size());
+        saveSplitting(chunk.rows, saved, chunk.rejects);
+        saved.forEach(afterSave);
+        return saved.size();
+    }
+
+    // Tries the rows in one transaction; if the database refuses, tries each half, down to single rows.
+    // With k duplicate emails among n rows this takes about k * log2(n) extra transactions.
+    private void saveSplitting(List<Row> rows, List<Patient> saved, List<String> rejects) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        // Fresh entities every attempt: a failed attempt has already given these rows IDs
+        List<Patient> patients = rows.stream().map(row -> toEntity(row.patient())).toList();
+        try {
+            saveAllInOneTransaction.accept(patients);
+            saved.addAll(patients);
+        } catch (DataIntegrityViolationException e) {
+            if (rows.size() == 1) {
+                Row row = rows.get(0);
+                String reason = DuplicateEmailException.isCausedBy(e)
+                        ? "email: already used by another patient"
+                        : "rejected by the database: " + e.getMostSpecificCause().getMessage();
+                rejects.add(RejectFile.line(row.offset(), reason, row.raw()));
+                return;
+            }
+            int half = rows.size() / 2;
+            saveSplitting(rows.subList(0, half), saved, rejects);
+            saveSplitting(rows.subList(half, rows.size()), saved, rejects);
+        }
+    }
+
+    private static Patient toEntity(PatientRequestDTO dto) {
+        Patient patient = new Patient();
+        patient.setFirstName(dto.getFirstName());
+        patient.setLastName(dto.getLastName());
+        patient.setDateOfBirth(dto.getDateOfBirth());
+        patient.setGender(dto.getGender());
+        patient.setContactNumber(dto.getContactNumber());
+        patient.setEmail(dto.getEmail());
+        patient.setAddress(dto.getAddress());
+        return patient;
+    }
+
+    /**
+     * The reject file next to the import file: byte offset of the row, why it was rejected, and the row itself.
+     * Appended to, so a resumed import adds to the rejects of the earlier runs.
+     */
+    private static final class RejectFile implements AutoCloseable {
+
+        private final BufferedWriter out;
+
+        RejectFile(Path path) throws IOException {
+            boolean fresh = !Files.exists(path);
+            out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (fresh) {
+                out.write("offset,reason,record\n");
+            }
+        }
+
+        static String line(long offset, String reason, String raw) {
+            return offset + "," + quote(reason) + "," + quote(raw) + "\n";
+        }
+
+        private static String quote(String value) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        void write(List<String> lines) {
+            try {
+                for (String line : lines) {
+                    out.write(line);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the reject file", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.pepsin.dpms_patient_service.bulkimport;
+
+import java.time.Instant;
+
+/**
+ * Where the latest patient import stands.
+ *
+ * @param status NOT_STARTED, RUNNING, FINISHED or FAILED.
+ * @param bytesDone How much of the file is imported and committed, including earlier runs that were resumed.
+ * @param rejectFile The CSV listing every row that was not imported, with the reason.
+ * @param error Why the import stopped, when it FAILED. Starting it again resumes from the checkpoint.
+ */
+public record PatientImport(String status, String fileName, Instant startedAt, Instant finishedAt,
+                            long bytesDone, long totalBytes, long imported, long rejected,
+                            String rejectFile, String error) {
+
+    static PatientImport notStarted() {
+        return new PatientImport("NOT_STARTED", null, null, null, 0, 0, 0, 0, null, null);
+    }
+}
@@ -0,0 +1,155 @@
+package com.pepsin.dpms_patient_service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pepsin.dpms_patient_service.DTO.PatientResponseDTO;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * This is our "Photocopied Summary Form" drawer.
+ * Instead of filling in a fresh summary form and turning it into JSON on every
+ * GET /api/patients/{id}, we keep the finished JSON bytes for each patient
+ * and hand them straight back.
+ *
+ * The bytes are made with the same ObjectMapper Spring uses for normal responses,
+ * so clients see exactly the same JSON. PatientServiceImpl evicts a patient whenever it is updated or deleted.
+ *
+ * The drawer is small and forgetful on purpose:
+ * <ul>
+ *     <li>when it is full, the copy nobody asked for the longest is thrown out to make room;</li>
+ *     <li>a copy older than the time-to-live is made again. Evictions only reach this instance's drawer,
+ *         so a change made through another replica shows up here at the latest after the time-to-live.</li>
+ * </ul>
+ *
+ * PatientResponseDTO is registered for reflection because the GET-by-id endpoint returns these bytes, not the DTO,
+ * and a native image only keeps the getters Jackson needs for types it can see being serialized.
+ */
+@Component
+@RegisterReflectionForBinding(PatientResponseDTO.class)
+public class PatientJsonCache {
+
+    private record Copy(byte[] json, long madeAtNanos) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+
+    // Access order, so the eldest entry is the one read least recently
+    private final LinkedHashMap<UUID, Copy> jsonById;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Bumped by every evict; a copy loaded while it moved may already be stale and is not kept
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public PatientJsonCache(ObjectMapper objectMapper,
+                            @Value("${patient.json-cache.max-entries:10000}") int maxEntries,
+                            @Value("${patient.json-cache.time-to-live:PT30S}") Duration timeToLive) {
+        this(objectMapper, maxEntries, timeToLive, System::nanoTime);
+    }
+
+    PatientJsonCache(ObjectMapper objectMapper, int maxEntries, Duration timeToLive, LongSupplier nanoClock) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+        this.jsonById = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Copy> eldest) {
+                return size() > PatientJsonCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the JSON for a patient, building and keeping it if we don't have a fresh copy.
+     * The loader runs outside the drawer's lock, so a slow database read never holds up other readers.
+     * If an evict() happens while it runs, the bytes are still returned but not kept,
+     * so a stale copy can never overtake the eviction.
+     */
+    public byte[] get(UUID id, Function<UUID, PatientResponseDTO> loader) {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Copy copy = jsonById.get(id);
+            if (copy != null) {
+                if (now - copy.madeAtNanos() < timeToLiveNanos) {
+                    return copy.json();
+                }
+                jsonById.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long evictionsBefore = evictions.get();
+        byte[] json = toJson(loader.apply(id));
+        lock.lock();
+        try {
+            if (evictions.get() == evictionsBefore) {
+                jsonById.put(id, new Copy(json, now));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return json;
+    }
+
+    /**
+     * Throws away the copy for a patient. When called inside a transaction we throw it away
+     * again after the commit, so a reader can't re-cache the old row in between.
+     */
+    public void evict(UUID id) {
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return jsonById.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(UUID id) {
+        lock.lock();
+        try {
+            evictions.incrementAndGet();
+            jsonById.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] toJson(PatientResponseDTO dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write patient " + dto.getId() + " as JSON", e);
+        }
+    }
+}
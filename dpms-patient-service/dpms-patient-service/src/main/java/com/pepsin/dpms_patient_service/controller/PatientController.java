@@ -1,17 +1,27 @@
 package com.pepsin.dpms_patient_service.controller;
 
 
+import com.pepsin.dpms_patient_service.DTO.DuplicateScanDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientChangesDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientExportDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientImportDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientListPageDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientRequestDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientResponseDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientSearchPageDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientStatsDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientUpdateDTO;
 import com.pepsin.dpms_patient_service.service.PatientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -56,7 +66,25 @@ public class PatientController {
     }
 
     /**
-     * Handles requests to get a patient's information by ID.
+     * Handles requests to get a patient's information by ID as JSON (the usual case).
+     * HTTP Method: GET
+     * URL: /api/patients/{id}, with Accept: application/json or no Accept header
+     *
+     * The JSON comes ready-made from the cache, so it is written straight to the response
+     * without going through Jackson again.
+     *
+     * @param id The unique ID of the patient, taken from the URL path.
+     * @return A response with the patient's JSON bytes and a "200 OK" status.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getPatientJsonById(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(patientService.getPatientJsonById(id));
+    }
+
+    /**
+     * Handles requests to get a patient's information by ID in any other format the client asks for.
      * HTTP Method: GET
      * URL: /api/patients/{id} (e.g., /api/patients/123e4567-e89b-12d3-a456-426614174000)
      *
@@ -70,11 +98,69 @@ public class PatientController {
         return ResponseEntity.ok(patient); // Shorthand for new ResponseEntity<>(patient, HttpStatus.OK)
     }
 
+    /**
+     * Handles requests for only some of a patient's fields.
+     * HTTP Method: GET
+     * URL: /api/patients/{id}?fields=id,firstName,lastName
+     *
+     * Only the named columns are read from the database and only they appear in the response.
+     *
+     * @param id The unique ID of the patient, taken from the URL path.
+     * @param fields Field names of the "Patient Summary Form", comma separated.
+     * @return A response with the requested fields and a "200 OK" status, or 400 for an unknown field.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getPatientFieldsById(@PathVariable UUID id,
+                                                                    @RequestParam List<String> fields) {
+        return ResponseEntity.ok(patientService.getPatientById(id, fields));
+    }
+
+    /**
+     * Handles requests to find a patient by email, for integrations that know the patient only by email.
+     * HTTP Method: GET
+     * URL: /api/patients/by-email?email=Jane.Doe@example.org
+     *
+     * Case and surrounding spaces don't matter. One indexed lookup, so there is no need
+     * to download the whole list and search it.
+     *
+     * @param email The patient's email address.
+     * @return A response with the "Patient Summary Form" and a "200 OK" status, or 404 if nobody has this email.
+     */
+    @GetMapping("/by-email")
+    public ResponseEntity<PatientResponseDTO> getPatientByEmail(@RequestParam String email) {
+        return ResponseEntity.ok(patientService.getPatientByEmail(email));
+    }
+
+    /**
+     * Handles patient searches from the front desk, where names are often misspelled.
+     * HTTP Method: GET
+     * URL: /api/patients/search?q=jonh smiht&page=0&size=20
+     *
+     * Looks at first name, last name, address and contact number, and answers from memory without
+     * touching the database. Results are ranked best first; only the best 1000 can be paged through.
+     * Right after startup, while the search index is still being built, this answers 503.
+     *
+     * @param q What to search for.
+     * @param page The page to return, starting at 0.
+     * @param size The number of results per page (at most 100).
+     * @return A response with the "Search Results" form and a "200 OK" status.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PatientSearchPageDTO> searchPatients(@RequestParam String q,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(patientService.searchPatients(q, page, size));
+    }
+
     /**
      * Handles requests to get all patients' information.
      * HTTP Method: GET
      * URL: /api/patients
      *
+     * JSON is the default. Other services pulling the whole list can send
+     * "Accept: application/x-jackson-smile" to get the compact binary Smile format instead,
+     * which writes each field name only once per response.
+     *
      * @return A response with a list of "Patient Summary Forms" and a "200 OK" status.
      */
     @GetMapping
@@ -83,6 +169,160 @@ public class PatientController {
         return ResponseEntity.ok(patients);
     }
 
+    /**
+     * Handles requests for only some fields of every patient, for list screens.
+     * HTTP Method: GET
+     * URL: /api/patients?fields=id,firstName,lastName
+     *
+     * Only the named columns are read from the database and only they appear in the response.
+     *
+     * @param fields Field names of the "Patient Summary Form", comma separated.
+     * @return A response with the requested fields of every patient and a "200 OK" status, or 400 for an unknown field.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllPatientFields(@RequestParam List<String> fields) {
+        return ResponseEntity.ok(patientService.getAllPatients(fields));
+    }
+
+    /**
+     * Handles requests for a filtered, sorted list of patients, one page at a time.
+     * HTTP Method: GET
+     * URL: /api/patients/query?filter=gender==Female;dateOfBirth>=1980-01-01&sort=lastName,-dateOfBirth&page=0&size=20
+     *
+     * filter: conditions joined by ';', each "field operator value" with operator ==, !=, >, >=, < or <=.
+     * "lastName==Men*" means "last name starts with Men". Fields: lastName, gender, dateOfBirth, lastModified.
+     * sort: fields joined by ',', a '-' in front means newest/largest first. Fields: lastName, dateOfBirth, lastModified.
+     * Only indexed fields are allowed, so every request is one quick query whatever the size of the table.
+     *
+     * @param filter The conditions every patient must meet (optional).
+     * @param sort The order of the list (optional; by id otherwise).
+     * @param page The page to return, starting at 0.
+     * @param size The number of patients per page (at most 100).
+     * @return A response with the "Filtered List" form and a "200 OK" status, or 400 for a filter or sort we can't run.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<PatientListPageDTO> listPatients(@RequestParam(required = false) String filter,
+                                                           @RequestParam(required = false) String sort,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(patientService.listPatients(filter, sort, page, size));
+    }
+
+    /**
+     * Handles requests for patient counts by gender and age band, for dashboards.
+     * HTTP Method: GET
+     * URL: /api/patients/stats
+     *
+     * The counts come from counters kept in memory, so this costs the same however many patients there are.
+     *
+     * @return A response with the "Head Count" form and a "200 OK" status.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<PatientStatsDTO> getPatientStats() {
+        return ResponseEntity.ok(patientService.getPatientStats());
+    }
+
+    /**
+     * Handles sync requests from clients that keep their own copy of the patient list.
+     * HTTP Method: GET
+     * URL: /api/patients/changes?since=2025-01-01T00:00:00Z&afterId=...&limit=100
+     *
+     * @param since Only return changes after this moment (leave out for a first, full sync).
+     * @param afterId The nextAfterId from the previous page.
+     * @param limit The maximum number of changes in this page.
+     * @return A response with the changed patients, the deleted IDs and the cursor for the next page.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<PatientChangesDTO> getPatientChanges(@RequestParam(required = false) Instant since,
+                                                               @RequestParam(required = false) UUID afterId,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(patientService.getChangesSince(since, afterId, limit));
+    }
+
+    /**
+     * Starts the "Same Person, Two Cards?" scan, which lists record cards that probably belong to the same person.
+     * HTTP Method: POST
+     * URL: /api/patients/duplicates/scan
+     *
+     * The scan runs in the background (minutes for millions of patients); asking again while it runs
+     * doesn't start a second one.
+     *
+     * @return A response with the scan's status form and a "202 Accepted" status.
+     */
+    @PostMapping("/duplicates/scan")
+    public ResponseEntity<DuplicateScanDTO> startDuplicateScan() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientService.startDuplicateScan());
+    }
+
+    /**
+     * Handles requests for the progress and result of the latest duplicate scan.
+     * HTTP Method: GET
+     * URL: /api/patients/duplicates/scan
+     *
+     * @return A response with the scan's status form (with the best candidates once finished) and a "200 OK" status.
+     */
+    @GetMapping("/duplicates/scan")
+    public ResponseEntity<DuplicateScanDTO> getDuplicateScan() {
+        return ResponseEntity.ok(patientService.getDuplicateScan());
+    }
+
+    /**
+     * Starts importing patients from a CSV file exported by an older hospital system.
+     * HTTP Method: POST
+     * URL: /api/patients/imports?file=legacy-patients.csv
+     *
+     * The file must already be in the service's import directory (it is usually several GB, too big to upload).
+     * The import runs in the background; starting the same file again after a failure resumes where it stopped.
+     *
+     * @param file The file's name inside the import directory.
+     * @return A response with the import's progress form and a "202 Accepted" status, or 404 if there is no such file.
+     */
+    @PostMapping("/imports")
+    public ResponseEntity<PatientImportDTO> startImport(@RequestParam String file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientService.startImport(file));
+    }
+
+    /**
+     * Handles requests for the progress of the latest CSV import.
+     * HTTP Method: GET
+     * URL: /api/patients/imports
+     *
+     * @return A response with the import's progress form and a "200 OK" status.
+     */
+    @GetMapping("/imports")
+    public ResponseEntity<PatientImportDTO> getImport() {
+        return ResponseEntity.ok(patientService.getImport());
+    }
+
+    /**
+     * Starts writing the patient list to a compressed columnar file for the analytics team.
+     * HTTP Method: POST
+     * URL: /api/patients/exports or /api/patients/exports?incremental=true
+     *
+     * The file is written to the service's export directory in the background.
+     * An incremental export only holds the patients changed since the last finished export,
+     * plus a second file with the ids of patients deleted since then.
+     *
+     * @param incremental Only export what changed since the last finished export (false by default).
+     * @return A response with the export's progress form and a "202 Accepted" status.
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<PatientExportDTO> startExport(@RequestParam(defaultValue = "false") boolean incremental) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientService.startExport(incremental));
+    }
+
+    /**
+     * Handles requests for the progress of the latest columnar export.
+     * HTTP Method: GET
+     * URL: /api/patients/exports
+     *
+     * @return A response with the export's progress form and a "200 OK" status.
+     */
+    @GetMapping("/exports")
+    public ResponseEntity<PatientExportDTO> getExport() {
+        return ResponseEntity.ok(patientService.getExport());
+    }
+
     /**
      * Handles requests to update an existing patient's information.
      * HTTP Method: PUT
@@ -0,0 +1,158 @@
+package com.pepsin.dpms_patient_service.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * This is the "Records Room Usher": it decides, for every database connection, whether it goes
+ * to the primary database or to one of its read replicas.
+ *
+ * - Read-only transactions (@Transactional(readOnly = true), and findById/findAll on a repository)
+ *   go to a healthy replica, taking turns; if no replica is healthy they go to the primary.
+ * - Everything else goes to the primary: read-write transactions and work outside a transaction.
+ * - Read your own writes: after a client's read-write transaction, that client's reads stay on the primary
+ *   for stickyAfterWrite, long enough for every replica in use to have caught up with the change.
+ *   The client is whoever ClientKeyFilter says sent the request.
+ * - onPrimary(...) sends every read inside it to the primary, for reads that must never be stale.
+ * - A replica that refuses a connection is reported to the ReplicaLagMonitor and the primary is used instead.
+ *
+ * The choice is made when the first statement runs, not when the transaction begins, so this must sit
+ * behind a LazyConnectionDataSourceProxy (see ReplicaRoutingConfiguration); only then is it known
+ * whether the transaction is read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> PRIMARY_ONLY = ThreadLocal.withInitial(() -> 0);
+    // How many clients we remember before forgetting those whose sticky time is over
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final ReplicaPools pools;
+    private final ReplicaLagMonitor monitor;
+    private final long stickyMillis;
+    private final Clock clock;
+    private final Map<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(ReplicaPools pools, ReplicaLagMonitor monitor, Duration stickyAfterWrite,
+                                      Clock clock) {
+        this.pools = pools;
+        this.monitor = monitor;
+        this.stickyMillis = stickyAfterWrite.toMillis();
+        this.clock = clock;
+        Map<Object, Object> targets = new HashMap<>(pools.replicas());
+        targets.put(PRIMARY, pools.primary());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(pools.primary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Names the client making the current request on this thread; null clears it.
+     */
+    public static void setClient(String clientKey) {
+        if (clientKey == null) {
+            CLIENT.remove();
+        } else {
+            CLIENT.set(clientKey);
+        }
+    }
+
+    /**
+     * Runs 'read' with all its reads on the primary, for example before filling a cache that
+     * would otherwise keep a replica's stale copy. Does nothing special when routing is off.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        PRIMARY_ONLY.set(PRIMARY_ONLY.get() + 1);
+        try {
+            return read.get();
+        } finally {
+            int depth = PRIMARY_ONLY.get() - 1;
+            if (depth == 0) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(depth);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+            return PRIMARY;
+        }
+        if (PRIMARY_ONLY.get() > 0 || wroteRecently(CLIENT.get())) {
+            return PRIMARY;
+        }
+        String replica = monitor.pickReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return pools.primary().getConnection();
+        }
+        try {
+            return pools.replicas().get(key).getConnection();
+        } catch (SQLException e) {
+            monitor.markDown((String) key);
+            return pools.primary().getConnection();
+        }
+    }
+
+    /**
+     * Remembers that the current client is writing. It is remembered again when the transaction
+     * ends, so the sticky time counts from the commit, not from the first statement.
+     */
+    private void recordWrite() {
+        String client = CLIENT.get();
+        if (client == null) {
+            return;
+        }
+        if (lastWriteByClient.size() >= SWEEP_THRESHOLD) {
+            long expired = clock.millis() - stickyMillis;
+            lastWriteByClient.values().removeIf(writtenAt -> writtenAt < expired);
+        }
+        lastWriteByClient.put(client, clock.millis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWriteByClient.put(client, clock.millis());
+                }
+            });
+        }
+    }
+
+    private boolean wroteRecently(String client) {
+        if (client == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteByClient.get(client);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (clock.millis() - writtenAt < stickyMillis) {
+            return true;
+        }
+        lastWriteByClient.remove(client, writtenAt);
+        return false;
+    }
+}
@@ -0,0 +1,151 @@
+package com.pepsin.dpms_patient_service.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is the "Copy Room Clock": it keeps checking how far behind each read replica is,
+ * so reads only go to replicas that are nearly up to date.
+ *
+ * Every check writes the current time into a one-row heartbeat table on the primary, and reads
+ * the row back from each replica. Replication copies the row like any other, so a replica's row
+ * is as old as the newest change it has received. A replica that is fully caught up still shows
+ * up to one check interval of lag, because the newest heartbeat is only written after the replicas are read.
+ * This works the same on MySQL and on stand-in databases (such as H2 in tests), which
+ * "SHOW REPLICA STATUS" would not.
+ *
+ * A replica is used while its lag is at most maxLag. One that can't be reached, has no heartbeat row
+ * yet or is too far behind is left out until a later check finds it healthy again. Until the first
+ * check has run no replica is healthy, so every read goes to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String HEARTBEAT_TABLE = "replica_heartbeat";
+    // Don't let a hanging replica hold up the checks of the others for long
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final ReplicaPools pools;
+    private final Duration maxLag;
+    private final Clock clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+    private volatile boolean heartbeatTableReady;
+
+    public ReplicaLagMonitor(ReplicaPools pools, Duration maxLag, Clock clock) {
+        this.pools = pools;
+        this.maxLag = maxLag;
+        this.clock = clock;
+    }
+
+    /**
+     * Measures every replica's lag, then writes a new heartbeat on the primary.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${patient.datasource.routing.lag-check-interval:PT1S}")
+    public void check() {
+        List<String> nowHealthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : pools.replicas().entrySet()) {
+            String name = replica.getKey();
+            String problem = findProblem(replica.getValue());
+            boolean wasHealthy = healthy.contains(name);
+            if (problem == null) {
+                nowHealthy.add(name);
+                if (!wasHealthy) {
+                    log.info("Read replica {} is up to date; reads go to it again", name);
+                }
+            } else if (wasHealthy) {
+                log.warn("Read replica {} {}; its reads go elsewhere until it catches up", name, problem);
+            }
+        }
+        healthy = List.copyOf(nowHealthy);
+        writeHeartbeat();
+    }
+
+    /**
+     * Picks the next healthy replica, taking turns; null if none is healthy.
+     */
+    public String pickReplica() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * Stops using a replica until the next check, after a connection to it failed.
+     */
+    public void markDown(String name) {
+        List<String> candidates = new ArrayList<>(healthy);
+        if (candidates.remove(name)) {
+            healthy = List.copyOf(candidates);
+            log.warn("Read replica {} refused a connection; its reads go elsewhere until the next check", name);
+        }
+    }
+
+    /**
+     * Says what keeps a replica from being used, or null if it is fine.
+     */
+    private String findProblem(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "select beat_at from " + HEARTBEAT_TABLE + " where id = 1")) {
+            select.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return "has no heartbeat yet";
+                }
+                long lagMillis = clock.millis() - row.getLong(1);
+                return lagMillis > maxLag.toMillis()
+                        ? "is " + lagMillis + " ms behind (at most " + maxLag.toMillis() + " ms allowed)"
+                        : null;
+            }
+        } catch (SQLException e) {
+            // Also what happens before the heartbeat table has reached the replica
+            return "can't be checked (" + e.getMessage() + ")";
+        }
+    }
+
+    private void writeHeartbeat() {
+        try (Connection connection = pools.primary().getConnection()) {
+            connection.setAutoCommit(true);
+            if (!heartbeatTableReady) {
+                try (Statement create = connection.createStatement()) {
+                    create.execute("create table if not exists " + HEARTBEAT_TABLE
+                            + " (id int primary key, beat_at bigint not null)");
+                }
+                heartbeatTableReady = true;
+            }
+            long now = clock.millis();
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update " + HEARTBEAT_TABLE + " set beat_at = ? where id = 1")) {
+                update.setLong(1, now);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "insert into " + HEARTBEAT_TABLE + " (id, beat_at) values (1, ?)")) {
+                        insert.setLong(1, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // Another instance may have inserted the row first; the next check simply updates it
+            log.warn("Could not write the replica heartbeat to the primary: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.pepsin.dpms_patient_service.datasource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The connection pools of the primary database and its read replicas, by name ("replica-0", "replica-1", ...).
+ * Both the ReadWriteRoutingDataSource and the ReplicaLagMonitor use them; closing this closes every pool.
+ */
+public record ReplicaPools(DataSource primary, Map<String, DataSource> replicas) implements AutoCloseable {
+
+    public ReplicaPools {
+        replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
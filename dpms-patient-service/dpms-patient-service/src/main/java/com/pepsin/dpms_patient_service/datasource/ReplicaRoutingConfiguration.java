@@ -0,0 +1,84 @@
+package com.pepsin.dpms_patient_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends reads to MySQL read replicas when patient.datasource.routing.enabled=true (see application.yml).
+ * Without it the service keeps Spring Boot's single connection pool to spring.datasource.
+ *
+ * The primary pool uses spring.datasource; each replica uses the same username, password and driver
+ * with its own URL. The DataSource everyone else sees is a LazyConnectionDataSourceProxy around
+ * the ReadWriteRoutingDataSource, so the routing decision waits until the transaction is known to be read-only.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "patient.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    public ReplicaPools replicaPools(DataSourceProperties properties,
+                                     @Value("${patient.datasource.routing.replicas}") String[] replicaUrls,
+                                     @Value("${patient.datasource.routing.replica-connection-timeout:PT1S}") Duration connectionTimeout) {
+        if (replicaUrls.length == 0) {
+            throw new IllegalArgumentException("patient.datasource.routing.replicas must name at least one replica");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = pool(properties, replicaUrls[i].trim(), "patient-replica-" + i);
+            // A replica that is slow to hand out a connection is skipped for the primary instead of waited for
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replicas.put("replica-" + i, replica);
+        }
+        return new ReplicaPools(pool(properties, properties.determineUrl(), "patient-primary"), replicas);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaPools pools,
+                                               @Value("${patient.datasource.routing.max-lag:PT5S}") Duration maxLag) {
+        return new ReplicaLagMonitor(pools, maxLag, Clock.systemUTC());
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            ReplicaPools pools,
+            ReplicaLagMonitor monitor,
+            @Value("${patient.datasource.routing.max-lag:PT5S}") Duration maxLag,
+            @Value("${patient.datasource.routing.lag-check-interval:PT1S}") Duration lagCheckInterval) {
+        if (maxLag.compareTo(lagCheckInterval) <= 0) {
+            throw new IllegalArgumentException("patient.datasource.routing.max-lag must be longer than lag-check-interval, "
+                    + "because even a caught-up replica shows up to one interval of lag");
+        }
+        // A replica in use is at most maxLag behind, and we notice going past that within one check,
+        // so after this long every replica we might read from has the client's write
+        return new ReadWriteRoutingDataSource(pools, monitor, maxLag.plus(lagCheckInterval), Clock.systemUTC());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ClientKeyFilter clientKeyFilter() {
+        return new ClientKeyFilter();
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        pool.setPoolName(name);
+        return pool;
+    }
+}
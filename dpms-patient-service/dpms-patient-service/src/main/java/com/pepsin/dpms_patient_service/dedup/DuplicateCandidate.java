@@ -0,0 +1,14 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import java.util.UUID;
+
+/**
+ * Two record cards that probably describe the same person, for someone at the front desk to check and merge.
+ *
+ * @param score How alike the two cards are, from 0 to 1.
+ * @param matchedOn Why they were compared: "birth-date+surname" or "contact-number".
+ */
+public record DuplicateCandidate(UUID firstId, String firstFirstName, String firstLastName,
+                                 UUID secondId, String secondFirstName, String secondLastName,
+                                 double score, String matchedOn) {
+}
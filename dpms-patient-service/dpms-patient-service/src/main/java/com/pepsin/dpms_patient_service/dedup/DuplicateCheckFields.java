@@ -0,0 +1,12 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * The parts of a patient record card that the duplicate check compares.
+ * Streamed from the database with a JPQL constructor expression, so the rest of the card is never fetched.
+ */
+public record DuplicateCheckFields(UUID id, String firstName, String lastName, LocalDate dateOfBirth,
+                                   String contactNumber) {
+}
@@ -0,0 +1,371 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * This is the "Same Person, Two Cards?" check the records office runs now and then.
+ * Patients get registered twice (a new email, a misspelled name), and this job lists the record cards
+ * that probably belong to the same person, best match first, for a person to review and merge.
+ *
+ * Comparing every card with every other card is impossible at millions of patients, so cards are first
+ * put into blocks and only compared within a block:
+ * - same birthday and a surname that sounds the same (Soundex: Smith, Smyth and Smit are alike),
+ * - same phone number (last 9 digits, so country codes and dashes don't matter).
+ * A block bigger than max-block-size (say, a phone number shared by a whole clinic) is sorted by name and every card
+ * is compared only with its next window-size neighbours.
+ *
+ * Memory stays bounded: when there are more blocking keys than max-rows-in-memory, the patients are streamed
+ * several times and each pass keeps only the blocks whose key hashes to that pass.
+ * The comparisons of a pass are split into pieces of similar size and scored on every core with fork-join.
+ * Only the best report-size candidates are kept; they are written to a CSV file in report-dir.
+ */
+@Component
+public class DuplicatePatientDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicatePatientDetector.class);
+    private static final String BIRTH_BLOCK = "birth-date+surname";
+    private static final String PHONE_BLOCK = "contact-number";
+    // Roughly how many comparisons one fork-join piece does
+    private static final int COMPARISONS_PER_PIECE = 20_000;
+    // How many of the best candidates the scan status shows without opening the report
+    private static final int TOP_SHOWN = 100;
+    private static final Comparator<DuplicateCandidate> WORST_FIRST = Comparator
+            .comparingDouble(DuplicateCandidate::score)
+            .thenComparing(DuplicateCandidate::firstId)
+            .thenComparing(DuplicateCandidate::secondId);
+
+    private final Consumer<Consumer<DuplicateCheckFields>> allPatients;
+    private final LongSupplier patientCount;
+    private final Settings settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile DuplicateScan lastScan = DuplicateScan.notStarted();
+
+    /**
+     * The knobs of the job, from the patient.dedup.* properties.
+     */
+    record Settings(double minScore, long maxRowsInMemory, int maxBlockSize, int windowSize, int reportSize,
+                    Path reportDir, int parallelism) {
+    }
+
+    @Autowired
+    public DuplicatePatientDetector(PatientRepository patientRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${patient.dedup.min-score:0.8}") double minScore,
+                                    @Value("${patient.dedup.max-rows-in-memory:1000000}") long maxRowsInMemory,
+                                    @Value("${patient.dedup.max-block-size:1000}") int maxBlockSize,
+                                    @Value("${patient.dedup.window-size:50}") int windowSize,
+                                    @Value("${patient.dedup.report-size:100000}") int reportSize,
+                                    @Value("${patient.dedup.report-dir:reports}") Path reportDir) {
+        this(sink -> {
+                    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                    readOnly.setReadOnly(true);
+                    readOnly.executeWithoutResult(status -> {
+                        try (Stream<DuplicateCheckFields> patients = patientRepository.streamDuplicateCheckFields()) {
+                            patients.forEach(sink);
+                        }
+                    });
+                },
+                patientRepository::count,
+                new Settings(minScore, maxRowsInMemory, maxBlockSize, windowSize, reportSize, reportDir,
+                        Runtime.getRuntime().availableProcessors()));
+    }
+
+    DuplicatePatientDetector(Consumer<Consumer<DuplicateCheckFields>> allPatients, LongSupplier patientCount,
+                             Settings settings) {
+        if (settings.maxBlockSize() < 2 || settings.windowSize() < 1 || settings.reportSize() < 1
+                || settings.maxRowsInMemory() < 1) {
+            throw new IllegalArgumentException("patient.dedup needs max-block-size >= 2 and positive window-size, "
+                    + "report-size and max-rows-in-memory");
+        }
+        this.allPatients = allPatients;
+        this.patientCount = patientCount;
+        this.settings = settings;
+    }
+
+    public DuplicateScan getLastScan() {
+        return lastScan;
+    }
+
+    /**
+     * Starts a scan in the background unless one is already running.
+     * Either way, returns where the current scan stands.
+     */
+    public DuplicateScan startScan() {
+        if (running.compareAndSet(false, true)) {
+            lastScan = new DuplicateScan("RUNNING", Instant.now(), null, 0, 0, 0, null, List.of());
+            Thread.ofVirtual().name("duplicate-patient-scan").start(() -> {
+                try {
+                    scan();
+                } catch (RuntimeException e) {
+                    log.error("Duplicate patient scan failed", e);
+                    DuplicateScan failed = lastScan;
+                    lastScan = new DuplicateScan("FAILED", failed.startedAt(), Instant.now(), failed.patientsScanned(),
+                            failed.pairsScored(), 0, null, List.of());
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+        return lastScan;
+    }
+
+    /**
+     * Runs a whole scan on the calling thread and writes the report.
+     */
+    DuplicateScan scan() {
+        Instant startedAt = Instant.now();
+        // Each patient has up to two blocking keys, so up to two rows in memory
+        long passes = Math.max(1, (2 * patientCount.getAsLong() + settings.maxRowsInMemory() - 1)
+                / settings.maxRowsInMemory());
+        TopCandidates best = new TopCandidates(settings.reportSize());
+        long patientsScanned = 0;
+        long pairsScored = 0;
+
+        try (ForkJoinPool pool = new ForkJoinPool(settings.parallelism())) {
+            for (int pass = 0; pass < passes; pass++) {
+                Blocks blocks = readBlocks(pass, passes);
+                List<Piece> pieces = cutIntoPieces(blocks.rowsByKey());
+                patientsScanned = blocks.patientsRead();
+                Scored scored = pool.invoke(new ScoreTask(pieces, 0, pieces.size()));
+                best.addAll(scored.candidates);
+                pairsScored += scored.pairs;
+                lastScan = new DuplicateScan("RUNNING", startedAt, null, patientsScanned, pairsScored, best.size(),
+                        null, List.of());
+                log.info("Duplicate scan pass {}/{}: {} pieces, {} pairs scored so far",
+                        pass + 1, passes, pieces.size(), pairsScored);
+            }
+        }
+
+        List<DuplicateCandidate> ranked = best.bestFirst();
+        Path report = writeReport(ranked, startedAt);
+        DuplicateScan finished = new DuplicateScan("FINISHED", startedAt, Instant.now(), patientsScanned, pairsScored,
+                ranked.size(), report.toString(), List.copyOf(ranked.subList(0, Math.min(TOP_SHOWN, ranked.size()))));
+        lastScan = finished;
+        log.info("Duplicate scan finished: {} patients, {} pairs scored, {} candidates in {}",
+                patientsScanned, pairsScored, ranked.size(), report);
+        return finished;
+    }
+
+    /**
+     * Streams every patient and keeps the blocks whose key belongs to this pass.
+     * Blocks of one card are dropped straight away at the end: there is nothing to compare.
+     */
+    private Blocks readBlocks(int pass, long passes) {
+        Map<String, List<PatientRow>> blocks = new HashMap<>();
+        long[] read = {0};
+        allPatients.accept(fields -> {
+            read[0]++;
+            String phoneKey = PatientMatching.phoneKey(PatientMatching.normalizePhone(fields.contactNumber()));
+            String birthKey = PatientMatching.birthKey(fields.dateOfBirth(),
+                    PatientMatching.foldName(fields.lastName()));
+            boolean phoneHere = phoneKey != null && Math.floorMod(phoneKey.hashCode(), passes) == pass;
+            boolean birthHere = birthKey != null && Math.floorMod(birthKey.hashCode(), passes) == pass;
+            if (phoneHere || birthHere) {
+                PatientRow row = new PatientRow(fields);
+                if (phoneHere) {
+                    blocks.computeIfAbsent(phoneKey, key -> new ArrayList<>(2)).add(row);
+                }
+                if (birthHere) {
+                    blocks.computeIfAbsent(birthKey, key -> new ArrayList<>(2)).add(row);
+                }
+            }
+        });
+        blocks.values().removeIf(rows -> rows.size() < 2);
+        return new Blocks(blocks, read[0]);
+    }
+
+    private record Blocks(Map<String, List<PatientRow>> rowsByKey, long patientsRead) {
+    }
+
+    /**
+     * A run of first cards in one block: card i is compared with the cards after it
+     * (all of them, or only the next window-size in a big sorted block).
+     */
+    private record Piece(List<PatientRow> rows, boolean birthBlock, int window, int from, int to) {
+    }
+
+    private List<Piece> cutIntoPieces(Map<String, List<PatientRow>> blocks) {
+        List<Piece> pieces = new ArrayList<>();
+        blocks.forEach((key, rows) -> {
+            int n = rows.size();
+            int window = n;
+            if (n > settings.maxBlockSize()) {
+                rows.sort(Comparator.comparing((PatientRow row) -> row.lastName).thenComparing(row -> row.firstName));
+                window = settings.windowSize();
+            }
+            boolean birthBlock = key.startsWith("d:");
+            int from = 0;
+            long comparisons = 0;
+            for (int i = 0; i < n; i++) {
+                comparisons += Math.min(window, n - 1 - i);
+                if (comparisons >= COMPARISONS_PER_PIECE || i == n - 1) {
+                    pieces.add(new Piece(rows, birthBlock, window, from, i + 1));
+                    from = i + 1;
+                    comparisons = 0;
+                }
+            }
+        });
+        return pieces;
+    }
+
+    private record Scored(TopCandidates candidates, long pairs) {
+    }
+
+    /**
+     * Scores a range of pieces, splitting it in half until a few pieces are left.
+     */
+    private final class ScoreTask extends RecursiveTask<Scored> {
+
+        private final List<Piece> pieces;
+        private final int from;
+        private final int to;
+
+        ScoreTask(List<Piece> pieces, int from, int to) {
+            this.pieces = pieces;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Scored compute() {
+            if (to - from <= 4) {
+                TopCandidates found = new TopCandidates(settings.reportSize());
+                long pairs = 0;
+                for (int p = from; p < to; p++) {
+                    pairs += score(pieces.get(p), found);
+                }
+                return new Scored(found, pairs);
+            }
+            int middle = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(pieces, from, middle);
+            left.fork();
+            Scored right = new ScoreTask(pieces, middle, to).compute();
+            Scored leftScored = left.join();
+            right.candidates.addAll(leftScored.candidates);
+            return new Scored(right.candidates, right.pairs + leftScored.pairs);
+        }
+    }
+
+    private long score(Piece piece, TopCandidates found) {
+        List<PatientRow> rows = piece.rows();
+        long pairs = 0;
+        for (int i = piece.from(); i < piece.to(); i++) {
+            PatientRow a = rows.get(i);
+            int last = Math.min(rows.size() - 1, i + piece.window());
+            for (int j = i + 1; j <= last; j++) {
+                PatientRow b = rows.get(j);
+                // A pair sharing both keys is scored in its birth-date block only
+                if (!piece.birthBlock() && a.birthKey != null && a.birthKey.equals(b.birthKey)) {
+                    continue;
+                }
+                pairs++;
+                double score = PatientMatching.score(a, b);
+                if (score >= settings.minScore()) {
+                    boolean aFirst = a.id.compareTo(b.id) < 0;
+                    PatientRow first = aFirst ? a : b;
+                    PatientRow second = aFirst ? b : a;
+                    found.add(new DuplicateCandidate(first.id, first.displayFirstName, first.displayLastName,
+                            second.id, second.displayFirstName, second.displayLastName, score,
+                            piece.birthBlock() ? BIRTH_BLOCK : PHONE_BLOCK));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private Path writeReport(List<DuplicateCandidate> ranked, Instant startedAt) {
+        String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(startedAt);
+        Path report = settings.reportDir().resolve("duplicate-patients-" + stamp + ".csv");
+        try {
+            Files.createDirectories(settings.reportDir());
+            try (BufferedWriter out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                out.write("rank,score,matched_on,first_id,first_first_name,first_last_name,"
+                        + "second_id,second_first_name,second_last_name\n");
+                int rank = 1;
+                for (DuplicateCandidate candidate : ranked) {
+                    out.write(rank++ + "," + String.format("%.4f", candidate.score()) + "," + candidate.matchedOn()
+                            + "," + candidate.firstId() + "," + csv(candidate.firstFirstName()) + ","
+                            + csv(candidate.firstLastName()) + "," + candidate.secondId() + ","
+                            + csv(candidate.secondFirstName()) + "," + csv(candidate.secondLastName()) + "\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the duplicate patient report " + report, e);
+        }
+        return report;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    /**
+     * The best 'capacity' candidates seen so far: a min-heap whose top is the worst one kept.
+     */
+    private static final class TopCandidates {
+
+        private final int capacity;
+        private final PriorityQueue<DuplicateCandidate> heap;
+
+        TopCandidates(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(Math.min(capacity, 1024), WORST_FIRST);
+        }
+
+        void add(DuplicateCandidate candidate) {
+            if (heap.size() < capacity) {
+                heap.add(candidate);
+            } else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        void addAll(TopCandidates other) {
+            other.heap.forEach(this::add);
+        }
+
+        int size() {
+            return heap.size();
+        }
+
+        List<DuplicateCandidate> bestFirst() {
+            List<DuplicateCandidate> ranked = new ArrayList<>(heap);
+            ranked.sort(WORST_FIRST.reversed());
+            return ranked;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Where the latest duplicate scan stands, and what it found.
+ *
+ * @param status NOT_STARTED, RUNNING, FINISHED or FAILED.
+ * @param reportFile The CSV with every candidate found, best first (once finished).
+ * @param topCandidates The best few candidates, so a quick look needs no file access.
+ */
+public record DuplicateScan(String status, Instant startedAt, Instant finishedAt, long patientsScanned,
+                            long pairsScored, long candidatesFound, String reportFile,
+                            List<DuplicateCandidate> topCandidates) {
+
+    static DuplicateScan notStarted() {
+        return new DuplicateScan("NOT_STARTED", null, null, 0, 0, 0, null, List.of());
+    }
+}
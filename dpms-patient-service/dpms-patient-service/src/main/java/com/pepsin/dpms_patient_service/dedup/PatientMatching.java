@@ -0,0 +1,192 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * The rules for "are these two record cards the same person?": how cards are grouped before comparing
+ * (blocking keys) and how a pair is scored.
+ */
+final class PatientMatching {
+
+    // Phone numbers are compared on their last 9 digits, so "+233 24 412 3456" and "024-412-3456" are the same
+    private static final int PHONE_DIGITS = 9;
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private PatientMatching() {
+    }
+
+    /**
+     * Lower case, no accents, letters only: "Zoë-Ann " becomes "zoeann".
+     */
+    static String foldName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String lower = Normalizer.normalize(name.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            // Accents were split off as combining marks by NFD, and those aren't letters
+            if (Character.isLetter(c)) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * The phone number's last 9 digits, or null if it has too few digits to mean anything.
+     */
+    static String normalizePhone(String contactNumber) {
+        if (contactNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(contactNumber.length());
+        for (int i = 0; i < contactNumber.length(); i++) {
+            char c = contactNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits.toString();
+    }
+
+    /**
+     * American Soundex of a folded name: "smith" and "smyth" are both S530.
+     * Letters outside a-z (after folding) are skipped.
+     */
+    static String soundex(String folded) {
+        char[] code = {'0', '0', '0', '0'};
+        int length = 0;
+        char previous = 0;
+        for (int i = 0; i < folded.length() && length < 4; i++) {
+            char c = folded.charAt(i);
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (length == 0) {
+                code[length++] = Character.toUpperCase(c);
+            } else if (digit != '0' && digit != previous) {
+                code[length++] = digit;
+            }
+            // 'h' and 'w' don't separate equal codes; vowels do
+            if (c != 'h' && c != 'w') {
+                previous = digit;
+            }
+        }
+        return length == 0 ? null : new String(code);
+    }
+
+    /**
+     * The birth-date block: same birthday and a surname that sounds the same. Null without a birthday.
+     */
+    static String birthKey(LocalDate dateOfBirth, String foldedLastName) {
+        String sound = soundex(foldedLastName);
+        return dateOfBirth == null || sound == null ? null : "d:" + dateOfBirth + ":" + sound;
+    }
+
+    static String phoneKey(String phone) {
+        return phone == null ? null : "p:" + phone;
+    }
+
+    /**
+     * How alike two cards are, from 0 to 1.
+     * Names count for 60% (first and last may be swapped), birthday 25%, phone 15%.
+     * A missing birthday or phone on either card counts half, so it neither proves nor rules anything out.
+     */
+    static double score(PatientRow a, PatientRow b) {
+        double straight = (jaroWinkler(a.firstName, b.firstName) + jaroWinkler(a.lastName, b.lastName)) / 2;
+        double swapped = (jaroWinkler(a.firstName, b.lastName) + jaroWinkler(a.lastName, b.firstName)) / 2;
+        double score = 0.6 * Math.max(straight, swapped);
+
+        if (a.dateOfBirth == null || b.dateOfBirth == null) {
+            score += 0.125;
+        } else if (a.dateOfBirth.equals(b.dateOfBirth)) {
+            score += 0.25;
+        } else if (a.dateOfBirth.getYear() == b.dateOfBirth.getYear()
+                && a.dateOfBirth.getMonthValue() == b.dateOfBirth.getDayOfMonth()
+                && a.dateOfBirth.getDayOfMonth() == b.dateOfBirth.getMonthValue()) {
+            // Day and month typed the wrong way round
+            score += 0.15;
+        }
+
+        if (a.phone == null || b.phone == null) {
+            score += 0.075;
+        } else if (a.phone.equals(b.phone)) {
+            score += 0.15;
+        }
+        return score;
+    }
+
+    /**
+     * Jaro-Winkler similarity of two folded names, from 0 (nothing alike) to 1 (equal).
+     * Forgives swapped and dropped letters, and rewards a shared start.
+     */
+    static double jaroWinkler(String s, String t) {
+        if (s.equals(t)) {
+            return s.isEmpty() ? 0 : 1;
+        }
+        if (s.isEmpty() || t.isEmpty()) {
+            return 0;
+        }
+        int window = Math.max(0, Math.max(s.length(), t.length()) / 2 - 1);
+        long sMatched = 0;
+        long tMatched = 0;
+        boolean[] sFlags = s.length() > 64 ? new boolean[s.length()] : null;
+        boolean[] tFlags = t.length() > 64 ? new boolean[t.length()] : null;
+        int matches = 0;
+        for (int i = 0; i < s.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(t.length(), i + window + 1);
+            for (int j = from; j < to; j++) {
+                boolean taken = tFlags != null ? tFlags[j] : (tMatched & 1L << j) != 0;
+                if (!taken && s.charAt(i) == t.charAt(j)) {
+                    if (tFlags != null) {
+                        tFlags[j] = true;
+                    } else {
+                        tMatched |= 1L << j;
+                    }
+                    if (sFlags != null) {
+                        sFlags[i] = true;
+                    } else {
+                        sMatched |= 1L << i;
+                    }
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        int j = 0;
+        for (int i = 0; i < s.length(); i++) {
+            boolean sHit = sFlags != null ? sFlags[i] : (sMatched & 1L << i) != 0;
+            if (!sHit) {
+                continue;
+            }
+            while (!(tFlags != null ? tFlags[j] : (tMatched & 1L << j) != 0)) {
+                j++;
+            }
+            if (s.charAt(i) != t.charAt(j)) {
+                transpositions++;
+            }
+            j++;
+        }
+        double m = matches;
+        double jaro = (m / s.length() + m / t.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < 4 && prefix < s.length() && prefix < t.length() && s.charAt(prefix) == t.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+}
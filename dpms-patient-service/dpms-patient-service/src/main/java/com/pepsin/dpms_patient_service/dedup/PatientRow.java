@@ -0,0 +1,30 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One record card as the duplicate check holds it: names folded and phone normalized once, not per comparison.
+ */
+final class PatientRow {
+
+    final UUID id;
+    final String displayFirstName;
+    final String displayLastName;
+    final String firstName;
+    final String lastName;
+    final LocalDate dateOfBirth;
+    final String phone;
+    final String birthKey;
+
+    PatientRow(DuplicateCheckFields fields) {
+        this.id = fields.id();
+        this.displayFirstName = fields.firstName();
+        this.displayLastName = fields.lastName();
+        this.firstName = PatientMatching.foldName(fields.firstName());
+        this.lastName = PatientMatching.foldName(fields.lastName());
+        this.dateOfBirth = fields.dateOfBirth();
+        this.phone = PatientMatching.normalizePhone(fields.contactNumber());
+        this.birthKey = PatientMatching.birthKey(dateOfBirth, lastName);
+    }
+}
@@ -1,4 +1,5 @@
 package com.pepsin.dpms_patient_service.exception;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -36,6 +37,74 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * This method catches our "That Email Is Already Used!" problem (DuplicateEmailException).
+     * Without it a duplicate email would reach the catch-all below as a 500.
+     *
+     * @param ex The DuplicateEmailException that was thrown.
+     * @return A nice response with an error message and a 409 Conflict status.
+     */
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ErrorDetails> handleDuplicateEmailException(DuplicateEmailException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "CONFLICT"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method catches our "That Doesn't Make Sense!" problem (InvalidRequestException).
+     *
+     * @param ex The InvalidRequestException that was thrown.
+     * @return A nice response with an error message and a 400 Bad Request status.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidRequestException(InvalidRequestException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "BAD_REQUEST"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method catches our "The Name Index Is Still Being Written" problem (SearchIndexNotReadyException).
+     * Clients should simply try the search again a little later.
+     *
+     * @param ex The SearchIndexNotReadyException that was thrown.
+     * @return A nice response with an error message and a 503 Service Unavailable status.
+     */
+    @ExceptionHandler(SearchIndexNotReadyException.class)
+    public ResponseEntity<ErrorDetails> handleSearchIndexNotReadyException(SearchIndexNotReadyException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                "SERVICE_UNAVAILABLE"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * This method catches the "Someone Else Just Changed This Card!" problem (OptimisticLockingFailureException).
+     * Two requests edited the same patient at once; the first one's change was saved, this one was based on
+     * the old version. The client should read the patient again and repeat its change.
+     *
+     * @param ex The OptimisticLockingFailureException (ObjectOptimisticLockingFailureException from Hibernate).
+     * @return A nice response with an error message and a 409 Conflict status.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                "This patient was changed by another request at the same time. Please reload it and try again.",
+                "CONFLICT"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     /**
      * This method catches problems when someone fills out a form incorrectly (validation errors).
      * For example, if they leave a required field empty or put a bad email address.
@@ -0,0 +1,17 @@
+package com.pepsin.dpms_patient_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This is our "That Doesn't Make Sense!" problem note.
+ * We use this when a request is well-formed but asks for something we can't give,
+ * like a field that patients don't have (HTTP 400 error).
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.pepsin.dpms_patient_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This is our "The Name Index Is Still Being Written, Come Back Shortly!" problem note.
+ * We use this when a patient search arrives before the search index has finished loading after startup (HTTP 503 error).
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SearchIndexNotReadyException extends RuntimeException {
+
+    public SearchIndexNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.pepsin.dpms_patient_service.export;
+
+/**
+ * One column of a columnar export file: its name and what it holds.
+ */
+public record Column(String name, ColumnType type) {
+}
@@ -0,0 +1,308 @@
+package com.pepsin.dpms_patient_service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Turns one column of one row group into bytes and back.
+ *
+ * A chunk is: encoding (1 byte), uncompressed length and compressed length (varints), then the Deflate-compressed body.
+ * The body starts with the number of nulls and, if there are any, a bitmap marking them; only the other values follow:
+ * - UUID: 16 bytes each.
+ * - STRING: a dictionary of the distinct values, then the rows as runs of (length, dictionary index),
+ *   when there are at most half as many distinct values as rows (gender, city, ...); otherwise each value
+ *   as length + UTF-8 bytes.
+ * - DATE, LONG, TIMESTAMP: the first value, then the difference to the one before, as zigzag varints. Rows come
+ *   in last-modified order, so timestamps differ by little and take a byte or two each.
+ */
+final class ColumnCodec {
+
+    static final int PLAIN = 0;
+    static final int DICTIONARY = 1;
+    static final int DELTA = 2;
+
+    private ColumnCodec() {
+    }
+
+    /**
+     * Writes the chunk for values[0..rows) to 'out' and returns how many bytes it took.
+     */
+    static int encode(ColumnType type, Object[] values, int rows, Deflater deflater, OutputStream out)
+            throws IOException {
+        Bytes body = new Bytes(rows * 8 + 16);
+        int nulls = 0;
+        for (int i = 0; i < rows; i++) {
+            if (values[i] == null) {
+                nulls++;
+            }
+        }
+        body.varint(nulls);
+        if (nulls > 0) {
+            byte[] bitmap = new byte[(rows + 7) / 8];
+            for (int i = 0; i < rows; i++) {
+                if (values[i] == null) {
+                    bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            body.write(bitmap, 0, bitmap.length);
+        }
+
+        int encoding = switch (type) {
+            case UUID -> {
+                for (int i = 0; i < rows; i++) {
+                    if (values[i] instanceof UUID id) {
+                        body.fixed64(id.getMostSignificantBits());
+                        body.fixed64(id.getLeastSignificantBits());
+                    }
+                }
+                yield PLAIN;
+            }
+            case STRING -> encodeStrings(values, rows, rows - nulls, body);
+            case DATE, LONG, TIMESTAMP -> {
+                long previous = 0;
+                for (int i = 0; i < rows; i++) {
+                    if (values[i] != null) {
+                        long value = toLong(type, values[i]);
+                        body.varint(zigzag(value - previous));
+                        previous = value;
+                    }
+                }
+                yield DELTA;
+            }
+        };
+
+        deflater.reset();
+        deflater.setInput(body.buffer, 0, body.size);
+        deflater.finish();
+        Bytes compressed = new Bytes(body.size / 2 + 64);
+        byte[] block = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(block);
+            compressed.write(block, 0, n);
+        }
+
+        Bytes header = new Bytes(11);
+        header.buffer[header.size++] = (byte) encoding;
+        header.varint(body.size);
+        header.varint(compressed.size);
+        out.write(header.buffer, 0, header.size);
+        out.write(compressed.buffer, 0, compressed.size);
+        return header.size + compressed.size;
+    }
+
+    private static int encodeStrings(Object[] values, int rows, int present, Bytes body) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        for (int i = 0; i < rows && dictionary.size() <= present / 2; i++) {
+            if (values[i] != null) {
+                dictionary.putIfAbsent((String) values[i], dictionary.size());
+            }
+        }
+        if (present == 0 || dictionary.size() > present / 2) {
+            for (int i = 0; i < rows; i++) {
+                if (values[i] != null) {
+                    body.string((String) values[i]);
+                }
+            }
+            return PLAIN;
+        }
+
+        String[] entries = new String[dictionary.size()];
+        dictionary.forEach((value, index) -> entries[index] = value);
+        body.varint(entries.length);
+        for (String entry : entries) {
+            body.string(entry);
+        }
+        int runIndex = -1;
+        int runLength = 0;
+        for (int i = 0; i < rows; i++) {
+            if (values[i] != null) {
+                int index = dictionary.get(values[i]);
+                if (index != runIndex && runLength > 0) {
+                    body.varint(runLength);
+                    body.varint(runIndex);
+                    runLength = 0;
+                }
+                runIndex = index;
+                runLength++;
+            }
+        }
+        if (runLength > 0) {
+            body.varint(runLength);
+            body.varint(runIndex);
+        }
+        return DICTIONARY;
+    }
+
+    /**
+     * Reads back a chunk written by encode(); 'chunk' is positioned at its first byte.
+     */
+    static Object[] decode(ColumnType type, ByteBuffer chunk, int rows, Inflater inflater) {
+        int encoding = chunk.get();
+        int size = (int) varint(chunk);
+        int compressedSize = (int) varint(chunk);
+        byte[] raw = new byte[size];
+        inflater.reset();
+        inflater.setInput(chunk.slice(chunk.position(), compressedSize));
+        try {
+            int read = 0;
+            while (read < size) {
+                int n = inflater.inflate(raw, read, size - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Column chunk is shorter than its header says");
+                }
+                read += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Column chunk is corrupt", e);
+        }
+        chunk.position(chunk.position() + compressedSize);
+
+        ByteBuffer body = ByteBuffer.wrap(raw);
+        int nulls = (int) varint(body);
+        byte[] bitmap = null;
+        if (nulls > 0) {
+            bitmap = new byte[(rows + 7) / 8];
+            body.get(bitmap);
+        }
+        Object[] values = new Object[rows];
+        if (encoding == DICTIONARY) {
+            String[] entries = new String[(int) varint(body)];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = string(body);
+            }
+            int runLeft = 0;
+            String runValue = null;
+            for (int i = 0; i < rows; i++) {
+                if (!isNull(bitmap, i)) {
+                    if (runLeft == 0) {
+                        runLeft = (int) varint(body);
+                        runValue = entries[(int) varint(body)];
+                    }
+                    values[i] = runValue;
+                    runLeft--;
+                }
+            }
+            return values;
+        }
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            if (isNull(bitmap, i)) {
+                continue;
+            }
+            values[i] = switch (type) {
+                case UUID -> new UUID(body.getLong(), body.getLong());
+                case STRING -> string(body);
+                case DATE, LONG, TIMESTAMP -> {
+                    previous += unzigzag(varint(body));
+                    yield fromLong(type, previous);
+                }
+            };
+        }
+        return values;
+    }
+
+    private static boolean isNull(byte[] bitmap, int row) {
+        return bitmap != null && (bitmap[row >>> 3] & (1 << (row & 7))) != 0;
+    }
+
+    private static long toLong(ColumnType type, Object value) {
+        return switch (type) {
+            case DATE -> ((LocalDate) value).toEpochDay();
+            case TIMESTAMP -> ChronoUnit.MICROS.between(Instant.EPOCH, (Instant) value);
+            default -> ((Number) value).longValue();
+        };
+    }
+
+    private static Object fromLong(ColumnType type, long value) {
+        return switch (type) {
+            case DATE -> LocalDate.ofEpochDay(value);
+            case TIMESTAMP -> Instant.EPOCH.plus(value, ChronoUnit.MICROS);
+            default -> value;
+        };
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long varint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = (int) varint(in);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * A growable byte array; ByteArrayOutputStream is synchronized and copies on every toByteArray().
+     */
+    static final class Bytes {
+
+        byte[] buffer;
+        int size;
+
+        Bytes(int capacity) {
+            buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void fixed64(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        private void ensure(int more) {
+            if (size + more > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + more));
+            }
+        }
+    }
+}
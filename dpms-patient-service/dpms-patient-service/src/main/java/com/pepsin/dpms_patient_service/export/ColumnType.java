@@ -0,0 +1,35 @@
+package com.pepsin.dpms_patient_service.export;
+
+/**
+ * The kinds of column a columnar export file can hold, with the Java type of their values.
+ * The code is what is stored in the file, so existing codes must never change.
+ */
+public enum ColumnType {
+
+    UUID(1),
+    STRING(2),
+    // java.time.LocalDate, stored as days since 1970-01-01
+    DATE(3),
+    LONG(4),
+    // java.time.Instant, stored as microseconds since 1970-01-01T00:00:00Z
+    TIMESTAMP(5);
+
+    private final int code;
+
+    ColumnType(int code) {
+        this.code = code;
+    }
+
+    int code() {
+        return code;
+    }
+
+    static ColumnType ofCode(int code) {
+        for (ColumnType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column type " + code);
+    }
+}
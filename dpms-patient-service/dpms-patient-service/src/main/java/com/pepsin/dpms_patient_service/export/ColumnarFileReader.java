@@ -0,0 +1,168 @@
+package com.pepsin.dpms_patient_service.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a columnar file written by ColumnarFileWriter, one column of one row group at a time,
+ * so a reader that only needs dates of birth never decompresses names and addresses.
+ *
+ * Not thread-safe.
+ */
+public final class ColumnarFileReader implements Closeable {
+
+    private static final int TRAILER_BYTES = 4 + ColumnarFileWriter.MAGIC.length;
+
+    private final FileChannel channel;
+    private final List<Column> columns;
+    private final int[] groupRows;
+    private final long[][] groupOffsets;
+    private final long footerStart;
+    private final Map<String, String> metadata;
+    private final Inflater inflater = new Inflater();
+
+    private ColumnarFileReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < ColumnarFileWriter.MAGIC.length + TRAILER_BYTES) {
+            throw new IOException("Too short to be a columnar file");
+        }
+        ByteBuffer trailer = read(size - TRAILER_BYTES, TRAILER_BYTES);
+        int footerLength = trailer.getInt();
+        byte[] magic = new byte[ColumnarFileWriter.MAGIC.length];
+        trailer.get(magic);
+        if (!Arrays.equals(magic, ColumnarFileWriter.MAGIC)) {
+            throw new IOException("Not a columnar file (or it was not closed)");
+        }
+        footerStart = size - TRAILER_BYTES - footerLength;
+        ByteBuffer footerBytes = read(footerStart, footerLength);
+        DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerBytes.array()));
+
+        List<Column> readColumns = new ArrayList<>();
+        int columnCount = footer.readInt();
+        for (int c = 0; c < columnCount; c++) {
+            readColumns.add(new Column(footer.readUTF(), ColumnType.ofCode(footer.readByte())));
+        }
+        columns = List.copyOf(readColumns);
+        int groups = footer.readInt();
+        groupRows = new int[groups];
+        groupOffsets = new long[groups][columnCount];
+        for (int g = 0; g < groups; g++) {
+            groupRows[g] = footer.readInt();
+            for (int c = 0; c < columnCount; c++) {
+                groupOffsets[g][c] = footer.readLong();
+            }
+        }
+        Map<String, String> readMetadata = new LinkedHashMap<>();
+        int entries = footer.readInt();
+        for (int i = 0; i < entries; i++) {
+            readMetadata.put(footer.readUTF(), footer.readUTF());
+        }
+        metadata = Collections.unmodifiableMap(readMetadata);
+    }
+
+    public static ColumnarFileReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ColumnarFileReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    public int getRowGroupCount() {
+        return groupRows.length;
+    }
+
+    public int getRowGroupRows(int rowGroup) {
+        return groupRows[rowGroup];
+    }
+
+    public long getRowCount() {
+        long total = 0;
+        for (int rows : groupRows) {
+            total += rows;
+        }
+        return total;
+    }
+
+    /**
+     * The values of one column in one row group, null where a row has no value.
+     */
+    public Object[] readColumn(int rowGroup, String name) throws IOException {
+        int c = indexOf(name);
+        long start = groupOffsets[rowGroup][c];
+        long end = c + 1 < columns.size() ? groupOffsets[rowGroup][c + 1]
+                : rowGroup + 1 < groupRows.length ? groupOffsets[rowGroup + 1][0]
+                : footerStart;
+        return ColumnCodec.decode(columns.get(c).type(), read(start, (int) (end - start)), groupRows[rowGroup], inflater);
+    }
+
+    /**
+     * Hands every row, in the order written, to 'row' as an array of values in column order.
+     * The array is reused between rows.
+     */
+    public void forEachRow(Consumer<Object[]> row) throws IOException {
+        Object[] values = new Object[columns.size()];
+        for (int g = 0; g < groupRows.length; g++) {
+            Object[][] group = new Object[columns.size()][];
+            for (int c = 0; c < columns.size(); c++) {
+                group[c] = readColumn(g, columns.get(c).name());
+            }
+            for (int r = 0; r < groupRows[g]; r++) {
+                for (int c = 0; c < values.length; c++) {
+                    values[c] = group[c][r];
+                }
+                row.accept(values);
+            }
+        }
+    }
+
+    private int indexOf(String name) {
+        for (int c = 0; c < columns.size(); c++) {
+            if (columns.get(c).name().equals(name)) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("No column named " + name);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+}
@@ -0,0 +1,152 @@
+package com.pepsin.dpms_patient_service.export;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Writes rows to a columnar file (.dpcol) for the analytics team.
+ *
+ * Rows are held back until rowGroupRows of them have been written, then stored column after column
+ * (all ids, then all first names, ...), each column encoded and compressed by ColumnCodec. So memory stays
+ * at one row group however many rows are written, and a reader can fetch just the columns it needs.
+ *
+ * Layout: "DPMSCOL1", the row groups, a footer (columns, where each column of each row group starts,
+ * and key/value metadata), the footer's length (4 bytes) and "DPMSCOL1" again. ColumnarFileReader reads it back.
+ *
+ * Not thread-safe.
+ */
+public final class ColumnarFileWriter implements Closeable {
+
+    static final byte[] MAGIC = "DPMSCOL1".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final List<Column> columns;
+    private final int rowGroupRows;
+    private final Object[][] buffered;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final List<Integer> groupRows = new ArrayList<>();
+    private final List<long[]> groupOffsets = new ArrayList<>();
+    private final Map<String, String> metadata = new LinkedHashMap<>();
+    private long position;
+    private int rows;
+    private long rowCount;
+
+    public ColumnarFileWriter(Path file, List<Column> columns, int rowGroupRows) throws IOException {
+        if (columns.isEmpty() || rowGroupRows < 1) {
+            throw new IllegalArgumentException("A columnar file needs at least one column and one row per row group");
+        }
+        this.columns = List.copyOf(columns);
+        this.rowGroupRows = rowGroupRows;
+        this.buffered = new Object[columns.size()][rowGroupRows];
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        out.write(MAGIC);
+        position = MAGIC.length;
+    }
+
+    /**
+     * Adds one row; values are in column order, null for "no value".
+     */
+    public void write(Object... values) throws IOException {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values, got " + values.length);
+        }
+        for (int c = 0; c < values.length; c++) {
+            Object value = values[c];
+            if (value != null && !fits(columns.get(c).type(), value)) {
+                throw new IllegalArgumentException("Column " + columns.get(c).name() + " can't hold a "
+                        + value.getClass().getSimpleName());
+            }
+            buffered[c][rows] = value;
+        }
+        rows++;
+        rowCount++;
+        if (rows == rowGroupRows) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Stores a key/value pair in the footer (export time, watermark, ...).
+     */
+    public void putMetadata(String key, String value) {
+        metadata.put(key, value);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void flushRowGroup() throws IOException {
+        long[] offsets = new long[columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            offsets[c] = position;
+            position += ColumnCodec.encode(columns.get(c).type(), buffered[c], rows, deflater, out);
+            Arrays.fill(buffered[c], 0, rows, null);
+        }
+        groupRows.add(rows);
+        groupOffsets.add(offsets);
+        rows = 0;
+    }
+
+    /**
+     * Writes the last row group and the footer. The file is only readable after this.
+     */
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            if (rows > 0) {
+                flushRowGroup();
+            }
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeInt(columns.size());
+            for (Column column : columns) {
+                footer.writeUTF(column.name());
+                footer.writeByte(column.type().code());
+            }
+            footer.writeInt(groupRows.size());
+            for (int g = 0; g < groupRows.size(); g++) {
+                footer.writeInt(groupRows.get(g));
+                for (long offset : groupOffsets.get(g)) {
+                    footer.writeLong(offset);
+                }
+            }
+            footer.writeInt(metadata.size());
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                footer.writeUTF(entry.getKey());
+                footer.writeUTF(entry.getValue());
+            }
+            footer.writeInt(footerBytes.size());
+            footer.write(MAGIC);
+            footerBytes.writeTo(out);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static boolean fits(ColumnType type, Object value) {
+        return switch (type) {
+            case UUID -> value instanceof UUID;
+            case STRING -> value instanceof String;
+            case DATE -> value instanceof LocalDate;
+            case LONG -> value instanceof Long || value instanceof Integer;
+            case TIMESTAMP -> value instanceof Instant;
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.pepsin.dpms_patient_service.export;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * The "Exported Up To Here" bookmark kept in the export directory (patients.watermark).
+ * It holds the keyset position of the last patient and the last "Removed Patient" slip the previous export wrote,
+ * so an incremental export picks up exactly where that one stopped.
+ */
+record ExportWatermark(Instant patientsSince, UUID patientsAfterId, Instant deletedSince, UUID deletedAfterId) {
+
+    static final ExportWatermark START = new ExportWatermark(Instant.EPOCH, new UUID(0, 0), Instant.EPOCH, new UUID(0, 0));
+
+    /**
+     * Reads the bookmark, or START if no export has finished yet.
+     */
+    static ExportWatermark load(Path path) {
+        if (!Files.exists(path)) {
+            return START;
+        }
+        Properties saved = new Properties();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            saved.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the export watermark " + path, e);
+        }
+        return new ExportWatermark(Instant.parse(saved.getProperty("patientsSince")),
+                UUID.fromString(saved.getProperty("patientsAfterId")),
+                Instant.parse(saved.getProperty("deletedSince")),
+                UUID.fromString(saved.getProperty("deletedAfterId")));
+    }
+
+    /**
+     * Writes the bookmark to a temporary file first, then renames it over the old one, so a crash never leaves half of it.
+     */
+    void save(Path path) {
+        Properties bookmark = new Properties();
+        bookmark.setProperty("patientsSince", patientsSince.toString());
+        bookmark.setProperty("patientsAfterId", patientsAfterId.toString());
+        bookmark.setProperty("deletedSince", deletedSince.toString());
+        bookmark.setProperty("deletedAfterId", deletedAfterId.toString());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                bookmark.store(out, "Last patient export; delete this file to make the next incremental export a full one");
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the export watermark " + path, e);
+        }
+    }
+}
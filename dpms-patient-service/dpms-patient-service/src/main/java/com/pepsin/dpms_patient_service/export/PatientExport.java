@@ -0,0 +1,21 @@
+package com.pepsin.dpms_patient_service.export;
+
+import java.time.Instant;
+
+/**
+ * Where the latest columnar export stands.
+ *
+ * @param status NOT_STARTED, RUNNING, FINISHED or FAILED.
+ * @param incremental True if only patients changed since the previous export were written.
+ * @param file The columnar file with the exported patients (once finished).
+ * @param deletedFile For incremental exports, the columnar file with the ids of patients deleted since the previous export.
+ * @param error Why the export stopped, when it FAILED. The watermark is only moved by a finished export.
+ */
+public record PatientExport(String status, boolean incremental, Instant startedAt, Instant finishedAt,
+                            long patientsExported, long deletionsExported, long bytesWritten,
+                            String file, String deletedFile, String error) {
+
+    static PatientExport notStarted() {
+        return new PatientExport("NOT_STARTED", false, null, null, 0, 0, 0, null, null, null);
+    }
+}
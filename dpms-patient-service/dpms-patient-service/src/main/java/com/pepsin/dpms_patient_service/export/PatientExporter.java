@@ -0,0 +1,283 @@
+package com.pepsin.dpms_patient_service.export;
+
+import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.model.PatientTombstone;
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import com.pepsin.dpms_patient_service.repository.PatientTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is the "Copy for the Analysts" desk: it writes every patient (or only those changed since the last copy)
+ * to a compressed columnar file in patient.export.dir, for the analytics team to load without touching our database.
+ *
+ * Patients are read page-size at a time, so memory stays at one page plus one row group however big the table is,
+ * and no long transaction is held open. A full export walks the table in id order; an incremental one walks
+ * the change feed in (lastModified, id) order through the same index the sync endpoint uses.
+ * The file is written under a temporary name and renamed when complete, so readers never see half a file.
+ *
+ * After a finished export a watermark records where the next incremental export starts: the position of the last
+ * patient and the last "Removed Patient" slip it wrote, or for a full export the time it started. Like the sync
+ * endpoint, an incremental export stops a safety lag short of "now", so rows still being committed are left for
+ * the next one instead of being skipped. An incremental export also writes the ids of patients deleted since,
+ * to name.deleted.dpcol. A patient changed while an export runs may appear in two exports; keep the highest version.
+ */
+@Component
+public class PatientExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientExporter.class);
+    static final List<Column> PATIENT_COLUMNS = List.of(
+            new Column("id", ColumnType.UUID),
+            new Column("first_name", ColumnType.STRING),
+            new Column("last_name", ColumnType.STRING),
+            new Column("date_of_birth", ColumnType.DATE),
+            new Column("gender", ColumnType.STRING),
+            new Column("contact_number", ColumnType.STRING),
+            new Column("email", ColumnType.STRING),
+            new Column("address", ColumnType.STRING),
+            new Column("version", ColumnType.LONG),
+            new Column("last_modified", ColumnType.TIMESTAMP));
+    static final List<Column> DELETED_COLUMNS = List.of(
+            new Column("id", ColumnType.UUID),
+            new Column("deleted_at", ColumnType.TIMESTAMP));
+    static final String WATERMARK_FILE = "patients.watermark";
+
+    /**
+     * One keyset page of the change feed: up to 'size' rows after (since, afterId) and at or before 'until', oldest first.
+     */
+    interface KeysetPage<T> {
+        List<T> next(Instant since, UUID afterId, Instant until, int size);
+    }
+
+    /**
+     * One keyset page of the whole table: up to 'size' rows with an id after 'afterId', in id order.
+     */
+    interface IdPage<T> {
+        List<T> next(UUID afterId, int size);
+    }
+
+    /**
+     * The knobs of the export, from the patient.export.* properties and the sync safety lag.
+     */
+    record Settings(Path exportDir, int pageSize, int rowGroupRows, Duration safetyLag) {
+    }
+
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    private final IdPage<Patient> allPatients;
+    private final KeysetPage<Patient> changedPatients;
+    private final KeysetPage<PatientTombstone> deletedPatients;
+    private final Settings settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile PatientExport lastExport = PatientExport.notStarted();
+
+    @Autowired
+    public PatientExporter(PatientRepository patientRepository,
+                           PatientTombstoneRepository tombstoneRepository,
+                           @Value("${patient.export.dir:exports}") Path exportDir,
+                           @Value("${patient.export.page-size:5000}") int pageSize,
+                           @Value("${patient.export.row-group-rows:50000}") int rowGroupRows,
+                           @Value("${patient.sync.safety-lag:PT30S}") Duration safetyLag) {
+        this((afterId, size) -> patientRepository.findAfterId(afterId, PageRequest.of(0, size)),
+                (since, afterId, until, size) -> patientRepository.findChangedSince(since, afterId, until,
+                        PageRequest.of(0, size)),
+                (since, afterId, until, size) -> tombstoneRepository.findDeletedSince(since, afterId, until,
+                        PageRequest.of(0, size)),
+                new Settings(exportDir, pageSize, rowGroupRows, safetyLag));
+    }
+
+    PatientExporter(IdPage<Patient> allPatients, KeysetPage<Patient> changedPatients,
+                    KeysetPage<PatientTombstone> deletedPatients, Settings settings) {
+        if (settings.pageSize() < 1 || settings.rowGroupRows() < 1) {
+            throw new IllegalArgumentException("patient.export needs a positive page-size and row-group-rows");
+        }
+        this.allPatients = allPatients;
+        this.changedPatients = changedPatients;
+        this.deletedPatients = deletedPatients;
+        this.settings = settings;
+    }
+
+    public PatientExport getLastExport() {
+        return lastExport;
+    }
+
+    /**
+     * Starts an export in the background unless one is already running.
+     * Either way, returns where the current export stands.
+     *
+     * @param incremental Only patients changed (and deleted) since the last finished export, instead of all of them.
+     */
+    public PatientExport start(boolean incremental) {
+        if (running.compareAndSet(false, true)) {
+            lastExport = new PatientExport("RUNNING", incremental, Instant.now(), null, 0, 0, 0, null, null, null);
+            Thread.ofVirtual().name("patient-export").start(() -> {
+                try {
+                    run(incremental);
+                } catch (RuntimeException e) {
+                    log.error("Patient export failed", e);
+                    PatientExport failed = lastExport;
+                    lastExport = new PatientExport("FAILED", incremental, failed.startedAt(), Instant.now(),
+                            failed.patientsExported(), failed.deletionsExported(), failed.bytesWritten(),
+                            null, null, e.getMessage());
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+        return lastExport;
+    }
+
+    /**
+     * Runs a whole export on the calling thread and moves the watermark.
+     */
+    PatientExport run(boolean incremental) {
+        Instant startedAt = Instant.now();
+        Path directory = settings.exportDir();
+        Path watermarkFile = directory.resolve(WATERMARK_FILE);
+        ExportWatermark from = incremental ? ExportWatermark.load(watermarkFile) : ExportWatermark.START;
+        String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC).format(startedAt);
+        String name = "patients-" + stamp + (incremental ? "-incremental" : "");
+        // Two exports in the same millisecond must not overwrite each other's files
+        for (int n = 2; Files.exists(directory.resolve(name + ".dpcol")); n++) {
+            name = "patients-" + stamp + "-" + n + (incremental ? "-incremental" : "");
+        }
+        Path file = directory.resolve(name + ".dpcol");
+        Path deletedFile = incremental ? directory.resolve(name + ".deleted.dpcol") : null;
+
+        try {
+            Files.createDirectories(directory);
+            Path temporary = directory.resolve(name + ".dpcol.tmp");
+            // Rows stamped after this may still be committing; the next incremental export picks them up
+            Instant until = startedAt.minus(settings.safetyLag());
+            ExportWatermark to;
+            long patients;
+            try (ColumnarFileWriter writer = new ColumnarFileWriter(temporary, PATIENT_COLUMNS, settings.rowGroupRows())) {
+                if (incremental) {
+                    Written written = writeChanged(writer, from, until, startedAt);
+                    patients = written.patients();
+                    to = new ExportWatermark(written.since(), written.afterId(), from.deletedSince(), from.deletedAfterId());
+                } else {
+                    patients = writeAll(writer, startedAt);
+                    to = new ExportWatermark(until, LOWEST_ID, until, LOWEST_ID);
+                }
+                writer.putMetadata("exported-at", startedAt.toString());
+                writer.putMetadata("incremental", Boolean.toString(incremental));
+                if (incremental) {
+                    writer.putMetadata("changed-after", from.patientsSince() + " " + from.patientsAfterId());
+                }
+                writer.putMetadata("changed-up-to", to.patientsSince() + " " + to.patientsAfterId());
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+
+            // A full export leaves deleted patients out of its file, so only an incremental one reads the slips
+            long deletions = 0;
+            if (incremental) {
+                Instant deletedSince = from.deletedSince();
+                UUID deletedAfterId = from.deletedAfterId();
+                Path deletedTemporary = directory.resolve(name + ".deleted.dpcol.tmp");
+                try (ColumnarFileWriter writer = new ColumnarFileWriter(deletedTemporary, DELETED_COLUMNS,
+                        settings.rowGroupRows())) {
+                    List<PatientTombstone> page;
+                    do {
+                        page = deletedPatients.next(deletedSince, deletedAfterId, until, settings.pageSize());
+                        for (PatientTombstone tombstone : page) {
+                            writer.write(tombstone.getId(), tombstone.getDeletedAt());
+                        }
+                        deletions += page.size();
+                        if (!page.isEmpty()) {
+                            PatientTombstone last = page.get(page.size() - 1);
+                            deletedSince = last.getDeletedAt();
+                            deletedAfterId = last.getId();
+                        }
+                    } while (page.size() == settings.pageSize());
+                    writer.putMetadata("exported-at", startedAt.toString());
+                    writer.putMetadata("deleted-after", from.deletedSince() + " " + from.deletedAfterId());
+                    writer.putMetadata("deleted-up-to", deletedSince + " " + deletedAfterId);
+                }
+                Files.move(deletedTemporary, deletedFile, StandardCopyOption.ATOMIC_MOVE);
+                to = new ExportWatermark(to.patientsSince(), to.patientsAfterId(), deletedSince, deletedAfterId);
+            }
+
+            to.save(watermarkFile);
+            long bytes = Files.size(file) + (incremental ? Files.size(deletedFile) : 0);
+            PatientExport finished = new PatientExport("FINISHED", incremental, startedAt, Instant.now(), patients,
+                    deletions, bytes, file.toString(), incremental ? deletedFile.toString() : null, null);
+            lastExport = finished;
+            log.info("Patient export finished: {} patients, {} deletions, {} bytes in {}",
+                    patients, deletions, bytes, file);
+            return finished;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the patient export " + file, e);
+        }
+    }
+
+    // How many patients the change feed gave, and the position of the last one
+    private record Written(long patients, Instant since, UUID afterId) {
+    }
+
+    // Every patient, walked in id order so rows are neither missed nor repeated whatever their lastModified
+    private long writeAll(ColumnarFileWriter writer, Instant startedAt) throws IOException {
+        UUID afterId = LOWEST_ID;
+        long patients = 0;
+        List<Patient> page;
+        do {
+            page = allPatients.next(afterId, settings.pageSize());
+            for (Patient patient : page) {
+                writeRow(writer, patient);
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+                patients += page.size();
+                lastExport = new PatientExport("RUNNING", false, startedAt, null, patients, 0, 0, null, null, null);
+            }
+        } while (page.size() == settings.pageSize());
+        return patients;
+    }
+
+    // The patients changed after the watermark and at or before 'until', oldest first
+    private Written writeChanged(ColumnarFileWriter writer, ExportWatermark from, Instant until, Instant startedAt)
+            throws IOException {
+        Instant since = from.patientsSince();
+        UUID afterId = from.patientsAfterId();
+        long patients = 0;
+        List<Patient> page;
+        do {
+            page = changedPatients.next(since, afterId, until, settings.pageSize());
+            for (Patient patient : page) {
+                writeRow(writer, patient);
+            }
+            if (!page.isEmpty()) {
+                Patient last = page.get(page.size() - 1);
+                since = last.getLastModified();
+                afterId = last.getId();
+                patients += page.size();
+                lastExport = new PatientExport("RUNNING", true, startedAt, null, patients, 0, 0, null, null, null);
+            }
+        } while (page.size() == settings.pageSize());
+        return new Written(patients, since, afterId);
+    }
+
+    private static void writeRow(ColumnarFileWriter writer, Patient patient) throws IOException {
+        writer.write(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getDateOfBirth(), patient.getGender(), patient.getContactNumber(),
+                patient.getEmail(), patient.getAddress(), patient.getVersion(),
+                patient.getLastModified());
+    }
+}
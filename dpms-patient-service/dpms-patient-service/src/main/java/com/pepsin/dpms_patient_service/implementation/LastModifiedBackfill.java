@@ -0,0 +1,58 @@
+package com.pepsin.dpms_patient_service.implementation;
+
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Stamps every record card saved before the last_modified column existed, once, and then makes the column NOT NULL.
+ * The sync endpoint and the export only see cards with a stamp, so until this has run
+ * a first sync would leave those old patients out.
+ *
+ * The cards are stamped with the current time, so clients that already synced receive them as changes too.
+ * Runs in the background in small batches, like NormalizedEmailBackfill; after the first run it only
+ * reads the column's definition.
+ */
+@Component
+public class LastModifiedBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(LastModifiedBackfill.class);
+    private static final int BATCH_SIZE = 5_000;
+
+    private final PatientRepository patientRepository;
+
+    public LastModifiedBackfill(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        Thread.ofVirtual().name("last-modified-backfill").start(this::backfill);
+    }
+
+    void backfill() {
+        long total = 0;
+        try {
+            if (!"YES".equalsIgnoreCase(patientRepository.lastModifiedNullable())) {
+                return;
+            }
+            int changed;
+            do {
+                changed = patientRepository.backfillLastModified(Instant.now().truncatedTo(ChronoUnit.MICROS), BATCH_SIZE);
+                total += changed;
+            } while (changed == BATCH_SIZE);
+            // Fails (and is retried on the next start) if an instance of an older release wrote a card without a stamp meanwhile
+            patientRepository.makeLastModifiedNotNull();
+        } catch (RuntimeException e) {
+            log.warn("Last-modified backfill stopped after {} patients; it will continue on the next start", total, e);
+            return;
+        }
+        log.info("Stamped the last-modified time of {} existing patients and made the column required", total);
+    }
+}
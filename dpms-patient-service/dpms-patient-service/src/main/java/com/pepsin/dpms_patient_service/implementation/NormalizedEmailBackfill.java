@@ -0,0 +1,63 @@
+package com.pepsin.dpms_patient_service.implementation;
+
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies every old record card's email into the normalized-email column, once, after the column is added,
+ * and then makes the column unique. New and updated cards fill it in themselves (see Patient.touch()),
+ * so after the first run this finds nothing to do and costs one indexed query and one look at the column's indexes.
+ *
+ * Runs in the background in small batches, so startup and other requests aren't held up;
+ * until it is done, by-email lookups for old patients that were never updated answer 404.
+ * If two old patients turn out to share an email apart from case or spaces, the column can't be made unique:
+ * that is logged as an error and tried again on the next start, after the patients have been merged.
+ */
+@Component
+public class NormalizedEmailBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(NormalizedEmailBackfill.class);
+    private static final int BATCH_SIZE = 5_000;
+
+    private final PatientRepository patientRepository;
+
+    public NormalizedEmailBackfill(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        Thread.ofVirtual().name("normalized-email-backfill").start(this::backfill);
+    }
+
+    void backfill() {
+        long total = 0;
+        try {
+            int changed;
+            do {
+                changed = patientRepository.backfillNormalizedEmails(BATCH_SIZE);
+                total += changed;
+            } while (changed == BATCH_SIZE);
+            if (patientRepository.normalizedEmailUniqueIndexes() == 0) {
+                patientRepository.addNormalizedEmailUniqueConstraint();
+                log.info("Normalized emails are now unique");
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.error("Some patients share an email apart from case or spaces, so it can't be made unique; "
+                    + "merge them (POST /api/patients/duplicates/scan lists them) and restart. Until then such emails can still be "
+                    + "registered twice through different instances", e);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Normalized email backfill stopped after {} patients; it will continue on the next start", total, e);
+            return;
+        }
+        if (total > 0) {
+            log.info("Filled in the normalized email of {} existing patients", total);
+        }
+    }
+}
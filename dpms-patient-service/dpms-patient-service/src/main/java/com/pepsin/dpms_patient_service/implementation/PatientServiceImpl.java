@@ -1,17 +1,57 @@
 package com.pepsin.dpms_patient_service.implementation;
 
 
+import com.pepsin.dpms_patient_service.DTO.DuplicateCandidateDTO;
+import com.pepsin.dpms_patient_service.DTO.DuplicateScanDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientChangesDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientExportDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientImportDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientListPageDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientRequestDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientResponseDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientSearchHitDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientSearchPageDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientStatsDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientUpdateDTO;
+import com.pepsin.dpms_patient_service.bulkimport.PatientCsvImporter;
+import com.pepsin.dpms_patient_service.bulkimport.PatientImport;
+import com.pepsin.dpms_patient_service.cache.EmailBloomFilter;
+import com.pepsin.dpms_patient_service.cache.PatientJsonCache;
+import com.pepsin.dpms_patient_service.datasource.ReadWriteRoutingDataSource;
+import com.pepsin.dpms_patient_service.dedup.DuplicateCandidate;
+import com.pepsin.dpms_patient_service.dedup.DuplicatePatientDetector;
+import com.pepsin.dpms_patient_service.dedup.DuplicateScan;
+import com.pepsin.dpms_patient_service.exception.DuplicateEmailException;
+import com.pepsin.dpms_patient_service.exception.InvalidRequestException;
 import com.pepsin.dpms_patient_service.exception.ResourceNotFoundException;
+import com.pepsin.dpms_patient_service.export.PatientExport;
+import com.pepsin.dpms_patient_service.export.PatientExporter;
 import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.model.PatientTombstone;
+import com.pepsin.dpms_patient_service.query.ListQueryParser;
+import com.pepsin.dpms_patient_service.repository.PatientProjectionRepository;
 import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import com.pepsin.dpms_patient_service.repository.PatientTombstoneRepository;
+import com.pepsin.dpms_patient_service.search.PatientSearchIndex;
 import com.pepsin.dpms_patient_service.service.PatientService;
+import com.pepsin.dpms_patient_service.stats.PatientStatistics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -32,14 +72,74 @@ import java.util.stream.Collectors;
 
 public class PatientServiceImpl implements PatientService {
 
-    public PatientServiceImpl(PatientRepository patientRepository) {
+    // The biggest sync page we hand out in one go, whatever the client asks for.
+    private static final int MAX_SYNC_PAGE_SIZE = 1000;
+
+    // The biggest search page we hand out in one go.
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    // The biggest filtered list page we hand out in one go.
+    private static final int MAX_LIST_PAGE_SIZE = 100;
+
+    // What the filtered list endpoint may filter and sort on: only columns with an index on Patient.
+    // Gender goes through idx_patients_gender_date_of_birth, which also serves "gender==X" sorted by date of birth.
+    private static final ListQueryParser<Patient> LIST_QUERY = new ListQueryParser<>(
+            listFilterFields(),
+            List.of("lastName", "dateOfBirth", "lastModified"));
+
+    public PatientServiceImpl(PatientRepository patientRepository,
+                              PatientTombstoneRepository tombstoneRepository,
+                              PatientJsonCache patientJsonCache,
+                              EmailBloomFilter emailFilter,
+                              PatientSearchIndex searchIndex,
+                              DuplicatePatientDetector duplicateDetector,
+                              PatientCsvImporter csvImporter,
+                              PatientExporter exporter,
+                              PatientStatistics statistics,
+                              @Value("${patient.sync.safety-lag:PT30S}") Duration syncSafetyLag) {
         this.patientRepository = patientRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.patientJsonCache = patientJsonCache;
+        this.emailFilter = emailFilter;
+        this.searchIndex = searchIndex;
+        this.duplicateDetector = duplicateDetector;
+        this.csvImporter = csvImporter;
+        this.exporter = exporter;
+        this.statistics = statistics;
+        this.syncSafetyLag = syncSafetyLag;
     }
 
     // This is our "Filing Cabinet Librarian" (PatientRepository).
     // The Hospital Manager needs to talk to the Librarian to save/find records.
     private  PatientRepository patientRepository;
 
+    // Keeps the "Removed Patient" slips used by the sync endpoint.
+    private final PatientTombstoneRepository tombstoneRepository;
+
+    // Keeps ready-made JSON for patients that are read often.
+    private final PatientJsonCache patientJsonCache;
+
+    // Emails we know are in use, so most creates can skip the "is this email taken?" lookup.
+    private final EmailBloomFilter emailFilter;
+
+    // The in-memory "Name Index" behind the fuzzy search; kept up to date with every write.
+    private final PatientSearchIndex searchIndex;
+
+    // The "Same Person, Two Cards?" batch job.
+    private final DuplicatePatientDetector duplicateDetector;
+
+    // The "Moving Day" desk for CSV files from older hospital systems.
+    private final PatientCsvImporter csvImporter;
+
+    // The "Copy for the Analysts" desk writing columnar export files.
+    private final PatientExporter exporter;
+
+    // The "Head Count" board behind the dashboard stats; kept up to date with every write.
+    private final PatientStatistics statistics;
+
+    // How far behind "now" the sync endpoint stops, so writes still being committed aren't skipped.
+    private final Duration syncSafetyLag;
+
 
 
     /**
@@ -75,30 +175,51 @@ public class PatientServiceImpl implements PatientService {
         dto.setContactNumber(patient.getContactNumber());
         dto.setEmail(patient.getEmail());
         dto.setAddress(patient.getAddress());
+        dto.setVersion(patient.getVersion());
+        dto.setLastModified(patient.getLastModified());
         return dto;
     }
 
     /**
      * Creates a new patient record.
-     * 1. Takes the PatientRequestDTO (form).
-     * 2. Converts it into a Patient entity (record card).
-     * 3. Asks the Librarian (patientRepository) to save the new record.
-     * 4. Converts the saved Patient entity back into a PatientResponseDTO (summary form).
-     * 5. Returns the summary form.
+     * 1. Makes sure the email isn't used yet, ignoring case and surrounding spaces.
+     *    The email filter answers "certainly new" for most emails; only the others are looked up by the Librarian.
+     * 2. Converts the PatientRequestDTO (form) into a Patient entity (record card).
+     * 3. Asks the Librarian (patientRepository) to save the new record. If another request (on this or another
+     *    instance) saved the same email in the meantime, the database's unique constraint on the normalized email
+     *    refuses it, which is reported as the same 409.
+     * 4. Converts the saved Patient entity back into a PatientResponseDTO (summary form) and returns it.
      */
     @Override
     public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
-        // In a real app, you might add checks here, e.g., if email already exists
-        // Optional<Patient> existingPatient = patientRepository.findByEmail(patientRequestDTO.getEmail());
-        // if (existingPatient.isPresent()) {
-        //     throw new IllegalArgumentException("Patient with this email already exists.");
-        // }
+        String email = patientRequestDTO.getEmail();
+        if (emailFilter.mightContain(email) && patientRepository.existsByNormalizedEmail(Patient.normalizeEmail(email))) {
+            throw new DuplicateEmailException("Patient with email " + email + " already exists.");
+        }
 
         Patient patient = mapToEntity(patientRequestDTO); // Convert form to record card
-        Patient savedPatient = patientRepository.save(patient); // Ask librarian to save
+        Patient savedPatient = saveCheckingEmail(patient); // Ask librarian to save
+        emailFilter.put(savedPatient.getEmail());
+        searchIndex.upsert(savedPatient);
+        statistics.added(savedPatient.getGender(), savedPatient.getDateOfBirth());
         return mapToDTO(savedPatient); // Convert saved record card to summary form
     }
 
+    /**
+     * Saves a record card right away, turning a clash on the unique email columns into a DuplicateEmailException.
+     * The email and normalized email are the patients table's only unique columns besides the ID.
+     */
+    private Patient saveCheckingEmail(Patient patient) {
+        try {
+            return patientRepository.saveAndFlush(patient);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateEmailException.isCausedBy(e)) {
+                throw e;
+            }
+            throw new DuplicateEmailException("Patient with email " + patient.getEmail() + " already exists.");
+        }
+    }
+
     /**
      * Retrieves a patient's summary form by their unique ID.
      * 1. Asks the Librarian (patientRepository) to find the record card by ID.
@@ -112,6 +233,41 @@ public class PatientServiceImpl implements PatientService {
         return mapToDTO(patient);
     }
 
+    /**
+     * Retrieves only some fields of one patient.
+     * 1. Checks the field names (see checkFields).
+     * 2. Asks the Librarian for just those columns of the record card.
+     * 3. If NOT found, throws a "ResourceNotFoundException".
+     */
+    @Override
+    public Map<String, Object> getPatientById(UUID id, List<String> fields) {
+        return patientRepository.findProjectedById(id, checkFields(fields))
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+    }
+
+    /**
+     * Finds a patient by email, however the caller wrote it ("  Jane.Doe@Example.org" finds jane.doe@example.org).
+     * 1. Normalizes the email the same way it is stored.
+     * 2. Asks the Librarian for it through the normalized-email index: one indexed lookup, no scanning.
+     * 3. If NOT found, throws a "ResourceNotFoundException".
+     */
+    @Override
+    public PatientResponseDTO getPatientByEmail(String email) {
+        Patient patient = patientRepository.findFirstByNormalizedEmail(Patient.normalizeEmail(email))
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with email: " + email));
+        return mapToDTO(patient);
+    }
+
+    /**
+     * Retrieves a patient's summary form as ready-made JSON bytes.
+     * If the cache doesn't have them yet, builds them once from getPatientById, reading the primary database:
+     * a copy read from a replica that hasn't caught up with an update would stay in the cache until the next one.
+     */
+    @Override
+    public byte[] getPatientJsonById(UUID id) {
+        return patientJsonCache.get(id, key -> ReadWriteRoutingDataSource.onPrimary(() -> getPatientById(key)));
+    }
+
     /**
      * Retrieves all patient summary forms.
      * 1. Asks the Librarian (patientRepository) for all record cards.
@@ -125,6 +281,89 @@ public class PatientServiceImpl implements PatientService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves only some fields of every patient.
+     * The Librarian reads just those columns, so a list of names never loads addresses.
+     */
+    @Override
+    public List<Map<String, Object>> getAllPatients(List<String> fields) {
+        return patientRepository.findAllProjected(checkFields(fields));
+    }
+
+    /**
+     * Retrieves one page of patients matching the client's filter, in the client's order.
+     * 1. Turns the filter and sort into a single query (ListQueryParser rejects anything without an index).
+     * 2. Asks the Librarian for one more patient than the page holds, which tells us if there is a next page
+     *    without counting every match.
+     * 3. Converts each record card into a summary form.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PatientListPageDTO listPatients(String filter, String sort, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_LIST_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        Specification<Patient> where = LIST_QUERY.parseFilter(filter);
+        Sort order = LIST_QUERY.parseSort(sort);
+
+        Slice<Patient> slice = patientRepository.findBy(where,
+                query -> query.sortBy(order).slice(PageRequest.of(pageNumber, pageSize)));
+
+        PatientListPageDTO dto = new PatientListPageDTO();
+        dto.setItems(slice.getContent().stream().map(this::mapToDTO).collect(Collectors.toList()));
+        dto.setPage(pageNumber);
+        dto.setSize(pageSize);
+        dto.setHasMore(slice.hasNext());
+        return dto;
+    }
+
+    // The fields the list endpoint filters on, in the order error messages list them
+    private static Map<String, Class<?>> listFilterFields() {
+        Map<String, Class<?>> fields = new LinkedHashMap<>();
+        fields.put("lastName", String.class);
+        fields.put("gender", String.class);
+        fields.put("dateOfBirth", LocalDate.class);
+        fields.put("lastModified", Instant.class);
+        return fields;
+    }
+
+    /**
+     * Makes sure every requested field is one a patient has, and drops repeats.
+     * Blank entries (from "fields=id,,firstName") are ignored.
+     */
+    private static List<String> checkFields(List<String> fields) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!PatientProjectionRepository.FIELDS.contains(name)) {
+                throw new InvalidRequestException("Unknown field '" + name + "'; choose from "
+                        + String.join(", ", PatientProjectionRepository.FIELDS));
+            }
+            distinct.add(name);
+        }
+        if (distinct.isEmpty()) {
+            throw new InvalidRequestException("Name at least one field; choose from "
+                    + String.join(", ", PatientProjectionRepository.FIELDS));
+        }
+        return List.copyOf(distinct);
+    }
+
+    /**
+     * Reads the "Head Count" board; the database is not touched.
+     */
+    @Override
+    public PatientStatsDTO getPatientStats() {
+        PatientStatistics.Snapshot snapshot = statistics.snapshot();
+        PatientStatsDTO dto = new PatientStatsDTO();
+        dto.setTotal(snapshot.total());
+        dto.setByGender(snapshot.byGender());
+        dto.setByAgeBand(snapshot.byAgeBand());
+        dto.setLastRebuiltAt(snapshot.lastRebuiltAt());
+        return dto;
+    }
+
     /**
      * Updates an existing patient's information.
      * 1. Finds the existing patient record card by ID.
@@ -132,11 +371,16 @@ public class PatientServiceImpl implements PatientService {
      * 3. Asks the Librarian (patientRepository) to save the updated record.
      * 4. Converts the updated record card to a summary form and returns it.
      * 5. If NOT found, throws a "ResourceNotFoundException".
+     * It all runs in one transaction, so the record card is read from the same (primary) database it is saved to,
+     * never from a read replica that may not have the latest version yet.
      */
     @Override
+    @Transactional
     public PatientResponseDTO updatePatient(UUID id, PatientUpdateDTO patientUpdateDTO) {
         Patient existingPatient = patientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+        String oldGender = existingPatient.getGender();
+        LocalDate oldDateOfBirth = existingPatient.getDateOfBirth();
 
         // Update fields only if they are provided in the DTO
         Optional.ofNullable(patientUpdateDTO.getFirstName()).ifPresent(existingPatient::setFirstName);
@@ -147,21 +391,232 @@ public class PatientServiceImpl implements PatientService {
         Optional.ofNullable(patientUpdateDTO.getEmail()).ifPresent(existingPatient::setEmail);
         Optional.ofNullable(patientUpdateDTO.getAddress()).ifPresent(existingPatient::setAddress);
 
-        Patient updatedPatient = patientRepository.save(existingPatient); // Ask librarian to save updated record
+        Patient updatedPatient = saveCheckingEmail(existingPatient); // Ask librarian to save updated record
+        emailFilter.put(updatedPatient.getEmail());
+        searchIndex.upsert(updatedPatient);
+        statistics.changed(oldGender, oldDateOfBirth, updatedPatient.getGender(), updatedPatient.getDateOfBirth());
+        patientJsonCache.evict(id);
         return mapToDTO(updatedPatient);
     }
 
     /**
      * Deletes a patient record by their unique ID.
-     * 1. Checks if the patient record exists.
+     * 1. Finds the patient record (its gender and birthday are needed to update the head count).
      * 2. If it exists, asks the Librarian (patientRepository) to delete it.
      * 3. If NOT found, throws a "ResourceNotFoundException".
      */
     @Override
+    @Transactional
     public void deletePatient(UUID id) {
-        if (!patientRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Patient not found with id: " + id);
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+        patientRepository.delete(patient);
+        // Leave a slip behind so syncing clients find out about the deletion
+        tombstoneRepository.save(new PatientTombstone(id));
+        patientJsonCache.evict(id);
+        searchIndex.remove(id);
+        statistics.removed(patient.getGender(), patient.getDateOfBirth());
+    }
+
+    /**
+     * Searches patients with the in-memory search index; the database is not touched.
+     * 1. Works out which slice of the ranking the page covers (pages stop at the best 1000 results).
+     * 2. Asks the index for that slice.
+     * 3. Copies each hit onto a line of the "Search Results" form.
+     */
+    @Override
+    public PatientSearchPageDTO searchPatients(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        int offset = (int) Math.min((long) pageNumber * pageSize, PatientSearchIndex.MAX_RESULTS);
+        PatientSearchIndex.SearchResult result = searchIndex.search(query, offset, pageSize);
+
+        PatientSearchPageDTO dto = new PatientSearchPageDTO();
+        for (PatientSearchIndex.Hit hit : result.hits()) {
+            PatientSearchHitDTO hitDTO = new PatientSearchHitDTO();
+            hitDTO.setId(hit.id());
+            hitDTO.setFirstName(hit.firstName());
+            hitDTO.setLastName(hit.lastName());
+            hitDTO.setScore(hit.score());
+            dto.getHits().add(hitDTO);
+        }
+        dto.setPage(pageNumber);
+        dto.setSize(pageSize);
+        dto.setTotalMatches(result.totalMatches());
+        return dto;
+    }
+
+    /**
+     * Starts the duplicate scan in the background (or finds the one already running) and reports where it stands.
+     */
+    @Override
+    public DuplicateScanDTO startDuplicateScan() {
+        return mapToDTO(duplicateDetector.startScan());
+    }
+
+    /**
+     * Reports where the latest duplicate scan stands, with its best candidates once finished.
+     */
+    @Override
+    public DuplicateScanDTO getDuplicateScan() {
+        return mapToDTO(duplicateDetector.getLastScan());
+    }
+
+    /**
+     * Converts a duplicate scan's status into the status form sent to clients.
+     */
+    private DuplicateScanDTO mapToDTO(DuplicateScan scan) {
+        DuplicateScanDTO dto = new DuplicateScanDTO();
+        dto.setStatus(scan.status());
+        dto.setStartedAt(scan.startedAt());
+        dto.setFinishedAt(scan.finishedAt());
+        dto.setPatientsScanned(scan.patientsScanned());
+        dto.setPairsScored(scan.pairsScored());
+        dto.setCandidatesFound(scan.candidatesFound());
+        dto.setReportFile(scan.reportFile());
+        for (DuplicateCandidate candidate : scan.topCandidates()) {
+            DuplicateCandidateDTO candidateDTO = new DuplicateCandidateDTO();
+            candidateDTO.setFirstId(candidate.firstId());
+            candidateDTO.setFirstFirstName(candidate.firstFirstName());
+            candidateDTO.setFirstLastName(candidate.firstLastName());
+            candidateDTO.setSecondId(candidate.secondId());
+            candidateDTO.setSecondFirstName(candidate.secondFirstName());
+            candidateDTO.setSecondLastName(candidate.secondLastName());
+            candidateDTO.setScore(candidate.score());
+            candidateDTO.setMatchedOn(candidate.matchedOn());
+            dto.getTopCandidates().add(candidateDTO);
+        }
+        return dto;
+    }
+
+    /**
+     * Starts (or resumes) a CSV import in the background and reports where it stands.
+     */
+    @Override
+    public PatientImportDTO startImport(String fileName) {
+        return mapToDTO(csvImporter.start(fileName));
+    }
+
+    /**
+     * Reports how the latest CSV import is going.
+     */
+    @Override
+    public PatientImportDTO getImport() {
+        return mapToDTO(csvImporter.getLastImport());
+    }
+
+    /**
+     * Converts an import's progress into the progress form sent to clients.
+     */
+    private PatientImportDTO mapToDTO(PatientImport patientImport) {
+        PatientImportDTO dto = new PatientImportDTO();
+        dto.setStatus(patientImport.status());
+        dto.setFileName(patientImport.fileName());
+        dto.setStartedAt(patientImport.startedAt());
+        dto.setFinishedAt(patientImport.finishedAt());
+        dto.setBytesDone(patientImport.bytesDone());
+        dto.setTotalBytes(patientImport.totalBytes());
+        dto.setImported(patientImport.imported());
+        dto.setRejected(patientImport.rejected());
+        dto.setRejectFile(patientImport.rejectFile());
+        dto.setError(patientImport.error());
+        return dto;
+    }
+
+    /**
+     * Starts a columnar export in the background and reports where it stands.
+     */
+    @Override
+    public PatientExportDTO startExport(boolean incremental) {
+        return mapToDTO(exporter.start(incremental));
+    }
+
+    /**
+     * Reports how the latest columnar export is going.
+     */
+    @Override
+    public PatientExportDTO getExport() {
+        return mapToDTO(exporter.getLastExport());
+    }
+
+    /**
+     * Converts an export's progress into the progress form sent to clients.
+     */
+    private PatientExportDTO mapToDTO(PatientExport export) {
+        PatientExportDTO dto = new PatientExportDTO();
+        dto.setStatus(export.status());
+        dto.setIncremental(export.incremental());
+        dto.setStartedAt(export.startedAt());
+        dto.setFinishedAt(export.finishedAt());
+        dto.setPatientsExported(export.patientsExported());
+        dto.setDeletionsExported(export.deletionsExported());
+        dto.setBytesWritten(export.bytesWritten());
+        dto.setFile(export.file());
+        dto.setDeletedFile(export.deletedFile());
+        dto.setError(export.error());
+        return dto;
+    }
+
+    /**
+     * Retrieves the changes since a sync cursor.
+     * 1. Asks both Librarians for the next page of changed patients and of "Removed Patient" slips,
+     *    each ordered by (time, id) using their index. We ask for one extra to know if more are waiting.
+     * 2. Merges the two ordered lists and keeps the first 'limit' entries.
+     * 3. The last entry kept becomes the cursor for the next page.
+     *
+     * Only changes stamped at least syncSafetyLag ago are handed out. The stamp is taken when the card is saved,
+     * before the commit, so a slow transaction can commit a card stamped earlier than one a client already received;
+     * stopping short of "now" waits for those instead of moving the cursor past them for good.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PatientChangesDTO getChangesSince(Instant since, UUID afterId, int limit) {
+        Instant from = since != null ? since : Instant.EPOCH;
+        UUID after = afterId != null ? afterId : new UUID(0L, 0L);
+        int pageSize = Math.max(1, Math.min(limit, MAX_SYNC_PAGE_SIZE));
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        Instant until = Instant.now().minus(syncSafetyLag);
+
+        List<Patient> changed = patientRepository.findChangedSince(from, after, until, page);
+        List<PatientTombstone> deleted = tombstoneRepository.findDeletedSince(from, after, until, page);
+
+        PatientChangesDTO result = new PatientChangesDTO();
+        Instant cursorTime = from;
+        UUID cursorId = after;
+        int i = 0;
+        int j = 0;
+        while (i + j < pageSize && (i < changed.size() || j < deleted.size())) {
+            boolean takeChanged = j >= deleted.size()
+                    || (i < changed.size() && compareKeys(changed.get(i).getLastModified(), changed.get(i).getId(),
+                    deleted.get(j).getDeletedAt(), deleted.get(j).getId()) <= 0);
+            if (takeChanged) {
+                Patient patient = changed.get(i++);
+                result.getChanged().add(mapToDTO(patient));
+                cursorTime = patient.getLastModified();
+                cursorId = patient.getId();
+            } else {
+                PatientTombstone tombstone = deleted.get(j++);
+                result.getDeleted().add(tombstone.getId());
+                cursorTime = tombstone.getDeletedAt();
+                cursorId = tombstone.getId();
+            }
+        }
+        result.setHasMore(i < changed.size() || j < deleted.size());
+        result.setNextSince(cursorTime);
+        result.setNextAfterId(cursorId);
+        return result;
+    }
+
+    /**
+     * Orders sync entries the same way the database orders the (time, id) index.
+     * UUIDs are compared as unsigned bytes, like the database does, not with UUID.compareTo (which is signed).
+     */
+    private static int compareKeys(Instant time1, UUID id1, Instant time2, UUID id2) {
+        int byTime = time1.compareTo(time2);
+        if (byTime != 0) {
+            return byTime;
         }
-        patientRepository.deleteById(id);
+        int byHigh = Long.compareUnsigned(id1.getMostSignificantBits(), id2.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(id1.getLeastSignificantBits(), id2.getLeastSignificantBits());
     }
 }
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -22,7 +25,19 @@ import java.util.UUID;
  * @AllArgsConstructor (from Lombok): Automatically creates a constructor with all fields (Patient(id, firstName, ...)).
  */
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+        // Lets the sync endpoint walk "everything changed since X" in order without scanning the table
+        @Index(name = "idx_patients_last_modified", columnList = "lastModified, id"),
+        // The filtered list endpoint can only filter and sort on indexed columns; these are the rest of them.
+        // MySQL adds the id to the end of every index, which is exactly the tie-break that endpoint sorts by.
+        @Index(name = "idx_patients_last_name", columnList = "lastName"),
+        @Index(name = "idx_patients_date_of_birth", columnList = "dateOfBirth"),
+        @Index(name = "idx_patients_gender_date_of_birth", columnList = "gender, dateOfBirth")
+}, uniqueConstraints = {
+        // No two patients may share an email however it is written, and a patient is found by email in one step.
+        // On an existing table NormalizedEmailBackfill adds it, once every old card has a normalized email.
+        @UniqueConstraint(name = "uk_patients_normalized_email", columnNames = "normalizedEmail")
+})
 //@Data
 //@NoArgsConstructor
 //@AllArgsConstructor
@@ -55,8 +70,27 @@ public class Patient {
     @Column(unique = true) // This means no two patients can have the same email address
     private String email;
 
+    // The email trimmed and in lower case, kept in step with 'email' by setEmail() and touch().
+    // Lookups by email go through this column, so "Jane.Doe@X.org " finds jane.doe@x.org.
+    private String normalizedEmail;
+
     private String address;
 
+    /**
+     * @Version: Hibernate bumps this number every time the record card is saved,
+     * so clients can tell whether their copy is stale.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * When this record card was last written. Filled in automatically by touch() below.
+     * Cards saved before this column existed are stamped by LastModifiedBackfill, which then makes the column NOT NULL.
+     */
+    @Column(nullable = false)
+    private Instant lastModified;
+
     public Patient() {
     }
 
@@ -125,6 +159,11 @@ public class Patient {
 
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
     }
 
     public String getAddress() {
@@ -134,4 +173,39 @@ public class Patient {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Stamps the record card right before every insert and update.
+     * Truncated to microseconds so the value we compare against matches what the database stores.
+     * Also fills in normalizedEmail for cards written before that column existed.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.lastModified = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    /**
+     * The form every email is stored and looked up in: surrounding spaces removed, lower case.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,51 @@
+package com.pepsin.dpms_patient_service.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * This is a "Removed Patient" slip.
+ * When a patient record card is thrown away we keep a small slip with its ID and the time,
+ * so clients syncing their local copy know to remove it too.
+ */
+@Entity
+@Table(name = "patient_tombstones", indexes = {
+        @Index(name = "idx_patient_tombstones_deleted_at", columnList = "deletedAt, id")
+})
+public class PatientTombstone {
+
+    /**
+     * The ID of the patient that was deleted (not a new generated ID).
+     */
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    public PatientTombstone() {
+    }
+
+    public PatientTombstone(UUID id) {
+        this.id = id;
+        this.deletedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
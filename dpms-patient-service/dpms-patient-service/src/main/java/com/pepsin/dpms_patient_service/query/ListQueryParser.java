@@ -0,0 +1,180 @@
+package com.pepsin.dpms_patient_service.query;
+
+import com.pepsin.dpms_patient_service.exception.InvalidRequestException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This is the "Request Slip" a client fills in at the records room: which patients, and in what order.
+ * It turns the filter and sort of a list request into one database query.
+ *
+ * filter: conditions joined by ';' (all must hold), each "field operator value" with operator
+ * ==, !=, >, >=, < or <=. A text value ending in '*' with == means "starts with".
+ * Example: gender==Female;dateOfBirth>=1980-01-01;lastName==Men*
+ *
+ * sort: fields separated by ',', each ascending unless it starts with '-'. Example: lastName,-dateOfBirth
+ *
+ * Only the fields given to the constructor can be used, so every query can be answered from an index
+ * instead of a scan of the whole table. The id is always added as the last sort key, so pages never
+ * overlap or skip rows that share a value.
+ * Anything else (unknown field, bad date, too many conditions) is an InvalidRequestException.
+ */
+public final class ListQueryParser<T> {
+
+    private static final int MAX_CONDITIONS = 10;
+    private static final int MAX_SORT_KEYS = 3;
+    private static final int MAX_VALUE_LENGTH = 100;
+    // Longest first, so ">=" is not read as ">" followed by "=..."
+    private static final List<String> OPERATORS = List.of("==", "!=", ">=", "<=", ">", "<");
+
+    private final Map<String, Class<?>> filterFields;
+    private final Set<String> sortFields;
+
+    /**
+     * @param filterFields Fields that can be filtered on, with their type (String, LocalDate or Instant), in the order
+     *                     error messages should list them.
+     * @param sortFields Fields that can be sorted by.
+     */
+    public ListQueryParser(Map<String, Class<?>> filterFields, List<String> sortFields) {
+        this.filterFields = new LinkedHashMap<>(filterFields);
+        this.sortFields = new LinkedHashSet<>(sortFields);
+    }
+
+    /**
+     * Compiles a filter into a Specification; a missing or blank filter matches everything.
+     */
+    public Specification<T> parseFilter(String filter) {
+        List<Condition> conditions = new ArrayList<>();
+        if (filter != null && !filter.isBlank()) {
+            for (String clause : filter.split(";")) {
+                if (!clause.isBlank()) {
+                    conditions.add(parseCondition(clause.trim()));
+                }
+            }
+        }
+        if (conditions.size() > MAX_CONDITIONS) {
+            throw new InvalidRequestException("A filter can have at most " + MAX_CONDITIONS + " conditions");
+        }
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>(conditions.size());
+            for (Condition condition : conditions) {
+                predicates.add(condition.toPredicate(root.get(condition.field()), builder));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Compiles a sort into a Sort that ends with the id.
+     * The id follows the direction of the last key, so the database can read the index backwards for a descending sort.
+     */
+    public Sort parseSort(String sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (sort != null && !sort.isBlank()) {
+            for (String key : sort.split(",")) {
+                String trimmed = key.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                boolean descending = trimmed.startsWith("-");
+                String field = descending ? trimmed.substring(1) : trimmed;
+                if (!sortFields.contains(field)) {
+                    throw new InvalidRequestException("Can't sort by '" + field + "'; choose from "
+                            + String.join(", ", sortFields));
+                }
+                if (!seen.add(field)) {
+                    throw new InvalidRequestException("'" + field + "' appears twice in the sort");
+                }
+                orders.add(descending ? Sort.Order.desc(field) : Sort.Order.asc(field));
+            }
+        }
+        if (orders.size() > MAX_SORT_KEYS) {
+            throw new InvalidRequestException("A sort can have at most " + MAX_SORT_KEYS + " fields");
+        }
+        Sort.Direction last = orders.isEmpty() ? Sort.Direction.ASC : orders.get(orders.size() - 1).getDirection();
+        orders.add(new Sort.Order(last, "id"));
+        return Sort.by(orders);
+    }
+
+    private Condition parseCondition(String clause) {
+        int nameEnd = 0;
+        while (nameEnd < clause.length() && Character.isLetter(clause.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        String field = clause.substring(0, nameEnd);
+        Class<?> type = filterFields.get(field);
+        if (type == null) {
+            throw new InvalidRequestException("Can't filter on '" + field + "'; choose from "
+                    + String.join(", ", filterFields.keySet()));
+        }
+        String rest = clause.substring(nameEnd).trim();
+        String operator = OPERATORS.stream().filter(rest::startsWith).findFirst()
+                .orElseThrow(() -> new InvalidRequestException("'" + clause + "' needs one of " + OPERATORS));
+        String text = rest.substring(operator.length()).trim();
+        if (text.isEmpty() || text.length() > MAX_VALUE_LENGTH) {
+            throw new InvalidRequestException("'" + clause + "' needs a value of 1 to " + MAX_VALUE_LENGTH + " characters");
+        }
+        boolean prefix = type == String.class && text.endsWith("*");
+        if (prefix && !operator.equals("==")) {
+            throw new InvalidRequestException("'*' (starts with) only works with == in '" + clause + "'");
+        }
+        if (prefix && text.length() == 1) {
+            throw new InvalidRequestException("'" + clause + "' needs at least one character before '*'");
+        }
+        return new Condition(field, prefix ? "prefix" : operator,
+                prefix ? text.substring(0, text.length() - 1) : parseValue(type, text, clause));
+    }
+
+    private static Comparable<?> parseValue(Class<?> type, String text, String clause) {
+        try {
+            if (type == LocalDate.class) {
+                return LocalDate.parse(text);
+            }
+            if (type == Instant.class) {
+                return Instant.parse(text);
+            }
+            return text;
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("'" + text + "' in '" + clause + "' is not a valid "
+                    + (type == LocalDate.class ? "date (yyyy-MM-dd)" : "timestamp (e.g. 2025-01-01T00:00:00Z)"));
+        }
+    }
+
+    private record Condition(String field, String operator, Comparable<?> value) {
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Predicate toPredicate(Expression path, CriteriaBuilder builder) {
+            Comparable value = this.value;
+            return switch (operator) {
+                case "==" -> builder.equal(path, value);
+                case "!=" -> builder.notEqual(path, value);
+                case ">" -> builder.greaterThan(path, value);
+                case ">=" -> builder.greaterThanOrEqualTo(path, value);
+                case "<" -> builder.lessThan(path, value);
+                case "<=" -> builder.lessThanOrEqualTo(path, value);
+                // LIKE 'abc%' can still use the index; escape the value's own wildcards
+                case "prefix" -> builder.like(path, escapeLike((String) value) + "%", '\\');
+                default -> throw new IllegalStateException("Unknown operator " + operator);
+            };
+        }
+
+        private static String escapeLike(String value) {
+            return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+    }
+}
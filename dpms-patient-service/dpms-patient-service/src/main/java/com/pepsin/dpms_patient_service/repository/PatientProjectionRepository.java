@@ -0,0 +1,26 @@
+package com.pepsin.dpms_patient_service.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The Librarian's "Just These Fields, Please" service, for list screens that only show a few columns.
+ * The database is asked for the requested columns only, and each patient comes back as a map
+ * of field name to value, in the order the fields were asked for.
+ *
+ * Part of PatientRepository; Spring Data finds the implementation (PatientProjectionRepositoryImpl) by its name.
+ */
+public interface PatientProjectionRepository {
+
+    // The fields that can be asked for: those of PatientResponseDTO
+    List<String> FIELDS = List.of("id", "firstName", "lastName", "dateOfBirth", "gender", "contactNumber",
+            "email", "address", "version", "lastModified");
+
+    // Every patient, with only 'fields' (names from FIELDS)
+    List<Map<String, Object>> findAllProjected(List<String> fields);
+
+    // One patient, with only 'fields' (names from FIELDS)
+    Optional<Map<String, Object>> findProjectedById(UUID id, List<String> fields);
+}
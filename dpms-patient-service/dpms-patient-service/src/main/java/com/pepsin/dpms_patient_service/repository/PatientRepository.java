@@ -1,10 +1,25 @@
 package com.pepsin.dpms_patient_service.repository;
 
+import com.pepsin.dpms_patient_service.dedup.DuplicateCheckFields;
 import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.search.PatientSearchFields;
+import com.pepsin.dpms_patient_service.stats.PatientCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * This is our "Filing Cabinet Librarian" for patient records.
@@ -27,11 +42,99 @@ import java.util.UUID;
  *
  * We can also add our own special methods here, and Spring will try to figure out
  * how to do them based on the method name!
+ *
+ * JpaSpecificationExecutor lets the filtered list endpoint hand over a query built from the
+ * client's filter (see ListQueryParser) instead of a fixed method.
  */
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, UUID> {
+public interface PatientRepository extends JpaRepository<Patient, UUID>, JpaSpecificationExecutor<Patient>,
+        PatientProjectionRepository {
 
     // Spring Data JPA can automatically create queries based on method names!
-    // This method will find a patient by their email address.
+    // This method will find a patient by their email address, exactly as written.
     Optional<Patient> findByEmail(String email);
+
+    // Finds a patient by email however it was typed, through the normalized-email index.
+    // Pass Patient.normalizeEmail(email). "First" because rows from before the column existed could share a value.
+    Optional<Patient> findFirstByNormalizedEmail(String normalizedEmail);
+
+    boolean existsByNormalizedEmail(String normalizedEmail);
+
+    // Fills in normalized_email for up to 'batchSize' patients saved before the column existed;
+    // returns how many were changed. MySQL's UPDATE ... LIMIT keeps each transaction short.
+    @Modifying
+    @Transactional
+    @Query(value = "update patients set normalized_email = lower(trim(email)) " +
+            "where normalized_email is null and email is not null limit :batchSize", nativeQuery = true)
+    int backfillNormalizedEmails(@Param("batchSize") int batchSize);
+
+    // How many unique indexes cover normalized_email: 0 until uk_patients_normalized_email has been added
+    @Query(value = "select count(*) from information_schema.statistics where table_schema = database() " +
+            "and table_name = 'patients' and column_name = 'normalized_email' and non_unique = 0", nativeQuery = true)
+    long normalizedEmailUniqueIndexes();
+
+    // Fails while two patients share a normalized email
+    @Modifying
+    @Transactional
+    @Query(value = "alter table patients add constraint uk_patients_normalized_email unique (normalized_email)",
+            nativeQuery = true)
+    void addNormalizedEmailUniqueConstraint();
+
+    // Stamps up to 'batchSize' patients saved before the last_modified column existed with 'now';
+    // returns how many were changed. Until then the sync endpoint can't see them.
+    @Modifying
+    @Transactional
+    @Query(value = "update patients set last_modified = :now where last_modified is null limit :batchSize",
+            nativeQuery = true)
+    int backfillLastModified(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    // "YES" while last_modified may still be NULL (ddl-auto: update added it that way), "NO" once it is NOT NULL
+    @Query(value = "select is_nullable from information_schema.columns where table_schema = database() " +
+            "and table_name = 'patients' and column_name = 'last_modified'", nativeQuery = true)
+    String lastModifiedNullable();
+
+    // Makes last_modified NOT NULL; only call once backfillLastModified has found nothing left to do
+    @Modifying
+    @Transactional
+    @Query(value = "alter table patients modify last_modified datetime(6) not null", nativeQuery = true)
+    void makeLastModifiedNotNull();
+
+    // Every patient's email, read one by one, for warming EmailBloomFilter (needs an open transaction)
+    @Query("select p.email from Patient p where p.email is not null")
+    Stream<String> streamAllEmails();
+
+    // The searchable fields of every patient, read one by one, for building PatientSearchIndex (needs an open transaction)
+    @Query("select new com.pepsin.dpms_patient_service.search.PatientSearchFields(" +
+            "p.id, p.firstName, p.lastName, p.address, p.contactNumber) from Patient p")
+    Stream<PatientSearchFields> streamSearchFields();
+
+    // What the duplicate check compares, for every patient, read one by one (needs an open transaction).
+    // MySQL only streams rows when the fetch size is Integer.MIN_VALUE; otherwise the driver loads the whole result first.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select new com.pepsin.dpms_patient_service.dedup.DuplicateCheckFields(" +
+            "p.id, p.firstName, p.lastName, p.dateOfBirth, p.contactNumber) from Patient p")
+    Stream<DuplicateCheckFields> streamDuplicateCheckFields();
+
+    // How many patients there are per (gender, date of birth), for rebuilding PatientStatistics in one query
+    @Query("select new com.pepsin.dpms_patient_service.stats.PatientCount(p.gender, p.dateOfBirth, count(p)) " +
+            "from Patient p group by p.gender, p.dateOfBirth")
+    List<PatientCount> countByGenderAndDateOfBirth();
+
+    // Keyset page over the whole table in id order, for a full export: every patient exactly once,
+    // whatever its lastModified, and each page starts straight from the primary key
+    @Query("select p from Patient p where p.id > :afterId order by p.id")
+    List<Patient> findAfterId(@Param("afterId") UUID afterId, Pageable pageable);
+
+    // Keyset page for the sync endpoint: patients written after (since, afterId) and at or before 'until', oldest first.
+    // Uses the (lastModified, id) index, so the cost depends on the page size, not the table size.
+    // Callers keep 'until' a little in the past: lastModified is stamped before the commit, so a row may still
+    // show up with a time older than rows already handed out (see PatientServiceImpl.getChangesSince).
+    @Query("select p from Patient p " +
+            "where (p.lastModified > :since or (p.lastModified = :since and p.id > :afterId)) " +
+            "and p.lastModified <= :until " +
+            "order by p.lastModified, p.id")
+    List<Patient> findChangedSince(@Param("since") Instant since,
+                                   @Param("afterId") UUID afterId,
+                                   @Param("until") Instant until,
+                                   Pageable pageable);
 }
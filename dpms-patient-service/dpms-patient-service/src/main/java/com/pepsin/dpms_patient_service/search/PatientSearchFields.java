@@ -0,0 +1,11 @@
+package com.pepsin.dpms_patient_service.search;
+
+import java.util.UUID;
+
+/**
+ * The parts of a patient record card that the search index reads.
+ * Loaded straight from the database with a JPQL constructor expression when the index is rebuilt,
+ * so the rest of the card is never fetched.
+ */
+public record PatientSearchFields(UUID id, String firstName, String lastName, String address, String contactNumber) {
+}
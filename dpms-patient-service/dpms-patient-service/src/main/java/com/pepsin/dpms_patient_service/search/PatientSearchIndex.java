@@ -0,0 +1,760 @@
+package com.pepsin.dpms_patient_service.search;
+
+import com.pepsin.dpms_patient_service.exception.SearchIndexNotReadyException;
+import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.model.PatientTombstone;
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import com.pepsin.dpms_patient_service.repository.PatientTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * This is the "Name Index" drawer at the front desk.
+ * Receptionists often only half-know a name ("Jonh Smiht, lives on Baker street"), so instead of asking
+ * the Librarian to scan every record card we keep our own index of every patient's first name, last name,
+ * address and contact number, and search it in memory.
+ *
+ * Every field is cut into trigrams (see Trigrams). For each trigram we keep the list of patients whose text
+ * contains it. A query is cut the same way; a patient matches if they share at least 40% of the query's trigrams,
+ * so one or two typos still find them. Matches are ranked by the rarity of the shared trigrams
+ * (a shared "zby" says more than a shared " jo"), weighted by field: names count most, then contact number, then address.
+ *
+ * The index is built from the database in the background once the service is up (in parallel, a chunk of patients
+ * per core) and PatientServiceImpl tells it about every create, update and delete afterwards.
+ * Until the first build is done, searches get a 503.
+ * Other replicas keep their own index, so every catch-up-interval this one also reads the change feed
+ * (the same pages GET /api/patients/changes hands out) and applies what was written elsewhere.
+ * A patient created or deleted through another replica shows up here within catch-up-interval + safety lag.
+ */
+@Component
+public class PatientSearchIndex {
+
+    /**
+     * One search result. Only what a receptionist needs to pick the right person; the full card is one GET away.
+     */
+    public record Hit(UUID id, String firstName, String lastName, double score) {
+    }
+
+    /**
+     * One page of results, plus how many patients matched in total.
+     */
+    public record SearchResult(List<Hit> hits, int totalMatches) {
+    }
+
+    // The deepest result a search can page to; nobody reads past this and it keeps the top-k heap small
+    public static final int MAX_RESULTS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+    // Field numbers stored in the low two bits of each posting entry
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int ADDRESS = 2;
+    private static final int CONTACT_NUMBER = 3;
+    private static final float[] FIELD_WEIGHTS = {3f, 3f, 1f, 2f};
+    private static final float MAX_WEIGHT = 3f;
+    private static final double MIN_SHARED_TRIGRAMS = 0.4;
+    // More than 2^29 documents would not fit next to the field bits in an int
+    private static final int MAX_DOCS = 1 << 29;
+    private static final int BUILD_CHUNK = 16_384;
+    // Longer queries are cut; also keeps the per-document shared-trigram counter within a short
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int CATCH_UP_PAGE = 1000;
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    private final Consumer<Consumer<PatientSearchFields>> allPatients;
+    private final ChangeFeed changeFeed;
+    // Changes stamped more recently than this may still be committing; they are read on a later catch-up
+    private final Duration safetyLag;
+    private final Clock clock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Score arrays are as long as the index; keep one per concurrent search rather than one per thread
+    private final ConcurrentLinkedQueue<Scratch> spareScratch = new ConcurrentLinkedQueue<>();
+    // Guarded by lock
+    private Segment segment = new Segment();
+    // Writes seen while a rebuild reads the database; replayed onto the new segment. Guarded by lock.
+    private List<PatientSearchFields> writesDuringRebuild;
+    private volatile boolean ready;
+    // How far catchUp has read each feed. Set by rebuild before ready; afterwards only catchUp moves them.
+    private volatile Cursor changedCursor;
+    private volatile Cursor deletedCursor;
+
+    /**
+     * Where catchUp reads the writes of every replica: keyset pages of changed patients and of
+     * "Removed Patient" slips, each written after (since, afterId) and at or before 'until', oldest first.
+     */
+    interface ChangeFeed {
+
+        List<Patient> changed(Instant since, UUID afterId, Instant until, int limit);
+
+        List<PatientTombstone> deleted(Instant since, UUID afterId, Instant until, int limit);
+    }
+
+    private record Cursor(Instant time, UUID id) {
+    }
+
+    @Autowired
+    public PatientSearchIndex(PatientRepository patientRepository,
+                              PatientTombstoneRepository tombstoneRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${patient.sync.safety-lag:PT30S}") Duration safetyLag) {
+        this(sink -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<PatientSearchFields> patients = patientRepository.streamSearchFields()) {
+                patients.forEach(sink);
+            }
+        }), new ChangeFeed() {
+            @Override
+            public List<Patient> changed(Instant since, UUID afterId, Instant until, int limit) {
+                return patientRepository.findChangedSince(since, afterId, until, PageRequest.ofSize(limit));
+            }
+
+            @Override
+            public List<PatientTombstone> deleted(Instant since, UUID afterId, Instant until, int limit) {
+                return tombstoneRepository.findDeletedSince(since, afterId, until, PageRequest.ofSize(limit));
+            }
+        }, safetyLag, Clock.systemUTC());
+    }
+
+    PatientSearchIndex(Consumer<Consumer<PatientSearchFields>> allPatients) {
+        this(allPatients, null, Duration.ZERO, Clock.systemUTC());
+    }
+
+    PatientSearchIndex(Consumer<Consumer<PatientSearchFields>> allPatients, ChangeFeed changeFeed,
+                       Duration safetyLag, Clock clock) {
+        this.allPatients = allPatients;
+        this.changeFeed = changeFeed;
+        this.safetyLag = safetyLag;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts building the index once the service is up, without holding up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofVirtual().name("patient-search-index-build").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Could not build the patient search index; searches will keep answering 503", e);
+            }
+        });
+    }
+
+    /**
+     * Reads every patient from the database and swaps the fresh index in.
+     * Creates, updates and deletes that happen while reading are recorded and replayed afterwards,
+     * so none of them is lost even if the database read missed them.
+     * Catching up then starts a safety lag before the read, so writes still committing while it ran are read again.
+     */
+    void rebuild() {
+        long started = System.nanoTime();
+        Cursor catchUpFrom = new Cursor(Instant.now(clock).minus(safetyLag), LOWEST_ID);
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment built;
+        try {
+            List<PatientSearchFields> patients = new ArrayList<>();
+            allPatients.accept(patients::add);
+            built = Segment.build(patients);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild.forEach(built::apply);
+            writesDuringRebuild = null;
+            segment = built;
+            changedCursor = catchUpFrom;
+            deletedCursor = catchUpFrom;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Patient search index built for {} patients ({} distinct trigrams, about {} MB) in {} ms",
+                built.liveCount(), built.postings.size(), built.footprintBytes() / (1024 * 1024),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Adds a patient, or replaces what we had for them. Inside a transaction this happens after the commit,
+     * so a rolled-back change never shows up in searches.
+     */
+    public void upsert(Patient patient) {
+        write(searchFields(patient));
+    }
+
+    /**
+     * Forgets a patient. Inside a transaction this happens after the commit.
+     */
+    public void remove(UUID id) {
+        write(new PatientSearchFields(id, null, null, null, null));
+    }
+
+    /**
+     * Applies what the change feed holds since the last catch-up: patients created, updated or deleted through
+     * any replica, this one included (applying our own writes again changes nothing).
+     * Runs every patient.search.catch-up-interval once the first build is done, and only reads changes older than
+     * the sync safety lag, for the same reason GET /api/patients/changes does.
+     */
+    @Scheduled(fixedDelayString = "${patient.search.catch-up-interval:PT10S}")
+    public void catchUp() {
+        if (!ready || changeFeed == null) {
+            return;
+        }
+        Instant until = Instant.now(clock).minus(safetyLag);
+        List<Patient> changed;
+        do {
+            Cursor from = changedCursor;
+            changed = changeFeed.changed(from.time(), from.id(), until, CATCH_UP_PAGE);
+            for (Patient patient : changed) {
+                apply(searchFields(patient));
+                changedCursor = new Cursor(patient.getLastModified(), patient.getId());
+            }
+        } while (changed.size() == CATCH_UP_PAGE);
+
+        List<PatientTombstone> deleted;
+        do {
+            Cursor from = deletedCursor;
+            deleted = changeFeed.deleted(from.time(), from.id(), until, CATCH_UP_PAGE);
+            for (PatientTombstone tombstone : deleted) {
+                apply(new PatientSearchFields(tombstone.getId(), null, null, null, null));
+                deletedCursor = new Cursor(tombstone.getDeletedAt(), tombstone.getId());
+            }
+        } while (deleted.size() == CATCH_UP_PAGE);
+    }
+
+    private static PatientSearchFields searchFields(Patient patient) {
+        return new PatientSearchFields(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getAddress(), patient.getContactNumber());
+    }
+
+    // A PatientSearchFields with only an id means "removed"
+    private void write(PatientSearchFields fields) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(fields);
+                }
+            });
+        } else {
+            apply(fields);
+        }
+    }
+
+    private void apply(PatientSearchFields fields) {
+        lock.writeLock().lock();
+        try {
+            segment.apply(fields);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(fields);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the patients that best match the query, best first.
+     *
+     * @param query Free text, e.g. "jonh smith 0244".
+     * @param offset How many of the best results to skip (for paging).
+     * @param limit The maximum number of results to return.
+     * @throws SearchIndexNotReadyException if the index is still being built after startup.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        if (!ready) {
+            throw new SearchIndexNotReadyException("Patient search is still starting up, please retry shortly.");
+        }
+        long[] trigrams = Trigrams.of(query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+        int wanted = Math.min(offset + limit, MAX_RESULTS);
+        if (trigrams.length == 0 || offset >= wanted) {
+            return new SearchResult(List.of(), 0);
+        }
+        Scratch scratch = spareScratch.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        lock.readLock().lock();
+        try {
+            return segment.search(trigrams, offset, wanted, scratch);
+        } finally {
+            lock.readLock().unlock();
+            spareScratch.offer(scratch);
+        }
+    }
+
+    /**
+     * The index proper: posting lists plus a few columns per document. Documents are numbered in the order
+     * they were added; an updated patient gets a new number and the old one is marked deleted.
+     * Not thread-safe: PatientSearchIndex guards it with its lock.
+     */
+    private static final class Segment {
+
+        final Map<Long, PostingList> postings = new HashMap<>();
+        final UuidSlotMap docOf = new UuidSlotMap(1024);
+        // Many patients share first and last names; keep one copy of each
+        final Map<String, String> names = new HashMap<>();
+        final BitSet deleted = new BitSet();
+        long[] idHigh = new long[1024];
+        long[] idLow = new long[1024];
+        String[] firstNames = new String[1024];
+        String[] lastNames = new String[1024];
+        int docCount;
+        int deletedCount;
+
+        /**
+         * Builds a segment from a full list of patients. Each chunk of patients gets its own posting lists
+         * on its own core; the chunks are then appended in order, which keeps every list sorted.
+         */
+        static Segment build(List<PatientSearchFields> patients) {
+            Segment segment = new Segment();
+            int count = patients.size();
+            if (count > MAX_DOCS) {
+                throw new IllegalStateException("Too many patients for the search index: " + count);
+            }
+            int chunks = (count + BUILD_CHUNK - 1) / BUILD_CHUNK;
+            List<Map<Long, PostingList>> chunkPostings = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> {
+                        Map<Long, PostingList> local = new HashMap<>();
+                        int end = Math.min(count, (chunk + 1) * BUILD_CHUNK);
+                        for (int doc = chunk * BUILD_CHUNK; doc < end; doc++) {
+                            addPostings(local, doc, patients.get(doc));
+                        }
+                        return local;
+                    })
+                    .toList();
+            for (Map<Long, PostingList> local : chunkPostings) {
+                local.forEach((key, list) -> segment.postings
+                        .computeIfAbsent(key, k -> new PostingList(list.size()))
+                        .addAll(list));
+            }
+            for (PatientSearchFields patient : patients) {
+                segment.addColumns(patient);
+            }
+            return segment;
+        }
+
+        void apply(PatientSearchFields fields) {
+            UUID id = fields.id();
+            int existing = docOf.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (existing != UuidSlotMap.MISSING) {
+                deleted.set(existing);
+                deletedCount++;
+                docOf.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            }
+            if (fields.firstName() != null || fields.lastName() != null
+                    || fields.address() != null || fields.contactNumber() != null) {
+                if (docCount == MAX_DOCS) {
+                    compact();
+                }
+                addPostings(postings, docCount, fields);
+                addColumns(fields);
+            }
+            if (deletedCount > 1024 && deletedCount > docCount / 4) {
+                compact();
+            }
+        }
+
+        private static void addPostings(Map<Long, PostingList> target, int doc, PatientSearchFields fields) {
+            addPostings(target, doc, FIRST_NAME, fields.firstName());
+            addPostings(target, doc, LAST_NAME, fields.lastName());
+            addPostings(target, doc, ADDRESS, fields.address());
+            addPostings(target, doc, CONTACT_NUMBER, fields.contactNumber());
+        }
+
+        private static void addPostings(Map<Long, PostingList> target, int doc, int field, String text) {
+            for (long trigram : Trigrams.of(text)) {
+                target.computeIfAbsent(trigram, k -> new PostingList(4)).add(doc << 2 | field);
+            }
+        }
+
+        private void addColumns(PatientSearchFields fields) {
+            if (docCount == idHigh.length) {
+                int capacity = docCount + (docCount >> 1);
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+            }
+            int doc = docCount++;
+            idHigh[doc] = fields.id().getMostSignificantBits();
+            idLow[doc] = fields.id().getLeastSignificantBits();
+            firstNames[doc] = shared(fields.firstName());
+            lastNames[doc] = shared(fields.lastName());
+            docOf.put(idHigh[doc], idLow[doc], doc);
+        }
+
+        private String shared(String name) {
+            return name == null ? null : names.computeIfAbsent(name, n -> n);
+        }
+
+        /**
+         * Drops deleted documents and renumbers the rest, keeping their order.
+         */
+        private void compact() {
+            int[] newIds = new int[docCount];
+            int live = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                newIds[doc] = deleted.get(doc) ? -1 : live++;
+            }
+            postings.values().removeIf(list -> {
+                list.compact(newIds);
+                return list.size() == 0;
+            });
+            docOf.clear();
+            for (int doc = 0; doc < docCount; doc++) {
+                int newId = newIds[doc];
+                if (newId >= 0) {
+                    idHigh[newId] = idHigh[doc];
+                    idLow[newId] = idLow[doc];
+                    firstNames[newId] = firstNames[doc];
+                    lastNames[newId] = lastNames[doc];
+                    docOf.put(idHigh[newId], idLow[newId], newId);
+                }
+            }
+            Arrays.fill(firstNames, live, docCount, null);
+            Arrays.fill(lastNames, live, docCount, null);
+            docCount = live;
+            deleted.clear();
+            deletedCount = 0;
+        }
+
+        int liveCount() {
+            return docCount - deletedCount;
+        }
+
+        long footprintBytes() {
+            long bytes = docOf.footprintBytes() + (long) idHigh.length * 2 * Long.BYTES;
+            for (PostingList list : postings.values()) {
+                // Plus roughly 64 bytes for the map entry, boxed key and list object
+                bytes += list.footprintBytes() + 64;
+            }
+            return bytes;
+        }
+
+        /**
+         * Scores every document sharing enough trigrams with the query and keeps the best 'wanted' of them.
+         *
+         * Lists are visited rarest first. A document that shares at least minShared of the q trigrams must be
+         * in one of the first q - minShared + 1 lists, so only those lists are walked in full to collect candidates;
+         * for the remaining (common, long) lists we just look each candidate up with a binary search.
+         */
+        SearchResult search(long[] trigrams, int offset, int wanted, Scratch scratch) {
+            int q = trigrams.length;
+            PostingList[] lists = new PostingList[q];
+            for (int i = 0; i < q; i++) {
+                lists[i] = postings.get(trigrams[i]);
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a == null ? 0 : a.size(), b == null ? 0 : b.size()));
+            int minShared = Math.max(1, (int) Math.ceil(q * MIN_SHARED_TRIGRAMS));
+            int candidateLists = q - minShared + 1;
+            double live = Math.max(1, liveCount());
+            float bestPossible = 0f;
+
+            scratch.ensureCapacity(docCount);
+            float[] score = scratch.score;
+            short[] shared = scratch.shared;
+            try {
+                for (int i = 0; i < q; i++) {
+                    PostingList list = lists[i];
+                    float idf = (float) Math.log(1 + live / (list == null ? 1 : list.size()));
+                    bestPossible += idf * MAX_WEIGHT;
+                    if (list == null) {
+                        continue;
+                    }
+                    if (i < candidateLists) {
+                        collect(list, idf, scratch);
+                    } else {
+                        // Drop candidates that can't reach minShared even if they are in every list left
+                        scratch.keepCandidates(minShared - (q - i));
+                        probe(list, idf, scratch);
+                    }
+                }
+
+                TopDocs top = new TopDocs(wanted);
+                int matches = 0;
+                int[] finalists = scratch.probing ? scratch.candidates : scratch.touched;
+                int finalistCount = scratch.probing ? scratch.candidateCount : scratch.touchedCount;
+                for (int t = 0; t < finalistCount; t++) {
+                    int doc = finalists[t];
+                    if (shared[doc] >= minShared) {
+                        matches++;
+                        top.offer(doc, score[doc]);
+                    }
+                }
+                int[] ranked = top.sortedDocs();
+                List<Hit> hits = new ArrayList<>(Math.max(0, ranked.length - offset));
+                for (int r = offset; r < ranked.length; r++) {
+                    int doc = ranked[r];
+                    hits.add(new Hit(new UUID(idHigh[doc], idLow[doc]), firstNames[doc], lastNames[doc],
+                            score[doc] / bestPossible));
+                }
+                return new SearchResult(hits, matches);
+            } finally {
+                scratch.reset();
+            }
+        }
+
+        // Walks a whole list, adding every live document it names to the candidates
+        private void collect(PostingList list, float idf, Scratch scratch) {
+            int previous = -1;
+            float weight = 0f;
+            for (int i = 0, n = list.size(); i <= n; i++) {
+                int entry = i < n ? list.get(i) : -1;
+                int doc = entry >>> 2;
+                if (entry < 0 || doc != previous) {
+                    if (previous >= 0 && !deleted.get(previous)) {
+                        scratch.add(previous, idf * weight);
+                    }
+                    previous = doc;
+                    weight = 0f;
+                }
+                if (entry >= 0) {
+                    weight = Math.max(weight, FIELD_WEIGHTS[entry & 3]);
+                }
+            }
+        }
+
+        // Adds a list's points to the current candidates only. Short lists are walked; for long ones each candidate
+        // is looked up, in document order, whichever touches less memory.
+        private static void probe(PostingList list, float idf, Scratch scratch) {
+            float[] score = scratch.score;
+            short[] shared = scratch.shared;
+            int[] candidates = scratch.candidates;
+            int candidateCount = scratch.candidateCount;
+            if (list.size() < candidateCount * 8L) {
+                int previous = -1;
+                float best = 0f;
+                for (int i = 0, n = list.size(); i < n; i++) {
+                    int entry = list.get(i);
+                    int doc = entry >>> 2;
+                    if (shared[doc] == 0) {
+                        continue;
+                    }
+                    float weight = FIELD_WEIGHTS[entry & 3];
+                    if (doc != previous) {
+                        // First entry of this document
+                        score[doc] += idf * weight;
+                        shared[doc]++;
+                        previous = doc;
+                        best = weight;
+                    } else if (weight > best) {
+                        // Same document, a better field: keep only the best weight
+                        score[doc] += idf * (weight - best);
+                        best = weight;
+                    }
+                }
+                return;
+            }
+            scratch.sortCandidates();
+            int position = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                int doc = candidates[c];
+                position = list.firstAtOrAfter(doc, position);
+                float weight = 0f;
+                for (int i = position; i < list.size() && list.get(i) >>> 2 == doc; i++) {
+                    weight = Math.max(weight, FIELD_WEIGHTS[list.get(i) & 3]);
+                }
+                if (weight > 0f) {
+                    score[doc] += idf * weight;
+                    shared[doc]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Score and counter arrays indexed by document, reused between searches so a search allocates almost nothing.
+     * Only the touched entries are cleared afterwards.
+     */
+    private static final class Scratch {
+
+        float[] score = new float[0];
+        short[] shared = new short[0];
+        int[] touched = new int[256];
+        int touchedCount;
+        // The touched documents still able to match, once the remaining lists are only probed
+        int[] candidates = new int[256];
+        int candidateCount;
+        boolean probing;
+        boolean sorted;
+
+        void ensureCapacity(int docs) {
+            if (score.length < docs) {
+                int capacity = docs + (docs >> 3);
+                score = new float[capacity];
+                shared = new short[capacity];
+            }
+        }
+
+        void add(int doc, float points) {
+            if (shared[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            score[doc] += points;
+            shared[doc]++;
+        }
+
+        void keepCandidates(int minShared) {
+            if (!probing) {
+                if (candidates.length < touchedCount) {
+                    candidates = new int[touched.length];
+                }
+                System.arraycopy(touched, 0, candidates, 0, touchedCount);
+                candidateCount = touchedCount;
+                probing = true;
+            }
+            int kept = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                if (shared[candidates[c]] >= minShared) {
+                    candidates[kept++] = candidates[c];
+                }
+            }
+            candidateCount = kept;
+        }
+
+        void sortCandidates() {
+            if (!sorted) {
+                Arrays.sort(candidates, 0, candidateCount);
+                sorted = true;
+            }
+        }
+
+        void reset() {
+            probing = false;
+            sorted = false;
+            candidateCount = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                score[touched[t]] = 0f;
+                shared[touched[t]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    /**
+     * Keeps the k best (score, doc) pairs in a min-heap of primitives; ties go to the older document.
+     */
+    private static final class TopDocs {
+
+        final int[] docs;
+        final float[] scores;
+        int size;
+
+        TopDocs(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        void offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(score, doc, scores[0], docs[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] sortedDocs() {
+            int[] sorted = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sorted[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return sorted;
+        }
+
+        private static boolean better(float score, int doc, float otherScore, int otherDoc) {
+            return score > otherScore || (score == otherScore && doc < otherDoc);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(scores[parent], docs[parent], scores[i], docs[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && better(scores[worst], docs[worst], scores[left], docs[left])) {
+                    worst = left;
+                }
+                if (right < size && better(scores[worst], docs[worst], scores[right], docs[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
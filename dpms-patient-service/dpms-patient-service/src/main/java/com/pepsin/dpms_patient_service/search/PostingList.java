@@ -0,0 +1,88 @@
+package com.pepsin.dpms_patient_service.search;
+
+import java.util.Arrays;
+
+/**
+ * The patients whose text contains one trigram: a growable array of entries (docId << 2 | field),
+ * always sorted, because documents are numbered in the order they are added.
+ * Not thread-safe: PatientSearchIndex guards it with its lock.
+ */
+final class PostingList {
+
+    private int[] entries;
+    private int size;
+
+    PostingList(int capacity) {
+        entries = new int[Math.max(capacity, 4)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        return entries[i];
+    }
+
+    void add(int entry) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size + (size >> 1) + 1);
+        }
+        entries[size++] = entry;
+    }
+
+    void addAll(PostingList other) {
+        if (size + other.size > entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(size + other.size, size + (size >> 1) + 1));
+        }
+        System.arraycopy(other.entries, 0, entries, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Index of the first entry for this document or a later one, searching forward from 'from'.
+     * Gallops (1, 2, 4, ... entries ahead) before the binary search, so walking a sorted run of documents
+     * through a long list costs about log(gap) per document rather than log(size).
+     */
+    int firstAtOrAfter(int docId, int from) {
+        int target = docId << 2;
+        int low = from;
+        int step = 1;
+        while (low + step < size && entries[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        int high = Math.min(size, low + step);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Drops entries of removed documents and renumbers the rest; newIds[old] is -1 for removed ones.
+     * Renumbering keeps the order, so the list stays sorted.
+     */
+    void compact(int[] newIds) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int newId = newIds[entries[i] >>> 2];
+            if (newId >= 0) {
+                entries[kept++] = newId << 2 | (entries[i] & 3);
+            }
+        }
+        size = kept;
+        if (entries.length > kept * 2 + 4) {
+            entries = Arrays.copyOf(entries, kept);
+        }
+    }
+
+    long footprintBytes() {
+        return (long) entries.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,78 @@
+package com.pepsin.dpms_patient_service.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Cuts text into trigrams (every run of three characters) the way the search index stores and queries it.
+ *
+ * Text is lower-cased and accents are dropped ("Zoë" and "zoe" are the same), then split into words.
+ * Each word is padded with two spaces in front and one behind, so "ann" gives "  a", " an", "ann", "nn ".
+ * The padding makes the start of a word count extra, which is where misspellings are rarest.
+ * A trigram is packed into a long: three 16-bit chars.
+ */
+final class Trigrams {
+
+    private static final long[] NONE = new long[0];
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private Trigrams() {
+    }
+
+    /**
+     * The distinct trigrams of the text, sorted.
+     */
+    static long[] of(String text) {
+        if (text == null || text.isBlank()) {
+            return NONE;
+        }
+        String folded = fold(text);
+        int length = folded.length();
+        long[] keys = new long[length * 2 + 2];
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(folded.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(folded.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                char a = ' ';
+                char b = ' ';
+                for (int k = start; k <= i; k++) {
+                    char c = k < i ? folded.charAt(k) : ' ';
+                    keys[count++] = key(a, b, c);
+                    a = b;
+                    b = c;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int k = 0; k < count; k++) {
+            if (distinct == 0 || keys[k] != keys[distinct - 1]) {
+                keys[distinct++] = keys[k];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static long key(char a, char b, char c) {
+        return (long) a << 32 | (long) b << 16 | c;
+    }
+
+    private static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 127) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,125 @@
+package com.pepsin.dpms_patient_service.search;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing hash map from a UUID (kept as two longs) to an int slot number.
+ * No boxing and no entry objects, so looking a doctor up allocates nothing.
+ * Not thread-safe: PatientSearchIndex guards it with its lock.
+ */
+final class UuidSlotMap {
+
+    static final int MISSING = -1;
+
+    private long[] high;
+    private long[] low;
+    private int[] slots;
+    private int mask;
+    private int count;
+
+    UuidSlotMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1);
+    }
+
+    int size() {
+        return count;
+    }
+
+    int get(long idHigh, long idLow) {
+        int i = indexFor(idHigh, idLow);
+        while (slots[i] != MISSING) {
+            if (high[i] == idHigh && low[i] == idLow) {
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void put(long idHigh, long idLow, int slot) {
+        if ((count + 1) * 2 > slots.length) {
+            grow();
+        }
+        int i = indexFor(idHigh, idLow);
+        while (slots[i] != MISSING) {
+            if (high[i] == idHigh && low[i] == idLow) {
+                slots[i] = slot;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        high[i] = idHigh;
+        low[i] = idLow;
+        slots[i] = slot;
+        count++;
+    }
+
+    /**
+     * Removes a key using backward-shift deletion, so the table never fills up with "deleted" markers.
+     */
+    void remove(long idHigh, long idLow) {
+        int i = indexFor(idHigh, idLow);
+        while (slots[i] != MISSING && !(high[i] == idHigh && low[i] == idLow)) {
+            i = (i + 1) & mask;
+        }
+        if (slots[i] == MISSING) {
+            return;
+        }
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (slots[j] != MISSING) {
+            int home = indexFor(high[j], low[j]);
+            // Entry j may move back into the gap only if the gap lies between its home bucket and j
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                high[gap] = high[j];
+                low[gap] = low[j];
+                slots[gap] = slots[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        slots[gap] = MISSING;
+        count--;
+    }
+
+    void clear() {
+        Arrays.fill(slots, MISSING);
+        count = 0;
+    }
+
+    /**
+     * Rough heap size of the table arrays, in bytes.
+     */
+    long footprintBytes() {
+        return (long) slots.length * (Long.BYTES * 2 + Integer.BYTES);
+    }
+
+    private void grow() {
+        long[] oldHigh = high;
+        long[] oldLow = low;
+        int[] oldSlots = slots;
+        allocate(oldSlots.length * 2);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != MISSING) {
+                put(oldHigh[i], oldLow[i], oldSlots[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        high = new long[capacity];
+        low = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, MISSING);
+        mask = capacity - 1;
+        count = 0;
+    }
+
+    private int indexFor(long idHigh, long idLow) {
+        long h = idHigh ^ idLow;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
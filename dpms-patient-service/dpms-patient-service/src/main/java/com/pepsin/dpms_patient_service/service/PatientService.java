@@ -2,11 +2,20 @@ package com.pepsin.dpms_patient_service.service;
 
 
 
+import com.pepsin.dpms_patient_service.DTO.DuplicateScanDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientChangesDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientExportDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientImportDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientListPageDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientRequestDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientResponseDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientSearchPageDTO;
+import com.pepsin.dpms_patient_service.DTO.PatientStatsDTO;
 import com.pepsin.dpms_patient_service.DTO.PatientUpdateDTO;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -30,12 +39,67 @@ public interface PatientService {
      */
     PatientResponseDTO getPatientById(UUID id);
 
+    /**
+     * Retrieves one patient with only some of their fields.
+     * @param id The ID of the patient.
+     * @param fields The field names of PatientResponseDTO to include, in the order wanted.
+     * @return A map of field name to value.
+     */
+    Map<String, Object> getPatientById(UUID id, List<String> fields);
+
+    /**
+     * Retrieves a patient's summary form by email, ignoring case and surrounding spaces.
+     * @param email The email as the caller has it.
+     * @return The patient's summary form.
+     */
+    PatientResponseDTO getPatientByEmail(String email);
+
+    /**
+     * Searches patients by first name, last name, address and contact number, tolerating typos.
+     * @param query Free text, e.g. "jonh smith".
+     * @param page The page to return, starting at 0.
+     * @param size The number of results per page.
+     * @return One page of the best matching patients, best first.
+     */
+    PatientSearchPageDTO searchPatients(String query, int page, int size);
+
+    /**
+     * Retrieves a patient's summary form already written out as UTF-8 JSON.
+     * Served from the PatientJsonCache, so hot reads skip mapping and JSON writing.
+     * @param id The unique ID of the patient.
+     * @return The JSON bytes of the patient's summary form.
+     */
+    byte[] getPatientJsonById(UUID id);
+
     /**
      * Retrieves all patient summary forms.
      * @return A list of all patient summary forms.
      */
     List<PatientResponseDTO> getAllPatients();
 
+    /**
+     * Retrieves all patients with only some of their fields, for list screens.
+     * @param fields The field names of PatientResponseDTO to include, in the order wanted.
+     * @return One map of field name to value per patient.
+     */
+    List<Map<String, Object>> getAllPatients(List<String> fields);
+
+    /**
+     * Retrieves one page of patients matching a filter, in the order asked for.
+     * @param filter Conditions such as "gender==Female;dateOfBirth>=1980-01-01" (may be null).
+     * @param sort Fields to sort by such as "lastName,-dateOfBirth" (may be null).
+     * @param page The page to return, starting at 0.
+     * @param size The number of patients per page.
+     * @return The "Filtered List" form.
+     */
+    PatientListPageDTO listPatients(String filter, String sort, int page, int size);
+
+    /**
+     * Counts patients by gender and by age band, from counters kept in memory.
+     * @return The "Head Count" form for dashboards.
+     */
+    PatientStatsDTO getPatientStats();
+
     /**
      * Updates an existing patient's information.
      * @param id The unique ID of the patient to update.
@@ -49,4 +113,51 @@ public interface PatientService {
      * @param id The unique ID of the patient to delete.
      */
     void deletePatient(UUID id);
+
+    /**
+     * Retrieves the patients added, updated or deleted since a sync cursor, oldest first.
+     * @param since Only changes after this moment (null means "from the beginning").
+     * @param afterId Tie-breaker for changes at exactly 'since' (the nextAfterId of the previous page).
+     * @param limit The maximum number of changes to return.
+     * @return The page of changes and the cursor for the next page.
+     */
+    PatientChangesDTO getChangesSince(Instant since, UUID afterId, int limit);
+
+    /**
+     * Starts a scan for record cards that probably belong to the same person, unless one is running already.
+     * @return Where the scan stands right now.
+     */
+    DuplicateScanDTO startDuplicateScan();
+
+    /**
+     * Tells how the latest duplicate scan is going, or what it found.
+     * @return The latest scan's status and best candidates.
+     */
+    DuplicateScanDTO getDuplicateScan();
+
+    /**
+     * Starts (or resumes) importing patients from a CSV file in the import directory, unless an import is running.
+     * @param fileName The file's name inside the import directory.
+     * @return Where the import stands right now.
+     */
+    PatientImportDTO startImport(String fileName);
+
+    /**
+     * Tells how the latest import is going, or how it ended.
+     * @return The latest import's progress form.
+     */
+    PatientImportDTO getImport();
+
+    /**
+     * Starts writing the patient list to a columnar file for the analytics team, unless an export is running.
+     * @param incremental Only the patients changed and deleted since the last finished export.
+     * @return Where the export stands right now.
+     */
+    PatientExportDTO startExport(boolean incremental);
+
+    /**
+     * Tells how the latest export is going, or how it ended.
+     * @return The latest export's progress form.
+     */
+    PatientExportDTO getExport();
 }
@@ -0,0 +1,9 @@
+package com.pepsin.dpms_patient_service.stats;
+
+import java.time.LocalDate;
+
+/**
+ * How many patients share one gender and one date of birth; a row of the query that rebuilds PatientStatistics.
+ */
+public record PatientCount(String gender, LocalDate dateOfBirth, long patients) {
+}
@@ -0,0 +1,251 @@
+package com.pepsin.dpms_patient_service.stats;
+
+import com.pepsin.dpms_patient_service.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * This is the "Head Count" board on the wall of the records office: how many patients there are,
+ * by gender and by age band, so dashboards don't have to download every patient and count themselves.
+ *
+ * It keeps one LongAdder per gender and one per date of birth, so a create, update or delete only bumps
+ * a couple of counters, and many requests can bump them at once without waiting for each other.
+ * Age bands are worked out when asked, from the dates of birth, so everybody moves to the next band on their
+ * birthday without anything being updated. The cost depends on the number of distinct birthdays (a few tens
+ * of thousands at most), not on the number of patients.
+ *
+ * The counters are filled from one group-by query when the service starts and rebuilt every rebuild-interval,
+ * because they only see the writes of this instance: patients added through another replica show up after the next rebuild.
+ * A write that lands just as a rebuild reads the table may be counted twice until the rebuild after.
+ */
+@Component
+public class PatientStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientStatistics.class);
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final Supplier<List<PatientCount>> countAll;
+    private final int[] ageBandStarts;
+    private final String[] ageBandNames;
+    private final Clock clock;
+    // Writers share the read lock; only swapping in a rebuilt set of counters takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Counters live = new Counters();
+    // Writes made while a rebuild is reading the table, added to the rebuilt counters. Guarded by lock.
+    private Counters duringRebuild;
+    private volatile Instant lastRebuiltAt;
+
+    /**
+     * What the board shows at one moment.
+     *
+     * @param lastRebuiltAt When the counters were last filled from the database; null until the first time.
+     */
+    public record Snapshot(long total, Map<String, Long> byGender, Map<String, Long> byAgeBand, Instant lastRebuiltAt) {
+    }
+
+    @Autowired
+    public PatientStatistics(PatientRepository patientRepository,
+                             @Value("${patient.stats.age-bands:0,18,35,50,65}") int[] ageBandStarts) {
+        this(patientRepository::countByGenderAndDateOfBirth, ageBandStarts, Clock.systemDefaultZone());
+    }
+
+    PatientStatistics(Supplier<List<PatientCount>> countAll, int[] ageBandStarts, Clock clock) {
+        if (ageBandStarts.length == 0 || ageBandStarts[0] != 0) {
+            throw new IllegalArgumentException("patient.stats.age-bands must start at 0");
+        }
+        for (int i = 1; i < ageBandStarts.length; i++) {
+            if (ageBandStarts[i] <= ageBandStarts[i - 1]) {
+                throw new IllegalArgumentException("patient.stats.age-bands must be increasing");
+            }
+        }
+        this.countAll = countAll;
+        this.ageBandStarts = ageBandStarts.clone();
+        this.ageBandNames = new String[ageBandStarts.length];
+        for (int i = 0; i < ageBandStarts.length; i++) {
+            ageBandNames[i] = i + 1 < ageBandStarts.length
+                    ? ageBandStarts[i] + "-" + (ageBandStarts[i + 1] - 1)
+                    : ageBandStarts[i] + "+";
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Counts a newly saved patient. Like the other two below, inside a transaction this happens after the commit,
+     * so a rolled-back or losing write never moves the counters.
+     */
+    public void added(String gender, LocalDate dateOfBirth) {
+        record(gender, dateOfBirth, 1);
+    }
+
+    /**
+     * Moves an updated patient from their old counters to their new ones.
+     */
+    public void changed(String oldGender, LocalDate oldDateOfBirth, String newGender, LocalDate newDateOfBirth) {
+        if (genderKey(oldGender).equals(genderKey(newGender)) && Objects.equals(oldDateOfBirth, newDateOfBirth)) {
+            return;
+        }
+        record(oldGender, oldDateOfBirth, -1);
+        record(newGender, newDateOfBirth, 1);
+    }
+
+    /**
+     * Stops counting a deleted patient.
+     */
+    public void removed(String gender, LocalDate dateOfBirth) {
+        record(gender, dateOfBirth, -1);
+    }
+
+    private void record(String gender, LocalDate dateOfBirth, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(gender, dateOfBirth, delta);
+                }
+            });
+        } else {
+            apply(gender, dateOfBirth, delta);
+        }
+    }
+
+    private void apply(String gender, LocalDate dateOfBirth, long delta) {
+        lock.readLock().lock();
+        try {
+            live.add(genderKey(gender), dateOfBirth, delta);
+            Counters pending = duringRebuild;
+            if (pending != null) {
+                pending.add(genderKey(gender), dateOfBirth, delta);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the board. Nothing here touches the database.
+     */
+    public Snapshot snapshot() {
+        Counters counters = live;
+        Map<String, Long> byGender = new TreeMap<>();
+        counters.byGender.forEach((gender, count) -> {
+            long sum = count.sum();
+            if (sum != 0) {
+                byGender.put(gender, sum);
+            }
+        });
+
+        // Someone born on or before cutoffs[i] is at least ageBandStarts[i] years old today
+        LocalDate today = LocalDate.now(clock);
+        LocalDate[] cutoffs = new LocalDate[ageBandStarts.length];
+        for (int i = 0; i < ageBandStarts.length; i++) {
+            cutoffs[i] = today.minusYears(ageBandStarts[i]);
+        }
+        long[] bands = new long[ageBandStarts.length];
+        counters.byDateOfBirth.forEach((dateOfBirth, count) -> {
+            int band = 0;
+            while (band + 1 < cutoffs.length && !dateOfBirth.isAfter(cutoffs[band + 1])) {
+                band++;
+            }
+            bands[band] += count.sum();
+        });
+        Map<String, Long> byAgeBand = new LinkedHashMap<>();
+        for (int i = 0; i < bands.length; i++) {
+            byAgeBand.put(ageBandNames[i], bands[i]);
+        }
+        byAgeBand.put(UNKNOWN, counters.unknownDateOfBirth.sum());
+        return new Snapshot(counters.total.sum(), byGender, byAgeBand, lastRebuiltAt);
+    }
+
+    /**
+     * Refills the counters from the database: right after startup, then every patient.stats.rebuild-interval.
+     * Writes made while the query runs are counted again on top of its result, so none are lost.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${patient.stats.rebuild-interval:PT15M}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            duringRebuild = new Counters();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Counters rebuilt = new Counters();
+        try {
+            for (PatientCount count : countAll.get()) {
+                rebuilt.add(genderKey(count.gender()), count.dateOfBirth(), count.patients());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            rebuilt.addAll(duringRebuild);
+            live = rebuilt;
+            duringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuiltAt = Instant.now(clock);
+        log.info("Patient statistics rebuilt: {} patients, {} distinct dates of birth",
+                rebuilt.total.sum(), rebuilt.byDateOfBirth.size());
+    }
+
+    /**
+     * Genders are counted trimmed and in upper case, so "female", "Female " and "FEMALE" are one bar on the chart.
+     */
+    static String genderKey(String gender) {
+        return gender == null || gender.isBlank() ? UNKNOWN : gender.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Counters {
+
+        final ConcurrentHashMap<String, LongAdder> byGender = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<LocalDate, LongAdder> byDateOfBirth = new ConcurrentHashMap<>();
+        final LongAdder unknownDateOfBirth = new LongAdder();
+        final LongAdder total = new LongAdder();
+
+        void add(String genderKey, LocalDate dateOfBirth, long delta) {
+            byGender.computeIfAbsent(genderKey, key -> new LongAdder()).add(delta);
+            if (dateOfBirth == null) {
+                unknownDateOfBirth.add(delta);
+            } else {
+                byDateOfBirth.computeIfAbsent(dateOfBirth, key -> new LongAdder()).add(delta);
+            }
+            total.add(delta);
+        }
+
+        void addAll(Counters other) {
+            other.byGender.forEach((gender, count) ->
+                    byGender.computeIfAbsent(gender, key -> new LongAdder()).add(count.sum()));
+            other.byDateOfBirth.forEach((dateOfBirth, count) ->
+                    byDateOfBirth.computeIfAbsent(dateOfBirth, key -> new LongAdder()).add(count.sum()));
+            unknownDateOfBirth.add(other.unknownDateOfBirth.sum());
+            total.add(other.total.sum());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+
+import static com.pepsin.dpms_patient_service.DTO.PatientPayloadFormatTests.JSON;
+import static com.pepsin.dpms_patient_service.DTO.PatientPayloadFormatTests.SMILE;
+
+/**
+ * Size and rough encode/decode timings of a bulk GET /api/patients payload in JSON and in Smile.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=PatientPayloadFormatBenchmark -Dbenchmark.payload=true
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.payload", matches = "true")
+class PatientPayloadFormatBenchmark {
+
+	private static final int PATIENTS = Integer.getInteger("benchmark.patients", 10_000);
+	private static final int ROUNDS = 20;
+
+	@Test
+	void compareJsonAndSmile() throws Exception {
+		List<PatientResponseDTO> patients = PatientPayloadFormatTests.samplePatients(PATIENTS);
+		byte[] jsonBytes = JSON.writeValueAsBytes(patients);
+		byte[] smileBytes = SMILE.writeValueAsBytes(patients);
+
+		System.out.printf("%d patients: json=%d bytes, smile=%d bytes (%.0f%%)%n",
+				PATIENTS, jsonBytes.length, smileBytes.length, 100.0 * smileBytes.length / jsonBytes.length);
+		System.out.printf("json:  encode %d us, decode %d us%n", encodeMicros(JSON, patients), decodeMicros(JSON, jsonBytes));
+		System.out.printf("smile: encode %d us, decode %d us%n", encodeMicros(SMILE, patients), decodeMicros(SMILE, smileBytes));
+	}
+
+	private static long encodeMicros(ObjectMapper mapper, List<PatientResponseDTO> patients) throws Exception {
+		for (int i = 0; i < ROUNDS; i++) {
+			mapper.writeValueAsBytes(patients); // warm-up
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			mapper.writeValueAsBytes(patients);
+		}
+		return (System.nanoTime() - start) / ROUNDS / 1_000;
+	}
+
+	private static long decodeMicros(ObjectMapper mapper, byte[] payload) throws Exception {
+		TypeReference<List<PatientResponseDTO>> type = new TypeReference<>() {};
+		for (int i = 0; i < ROUNDS; i++) {
+			mapper.readValue(payload, type); // warm-up
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			mapper.readValue(payload, type);
+		}
+		return (System.nanoTime() - start) / ROUNDS / 1_000;
+	}
+}
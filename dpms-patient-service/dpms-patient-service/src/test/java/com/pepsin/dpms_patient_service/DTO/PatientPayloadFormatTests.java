@@ -0,0 +1,60 @@
+package com.pepsin.dpms_patient_service.DTO;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the JSON and Smile encodings of a bulk GET /api/patients payload: Smile must round-trip
+ * and be smaller on the wire. Timings are in {@link PatientPayloadFormatBenchmark}.
+ */
+class PatientPayloadFormatTests {
+
+	static final ObjectMapper JSON = new ObjectMapper()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	static final ObjectMapper SMILE = SmileMapper.builder().build()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@Test
+	void smileIsSmallerAndRoundTrips() throws Exception {
+		List<PatientResponseDTO> patients = samplePatients(1_000);
+
+		byte[] jsonBytes = JSON.writeValueAsBytes(patients);
+		byte[] smileBytes = SMILE.writeValueAsBytes(patients);
+		List<PatientResponseDTO> decoded = SMILE.readValue(smileBytes, new TypeReference<>() {});
+
+		assertEquals(patients.size(), decoded.size());
+		assertEquals(patients.get(42).getEmail(), decoded.get(42).getEmail());
+		assertEquals(patients.get(42).getDateOfBirth(), decoded.get(42).getDateOfBirth());
+		assertEquals(patients.get(42).getLastModified(), decoded.get(42).getLastModified());
+		assertTrue(smileBytes.length < jsonBytes.length);
+	}
+
+	static List<PatientResponseDTO> samplePatients(int count) {
+		String[] genders = {"Female", "Male"};
+		List<PatientResponseDTO> patients = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			PatientResponseDTO dto = new PatientResponseDTO(UUID.randomUUID(), "First" + i, "Last" + (i % 500),
+					LocalDate.of(1950 + i % 60, 1 + i % 12, 1 + i % 28), genders[i % 2],
+					String.format("0%09d", i), "patient" + i + "@example.com", i % 100 + " Hospital Road");
+			dto.setVersion(i % 3);
+			dto.setLastModified(Instant.parse("2025-01-01T00:00:00Z").plusSeconds(i));
+			patients.add(dto);
+		}
+		return patients;
+	}
+}
@@ -0,0 +1,43 @@
+package com.pepsin.dpms_patient_service.bulkimport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rows and megabytes per second through the CSV importer with every core parsing. The rows go to the
+ * in-memory table from {@link PatientCsvImporterTests}, so this measures reading and validation, not the database.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=PatientCsvImporterBenchmark -Dbenchmark.import=true -Dbenchmark.rows=200000
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.import", matches = "true")
+class PatientCsvImporterBenchmark {
+
+	private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+	@Test
+	void importALargeFile() throws IOException {
+		Path dir = Files.createTempDirectory("import");
+		Path file = dir.resolve("huge.csv");
+		PatientCsvImporterTests.writePatients(file, ROWS);
+		PatientCsvImporter importer = new PatientCsvImporter(PatientCsvImporterTests.VALIDATOR,
+				new PatientCsvImporterTests.FakeTable(), p -> {
+		}, new PatientCsvImporter.Settings(dir, 4 * 1024 * 1024, Runtime.getRuntime().availableProcessors(), 4, 16));
+
+		long started = System.nanoTime();
+		PatientImport result = importer.run(file);
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		assertEquals(ROWS, result.imported());
+		System.out.printf("Imported %d rows (%.1f MB) in %.2f s: %.0f rows/s, %.1f MB/s (validation only, no database)%n",
+				ROWS, result.totalBytes() / 1e6, seconds, ROWS / seconds, result.totalBytes() / 1e6 / seconds);
+	}
+}
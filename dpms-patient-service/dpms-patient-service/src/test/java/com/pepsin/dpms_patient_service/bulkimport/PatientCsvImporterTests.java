@@ -0,0 +1,147 @@
+package com.pepsin.dpms_patient_service.bulkimport;
+
+import com.pepsin.dpms_patient_service.model.Patient;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientCsvImporterTests {
+
+	static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+	/**
+	 * Stands in for the database: refuses a whole batch if any email in it is already used.
+	 */
+	static final class FakeTable implements Consumer<List<Patient>> {
+
+		final Set<String> emails = new HashSet<>();
+		final List<Patient> rows = new ArrayList<>();
+
+		@Override
+		public synchronized void accept(List<Patient> patients) {
+			Set<String> batch = new HashSet<>();
+			for (Patient patient : patients) {
+				if (emails.contains(patient.getEmail()) || !batch.add(patient.getEmail())) {
+					throw new DataIntegrityViolationException("Duplicate entry " + patient.getEmail(),
+							new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"),
+									"patients.uk_patients_normalized_email"));
+				}
+			}
+			for (Patient patient : patients) {
+				patient.setId(UUID.randomUUID());
+			}
+			emails.addAll(batch);
+			rows.addAll(patients);
+		}
+	}
+
+	@Test
+	void importsValidRowsAndRejectsTheRest() throws IOException {
+		Path dir = Files.createTempDirectory("import");
+		Files.writeString(dir.resolve("legacy.csv"), """
+				first_name,last_name,date_of_birth,gender,contact_number,email,address\r
+				Ama,Mensah,1990-01-02,F,0244123456,ama@example.org,"12 Ring Road, Accra"\r
+				Kofi,"Boa""teng",1985-05-06,M,0201234567,kofi@example.org,"Line one
+				line two"\r
+				X,Owusu,1970-01-01,M,0201234567,x@example.org,Kumasi\r
+				Yaw,Darko,not-a-date,M,0201234567,yaw@example.org,Tema\r
+				Ama,Mensah,1990-01-02,F,0244123456,ama@example.org,Duplicate of the first row\r
+				""", StandardCharsets.UTF_8);
+		FakeTable table = new FakeTable();
+		PatientCsvImporter importer = new PatientCsvImporter(VALIDATOR, table, patient -> {
+		}, new PatientCsvImporter.Settings(dir, 1024, 2, 2, 4));
+
+		PatientImport result = importer.run(dir.resolve("legacy.csv"));
+
+		assertEquals("FINISHED", result.status());
+		assertEquals(2, result.imported());
+		assertEquals(3, result.rejected());
+		assertEquals(result.totalBytes(), result.bytesDone());
+		assertEquals("Boa\"teng", table.rows.stream().filter(p -> p.getFirstName().equals("Kofi")).findFirst()
+				.orElseThrow().getLastName());
+		List<String> rejects = Files.readAllLines(Path.of(result.rejectFile()));
+		String all = String.join("\n", rejects);
+		assertTrue(all.contains("firstName: First name must be between 2 and 50 characters"), all);
+		assertTrue(all.contains("dateOfBirth: must be a date"), all);
+		assertTrue(all.contains("email: already used"), all);
+	}
+
+	@Test
+	void resumesFromTheCheckpointAfterACrash() throws IOException {
+		Path dir = Files.createTempDirectory("import");
+		Path file = dir.resolve("big.csv");
+		int rows = 20_000;
+		writePatients(file, rows);
+		FakeTable table = new FakeTable();
+		AtomicInteger batches = new AtomicInteger();
+		Consumer<List<Patient>> crashingTable = patients -> {
+			if (batches.incrementAndGet() == 10) {
+				throw new IllegalStateException("Connection lost");
+			}
+			table.accept(patients);
+		};
+		PatientCsvImporter.Settings settings = new PatientCsvImporter.Settings(dir, 64 * 1024, 4, 2, 4);
+
+		assertThrows(IllegalStateException.class, () -> new PatientCsvImporter(VALIDATOR, crashingTable, p -> {
+		}, settings).run(file));
+		assertTrue(table.rows.size() < rows);
+
+		PatientImport resumed = new PatientCsvImporter(VALIDATOR, table, p -> {
+		}, settings).run(file);
+
+		assertEquals("FINISHED", resumed.status());
+		assertEquals(rows, table.rows.size());
+		assertEquals(rows, resumed.imported());
+		assertEquals(0, resumed.rejected());
+	}
+
+	@Test
+	void importsEveryRowOfAFileSplitAcrossManyChunks() throws IOException {
+		int rows = 20_000;
+		Path dir = Files.createTempDirectory("import");
+		Path file = dir.resolve("many-chunks.csv");
+		writePatients(file, rows);
+		FakeTable table = new FakeTable();
+		// About 30 chunks of 64 KB, parsed and written in parallel
+		PatientCsvImporter importer = new PatientCsvImporter(VALIDATOR, table, p -> {
+		}, new PatientCsvImporter.Settings(dir, 64 * 1024, 4, 4, 16));
+
+		PatientImport result = importer.run(file);
+
+		assertEquals("FINISHED", result.status());
+		assertEquals(rows, result.imported());
+		assertEquals(0, result.rejected());
+		assertEquals(rows, table.rows.size());
+		assertEquals(rows, table.emails.size());
+	}
+
+	static void writePatients(Path file, int rows) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			out.write("firstName,lastName,dateOfBirth,gender,contactNumber,email,address\n");
+			for (int i = 0; i < rows; i++) {
+				out.write("Patient" + i + ",Surname" + (i % 997) + ",19" + (10 + i % 90) + "-0" + (1 + i % 9) + "-1" + (i % 9)
+						+ ",F,02" + (10_000_000 + i) + ",patient" + i + "@example.org,\"" + i + " Ring Road, Accra\"\n");
+			}
+		}
+	}
+}
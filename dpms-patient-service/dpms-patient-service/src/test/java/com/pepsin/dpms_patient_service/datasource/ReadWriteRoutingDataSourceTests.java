@@ -0,0 +1,146 @@
+package com.pepsin.dpms_patient_service.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica. Nothing replicates between them,
+ * so the tests copy the heartbeat row over by hand when the replica should look caught up.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+	private static final Duration MAX_LAG = Duration.ofSeconds(5);
+	private static final Duration STICKY = Duration.ofSeconds(6);
+
+	private final MutableClock clock = new MutableClock();
+	private DataSource primary;
+	private DataSource replica;
+	private ReplicaLagMonitor monitor;
+	private DataSource dataSource;
+
+	@BeforeEach
+	void setUp() {
+		primary = database("primary");
+		replica = database("replica");
+		new JdbcTemplate(replica).execute("create table replica_heartbeat (id int primary key, beat_at bigint not null)");
+		ReplicaPools pools = new ReplicaPools(primary, Map.of("replica-0", replica));
+		monitor = new ReplicaLagMonitor(pools, MAX_LAG, clock);
+		dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(pools, monitor, STICKY, clock));
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReadWriteRoutingDataSource.setClient(null);
+		new JdbcTemplate(primary).execute("shutdown");
+		new JdbcTemplate(replica).execute("shutdown");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToAnUpToDateReplica() {
+		monitor.check();
+		assertEquals("primary", whoServes(true)); // no heartbeat on the replica yet
+
+		replicateHeartbeat();
+		monitor.check();
+		assertEquals("replica", whoServes(true));
+		assertEquals("primary", whoServes(false));
+		assertEquals("primary", ReadWriteRoutingDataSource.onPrimary(() -> whoServes(true)));
+	}
+
+	@Test
+	void readsLeaveAReplicaThatFallsBehind() {
+		monitor.check();
+		replicateHeartbeat();
+		monitor.check();
+		assertEquals("replica", whoServes(true));
+
+		clock.advance(MAX_LAG.plusSeconds(1));
+		monitor.check(); // the replica never got the heartbeat written by the previous check
+		assertEquals("primary", whoServes(true));
+
+		replicateHeartbeat();
+		monitor.check();
+		assertEquals("replica", whoServes(true));
+	}
+
+	@Test
+	void aClientReadsItsOwnWritesFromThePrimary() {
+		monitor.check();
+		replicateHeartbeat();
+		monitor.check();
+
+		ReadWriteRoutingDataSource.setClient("id:ward-app");
+		assertEquals("primary", whoServes(false));
+		assertEquals("primary", whoServes(true));
+
+		ReadWriteRoutingDataSource.setClient("id:front-desk");
+		assertEquals("replica", whoServes(true));
+
+		clock.advance(STICKY);
+		ReadWriteRoutingDataSource.setClient("id:ward-app");
+		assertEquals("replica", whoServes(true));
+	}
+
+	private String whoServes(boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status ->
+				new JdbcTemplate(dataSource).queryForObject("select name from whoami", String.class));
+	}
+
+	private void replicateHeartbeat() {
+		Long beat = new JdbcTemplate(primary).queryForObject("select beat_at from replica_heartbeat where id = 1", Long.class);
+		JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+		replicaJdbc.update("delete from replica_heartbeat");
+		replicaJdbc.update("insert into replica_heartbeat (id, beat_at) values (1, ?)", beat);
+	}
+
+	private static DataSource database(String name) {
+		DataSource database = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(database);
+		jdbc.execute("create table whoami (name varchar(20))");
+		jdbc.update("insert into whoami values (?)", name);
+		return database;
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.parse("2025-06-15T10:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
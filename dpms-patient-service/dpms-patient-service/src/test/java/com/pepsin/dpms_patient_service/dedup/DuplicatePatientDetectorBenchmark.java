@@ -0,0 +1,38 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * How long a full duplicate scan of a large random register takes, with one patient in a hundred
+ * registered twice (see {@link DuplicatePatientDetectorTests}), and how many pairs it has to score.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=DuplicatePatientDetectorBenchmark -Dbenchmark.dedup=true -Dbenchmark.patients=200000
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.dedup", matches = "true")
+class DuplicatePatientDetectorBenchmark {
+
+	private static final int PATIENTS = Integer.getInteger("benchmark.patients", 200_000);
+
+	@Test
+	void scanALargeRegister() throws IOException {
+		List<DuplicateCheckFields> patients = DuplicatePatientDetectorTests.registerWithDuplicates(new Random(42), PATIENTS);
+		DuplicatePatientDetector detector = new DuplicatePatientDetector(sink -> patients.forEach(sink),
+				patients::size, new DuplicatePatientDetector.Settings(0.8, PATIENTS / 2, 1_000, 50, 100_000,
+				Files.createTempDirectory("dedup"), Runtime.getRuntime().availableProcessors()));
+
+		long started = System.nanoTime();
+		DuplicateScan scan = detector.scan();
+		long millis = (System.nanoTime() - started) / 1_000_000;
+		System.out.printf("Duplicate scan of %d patients: %d pairs scored, %d candidates in %d ms%n",
+				scan.patientsScanned(), scan.pairsScored(), scan.candidatesFound(), millis);
+	}
+}
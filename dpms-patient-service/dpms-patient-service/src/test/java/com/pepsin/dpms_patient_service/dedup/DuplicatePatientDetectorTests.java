@@ -0,0 +1,109 @@
+package com.pepsin.dpms_patient_service.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicatePatientDetectorTests {
+
+	private static final String[] SYLLABLES = {"ka", "wa", "me", "ko", "fi", "a", "ma", "yaw", "so", "ne", "du", "ba",
+			"te", "ri", "lo", "go", "sa", "pe", "nu", "ja", "mi", "to", "bo", "de", "el", "an", "ro", "li", "va", "zu"};
+
+	@Test
+	void scoresTheSamePersonHighAndFamilyLow() {
+		PatientRow john = row("John", "Smith", LocalDate.of(1980, 3, 4), "+233 24 412 3456");
+		PatientRow typo = row("Jonh", "Smyth", LocalDate.of(1980, 3, 4), null);
+		PatientRow swapped = row("Smith", "John", LocalDate.of(1980, 4, 3), "0244123456");
+		PatientRow sister = row("Ama", "Smith", LocalDate.of(1984, 9, 1), "024-412-3456");
+
+		assertEquals("S530", PatientMatching.soundex("smyth"));
+		assertEquals(PatientMatching.birthKey(john.dateOfBirth, john.lastName), typo.birthKey);
+		assertTrue(PatientMatching.score(john, typo) >= 0.8, "typo " + PatientMatching.score(john, typo));
+		assertTrue(PatientMatching.score(john, swapped) >= 0.8, "swapped " + PatientMatching.score(john, swapped));
+		assertTrue(PatientMatching.score(john, sister) < 0.8, "sister " + PatientMatching.score(john, sister));
+	}
+
+	@Test
+	void reportsDuplicatesAcrossSeveralPasses() throws IOException {
+		List<DuplicateCheckFields> patients = new ArrayList<>();
+		UUID original = UUID.randomUUID();
+		UUID copy = UUID.randomUUID();
+		patients.add(new DuplicateCheckFields(original, "Grace", "Mensah", LocalDate.of(1990, 1, 2), "0201111111"));
+		patients.add(new DuplicateCheckFields(copy, "Grace", "Menssah", LocalDate.of(1990, 1, 2), "0557777777"));
+		Random random = new Random(7);
+		for (int i = 0; i < 5_000; i++) {
+			patients.add(randomPatient(random));
+		}
+		Path reportDir = Files.createTempDirectory("dedup");
+		// A tiny memory budget forces several passes over the patients
+		DuplicatePatientDetector detector = new DuplicatePatientDetector(sink -> patients.forEach(sink),
+				patients::size, new DuplicatePatientDetector.Settings(0.8, 1_000, 1_000, 50, 1_000, reportDir, 4));
+
+		DuplicateScan scan = detector.scan();
+
+		assertEquals("FINISHED", scan.status());
+		assertEquals(patients.size(), scan.patientsScanned());
+		assertTrue(scan.topCandidates().stream().anyMatch(candidate ->
+				candidate.firstId().equals(original.compareTo(copy) < 0 ? original : copy)
+						&& candidate.secondId().equals(original.compareTo(copy) < 0 ? copy : original)));
+		List<String> report = Files.readAllLines(Path.of(scan.reportFile()));
+		assertEquals(scan.candidatesFound() + 1, report.size());
+	}
+
+	@Test
+	void findsThePlantedDuplicatesInARandomRegister() throws IOException {
+		int count = 20_000;
+		List<DuplicateCheckFields> patients = registerWithDuplicates(new Random(42), count);
+		DuplicatePatientDetector detector = new DuplicatePatientDetector(sink -> patients.forEach(sink),
+				patients::size, new DuplicatePatientDetector.Settings(0.8, count / 2, 1_000, 50, 100_000,
+				Files.createTempDirectory("dedup"), 4));
+
+		DuplicateScan scan = detector.scan();
+
+		assertEquals(patients.size(), scan.patientsScanned());
+		assertTrue(scan.candidatesFound() >= count / 100, "found " + scan.candidatesFound());
+	}
+
+	// One in a hundred registered twice, with a slip in the surname and a new phone
+	static List<DuplicateCheckFields> registerWithDuplicates(Random random, int count) {
+		List<DuplicateCheckFields> patients = new ArrayList<>(count + count / 100);
+		for (int i = 0; i < count; i++) {
+			DuplicateCheckFields patient = randomPatient(random);
+			patients.add(patient);
+			if (i % 100 == 0) {
+				patients.add(new DuplicateCheckFields(UUID.randomUUID(), patient.firstName(),
+						patient.lastName() + "h", patient.dateOfBirth(), "05" + random.nextInt(100_000_000)));
+			}
+		}
+		return patients;
+	}
+
+	private static PatientRow row(String firstName, String lastName, LocalDate dateOfBirth, String contactNumber) {
+		return new PatientRow(new DuplicateCheckFields(UUID.randomUUID(), firstName, lastName, dateOfBirth, contactNumber));
+	}
+
+	private static DuplicateCheckFields randomPatient(Random random) {
+		return new DuplicateCheckFields(UUID.randomUUID(), name(random), name(random),
+				LocalDate.of(1940, 1, 1).plusDays(random.nextInt(30_000)), "02" + (10_000_000 + random.nextInt(90_000_000)));
+	}
+
+	private static String name(Random random) {
+		StringBuilder name = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int s = 0; s < syllables; s++) {
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+		return name.toString();
+	}
+}
@@ -0,0 +1,30 @@
+package com.pepsin.dpms_patient_service.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateEmailExceptionTests {
+
+	@Test
+	void onlyTheEmailKeysMeanTheEmailIsTaken() {
+		assertTrue(DuplicateEmailException.isCausedBy(violation("patients.uk_patients_normalized_email")));
+		assertTrue(DuplicateEmailException.isCausedBy(violation("PUBLIC.UK_PATIENTS_NORMALIZED_EMAIL_INDEX_9")));
+		// The key Hibernate generated for the email column's unique = true
+		assertTrue(DuplicateEmailException.isCausedBy(violation("patients.UKa370hmxgv0l5c9panryr1ji7d")));
+
+		assertFalse(DuplicateEmailException.isCausedBy(violation("PRIMARY")));
+		assertFalse(DuplicateEmailException.isCausedBy(violation(null)));
+		assertFalse(DuplicateEmailException.isCausedBy(new DataIntegrityViolationException("Column 'first_name' cannot be null")));
+	}
+
+	private static DataIntegrityViolationException violation(String constraintName) {
+		return new DataIntegrityViolationException("could not execute statement",
+				new ConstraintViolationException("could not execute statement", new SQLException("refused"), constraintName));
+	}
+}
@@ -0,0 +1,24 @@
+package com.pepsin.dpms_patient_service.exception;
+
+import com.pepsin.dpms_patient_service.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GlobalExceptionHandlerTests {
+
+	@Test
+	void concurrentEditOfTheSamePatientIsAConflict() {
+		ResponseEntity<GlobalExceptionHandler.ErrorDetails> response = new GlobalExceptionHandler()
+				.handleOptimisticLockingFailureException(
+						new ObjectOptimisticLockingFailureException(Patient.class, UUID.randomUUID()));
+
+		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+		assertEquals("CONFLICT", response.getBody().details());
+	}
+}
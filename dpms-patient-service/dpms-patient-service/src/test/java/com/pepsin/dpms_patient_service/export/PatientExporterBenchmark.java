@@ -0,0 +1,74 @@
+package com.pepsin.dpms_patient_service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pepsin.dpms_patient_service.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static com.pepsin.dpms_patient_service.export.PatientExporterTests.DATABASE_ORDER;
+
+/**
+ * Time of a full export and the size of the columnar file next to the same patients as JSON and gzipped JSON.
+ * The patients come from an in-memory list, so the time is encoding and writing, not the database.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=PatientExporterBenchmark -Dbenchmark.export=true -Dbenchmark.patients=200000
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.export", matches = "true")
+class PatientExporterBenchmark {
+
+	private static final int PATIENTS = Integer.getInteger("benchmark.patients", 200_000);
+
+	@Test
+	void compareColumnarAndJson() throws IOException {
+		Path dir = Files.createTempDirectory("export");
+		Random random = new Random(7);
+		Instant start = Instant.parse("2025-01-01T00:00:00Z");
+		List<Patient> patients = new ArrayList<>(PATIENTS);
+		for (int i = 0; i < PATIENTS; i++) {
+			patients.add(PatientExporterTests.patient(random, start.plusMillis(i * 37L)));
+		}
+		// Sorted once, like the primary key index, so paging costs a binary search and not a sort per page
+		List<Patient> byId = patients.stream().sorted(Comparator.comparing(Patient::getId, DATABASE_ORDER)).toList();
+		List<UUID> ids = byId.stream().map(Patient::getId).toList();
+		PatientExporter.IdPage<Patient> allPatients = (afterId, size) -> {
+			int at = Collections.binarySearch(ids, afterId, DATABASE_ORDER);
+			int from = at >= 0 ? at + 1 : -at - 1;
+			return byId.subList(from, Math.min(byId.size(), from + size));
+		};
+		PatientExporter exporter = new PatientExporter(allPatients, (since, afterId, until, size) -> List.of(),
+				(since, afterId, until, size) -> List.of(),
+				new PatientExporter.Settings(dir, 1000, 50_000, Duration.ofSeconds(30)));
+
+		long started = System.nanoTime();
+		PatientExport result = exporter.run(false);
+		long millis = (System.nanoTime() - started) / 1_000_000;
+
+		byte[] plain = new ObjectMapper().registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsBytes(patients);
+		Path gzipped = dir.resolve("patients.json.gz");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+			out.write(plain);
+		}
+		System.out.printf("%d patients exported in %d ms: JSON %d bytes, gzipped JSON %d bytes, columnar %d bytes%n",
+				result.patientsExported(), millis, plain.length, Files.size(gzipped), Files.size(Path.of(result.file())));
+	}
+}
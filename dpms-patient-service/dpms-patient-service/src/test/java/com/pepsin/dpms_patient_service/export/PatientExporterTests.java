@@ -0,0 +1,184 @@
+package com.pepsin.dpms_patient_service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.model.PatientTombstone;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientExporterTests {
+
+	private static final String[] FIRST_NAMES = {"Ama", "Kofi", "Yaw", "Akosua", "Kwame", "Efua", "Kojo", "Abena"};
+	private static final String[] LAST_NAMES = {"Mensah", "Boateng", "Owusu", "Asante", "Darko", "Appiah", "Osei"};
+	private static final String[] CITIES = {"Accra", "Kumasi", "Tema", "Takoradi", "Cape Coast", "Tamale"};
+
+	static Patient patient(Random random, Instant lastModified) {
+		Patient patient = new Patient(UUID.randomUUID(),
+				FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+				random.nextInt(20) == 0 ? null : LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+				random.nextBoolean() ? "Female" : "Male",
+				random.nextInt(10) == 0 ? null : "024" + (1_000_000 + random.nextInt(9_000_000)),
+				null,
+				random.nextInt(200) + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " Street, "
+						+ CITIES[random.nextInt(CITIES.length)]);
+		patient.setEmail("patient" + patient.getId().toString().substring(0, 8) + "@example.org");
+		patient.setVersion(random.nextInt(3));
+		patient.setLastModified(lastModified);
+		return patient;
+	}
+
+	/**
+	 * Stands in for a repository keyset query over rows kept in (time, id) order.
+	 */
+	private static <T> PatientExporter.KeysetPage<T> keyset(List<T> rows, Function<T, Instant> time, Function<T, UUID> id) {
+		return (since, afterId, until, size) -> rows.stream()
+				.sorted(Comparator.comparing(time).thenComparing(id))
+				.filter(row -> time.apply(row).isAfter(since)
+						|| time.apply(row).equals(since) && id.apply(row).compareTo(afterId) > 0)
+				.filter(row -> !time.apply(row).isAfter(until))
+				.limit(size)
+				.toList();
+	}
+
+	// The database compares UUIDs as 16 unsigned bytes; UUID.compareTo compares signed longs
+	static final Comparator<UUID> DATABASE_ORDER = Comparator
+			.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+			.thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+	/**
+	 * Stands in for the repository keyset query over patients in id order.
+	 */
+	private static PatientExporter.IdPage<Patient> byId(List<Patient> rows) {
+		return (afterId, size) -> rows.stream()
+				.sorted(Comparator.comparing(Patient::getId, DATABASE_ORDER))
+				.filter(row -> DATABASE_ORDER.compare(row.getId(), afterId) > 0)
+				.limit(size)
+				.toList();
+	}
+
+	private static PatientExporter exporter(List<Patient> patients, List<PatientTombstone> tombstones,
+			PatientExporter.Settings settings) {
+		return new PatientExporter(byId(patients), keyset(patients, Patient::getLastModified, Patient::getId),
+				keyset(tombstones, PatientTombstone::getDeletedAt, PatientTombstone::getId), settings);
+	}
+
+	@Test
+	void fullExportReadsBackEveryValueAndIsMuchSmallerThanJson() throws IOException {
+		Path dir = Files.createTempDirectory("export");
+		Random random = new Random(7);
+		Instant start = Instant.parse("2025-01-01T00:00:00Z");
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			// Several patients share a timestamp, so paging must fall back to the id
+			patients.add(patient(random, start.plusMillis(i / 3 * 37L)));
+		}
+		// Rows saved before lastModified existed got their stamp later, in any order; a full export still holds them all
+		patients.get(123).setLastModified(start.plus(Duration.ofDays(400)));
+		PatientExporter exporter = exporter(patients, new ArrayList<>(),
+				new PatientExporter.Settings(dir, 700, 3000, Duration.ofSeconds(30)));
+
+		PatientExport result = exporter.run(false);
+
+		assertEquals("FINISHED", result.status());
+		assertEquals(20_000, result.patientsExported());
+		assertNull(result.deletedFile());
+		List<Patient> expected = patients.stream().sorted(Comparator.comparing(Patient::getId, DATABASE_ORDER)).toList();
+		try (ColumnarFileReader reader = ColumnarFileReader.open(Path.of(result.file()))) {
+			assertEquals(PatientExporter.PATIENT_COLUMNS, reader.getColumns());
+			assertEquals(20_000, reader.getRowCount());
+			assertEquals(7, reader.getRowGroupCount());
+			assertEquals("false", reader.getMetadata().get("incremental"));
+			List<Object[]> rows = new ArrayList<>();
+			reader.forEachRow(values -> rows.add(values.clone()));
+			for (int i = 0; i < expected.size(); i++) {
+				Patient p = expected.get(i);
+				assertArrayEquals(new Object[]{p.getId(), p.getFirstName(), p.getLastName(), p.getDateOfBirth(),
+						p.getGender(), p.getContactNumber(), p.getEmail(), p.getAddress(), p.getVersion(),
+						p.getLastModified()}, rows.get(i), "row " + i);
+			}
+			// One column of one row group can be read on its own
+			Object[] births = reader.readColumn(2, "date_of_birth");
+			assertEquals(expected.get(6000).getDateOfBirth(), births[0]);
+		}
+
+		ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		byte[] plain = json.writeValueAsBytes(expected);
+		Path gzipped = dir.resolve("patients.json.gz");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+			out.write(plain);
+		}
+		long columnar = Files.size(Path.of(result.file()));
+		assertTrue(columnar * 4 < plain.length, "columnar " + columnar + " vs JSON " + plain.length);
+		assertTrue(columnar < Files.size(gzipped), "columnar " + columnar + " vs gzipped JSON " + Files.size(gzipped));
+	}
+
+	@Test
+	void incrementalExportHoldsOnlyWhatChangedSinceTheWatermark() throws IOException {
+		Path dir = Files.createTempDirectory("export");
+		Random random = new Random(11);
+		Instant start = Instant.parse("2025-01-01T00:00:00Z");
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			patients.add(patient(random, start.plusSeconds(i)));
+		}
+		List<PatientTombstone> tombstones = new ArrayList<>();
+		PatientTombstone oldDeletion = new PatientTombstone(UUID.randomUUID());
+		oldDeletion.setDeletedAt(start);
+		tombstones.add(oldDeletion);
+		PatientExporter exporter = exporter(patients, tombstones,
+				new PatientExporter.Settings(dir, 100, 250, Duration.ofSeconds(30)));
+
+		// No watermark yet: the first incremental export holds everything
+		assertEquals(1000, exporter.run(true).patientsExported());
+
+		Instant later = start.plusSeconds(5000);
+		patients.get(10).setFirstName("Changed");
+		patients.get(10).setLastModified(later);
+		patients.add(patient(random, later.plusSeconds(1)));
+		PatientTombstone deletion = new PatientTombstone(patients.remove(20).getId());
+		deletion.setDeletedAt(later.plusSeconds(2));
+		tombstones.add(deletion);
+
+		PatientExport result = exporter.run(true);
+
+		assertEquals(2, result.patientsExported());
+		assertEquals(1, result.deletionsExported());
+		try (ColumnarFileReader reader = ColumnarFileReader.open(Path.of(result.file()))) {
+			assertArrayEquals(new Object[]{"Changed", patients.get(patients.size() - 1).getFirstName()},
+					reader.readColumn(0, "first_name"));
+		}
+		try (ColumnarFileReader reader = ColumnarFileReader.open(Path.of(result.deletedFile()))) {
+			assertArrayEquals(new Object[]{deletion.getId()}, reader.readColumn(0, "id"));
+		}
+
+		PatientExport nothingNew = exporter.run(true);
+		assertEquals(0, nothingNew.patientsExported());
+		assertEquals(0, nothingNew.deletionsExported());
+
+		// Saved a moment ago: it may still be committing, so it waits for a later export instead of being skipped
+		patients.add(patient(random, Instant.now()));
+		assertEquals(0, exporter.run(true).patientsExported());
+	}
+}
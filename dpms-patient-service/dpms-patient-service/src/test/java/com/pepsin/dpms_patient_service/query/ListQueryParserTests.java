@@ -0,0 +1,46 @@
+package com.pepsin.dpms_patient_service.query;
+
+import com.pepsin.dpms_patient_service.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ListQueryParserTests {
+
+	private final ListQueryParser<Object> parser = new ListQueryParser<>(
+			Map.of("lastName", String.class, "dateOfBirth", LocalDate.class, "lastModified", Instant.class),
+			List.of("lastName", "dateOfBirth"));
+
+	@Test
+	void sortEndsWithIdInTheDirectionOfTheLastKey() {
+		assertEquals(Sort.by(Sort.Order.asc("lastName"), Sort.Order.desc("dateOfBirth"), Sort.Order.desc("id")),
+				parser.parseSort("lastName, -dateOfBirth"));
+		assertEquals(Sort.by(Sort.Order.asc("id")), parser.parseSort(null));
+	}
+
+	@Test
+	void acceptsEveryOperatorOnKnownFields() {
+		assertNotNull(parser.parseFilter("lastName==Men*;lastName!=Smith;dateOfBirth>=1980-01-01;"
+				+ "dateOfBirth<2000-01-01;lastModified>2025-01-01T00:00:00Z"));
+		assertNotNull(parser.parseFilter(" "));
+	}
+
+	@Test
+	void rejectsWhatCannotBeAnsweredFromAnIndex() {
+		assertThrows(InvalidRequestException.class, () -> parser.parseFilter("address==Main Street"));
+		assertThrows(InvalidRequestException.class, () -> parser.parseFilter("dateOfBirth>=yesterday"));
+		assertThrows(InvalidRequestException.class, () -> parser.parseFilter("lastName~Smith"));
+		assertThrows(InvalidRequestException.class, () -> parser.parseFilter("lastName!=Sm*"));
+		assertThrows(InvalidRequestException.class, () -> parser.parseFilter("lastName==*"));
+		assertThrows(InvalidRequestException.class, () -> parser.parseSort("lastModified"));
+		assertThrows(InvalidRequestException.class, () -> parser.parseSort("lastName,-lastName"));
+	}
+}
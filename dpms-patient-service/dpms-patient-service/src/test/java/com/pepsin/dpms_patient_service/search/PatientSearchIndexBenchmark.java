@@ -0,0 +1,51 @@
+package com.pepsin.dpms_patient_service.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.pepsin.dpms_patient_service.search.PatientSearchIndexTests.queries;
+import static com.pepsin.dpms_patient_service.search.PatientSearchIndexTests.randomRegister;
+
+/**
+ * Build time and search latency (p50/p99) of the fuzzy patient search over a large random register,
+ * with the same typo, address and phone queries as {@link PatientSearchIndexTests}.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=PatientSearchIndexBenchmark -Dbenchmark.search=true -Dbenchmark.patients=200000
+ * </pre>
+ * Skipped in normal builds.
+ */
+@EnabledIfSystemProperty(named = "benchmark.search", matches = "true")
+class PatientSearchIndexBenchmark {
+
+	private static final int PATIENTS = Integer.getInteger("benchmark.patients", 200_000);
+
+	@Test
+	void searchALargeRegister() {
+		Random random = new Random(42);
+		List<PatientSearchFields> patients = randomRegister(random, PATIENTS);
+		PatientSearchIndex index = new PatientSearchIndex(sink -> patients.forEach(sink));
+		long started = System.nanoTime();
+		index.rebuild();
+		long buildMillis = (System.nanoTime() - started) / 1_000_000;
+
+		String[] queries = queries(patients, random, 100);
+		for (int warmUp = 0; warmUp < 2000; warmUp++) {
+			index.search(queries[warmUp % queries.length], 0, 20);
+		}
+		long[] nanos = new long[1000];
+		for (int i = 0; i < nanos.length; i++) {
+			long start = System.nanoTime();
+			index.search(queries[i % queries.length], 0, 20);
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		double p50 = nanos[nanos.length / 2] / 1e6;
+		double p99 = nanos[nanos.length * 99 / 100] / 1e6;
+		System.out.printf("Search over %d patients: built in %d ms, p50 %.2f ms, p99 %.2f ms%n", PATIENTS, buildMillis, p50, p99);
+	}
+}
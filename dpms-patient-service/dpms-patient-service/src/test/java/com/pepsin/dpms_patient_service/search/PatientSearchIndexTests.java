@@ -0,0 +1,203 @@
+package com.pepsin.dpms_patient_service.search;
+
+import com.pepsin.dpms_patient_service.model.Patient;
+import com.pepsin.dpms_patient_service.model.PatientTombstone;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientSearchIndexTests {
+
+	private static final String[] SYLLABLES = {"ka", "wa", "me", "ko", "fi", "a", "ma", "yaw", "so", "ne", "du", "ba",
+			"te", "ri", "lo", "go", "sa", "pe", "nu", "ja", "mi", "to", "bo", "de", "el", "an", "ro", "li", "va", "zu"};
+	private static final String[] STREETS = {"Road", "Street", "Avenue", "Lane", "Close", "Crescent"};
+
+	@Test
+	void findsPatientsDespiteTypos() {
+		UUID john = UUID.randomUUID();
+		List<PatientSearchFields> patients = List.of(
+				new PatientSearchFields(john, "John", "Smith", "12 Baker Street", "0244123456"),
+				new PatientSearchFields(UUID.randomUUID(), "Joan", "Smythe", "4 Mill Lane", "0201111111"),
+				new PatientSearchFields(UUID.randomUUID(), "Zoë", "Adjei", "7 Ring Road", "0509999999"));
+		PatientSearchIndex index = new PatientSearchIndex(sink -> patients.forEach(sink));
+		index.rebuild();
+
+		PatientSearchIndex.SearchResult result = index.search("Jonh Smiht", 0, 10);
+		assertEquals(john, result.hits().get(0).id());
+		assertEquals(john, index.search("baker street", 0, 10).hits().get(0).id());
+		assertEquals(john, index.search("0244123", 0, 10).hits().get(0).id());
+		// Accents and case don't matter
+		assertEquals("Adjei", index.search("zoe ADJEI", 0, 10).hits().get(0).lastName());
+	}
+
+	@Test
+	void followsCreatesUpdatesAndDeletes() {
+		PatientSearchIndex index = new PatientSearchIndex(sink -> {
+		});
+		index.rebuild();
+		Patient patient = new Patient();
+		patient.setId(UUID.randomUUID());
+		patient.setFirstName("Kwabena");
+		patient.setLastName("Ansah");
+		index.upsert(patient);
+		assertEquals(1, index.search("kwabena", 0, 10).totalMatches());
+
+		patient.setLastName("Yeboah");
+		index.upsert(patient);
+		assertEquals(0, index.search("ansah", 0, 10).totalMatches());
+		assertEquals(1, index.search("yeboah", 0, 10).totalMatches());
+
+		index.remove(patient.getId());
+		assertEquals(0, index.search("kwabena yeboah", 0, 10).totalMatches());
+	}
+
+	@Test
+	void catchesUpWithWritesMadeThroughOtherReplicas() {
+		AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2026-03-01T12:00:00Z"));
+		Clock clock = new Clock() {
+			@Override
+			public ZoneId getZone() {
+				return ZoneOffset.UTC;
+			}
+
+			@Override
+			public Clock withZone(ZoneId zone) {
+				return this;
+			}
+
+			@Override
+			public Instant instant() {
+				return now.get();
+			}
+		};
+		List<Patient> changed = new ArrayList<>();
+		List<PatientTombstone> deleted = new ArrayList<>();
+		PatientSearchIndex.ChangeFeed feed = new PatientSearchIndex.ChangeFeed() {
+			@Override
+			public List<Patient> changed(Instant since, UUID afterId, Instant until, int limit) {
+				return changed.stream().filter(p -> p.getLastModified().isAfter(since) && !p.getLastModified().isAfter(until)).toList();
+			}
+
+			@Override
+			public List<PatientTombstone> deleted(Instant since, UUID afterId, Instant until, int limit) {
+				return deleted.stream().filter(t -> t.getDeletedAt().isAfter(since) && !t.getDeletedAt().isAfter(until)).toList();
+			}
+		};
+		PatientSearchIndex index = new PatientSearchIndex(sink -> {
+		}, feed, Duration.ofSeconds(30), clock);
+		index.rebuild();
+
+		// Saved through another replica five seconds later
+		Patient patient = new Patient();
+		patient.setId(UUID.randomUUID());
+		patient.setFirstName("Ama");
+		patient.setLastName("Owusu");
+		patient.setLastModified(now.get().plusSeconds(5));
+		changed.add(patient);
+		now.set(now.get().plusSeconds(20));
+		index.catchUp();
+		// Still inside the safety lag: it may not be committed yet
+		assertEquals(0, index.search("ama owusu", 0, 10).totalMatches());
+
+		now.set(now.get().plusSeconds(20));
+		index.catchUp();
+		assertEquals(1, index.search("ama owusu", 0, 10).totalMatches());
+
+		PatientTombstone tombstone = new PatientTombstone(patient.getId());
+		tombstone.setDeletedAt(now.get());
+		deleted.add(tombstone);
+		changed.clear();
+		now.set(now.get().plusSeconds(31));
+		index.catchUp();
+		assertEquals(0, index.search("ama owusu", 0, 10).totalMatches());
+	}
+
+	@Test
+	void pagesThroughTheRanking() {
+		List<PatientSearchFields> patients = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			patients.add(new PatientSearchFields(UUID.randomUUID(), "Grace", "Mensah", null, null));
+		}
+		PatientSearchIndex index = new PatientSearchIndex(sink -> patients.forEach(sink));
+		index.rebuild();
+
+		List<UUID> seen = new ArrayList<>();
+		for (int page = 0; page < 3; page++) {
+			index.search("grace mensah", page * 20, 20).hits().forEach(hit -> seen.add(hit.id()));
+		}
+		assertEquals(50, seen.size());
+		assertEquals(50, seen.stream().distinct().count());
+	}
+
+	@Test
+	void findsTypedQueriesInARandomRegister() {
+		Random random = new Random(42);
+		List<PatientSearchFields> patients = randomRegister(random, 5_000);
+		PatientSearchIndex index = new PatientSearchIndex(sink -> patients.forEach(sink));
+		index.rebuild();
+
+		for (String query : queries(patients, random, 100)) {
+			assertTrue(index.search(query, 0, 20).totalMatches() > 0, query);
+		}
+	}
+
+	static List<PatientSearchFields> randomRegister(Random random, int count) {
+		List<PatientSearchFields> patients = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			patients.add(new PatientSearchFields(UUID.randomUUID(), name(random), name(random),
+					random.nextInt(200) + " " + name(random) + " " + STREETS[random.nextInt(STREETS.length)],
+					"02" + (10_000_000 + random.nextInt(90_000_000))));
+		}
+		return patients;
+	}
+
+	// Real patients with one or two letters swapped or dropped, plus a few address and phone searches
+	static String[] queries(List<PatientSearchFields> patients, Random random, int count) {
+		String[] queries = new String[count];
+		for (int q = 0; q < queries.length; q++) {
+			PatientSearchFields patient = patients.get(random.nextInt(patients.size()));
+			queries[q] = switch (q % 4) {
+				case 0 -> typo(patient.firstName(), random) + " " + patient.lastName();
+				case 1 -> patient.firstName() + " " + typo(patient.lastName(), random);
+				case 2 -> patient.address();
+				default -> patient.contactNumber().substring(0, 7);
+			};
+		}
+		return queries;
+	}
+
+	private static String name(Random random) {
+		StringBuilder name = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int s = 0; s < syllables; s++) {
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+		return name.toString();
+	}
+
+	// Swaps two neighbouring letters, the most common typing slip
+	private static String typo(String word, Random random) {
+		if (word.length() < 3) {
+			return word;
+		}
+		int at = 1 + random.nextInt(word.length() - 2);
+		char[] letters = word.toCharArray();
+		char swapped = letters[at];
+		letters[at] = letters[at + 1];
+		letters[at + 1] = swapped;
+		return new String(letters);
+	}
+}
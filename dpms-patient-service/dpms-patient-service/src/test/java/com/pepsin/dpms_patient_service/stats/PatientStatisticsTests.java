@@ -0,0 +1,98 @@
+package com.pepsin.dpms_patient_service.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PatientStatisticsTests {
+
+	private static final int[] BANDS = {0, 18, 65};
+	private static final Clock TODAY = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+
+	@Test
+	void countsByGenderAndAgeBandAsPatientsComeAndGo() {
+		List<PatientCount> table = List.of(
+				new PatientCount("Female", LocalDate.of(2007, 6, 15), 2), // 18 today
+				new PatientCount("Male", LocalDate.of(2007, 6, 16), 1), // 18 tomorrow
+				new PatientCount("female ", LocalDate.of(1960, 6, 15), 1), // 65 today
+				new PatientCount(null, null, 1));
+		PatientStatistics statistics = new PatientStatistics(() -> table, BANDS, TODAY);
+		statistics.rebuild();
+
+		statistics.added("MALE", LocalDate.of(1990, 1, 1));
+		statistics.changed("Female", LocalDate.of(2007, 6, 15), "Female", LocalDate.of(1950, 1, 1));
+		statistics.removed("Male", LocalDate.of(2007, 6, 16));
+
+		PatientStatistics.Snapshot snapshot = statistics.snapshot();
+		assertEquals(5, snapshot.total());
+		assertEquals(Map.of("FEMALE", 3L, "MALE", 1L, "UNKNOWN", 1L), snapshot.byGender());
+		assertEquals(Map.of("0-17", 0L, "18-64", 2L, "65+", 2L, "UNKNOWN", 1L), snapshot.byAgeBand());
+		assertEquals(List.of("0-17", "18-64", "65+", "UNKNOWN"), new ArrayList<>(snapshot.byAgeBand().keySet()));
+		assertEquals(TODAY.instant(), snapshot.lastRebuiltAt());
+	}
+
+	@Test
+	void countsOnlyCommittedWrites() {
+		PatientStatistics statistics = new PatientStatistics(List::of, BANDS, TODAY);
+		statistics.rebuild();
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			statistics.added("Female", LocalDate.of(1990, 1, 1));
+			assertEquals(0, statistics.snapshot().total());
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(1, statistics.snapshot().total());
+
+		// Rolled back (or lost a race at commit): afterCommit never runs
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			statistics.removed("Female", LocalDate.of(1990, 1, 1));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(1, statistics.snapshot().total());
+	}
+
+	@Test
+	void writesDuringARebuildAreNotLost() throws Exception {
+		PatientStatistics[] self = new PatientStatistics[1];
+		// The "database" already holds 100 patients; 1000 more are added while it is being read
+		PatientStatistics statistics = new PatientStatistics(() -> {
+			for (int i = 0; i < 1000; i++) {
+				self[0].added("Female", LocalDate.of(2000, 1, 1));
+			}
+			return List.of(new PatientCount("Female", LocalDate.of(2000, 1, 1), 100));
+		}, BANDS, TODAY);
+		self[0] = statistics;
+		statistics.rebuild();
+		assertEquals(1100, statistics.snapshot().total());
+
+		try (ExecutorService pool = Executors.newFixedThreadPool(4)) {
+			for (int t = 0; t < 4; t++) {
+				pool.submit(() -> {
+					for (int i = 0; i < 10_000; i++) {
+						statistics.added("Male", LocalDate.of(1980, 1, 1));
+						statistics.removed("Male", LocalDate.of(1980, 1, 1));
+					}
+				});
+			}
+		}
+		assertEquals(1100, statistics.snapshot().total());
+		assertEquals(Map.of("FEMALE", 1100L), statistics.snapshot().byGender());
+	}
+}